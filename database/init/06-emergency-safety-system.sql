@@ -185,6 +185,8 @@ CREATE TABLE IF NOT EXISTS emergency_incidents (
     -- Location Information
     incident_latitude DECIMAL(10, 8),
     incident_longitude DECIMAL(11, 8),
+    incident_geohash VARCHAR(12), -- Precision 9 (~5m)
+    incident_geohash_cell VARCHAR(5), -- Partition cell (~4.9km)
     incident_address TEXT,
     incident_country_code VARCHAR(3),
     incident_city VARCHAR(100),
@@ -243,11 +245,72 @@ CREATE TABLE IF NOT EXISTS emergency_incidents (
     INDEX idx_emergency_incidents_status (status),
     INDEX idx_emergency_incidents_severity (severity_assessment),
     INDEX idx_emergency_incidents_location (incident_latitude, incident_longitude),
+    INDEX idx_emergency_incidents_geocell (incident_geohash_cell, reported_at),
     INDEX idx_emergency_incidents_time (reported_at DESC),
     INDEX idx_emergency_incidents_ride (ride_id),
     INDEX idx_emergency_incidents_type (incident_type_id)
 );
 
+-- Mevcut kurulumlar için geohash kolonları ve geriye dönük doldurma
+-- (Java tarafındaki GeoHash.encode ile aynı kodlama)
+CREATE OR REPLACE FUNCTION encode_geohash(lat DOUBLE PRECISION, lng DOUBLE PRECISION, hash_precision INTEGER)
+RETURNS VARCHAR AS $$
+DECLARE
+    base32 CONSTANT TEXT := '0123456789bcdefghjkmnpqrstuvwxyz';
+    min_lat DOUBLE PRECISION := -90;
+    max_lat DOUBLE PRECISION := 90;
+    min_lng DOUBLE PRECISION := -180;
+    max_lng DOUBLE PRECISION := 180;
+    mid DOUBLE PRECISION;
+    even_bit BOOLEAN := TRUE;
+    bit_count INTEGER := 0;
+    ch INTEGER := 0;
+    hash TEXT := '';
+BEGIN
+    WHILE length(hash) < hash_precision LOOP
+        IF even_bit THEN
+            mid := (min_lng + max_lng) / 2;
+            IF lng >= mid THEN
+                ch := ch * 2 + 1;
+                min_lng := mid;
+            ELSE
+                ch := ch * 2;
+                max_lng := mid;
+            END IF;
+        ELSE
+            mid := (min_lat + max_lat) / 2;
+            IF lat >= mid THEN
+                ch := ch * 2 + 1;
+                min_lat := mid;
+            ELSE
+                ch := ch * 2;
+                max_lat := mid;
+            END IF;
+        END IF;
+        even_bit := NOT even_bit;
+        bit_count := bit_count + 1;
+        IF bit_count = 5 THEN
+            hash := hash || substr(base32, ch + 1, 1);
+            bit_count := 0;
+            ch := 0;
+        END IF;
+    END LOOP;
+    RETURN hash;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+ALTER TABLE emergency_incidents ADD COLUMN IF NOT EXISTS incident_geohash VARCHAR(12);
+ALTER TABLE emergency_incidents ADD COLUMN IF NOT EXISTS incident_geohash_cell VARCHAR(5);
+
+UPDATE emergency_incidents
+SET incident_geohash = encode_geohash(incident_latitude, incident_longitude, 9),
+    incident_geohash_cell = encode_geohash(incident_latitude, incident_longitude, 5)
+WHERE incident_geohash IS NULL
+  AND incident_latitude IS NOT NULL
+  AND incident_longitude IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_emergency_incidents_geocell ON emergency_incidents (incident_geohash_cell, reported_at);
+
 -- =============================================================================
 -- EMERGENCY RESPONSES - Acil Durum Müdahaleleri
 -- =============================================================================
@@ -347,6 +410,35 @@ CREATE TABLE IF NOT EXISTS emergency_location_tracking (
     INDEX idx_emergency_location_sharing (sharing_expires_at)
 );
 
+-- =============================================================================
+-- EMERGENCY LOCATION BREADCRUMBS - Sıkıştırılmış Konum İzi (toplu yazım)
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS emergency_location_breadcrumbs (
+    id BIGSERIAL PRIMARY KEY,
+    
+    incident_id VARCHAR(64) NOT NULL,
+    session_id VARCHAR(64),
+    
+    -- Segment Range
+    first_sequence BIGINT NOT NULL,
+    point_count INTEGER NOT NULL,
+    first_recorded_at TIMESTAMP NOT NULL,
+    last_recorded_at TIMESTAMP NOT NULL,
+    
+    -- Last Known Position (for quick lookups without decoding)
+    last_latitude DECIMAL(10, 8),
+    last_longitude DECIMAL(11, 8),
+    
+    -- Delta + zigzag varint encoded, deflate compressed (lat/lng 1e-7, time ms, accuracy dm)
+    encoded_path BYTEA NOT NULL,
+    
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    INDEX idx_emergency_breadcrumbs_incident (incident_id, first_sequence),
+    INDEX idx_emergency_breadcrumbs_time (created_at DESC)
+);
+
 -- =============================================================================
 -- EMERGENCY COMMUNICATION LOG - Acil Durum İletişim Kayıtları
 -- =============================================================================
@@ -463,6 +555,53 @@ CREATE TABLE IF NOT EXISTS emergency_settings (
     INDEX idx_emergency_settings_driver (driver_id)
 );
 
+-- =============================================================================
+-- EMERGENCY OUTBOX EVENTS - Transactional Outbox (Kafka emergency-events)
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS emergency_outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    
+    -- Routing
+    aggregate_id VARCHAR(64) NOT NULL, -- Incident ID, used as Kafka key
+    event_type VARCHAR(50) NOT NULL, -- SOS_TRIGGERED, STATUS_CHANGED, etc.
+    topic VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    
+    -- Relay State
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'PUBLISHED', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP,
+    
+    INDEX idx_emergency_outbox_pending (status, id),
+    INDEX idx_emergency_outbox_aggregate (aggregate_id, id),
+    INDEX idx_emergency_outbox_published (published_at)
+);
+
+-- =============================================================================
+-- EMERGENCY ESCALATION TIMERS - Kalıcı Eskalasyon Zamanlayıcıları (timing wheel)
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS emergency_escalation_timers (
+    id BIGSERIAL PRIMARY KEY,
+    
+    incident_id VARCHAR(64) NOT NULL,
+    timer_type VARCHAR(30) NOT NULL CHECK (timer_type IN ('LEVEL_1', 'LEVEL_2', 'LEVEL_3', 'EXECUTIVE')),
+    due_at TIMESTAMP NOT NULL,
+    
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'FIRED', 'CANCELLED')),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    fired_at TIMESTAMP,
+    cancelled_at TIMESTAMP,
+    
+    CONSTRAINT uk_emergency_escalation_timer UNIQUE (incident_id, timer_type),
+    INDEX idx_emergency_escalation_due (status, due_at),
+    INDEX idx_emergency_escalation_incident (incident_id, status)
+);
+
 -- =============================================================================
 -- TRIGGERS FOR AUTOMATIC UPDATES
 -- =============================================================================
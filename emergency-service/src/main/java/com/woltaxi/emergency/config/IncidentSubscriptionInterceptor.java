@@ -0,0 +1,72 @@
+package com.woltaxi.emergency.config;
+
+import com.woltaxi.emergency.service.location.LocationStreamAccessPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incident Subscription Interceptor - STOMP Abonelik Yetkilendirmesi
+ * - Kimliği doğrulanmamış bağlantılar reddedilir
+ * - /topic/emergency/{incidentId}/location ve /app/emergency/{incidentId}/trail
+ *   abonelikleri olay erişimine göre kontrol edilir
+ * - Diğer hedeflere abonelik (joker karakterli desenler dahil) ve istemcilerin
+ *   /topic'e doğrudan mesaj göndermesi engellenir
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IncidentSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final Pattern INCIDENT_DESTINATION =
+            Pattern.compile("^/(?:topic/emergency/(\\d+)/location|app/emergency/(\\d+)/trail)$");
+
+    private final LocationStreamAccessPolicy accessPolicy;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        Principal user = accessor.getUser();
+        StompCommand command = accessor.getCommand();
+
+        if (command == StompCommand.CONNECT && user == null) {
+            throw new AccessDeniedException("Authentication required");
+        }
+
+        if (command == StompCommand.SUBSCRIBE) {
+            String destination = accessor.getDestination();
+            Matcher matcher = destination != null ? INCIDENT_DESTINATION.matcher(destination) : null;
+            if (matcher == null || !matcher.matches()) {
+                throw new AccessDeniedException("Subscription not allowed: " + destination);
+            }
+            String incidentId = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            if (!accessPolicy.canFollow(user, incidentId)) {
+                log.warn("Denied location subscription to incident: {} for user: {}",
+                        incidentId, user != null ? user.getName() : null);
+                throw new AccessDeniedException("Not allowed to follow incident: " + incidentId);
+            }
+        }
+
+        if (command == StompCommand.SEND && accessor.getDestination() != null
+                && accessor.getDestination().startsWith("/topic")) {
+            throw new AccessDeniedException("Clients cannot publish to broker destinations");
+        }
+
+        return message;
+    }
+}
@@ -0,0 +1,79 @@
+package com.woltaxi.emergency.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * WOLTAXI Emergency WebSocket Configuration
+ *
+ * Features:
+ * - STOMP endpoint for operator consoles and emergency contacts
+ * - In-memory broker for /topic/emergency/** destinations
+ * - Heartbeats so dead subscribers are detected quickly
+ * - Subscriptions authorized per incident (IncidentSubscriptionInterceptor)
+ *
+ * Destinations:
+ * - /topic/emergency/{incidentId}/location  → live location frames
+ * - /app/emergency/{incidentId}/trail        → recent breadcrumb trail on subscribe
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final IncidentSubscriptionInterceptor subscriptionInterceptor;
+
+    @Value("${spring.websocket.allowed-origins:https://woltaxi.com,https://*.woltaxi.com}")
+    private String allowedOrigins;
+
+    @Value("${spring.websocket.heartbeat-time:10000}")
+    private long heartbeatMs;
+
+    @Value("${spring.websocket.registry-timeout:30000}")
+    private int sendTimeLimitMs;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws/emergency")
+                .setAllowedOriginPatterns(allowedOrigins.split(","));
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(subscriptionInterceptor);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(heartbeatScheduler());
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Yavaş bir abone diğerlerini bekletmesin
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(512 * 1024);
+    }
+
+    /**
+     * Bean olarak tanımlanmaz; @Scheduled görevlerinin varsayılan scheduler'ını ezmemesi için
+     */
+    private ThreadPoolTaskScheduler heartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ws-heartbeat-");
+        scheduler.initialize();
+        return scheduler;
+    }
+}
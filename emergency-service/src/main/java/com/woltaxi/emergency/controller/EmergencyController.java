@@ -246,16 +246,17 @@ public class EmergencyController {
 
     @PutMapping("/incidents/{incidentId}/status")
     @Operation(summary = "Olay Durumu Güncelle", 
-               description = "Acil durum olayının durumunu güncelleme")
+               description = "Acil durum olayının durumunu güncelleme. Olay ID'si sayısaldır; yeni durum "
+                       + "(IncidentStatus) ve çözüm notları JSON gövde yerine query parametresi olarak alınır")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMERGENCY_OPERATOR')")
-    public ResponseEntity<EmergencyIncidentDTO> updateIncidentStatus(
-            @Parameter(description = "Olay ID") @PathVariable UUID incidentId,
-            @Valid @RequestBody IncidentStatusUpdateDTO statusUpdate) {
+    public ResponseEntity<EmergencyIncidentDto> updateIncidentStatus(
+            @Parameter(description = "Olay ID") @PathVariable Long incidentId,
+            @Parameter(description = "Yeni durum") @RequestParam EmergencyIncident.IncidentStatus status,
+            @Parameter(description = "Çözüm notları") @RequestParam(required = false) String notes) {
         
-        log.info("📝 Updating incident status - ID: {}, New Status: {}", 
-                incidentId, statusUpdate.getNewStatus());
+        log.info("📝 Updating incident status - ID: {}, New Status: {}", incidentId, status);
         
-        EmergencyIncidentDTO incident = emergencyService.updateIncidentStatus(incidentId, statusUpdate);
+        EmergencyIncidentDto incident = emergencyService.updateIncidentStatus(incidentId, status, notes);
         
         return ResponseEntity.ok(incident);
     }
@@ -0,0 +1,30 @@
+package com.woltaxi.emergency.controller;
+
+import com.woltaxi.emergency.service.location.EmergencyLocationStreamService;
+import com.woltaxi.emergency.service.location.LocationFrame;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+/**
+ * Emergency Location Stream Controller
+ * STOMP abonelikleri için - canlı konumlar /topic/emergency/{incidentId}/location
+ * üzerinden yayınlanır, bu controller yeni aboneye son izi tek seferde döner.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class EmergencyLocationStreamController {
+
+    private final EmergencyLocationStreamService locationStreamService;
+
+    @SubscribeMapping("/emergency/{incidentId}/trail")
+    public List<LocationFrame> recentTrail(@DestinationVariable String incidentId) {
+        log.debug("Trail requested by subscriber for incident: {}", incidentId);
+        return locationStreamService.getRecentTrail(incidentId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.woltaxi.emergency.controller;
+
+import com.woltaxi.emergency.service.geo.IncidentGeoSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incident Geo Search Controller
+ * Isı haritası ve yakın olay sorguları - geohash bölümlü arama
+ */
+@RestController
+@RequestMapping("/api/v1/emergency/geo")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@Tag(name = "Emergency Geo Search", description = "Olay ısı haritası ve yakın olay arama API'leri")
+public class IncidentGeoSearchController {
+
+    private final IncidentGeoSearchService geoSearchService;
+
+    @GetMapping("/heatmap")
+    @Operation(summary = "Olay Isı Haritası",
+               description = "Sınır kutusu ve zaman penceresi için geohash hücresi başına olay sayısı")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMERGENCY_OPERATOR', 'MANAGER')")
+    public ResponseEntity<Map<String, Long>> getHeatmap(
+            @RequestParam @Min(-90) @Max(90) double minLat,
+            @RequestParam @Min(-90) @Max(90) double maxLat,
+            @RequestParam @Min(-180) @Max(180) double minLng,
+            @RequestParam @Min(-180) @Max(180) double maxLng,
+            @Parameter(description = "Başlangıç (varsayılan: son 24 saat)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Geohash hassasiyeti (5-9)")
+            @RequestParam(defaultValue = "6") @Min(5) @Max(9) int precision) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        return ResponseEntity.ok(geoSearchService.heatmap(minLat, maxLat, minLng, maxLng, start, end, precision));
+    }
+
+    @GetMapping("/nearby")
+    @Operation(summary = "Yakın Olaylar",
+               description = "Verilen noktanın yarıçapı içindeki olaylar, yakından uzağa")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMERGENCY_OPERATOR', 'MANAGER')")
+    public ResponseEntity<List<IncidentGeoSearchService.GeoIncident>> getNearbyIncidents(
+            @RequestParam @Min(-90) @Max(90) double latitude,
+            @RequestParam @Min(-180) @Max(180) double longitude,
+            @RequestParam(defaultValue = "1000") @Min(1) @Max(50000) double radiusMeters,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        return ResponseEntity.ok(geoSearchService.findNearby(latitude, longitude, radiusMeters, start, end));
+    }
+
+    /**
+     * Geçersiz veya çok büyük arama alanı - 400
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidArea(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.woltaxi.emergency.controller;
+
+import com.woltaxi.emergency.service.dashboard.DashboardStreamService;
+import com.woltaxi.emergency.service.dashboard.OperatorDashboardProjection;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Operator Dashboard Controller
+ * Bellek içi projeksiyondan anlık görüntü ve SSE delta akışı
+ */
+@RestController
+@RequestMapping("/api/v1/emergency/dashboard")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Emergency Operator Dashboard", description = "Operatör konsolu için gerçek zamanlı pano API'leri")
+public class OperatorDashboardController {
+
+    private final OperatorDashboardProjection projection;
+    private final DashboardStreamService streamService;
+
+    @GetMapping("/snapshot")
+    @Operation(summary = "Pano Anlık Görüntüsü",
+               description = "Aktif olaylar ve durum/öncelik/şehir/operatör sayaçları")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMERGENCY_OPERATOR', 'MANAGER')")
+    public ResponseEntity<OperatorDashboardProjection.DashboardSnapshot> getSnapshot() {
+        return ResponseEntity.ok(projection.snapshot());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Pano Delta Akışı",
+               description = "SSE - önce snapshot (veya kaçırılan deltalar), ardından canlı deltalar")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMERGENCY_OPERATOR', 'MANAGER')")
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.debug("Dashboard stream subscription, last event id: {}", lastEventId);
+        return streamService.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,82 @@
+package com.woltaxi.emergency.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acil Durum Eskalasyon Zamanlayıcıları
+ * Bellek içi timing wheel'in kalıcı kopyası; yeniden başlatma ve node kaybında
+ * bekleyen zamanlayıcılar buradan geri yüklenir
+ */
+@Entity
+@Table(name = "emergency_escalation_timers",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_emergency_escalation_timer", columnNames = {"incident_id", "timer_type"})
+       },
+       indexes = {
+           @Index(name = "idx_emergency_escalation_due", columnList = "status, due_at"),
+           @Index(name = "idx_emergency_escalation_incident", columnList = "incident_id, status")
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmergencyEscalationTimer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Size(max = 64)
+    @Column(name = "incident_id", nullable = false, length = 64)
+    private String incidentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "timer_type", nullable = false, length = 30)
+    private TimerType timerType;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private TimerStatus status = TimerStatus.PENDING;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "fired_at")
+    private LocalDateTime firedAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+
+    // Enums
+    public enum TimerType {
+        LEVEL_1,            // Acil durum ekibi
+        LEVEL_2,            // Operasyon müdürü
+        LEVEL_3,            // Son seviye (CTO)
+        EXECUTIVE           // Yönetim bildirimi
+    }
+
+    public enum TimerStatus {
+        PENDING,            // Zamanı bekleniyor
+        FIRED,              // Eskalasyon tetiklendi
+        CANCELLED           // Olay onaylandı/çözüldü
+    }
+
+    // Helper Methods
+    public boolean isPending() {
+        return status == TimerStatus.PENDING;
+    }
+}
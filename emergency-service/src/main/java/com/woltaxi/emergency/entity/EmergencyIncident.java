@@ -2,6 +2,7 @@ package com.woltaxi.emergency.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import com.woltaxi.emergency.util.GeoHash;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,6 +26,7 @@ import java.util.UUID;
            @Index(name = "idx_emergency_incidents_status", columnList = "status"),
            @Index(name = "idx_emergency_incidents_severity", columnList = "severity_assessment"),
            @Index(name = "idx_emergency_incidents_location", columnList = "incident_latitude, incident_longitude"),
+           @Index(name = "idx_emergency_incidents_geocell", columnList = "incident_geohash_cell, reported_at"),
            @Index(name = "idx_emergency_incidents_time", columnList = "reported_at DESC"),
            @Index(name = "idx_emergency_incidents_ride", columnList = "ride_id"),
            @Index(name = "idx_emergency_incidents_type", columnList = "incident_type_id")
@@ -36,6 +38,9 @@ import java.util.UUID;
 @AllArgsConstructor
 public class EmergencyIncident {
 
+    public static final int GEOHASH_CELL_PRECISION = 5;
+    public static final int GEOHASH_PRECISION = 9;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -86,6 +91,13 @@ public class EmergencyIncident {
     @Column(name = "incident_longitude", precision = 11, scale = 8)
     private BigDecimal incidentLongitude;
 
+    // Geohash bölümleme - hücre (5 karakter, ~4.9km) + tam hash (9 karakter, ~5m)
+    @Column(name = "incident_geohash", length = 12)
+    private String incidentGeohash;
+
+    @Column(name = "incident_geohash_cell", length = GEOHASH_CELL_PRECISION)
+    private String incidentGeohashCell;
+
     @Column(name = "incident_address", columnDefinition = "TEXT")
     private String incidentAddress;
 
@@ -238,6 +250,20 @@ public class EmergencyIncident {
         CANCELLED           // İptal edildi
     }
 
+    // Lifecycle
+    @PrePersist
+    @PreUpdate
+    void assignGeohash() {
+        if (hasLocation()) {
+            incidentGeohash = GeoHash.encode(incidentLatitude.doubleValue(), incidentLongitude.doubleValue(),
+                    GEOHASH_PRECISION);
+            incidentGeohashCell = incidentGeohash.substring(0, GEOHASH_CELL_PRECISION);
+        } else {
+            incidentGeohash = null;
+            incidentGeohashCell = null;
+        }
+    }
+
     // Helper Methods
     public boolean isActive() {
         return status == IncidentStatus.REPORTED || 
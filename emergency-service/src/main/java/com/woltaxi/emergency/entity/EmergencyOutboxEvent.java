@@ -0,0 +1,88 @@
+package com.woltaxi.emergency.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acil Durum Outbox Kayıtları
+ * Olay ile aynı transaction içinde yazılır, relay tarafından Kafka'ya aktarılır
+ */
+@Entity
+@Table(name = "emergency_outbox_events",
+       indexes = {
+           @Index(name = "idx_emergency_outbox_pending", columnList = "status, id"),
+           @Index(name = "idx_emergency_outbox_aggregate", columnList = "aggregate_id, id"),
+           @Index(name = "idx_emergency_outbox_published", columnList = "published_at")
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmergencyOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Kafka key - aynı olaya ait eventler aynı partition'a düşer
+    @NotBlank
+    @Size(max = 64)
+    @Column(name = "aggregate_id", nullable = false, length = 64)
+    private String aggregateId;
+
+    @NotBlank
+    @Size(max = 50)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(name = "topic", nullable = false, length = 100)
+    private String topic;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "jsonb")
+    private String payload;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // Enums
+    public enum OutboxStatus {
+        PENDING,            // Yayınlanmayı bekliyor
+        PUBLISHED,          // Kafka tarafından onaylandı
+        FAILED              // Maksimum deneme sayısı aşıldı
+    }
+
+    // Helper Methods
+    public boolean isPending() {
+        return status == OutboxStatus.PENDING;
+    }
+
+    public long getAgeMillis() {
+        if (createdAt == null) return 0L;
+        return java.time.Duration.between(createdAt, LocalDateTime.now()).toMillis();
+    }
+}
@@ -0,0 +1,75 @@
+package com.woltaxi.emergency.repository;
+
+import com.woltaxi.emergency.entity.EmergencyEscalationTimer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Emergency Escalation Timer Repository - Eskalasyon Zamanlayıcı Veri Erişim Katmanı
+ * Bu interface, emergency_escalation_timers tablosu için zamanlayıcı operasyonlarını sağlar
+ */
+@Repository
+public interface EmergencyEscalationTimerRepository extends JpaRepository<EmergencyEscalationTimer, Long> {
+
+    /**
+     * Bekleyen zamanlayıcılar - başlangıçta timing wheel'e geri yükleme için
+     */
+    List<EmergencyEscalationTimer> findByStatus(EmergencyEscalationTimer.TimerStatus status);
+
+    /**
+     * Olayın tüm zamanlayıcıları (her seviye için olay başına tek kayıt)
+     */
+    List<EmergencyEscalationTimer> findByIncidentId(String incidentId);
+
+    /**
+     * Olayın bekleyen zamanlayıcıları
+     */
+    List<EmergencyEscalationTimer> findByIncidentIdAndStatus(String incidentId,
+                                                             EmergencyEscalationTimer.TimerStatus status);
+
+    /**
+     * Seviye zamanlayıcısını yoksa ekle - eşzamanlı geçişlerde (incident_id, timer_type)
+     * tekilliği çakışma hatası yerine sessizce korunur
+     */
+    @Modifying
+    @Query(value = "INSERT INTO emergency_escalation_timers (incident_id, timer_type, due_at, status, created_at) " +
+                   "VALUES (:incidentId, :timerType, :dueAt, 'PENDING', :createdAt) " +
+                   "ON CONFLICT (incident_id, timer_type) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("incidentId") String incidentId,
+                       @Param("timerType") String timerType,
+                       @Param("dueAt") LocalDateTime dueAt,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Vadesi belirli bir süre önce geçmiş ama tetiklenmemiş zamanlayıcılar
+     * (sahibi node düşmüş olabilir) - (status, due_at) indeksi ile
+     */
+    @Query("SELECT t FROM EmergencyEscalationTimer t WHERE t.status = 'PENDING' AND t.dueAt < :threshold " +
+           "ORDER BY t.dueAt ASC")
+    List<EmergencyEscalationTimer> findOverduePending(@Param("threshold") LocalDateTime threshold);
+
+    /**
+     * Zamanlayıcıyı tetiklemek için sahiplen - yalnızca bir node başarılı olur
+     */
+    @Modifying
+    @Query("UPDATE EmergencyEscalationTimer t SET t.status = 'FIRED', t.firedAt = :firedAt " +
+           "WHERE t.id = :id AND t.status = 'PENDING'")
+    int claimForFiring(@Param("id") Long id, @Param("firedAt") LocalDateTime firedAt);
+
+    /**
+     * Olayın bekleyen zamanlayıcılarını iptal et
+     */
+    @Modifying
+    @Query("UPDATE EmergencyEscalationTimer t SET t.status = 'CANCELLED', t.cancelledAt = :cancelledAt " +
+           "WHERE t.incidentId = :incidentId AND t.status = 'PENDING' AND t.timerType IN :types")
+    int cancelPending(@Param("incidentId") String incidentId,
+                      @Param("types") Collection<EmergencyEscalationTimer.TimerType> types,
+                      @Param("cancelledAt") LocalDateTime cancelledAt);
+}
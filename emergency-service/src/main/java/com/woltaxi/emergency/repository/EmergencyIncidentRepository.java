@@ -1,14 +1,17 @@
 package com.woltaxi.emergency.repository;
 
 import com.woltaxi.emergency.entity.EmergencyIncident;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,9 +60,16 @@ public interface EmergencyIncidentRepository extends JpaRepository<EmergencyInci
     /**
      * Aktif acil durum olaylarını al
      */
-    @Query("SELECT e FROM EmergencyIncident e WHERE e.status IN ('ACTIVE', 'ACKNOWLEDGED', 'IN_PROGRESS') ORDER BY e.createdAt DESC")
+    @Query("SELECT e FROM EmergencyIncident e WHERE e.status IN ('REPORTED', 'ACKNOWLEDGED', 'DISPATCHED', 'IN_PROGRESS') ORDER BY e.createdAt DESC")
     List<EmergencyIncident> findActiveIncidents();
 
+    /**
+     * Durum geçişi için olayı satır kilidi ile al
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EmergencyIncident e WHERE e.id = :id")
+    Optional<EmergencyIncident> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Belirli tarih aralığındaki acil durum olaylarını al
      */
@@ -111,13 +121,63 @@ public interface EmergencyIncidentRepository extends JpaRepository<EmergencyInci
 
     /**
      * Belirli bölgedeki acil durum olaylarını al (koordinat aralığı)
+     * @deprecated Mekansal indeks kullanmaz; IncidentGeoSearchService veya findInGeohashCells kullanın
      */
+    @Deprecated
     @Query("SELECT e FROM EmergencyIncident e WHERE e.latitude BETWEEN :minLat AND :maxLat AND e.longitude BETWEEN :minLng AND :maxLng ORDER BY e.createdAt DESC")
     List<EmergencyIncident> findByLocationBounds(@Param("minLat") Double minLatitude,
                                                @Param("maxLat") Double maxLatitude,
                                                @Param("minLng") Double minLongitude,
                                                @Param("maxLng") Double maxLongitude);
 
+    /**
+     * Geohash hücrelerindeki olaylar - (hücre, zaman) indeksi ile bölüm bazlı tarama,
+     * ardından kesin sınır filtresi
+     */
+    @Query(value = "SELECT * FROM emergency_incidents e " +
+            "WHERE e.incident_geohash_cell IN (:cells) " +
+            "AND e.reported_at >= :from AND e.reported_at < :to " +
+            "AND e.incident_latitude BETWEEN :minLat AND :maxLat " +
+            "AND e.incident_longitude BETWEEN :minLng AND :maxLng " +
+            "ORDER BY e.reported_at DESC LIMIT :limit", nativeQuery = true)
+    List<EmergencyIncident> findInGeohashCells(@Param("cells") Collection<String> cells,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("minLat") double minLatitude,
+                                               @Param("maxLat") double maxLatitude,
+                                               @Param("minLng") double minLongitude,
+                                               @Param("maxLng") double maxLongitude,
+                                               @Param("limit") int limit);
+
+    /**
+     * Isı haritası - verilen geohash hassasiyetinde hücre başına olay sayısı
+     * Satır: [hücre, adet]
+     */
+    @Query(value = "SELECT LEFT(e.incident_geohash, :precision) AS cell, COUNT(*) AS incidents " +
+            "FROM emergency_incidents e " +
+            "WHERE e.incident_geohash_cell IN (:cells) " +
+            "AND e.reported_at >= :from AND e.reported_at < :to " +
+            "AND e.incident_latitude BETWEEN :minLat AND :maxLat " +
+            "AND e.incident_longitude BETWEEN :minLng AND :maxLng " +
+            "GROUP BY cell", nativeQuery = true)
+    List<Object[]> aggregateHeatmap(@Param("cells") Collection<String> cells,
+                                    @Param("precision") int precision,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("minLat") double minLatitude,
+                                    @Param("maxLat") double maxLatitude,
+                                    @Param("minLng") double minLongitude,
+                                    @Param("maxLng") double maxLongitude);
+
+    /**
+     * Bellek içi grid'in başlangıç yüklemesi için son olaylar
+     * Satır: [id, enlem, boylam, geohash, reported_at]
+     */
+    @Query(value = "SELECT e.id, e.incident_latitude, e.incident_longitude, e.incident_geohash, e.reported_at " +
+            "FROM emergency_incidents e " +
+            "WHERE e.reported_at >= :since AND e.incident_geohash IS NOT NULL", nativeQuery = true)
+    List<Object[]> findRecentGeoPoints(@Param("since") LocalDateTime since);
+
     /**
      * Belirli şehirdeki acil durum olaylarını al
      */
@@ -0,0 +1,68 @@
+package com.woltaxi.emergency.repository;
+
+import com.woltaxi.emergency.entity.EmergencyOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Emergency Outbox Repository - Outbox Veri Erişim Katmanı
+ * Bu interface, emergency_outbox_events tablosu için relay operasyonlarını sağlar
+ */
+@Repository
+public interface EmergencyOutboxEventRepository extends JpaRepository<EmergencyOutboxEvent, Long> {
+
+    /**
+     * Cluster genelinde tek relay kilidi; çevreleyen transaction bitene kadar tutulur
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    boolean tryRelayLock(@Param("lockKey") long lockKey);
+
+    /**
+     * Yayınlanmayı bekleyen eventleri sırayla kilitleyerek al
+     * Yalnızca relay kilidini tutan node çağırır; SKIP LOCKED elle yapılan
+     * güncellemelerde beklemeyi önler
+     */
+    @Query(value = "SELECT * FROM emergency_outbox_events WHERE status = 'PENDING' " +
+                   "ORDER BY id ASC LIMIT :batchSize FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmergencyOutboxEvent> lockPendingBatch(@Param("batchSize") int batchSize);
+
+    /**
+     * Yayınlanan eventleri toplu işaretle
+     */
+    @Modifying
+    @Query("UPDATE EmergencyOutboxEvent e SET e.status = 'PUBLISHED', e.publishedAt = :publishedAt, " +
+           "e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * En eski bekleyen eventin oluşturulma zamanı (lag metriği için)
+     */
+    @Query("SELECT MIN(e.createdAt) FROM EmergencyOutboxEvent e WHERE e.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    /**
+     * En büyük outbox event id'si (pano senkronizasyon sınırı)
+     */
+    @Query("SELECT MAX(e.id) FROM EmergencyOutboxEvent e")
+    Long findMaxId();
+
+    /**
+     * Bekleyen event sayısı
+     */
+    long countByStatus(EmergencyOutboxEvent.OutboxStatus status);
+
+    /**
+     * Saklama süresi dolan yayınlanmış eventleri temizle
+     */
+    @Modifying
+    @Query("DELETE FROM EmergencyOutboxEvent e WHERE e.status = 'PUBLISHED' AND e.publishedAt < :threshold")
+    int deletePublishedBefore(@Param("threshold") LocalDateTime threshold);
+}
@@ -4,6 +4,7 @@ import com.woltaxi.emergency.dto.EmergencyContactDto;
 import com.woltaxi.emergency.entity.EmergencyContact;
 import com.woltaxi.emergency.repository.EmergencyContactRepository;
 import com.woltaxi.emergency.mapper.EmergencyContactMapper;
+import com.woltaxi.emergency.service.contact.EmergencyContactResolutionCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -27,6 +28,7 @@ public class EmergencyContactService {
 
     private final EmergencyContactRepository contactRepository;
     private final EmergencyContactMapper contactMapper;
+    private final EmergencyContactResolutionCache resolutionCache;
 
     /**
      * Yeni acil durum iletişim kişisi ekle
@@ -44,6 +46,7 @@ public class EmergencyContactService {
         // Entity'ye dönüştür ve kaydet
         EmergencyContact contact = contactMapper.toEntity(contactDto);
         EmergencyContact savedContact = contactRepository.save(contact);
+        resolutionCache.invalidate(contactDto.getUserId());
         
         log.info("Emergency contact added with ID: {}", savedContact.getId());
         return contactMapper.toDto(savedContact);
@@ -64,6 +67,7 @@ public class EmergencyContactService {
         existingContact.setUpdatedAt(LocalDateTime.now());
         
         EmergencyContact updatedContact = contactRepository.save(existingContact);
+        resolutionCache.invalidate(existingContact.getUserId());
         
         log.info("Emergency contact updated: {}", contactId);
         return contactMapper.toDto(updatedContact);
@@ -76,11 +80,11 @@ public class EmergencyContactService {
     public void deleteEmergencyContact(String contactId) {
         log.info("Deleting emergency contact: {}", contactId);
         
-        if (!contactRepository.existsById(contactId)) {
-            throw new RuntimeException("Emergency contact not found: " + contactId);
-        }
+        EmergencyContact contact = contactRepository.findById(contactId)
+                .orElseThrow(() -> new RuntimeException("Emergency contact not found: " + contactId));
         
-        contactRepository.deleteById(contactId);
+        contactRepository.delete(contact);
+        resolutionCache.invalidate(contact.getUserId());
         log.info("Emergency contact deleted: {}", contactId);
     }
 
@@ -144,6 +148,7 @@ public class EmergencyContactService {
         contact.setUpdatedAt(LocalDateTime.now());
         
         contactRepository.save(contact);
+        resolutionCache.invalidate(contact.getUserId());
         log.info("Verification status updated for contact: {}", contactId);
     }
 
@@ -161,6 +166,7 @@ public class EmergencyContactService {
         contact.setUpdatedAt(LocalDateTime.now());
         
         contactRepository.save(contact);
+        resolutionCache.invalidate(contact.getUserId());
         log.info("Contact status toggled for: {}", contactId);
     }
 
@@ -178,6 +184,7 @@ public class EmergencyContactService {
         contact.setUpdatedAt(LocalDateTime.now());
         
         contactRepository.save(contact);
+        resolutionCache.invalidate(contact.getUserId());
         log.info("Priority updated for contact: {}", contactId);
     }
 
@@ -275,6 +282,8 @@ public class EmergencyContactService {
             }
         }
         
+        // Aynı transaction içindeki tekil invalidate çağrıları commit sonrası tek yeniden hesaplamaya indirgenir
+        resolutionCache.invalidate(userId);
         log.info("Bulk update completed for user: {}", userId);
     }
 
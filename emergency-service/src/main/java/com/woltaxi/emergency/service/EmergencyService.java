@@ -5,14 +5,19 @@ import com.woltaxi.emergency.dto.request.SosTriggerRequestDto;
 import com.woltaxi.emergency.dto.response.EmergencyResponseDto;
 import com.woltaxi.emergency.entity.EmergencyIncident;
 import com.woltaxi.emergency.repository.EmergencyIncidentRepository;
+import com.woltaxi.emergency.service.contact.EmergencyContactResolutionCache;
+import com.woltaxi.emergency.service.contact.ResolvedContact;
+import com.woltaxi.emergency.service.dashboard.OperatorDashboardProjection;
 import com.woltaxi.emergency.service.external.TwilioService;
 import com.woltaxi.emergency.service.external.FirebaseService;
 import com.woltaxi.emergency.service.external.LocationService;
+import com.woltaxi.emergency.service.escalation.EscalationScheduler;
+import com.woltaxi.emergency.service.notification.EmergencyNotificationDispatcher;
+import com.woltaxi.emergency.service.outbox.EmergencyOutboxService;
 import com.woltaxi.emergency.mapper.EmergencyIncidentMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,12 +37,14 @@ import java.util.concurrent.TimeUnit;
 public class EmergencyService {
 
     private final EmergencyIncidentRepository incidentRepository;
-    private final EmergencyContactService contactService;
+    private final EmergencyContactResolutionCache contactResolutionCache;
     private final TwilioService twilioService;
     private final FirebaseService firebaseService;
+    private final EmergencyNotificationDispatcher notificationDispatcher;
     private final LocationService locationService;
     private final EmergencyIncidentMapper incidentMapper;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final EmergencyOutboxService outboxService;
+    private final EscalationScheduler escalationScheduler;
     private final RedisTemplate<String, Object> redisTemplate;
 
     @Value("${woltaxi.emergency.response-times.critical-incident-acknowledge:30}")
@@ -208,8 +215,10 @@ public class EmergencyService {
                 operations.add(recordingFuture);
             }
 
-            // 4. Kafka'ya acil durum eventi gönder
+            // 4. Acil durum eventini outbox'a yaz (commit sonrası relay Kafka'ya aktarır)
             publishEmergencyEvent(incident, "SOS_TRIGGERED");
+            escalationScheduler.onIncidentStateChanged(
+                    String.valueOf(incident.getId()), incident.getStatus().name(), incident.getCreatedAt());
 
             // 5. Tüm paralel operasyonları bekle (max 30 saniye)
             CompletableFuture<Void> allOperations = CompletableFuture.allOf(
@@ -255,6 +264,45 @@ public class EmergencyService {
         }
     }
 
+    /**
+     * Olay durumunu güncelle - satır kilitlenir, sonlanmış olaylar değiştirilemez.
+     * Her durum değişikliği aynı transaction'da outbox'a STATUS_CHANGED olarak yazılır
+     * ve eskalasyon zamanlayıcıları yeni duruma göre kurulur veya iptal edilir.
+     */
+    @Transactional
+    public EmergencyIncidentDto updateIncidentStatus(Long incidentId, EmergencyIncident.IncidentStatus newStatus,
+                                                     String notes) {
+        EmergencyIncident incident = incidentRepository.findByIdForUpdate(incidentId)
+                .orElseThrow(() -> new IllegalArgumentException("Emergency incident not found: " + incidentId));
+
+        EmergencyIncident.IncidentStatus previous = incident.getStatus();
+        if (previous == newStatus) {
+            return incidentMapper.toDto(incident);
+        }
+        if (!incident.isActive()) {
+            throw new IllegalStateException("Incident " + incidentId + " is already " + previous);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        incident.setStatus(newStatus);
+        if (incident.getResponseStartedAt() == null && newStatus != EmergencyIncident.IncidentStatus.REPORTED) {
+            incident.setResponseStartedAt(now);
+        }
+        if (!incident.isActive()) {
+            incident.setResolvedAt(now);
+        }
+        if (notes != null && !notes.isBlank()) {
+            incident.setResolutionNotes(notes);
+        }
+        incident = incidentRepository.save(incident);
+
+        publishEmergencyEvent(incident, "STATUS_CHANGED");
+        escalationScheduler.onIncidentStateChanged(
+                String.valueOf(incident.getId()), newStatus.name(), incident.getCreatedAt());
+        log.info("Incident {} status changed: {} -> {}", incidentId, previous, newStatus);
+        return incidentMapper.toDto(incident);
+    }
+
     /**
      * Acil durum olayı oluştur
      */
@@ -292,46 +340,47 @@ public class EmergencyService {
         List<EmergencyResponseDto.ContactNotificationDto> notifications = new ArrayList<>();
         
         try {
-            // Kullanıcının acil durum iletişim kişilerini al
-            var contacts = contactService.getActiveEmergencyContacts(request.getUserId());
+            // Önceden hesaplanmış bildirim listesi (sıralı, numaralar normalize) - sıcak yolda DB okuması yok
+            List<ResolvedContact> contacts = contactResolutionCache.resolve(request.getUserId());
+            if (contacts.isEmpty()) {
+                return notifications;
+            }
             
-            for (var contact : contacts) {
-                try {
-                    // SMS gönder
-                    String message = buildEmergencyMessage(incident, contact, request);
-                    boolean smsSuccess = twilioService.sendEmergencySms(
-                            contact.getPhoneNumber(), message, incident.getId());
-                    
-                    // Push notification gönder
-                    boolean pushSuccess = firebaseService.sendEmergencyNotification(
-                            contact.getUserId(), "Acil Durum", message, incident.getId());
-
-                    notifications.add(EmergencyResponseDto.ContactNotificationDto.builder()
-                            .contactId(contact.getId())
-                            .contactName(contact.getContactName())
-                            .contactPhone(contact.getPhoneNumber())
-                            .relationship(contact.getRelationship())
-                            .notificationMethod(smsSuccess ? "SMS" : "PUSH")
-                            .status(smsSuccess || pushSuccess ? "SENT" : "FAILED")
-                            .sentAt(LocalDateTime.now())
-                            .messageSent(message)
-                            .build());
-                            
-                } catch (Exception e) {
-                    log.error("Failed to notify contact: {}", contact.getId(), e);
-                    notifications.add(EmergencyResponseDto.ContactNotificationDto.builder()
-                            .contactId(contact.getId())
-                            .contactName(contact.getContactName())
-                            .contactPhone(contact.getPhoneNumber())
-                            .status("FAILED")
-                            .sentAt(LocalDateTime.now())
-                            .errorDetails(e.getMessage())
-                            .build());
-                }
+            String message = buildEmergencyMessage(incident, null, request);
+            List<EmergencyNotificationDispatcher.Recipient> recipients = contacts.stream()
+                    .map(contact -> new EmergencyNotificationDispatcher.Recipient(
+                            contact.getContactId(), contact.getContactUserId(), contact.getPhoneNumber()))
+                    .toList();
+            
+            // SMS ve push kanalları paralel, kota ve retry yönetimi dispatcher'da.
+            // SOS yolu gönderimleri beklemez; kişiler kuyruğa alındı olarak raporlanır.
+            String incidentId = String.valueOf(incident.getId());
+            notificationDispatcher.dispatch(incidentId, "Acil Durum", message, recipients)
+                    .whenComplete((report, error) -> {
+                        if (error != null) {
+                            log.error("Contact notification dispatch failed for incident: {}", incidentId, error);
+                        } else if (report.getFailedCount(EmergencyNotificationDispatcher.Channel.SMS) > 0
+                                || report.getFailedCount(EmergencyNotificationDispatcher.Channel.PUSH) > 0) {
+                            log.warn("Some emergency contacts could not be notified for incident: {}", incidentId);
+                        }
+                    });
+            
+            LocalDateTime queuedAt = LocalDateTime.now();
+            for (ResolvedContact contact : contacts) {
+                notifications.add(EmergencyResponseDto.ContactNotificationDto.builder()
+                        .contactId(contact.getContactId())
+                        .contactName(contact.getContactName())
+                        .contactPhone(contact.getPhoneNumber())
+                        .relationship(contact.getRelationship())
+                        .notificationMethod(contact.getPhoneNumber() != null ? "SMS" : "PUSH")
+                        .status("PENDING")
+                        .sentAt(queuedAt)
+                        .messageSent(message)
+                        .build());
             }
             
         } catch (Exception e) {
-            log.error("Failed to get emergency contacts for user: {}", request.getUserId(), e);
+            log.error("Failed to notify emergency contacts for user: {}", request.getUserId(), e);
         }
         
         return notifications;
@@ -477,23 +526,29 @@ public class EmergencyService {
         redisTemplate.expire("emergency:status:" + incident.getId(), 24, TimeUnit.HOURS);
     }
 
+    /**
+     * Eventi aynı transaction içinde outbox'a yaz.
+     * Hata yutulmaz: outbox yazılamazsa olay da geri alınır, böylece
+     * sadece commit edilen olayların eventleri yayınlanır.
+     */
     private void publishEmergencyEvent(EmergencyIncident incident, String eventType) {
-        try {
-            Map<String, Object> event = Map.of(
-                    "eventType", eventType,
-                    "incidentId", incident.getId(),
-                    "incidentNumber", incident.getIncidentNumber(),
-                    "userId", incident.getUserId(),
-                    "priority", incident.getPriority(),
-                    "timestamp", LocalDateTime.now().toString()
-            );
-            
-            kafkaTemplate.send("emergency-events", incident.getId(), event);
-            log.debug("Emergency event published: {} for incident: {}", eventType, incident.getId());
-            
-        } catch (Exception e) {
-            log.error("Failed to publish emergency event", e);
-        }
+        // Pano projeksiyonu için durum alanları da taşınır; null olabilecekler için HashMap
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", eventType);
+        event.put("incidentId", String.valueOf(incident.getId()));
+        event.put("incidentNumber", incident.getIncidentNumber());
+        event.put("incidentType", incident.getIncidentTypeId() != null ? String.valueOf(incident.getIncidentTypeId()) : null);
+        event.put("userId", incident.getUserId());
+        event.put("status", incident.getStatus() != null ? incident.getStatus().name() : null);
+        event.put("priority", OperatorDashboardProjection.priorityOf(incident.getSeverityAssessment()));
+        event.put("city", incident.getIncidentCity());
+        event.put("latitude", incident.getIncidentLatitude() != null ? incident.getIncidentLatitude().doubleValue() : null);
+        event.put("longitude", incident.getIncidentLongitude() != null ? incident.getIncidentLongitude().doubleValue() : null);
+        event.put("createdAt", incident.getCreatedAt() != null ? incident.getCreatedAt().toString() : null);
+        event.put("timestamp", LocalDateTime.now().toString());
+
+        outboxService.recordEmergencyEvent(String.valueOf(incident.getId()), eventType, event);
+        log.debug("Emergency event queued in outbox: {} for incident: {}", eventType, incident.getId());
     }
 
     private String generateIncidentNumber() {
@@ -0,0 +1,220 @@
+package com.woltaxi.emergency.service.contact;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.woltaxi.emergency.entity.EmergencyContact;
+import com.woltaxi.emergency.repository.EmergencyContactRepository;
+import com.woltaxi.emergency.service.external.TwilioService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emergency Contact Resolution Cache - SOS İçin Hazır İletişim Listesi
+ * Kullanıcının bildirime hazır iletişim listesi (önceliğe göre sıralı, doğrulanmışlar
+ * önde, numaralar normalize) önceden hesaplanır:
+ * - Yerel bellek → Redis → veritabanı sırasıyla çözülür; sıcak yolda I/O yoktur
+ * - Değişiklikler commit sonrası listeyi yeniden hesaplayıp Redis'e yazar ve
+ *   pub/sub ile tüm node'ların yerel kopyasını geçersiz kılar
+ * - Yerel kopya kısa ömürlü ve boyut sınırlıdır; kaçırılan bir pub/sub mesajı
+ *   eski listeyi en fazla local-ttl-seconds kadar yaşatır
+ */
+@Slf4j
+@Component
+public class EmergencyContactResolutionCache {
+
+    private static final String CACHE_KEY_PREFIX = "emergency:contacts:resolved:";
+    private static final String INVALIDATION_CHANNEL = "emergency:contacts:invalidate";
+    private static final TypeReference<List<ResolvedContact>> LIST_TYPE = new TypeReference<>() {};
+
+    private final EmergencyContactRepository contactRepository;
+    private final TwilioService twilioService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, List<ResolvedContact>> localCache;
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter databaseLoads;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${woltaxi.emergency.contacts.resolution-cache.ttl-hours:24}")
+    private long ttlHours;
+
+    public EmergencyContactResolutionCache(EmergencyContactRepository contactRepository,
+                                           TwilioService twilioService,
+                                           StringRedisTemplate redisTemplate,
+                                           ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${woltaxi.emergency.contacts.resolution-cache.local-ttl-seconds:60}") long localTtlSeconds,
+                                           @Value("${woltaxi.emergency.contacts.resolution-cache.local-max-size:10000}") long localMaxSize) {
+        this.contactRepository = contactRepository;
+        this.twilioService = twilioService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .maximumSize(localMaxSize)
+                .build();
+        this.localHits = meterRegistry.counter("emergency.contacts.resolution", "source", "local");
+        this.redisHits = meterRegistry.counter("emergency.contacts.resolution", "source", "redis");
+        this.databaseLoads = meterRegistry.counter("emergency.contacts.resolution", "source", "database");
+        meterRegistry.gauge("emergency.contacts.resolution.cached.users", localCache, Cache::estimatedSize);
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String userId = new String(message.getBody(), StandardCharsets.UTF_8);
+            localCache.invalidate(userId);
+            log.debug("Resolved contacts invalidated for user: {}", userId);
+        }, new ChannelTopic(INVALIDATION_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    /**
+     * Kullanıcının bildirime hazır iletişim listesi (değiştirilemez)
+     */
+    public List<ResolvedContact> resolve(String userId) {
+        List<ResolvedContact> cached = localCache.getIfPresent(userId);
+        if (cached != null) {
+            localHits.increment();
+            return cached;
+        }
+
+        List<ResolvedContact> shared = readShared(userId);
+        if (shared != null) {
+            redisHits.increment();
+            localCache.put(userId, shared);
+            return shared;
+        }
+
+        databaseLoads.increment();
+        List<ResolvedContact> loaded = rebuild(userId);
+        localCache.put(userId, loaded);
+        return loaded;
+    }
+
+    /**
+     * Kullanıcının listesini geçersiz kıl. Aktif transaction varsa commit sonrasına
+     * ertelenir ve aynı transaction içindeki tekrarlar tek yeniden hesaplamaya indirgenir.
+     */
+    public void invalidate(String userId) {
+        if (userId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(userId);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> userIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, userIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmergencyContactResolutionCache.this);
+                    if (status == STATUS_COMMITTED) {
+                        userIds.forEach(EmergencyContactResolutionCache.this::refresh);
+                    }
+                }
+            });
+            pending = userIds;
+        }
+        pending.add(userId);
+    }
+
+    // Yardımcı metodlar
+    private void refresh(String userId) {
+        try {
+            localCache.invalidate(userId);
+            localCache.put(userId, rebuild(userId));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId);
+        } catch (Exception e) {
+            // Yeniden hesaplanamazsa eski kopyayı bırakmak yerine her katmandan sil
+            log.error("Failed to refresh resolved contacts for user: {}", userId, e);
+            localCache.invalidate(userId);
+            try {
+                redisTemplate.delete(CACHE_KEY_PREFIX + userId);
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId);
+            } catch (Exception redisError) {
+                log.error("Failed to evict shared resolved contacts for user: {}", userId, redisError);
+            }
+        }
+    }
+
+    private List<ResolvedContact> rebuild(String userId) {
+        List<EmergencyContact> contacts = contactRepository.findByUserIdAndEnabledTrueOrderByPriorityAsc(userId);
+        List<ResolvedContact> resolved = contacts.stream()
+                .map(this::toResolved)
+                .filter(contact -> contact.getPhoneNumber() != null || contact.getContactUserId() != null)
+                .sorted(Comparator.comparing(ResolvedContact::getPriority, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(ResolvedContact::isVerified, Comparator.reverseOrder()))
+                .toList();
+        writeShared(userId, resolved);
+        return resolved;
+    }
+
+    private ResolvedContact toResolved(EmergencyContact contact) {
+        return ResolvedContact.builder()
+                .contactId(String.valueOf(contact.getId()))
+                .contactUserId(contact.getUserId() != null ? String.valueOf(contact.getUserId()) : null)
+                .contactName(contact.getContactName())
+                .relationship(contact.getRelationship())
+                .phoneNumber(twilioService.formatPhoneNumber(contact.getPhoneNumber(), contact.getCountryCode()))
+                .priority(contact.getPriority())
+                .verified("VERIFIED".equals(contact.getVerificationStatus()))
+                .autoNotify(Boolean.TRUE.equals(contact.getAutoNotify()))
+                .preferredLanguage(contact.getPreferredLanguage())
+                .build();
+    }
+
+    private List<ResolvedContact> readShared(String userId) {
+        try {
+            String json = redisTemplate.opsForValue().get(CACHE_KEY_PREFIX + userId);
+            return json != null ? List.copyOf(objectMapper.readValue(json, LIST_TYPE)) : null;
+        } catch (Exception e) {
+            log.warn("Failed to read shared resolved contacts for user: {}", userId, e);
+            return null;
+        }
+    }
+
+    private void writeShared(String userId, List<ResolvedContact> contacts) {
+        try {
+            redisTemplate.opsForValue().set(CACHE_KEY_PREFIX + userId,
+                    objectMapper.writeValueAsString(contacts), ttlHours, TimeUnit.HOURS);
+        } catch (Exception e) {
+            log.warn("Failed to write shared resolved contacts for user: {}", userId, e);
+        }
+    }
+}
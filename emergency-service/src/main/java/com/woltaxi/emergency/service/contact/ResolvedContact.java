@@ -0,0 +1,27 @@
+package com.woltaxi.emergency.service.contact;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resolved Contact - SOS anında bildirime hazır iletişim kişisi
+ * Telefon numarası E.164 biçimine normalize edilmiştir
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolvedContact {
+
+    private String contactId;
+    private String contactUserId;
+    private String contactName;
+    private String relationship;
+    private String phoneNumber;
+    private Integer priority;
+    private boolean verified;
+    private boolean autoNotify;
+    private String preferredLanguage;
+}
@@ -0,0 +1,136 @@
+package com.woltaxi.emergency.service.dashboard;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Dashboard Stream Service - Operatör Panosu SSE Yayıncısı
+ * Projeksiyon deltaları tek bir gönderim thread'i üzerinden sırayla tüm bağlı
+ * konsollara iletilir; projeksiyon kilidi yavaş istemcileri beklemez.
+ * Yeniden bağlanan istemci Last-Event-ID ile kaçırdığı deltaları alır; geçmiş
+ * yetersizse tam snapshot gönderilir.
+ */
+@Slf4j
+@Service
+public class DashboardStreamService {
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "delta";
+
+    private final OperatorDashboardProjection projection;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${woltaxi.emergency.dashboard.sse-timeout-ms:0}")
+    private long emitterTimeoutMs;
+
+    public DashboardStreamService(OperatorDashboardProjection projection) {
+        this.projection = projection;
+        projection.addListener(delta -> sender.execute(() -> broadcast(delta)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        emitters.forEach(SseEmitter::complete);
+        sender.shutdownNow();
+    }
+
+    /**
+     * Yeni konsol aboneliği
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+
+        // Başlangıç durumu gönderim thread'inde yazılır; böylece canlı deltalarla sıralı kalır
+        sender.execute(() -> {
+            try {
+                List<OperatorDashboardProjection.DashboardDelta> missed =
+                        lastEventId != null ? projection.deltasSince(lastEventId) : null;
+                if (missed != null) {
+                    for (OperatorDashboardProjection.DashboardDelta delta : missed) {
+                        send(emitter, delta);
+                    }
+                } else {
+                    OperatorDashboardProjection.DashboardSnapshot snapshot = projection.snapshot();
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(snapshot.getVersion()))
+                            .name(SNAPSHOT_EVENT)
+                            .data(snapshot));
+                }
+                emitters.add(emitter);
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Bağlantıları canlı tut - proxy'lerin boşta kalan akışı kesmemesi için
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.dashboard.keepalive-interval-ms:15000}")
+    public void keepAlive() {
+        sender.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                } catch (IOException e) {
+                    drop(emitter, e);
+                }
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    // Yardımcı metodlar
+    private void broadcast(OperatorDashboardProjection.DashboardDelta delta) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                if (delta.getType() == OperatorDashboardProjection.DashboardDelta.Type.RESYNC) {
+                    OperatorDashboardProjection.DashboardSnapshot snapshot = projection.snapshot();
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(snapshot.getVersion()))
+                            .name(SNAPSHOT_EVENT)
+                            .data(snapshot));
+                } else {
+                    send(emitter, delta);
+                }
+            } catch (IOException e) {
+                drop(emitter, e);
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, OperatorDashboardProjection.DashboardDelta delta) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(String.valueOf(delta.getVersion()))
+                .name(DELTA_EVENT)
+                .data(delta));
+    }
+
+    private void drop(SseEmitter emitter, IOException e) {
+        log.debug("Dropping dashboard subscriber: {}", e.getMessage());
+        emitters.remove(emitter);
+        emitter.completeWithError(e);
+    }
+}
@@ -0,0 +1,48 @@
+package com.woltaxi.emergency.service.dashboard;
+
+/**
+ * Incident View - Operatör panosu için olayın hafif, değişmez görünümü
+ */
+public final class IncidentView {
+
+    private final String incidentId;
+    private final String incidentNumber;
+    private final String incidentType;
+    private final String status;
+    private final String priority;
+    private final String city;
+    private final String assignedOperatorId;
+    private final Double latitude;
+    private final Double longitude;
+    private final String createdAt;
+    private final String updatedAt;
+
+    public IncidentView(String incidentId, String incidentNumber, String incidentType, String status,
+                        String priority, String city, String assignedOperatorId,
+                        Double latitude, Double longitude, String createdAt, String updatedAt) {
+        this.incidentId = incidentId;
+        this.incidentNumber = incidentNumber;
+        this.incidentType = incidentType;
+        this.status = status;
+        this.priority = priority;
+        this.city = city;
+        this.assignedOperatorId = assignedOperatorId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters
+    public String getIncidentId() { return incidentId; }
+    public String getIncidentNumber() { return incidentNumber; }
+    public String getIncidentType() { return incidentType; }
+    public String getStatus() { return status; }
+    public String getPriority() { return priority; }
+    public String getCity() { return city; }
+    public String getAssignedOperatorId() { return assignedOperatorId; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public String getCreatedAt() { return createdAt; }
+    public String getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,456 @@
+package com.woltaxi.emergency.service.dashboard;
+
+import com.woltaxi.emergency.entity.EmergencyIncident;
+import com.woltaxi.emergency.repository.EmergencyIncidentRepository;
+import com.woltaxi.emergency.repository.EmergencyOutboxEventRepository;
+import com.woltaxi.emergency.service.outbox.EmergencyOutboxRelay;
+import com.woltaxi.emergency.service.outbox.EmergencyOutboxService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Operator Dashboard Projection - Operatör Panosu Projeksiyonu
+ * Aktif olaylar ve durum/öncelik/şehir/operatör sayaçları bellekte tutulur ve
+ * emergency-events akışından artımlı olarak güncellenir. Pano yenilemeleri
+ * veritabanına gitmez; her değişiklik sürüm numaralı bir delta olarak dinleyicilere
+ * (SSE yayıncısı) iletilir.
+ *
+ * Her instance tüm eventleri görmek için kendine özgü consumer group kullanır.
+ * Başlangıçta, partition ataması sonrasında ve periyodik olarak tek sorgu ile
+ * veritabanından yeniden senkronize olur.
+ *
+ * Senkronizasyon deltalarla aynı sıralamayı kullanır: sorgudan önce en büyük
+ * outbox event id'si okunur ve bu sınıra kadarki eventler anlık görüntüde zaten
+ * bulunduğu için sonradan gelse de uygulanmaz. Sorgu sürerken gelen eventler
+ * tamponlanır ve yeniden kurulan projeksiyona sırayla tekrar uygulanır. Partition
+ * atamasında tüketici kısa bir süre geriye sarılır; arada kaçan eventler böylece
+ * tekrar okunur, tekrarları sınır ve olay başına son event id'si ayıklar.
+ * Sınırdan küçük id alıp sorgudan sonra commit edilen nadir eventler bir sonraki
+ * periyodik senkronizasyonda düzelir.
+ */
+@Slf4j
+@Service
+public class OperatorDashboardProjection implements ConsumerSeekAware {
+
+    /** EmergencyIncident.isActive ile aynı durumlar */
+    public static final Set<String> ACTIVE_STATUSES = Set.of(
+            EmergencyIncident.IncidentStatus.REPORTED.name(),
+            EmergencyIncident.IncidentStatus.ACKNOWLEDGED.name(),
+            EmergencyIncident.IncidentStatus.DISPATCHED.name(),
+            EmergencyIncident.IncidentStatus.IN_PROGRESS.name());
+
+    private static final String DIMENSION_STATUS = "status";
+    private static final String DIMENSION_PRIORITY = "priority";
+    private static final String DIMENSION_CITY = "city";
+    private static final String DIMENSION_OPERATOR = "operator";
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String UNASSIGNED = "UNASSIGNED";
+
+    private final EmergencyIncidentRepository incidentRepository;
+    private final EmergencyOutboxEventRepository outboxRepository;
+    private final Object resyncLock = new Object();
+    private final Map<String, IncidentView> activeIncidents = new HashMap<>();
+    private final Map<String, Map<String, Long>> counters = new HashMap<>();
+    private final Map<String, Long> lastEventIds;
+    private final Deque<DashboardDelta> recentDeltas = new ArrayDeque<>();
+    private final List<Consumer<DashboardDelta>> listeners = new CopyOnWriteArrayList<>();
+    private final int deltaHistorySize;
+
+    private long version;
+    private Long outboxFloor;                       // Bu id'ye kadarki eventler anlık görüntüde var
+    private List<BufferedEvent> resyncBuffer;       // Senkronizasyon sürerken gelen eventler
+
+    @Value("${woltaxi.emergency.dashboard.assignment-rewind-ms:60000}")
+    private long assignmentRewindMs;
+
+    public OperatorDashboardProjection(EmergencyIncidentRepository incidentRepository,
+                                       EmergencyOutboxEventRepository outboxRepository,
+                                       @Value("${woltaxi.emergency.dashboard.delta-history-size:1000}") int deltaHistorySize,
+                                       @Value("${woltaxi.emergency.dashboard.dedupe-window:100000}") int dedupeWindow) {
+        this.incidentRepository = incidentRepository;
+        this.outboxRepository = outboxRepository;
+        this.deltaHistorySize = deltaHistorySize;
+        this.lastEventIds = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > dedupeWindow;
+            }
+        };
+        for (String dimension : List.of(DIMENSION_STATUS, DIMENSION_PRIORITY, DIMENSION_CITY, DIMENSION_OPERATOR)) {
+            counters.put(dimension, new HashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        resync();
+    }
+
+    /**
+     * Tam senkronizasyon - projeksiyonu aktif olayların tek sorgusu ile yeniden kur
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.dashboard.resync-interval-ms:600000}",
+               initialDelayString = "${woltaxi.emergency.dashboard.resync-interval-ms:600000}")
+    public void resync() {
+        synchronized (resyncLock) {
+            synchronized (this) {
+                resyncBuffer = new ArrayList<>();
+            }
+            try {
+                // Önce sınır, sonra sorgu: sınıra kadarki eventlerin etkisi sorgu sonucunda var
+                Long floor = outboxRepository.findMaxId();
+                List<EmergencyIncident> incidents = incidentRepository.findActiveIncidents();
+                int replayed;
+                synchronized (this) {
+                    activeIncidents.clear();
+                    counters.values().forEach(Map::clear);
+                    lastEventIds.clear();
+                    for (EmergencyIncident incident : incidents) {
+                        IncidentView view = toView(incident);
+                        activeIncidents.put(view.getIncidentId(), view);
+                        adjustCounters(view, 1, null);
+                    }
+                    outboxFloor = floor;
+
+                    List<BufferedEvent> buffered = resyncBuffer;
+                    resyncBuffer = null;
+                    replayed = 0;
+                    for (BufferedEvent event : buffered) {
+                        if (applyEvent(event.event(), event.outboxEventId(), false)) {
+                            replayed++;
+                        }
+                    }
+                    emit(new DashboardDelta(++version, DashboardDelta.Type.RESYNC, null, null, null));
+                }
+                log.info("Operator dashboard projection synchronized with {} active incidents, "
+                        + "{} events replayed after the query", incidents.size(), replayed);
+            } catch (Exception e) {
+                synchronized (this) {
+                    resyncBuffer = null;
+                }
+                log.error("Failed to synchronize operator dashboard projection", e);
+            }
+        }
+    }
+
+    /**
+     * Atamadan önce yayınlanan eventler kaçmasın diye kısa süre geri sar ve yeniden senkronize ol
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToTimestamp(assignments.keySet(), System.currentTimeMillis() - assignmentRewindMs);
+        resync();
+    }
+
+    @KafkaListener(
+            topics = EmergencyOutboxService.EMERGENCY_EVENTS_TOPIC,
+            groupId = "emergency-dashboard-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "spring.json.use.type.headers=false",
+                    "spring.json.value.default.type=java.util.LinkedHashMap"
+            })
+    public void onEmergencyEvent(@Payload Map<String, Object> event,
+                                 @Header(name = EmergencyOutboxRelay.OUTBOX_EVENT_ID_HEADER, required = false) String outboxEventId) {
+        try {
+            apply(event, outboxEventId != null ? Long.parseLong(outboxEventId) : null);
+        } catch (Exception e) {
+            log.error("Failed to apply emergency event to dashboard projection: {}", event, e);
+        }
+    }
+
+    /**
+     * Olay eventini projeksiyona uygula. Aynı outbox eventinin tekrarı ve anlık
+     * görüntüde zaten bulunan eventler yok sayılır; eventte bulunmayan alanlar
+     * önceki görünümden korunur.
+     */
+    public synchronized void apply(Map<String, Object> event, Long outboxEventId) {
+        if (resyncBuffer != null) {
+            resyncBuffer.add(new BufferedEvent(event, outboxEventId));
+        }
+        applyEvent(event, outboxEventId, true);
+    }
+
+    /**
+     * Olay eventini state'e uygula; uygulandıysa true
+     */
+    private boolean applyEvent(Map<String, Object> event, Long outboxEventId, boolean notify) {
+        String incidentId = asString(event.get("incidentId"));
+        if (incidentId == null) {
+            return false;
+        }
+
+        if (outboxEventId != null) {
+            if (outboxFloor != null && outboxEventId <= outboxFloor) {
+                log.debug("Skipping dashboard event {} already in the snapshot", outboxEventId);
+                return false;
+            }
+            Long last = lastEventIds.get(incidentId);
+            if (last != null && outboxEventId <= last) {
+                log.debug("Skipping duplicate dashboard event {} for incident {}", outboxEventId, incidentId);
+                return false;
+            }
+            lastEventIds.put(incidentId, outboxEventId);
+        }
+
+        IncidentView previous = activeIncidents.get(incidentId);
+        if (previous == null && !event.containsKey("status")) {
+            // Durumu bilinmeyen olay (ör. INCIDENT_ESCALATED) pano dışındaysa aktif sayılamaz
+            log.debug("Ignoring {} without status for incident {} not on the dashboard",
+                    event.get("eventType"), incidentId);
+            return false;
+        }
+        IncidentView updated = merge(previous, event);
+        Map<String, Map<String, Long>> changed = new HashMap<>();
+
+        if (previous != null) {
+            adjustCounters(previous, -1, changed);
+        }
+
+        if (ACTIVE_STATUSES.contains(updated.getStatus())) {
+            activeIncidents.put(incidentId, updated);
+            adjustCounters(updated, 1, changed);
+            if (notify) {
+                emit(new DashboardDelta(++version, DashboardDelta.Type.UPSERT, asString(event.get("eventType")),
+                        updated, changed));
+            }
+        } else if (previous != null) {
+            activeIncidents.remove(incidentId);
+            if (notify) {
+                emit(new DashboardDelta(++version, DashboardDelta.Type.REMOVE, asString(event.get("eventType")),
+                        updated, changed));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tutarlı anlık görüntü: aktif olaylar (öncelik, sonra yaş) ve tüm sayaçlar
+     */
+    public synchronized DashboardSnapshot snapshot() {
+        List<IncidentView> incidents = new ArrayList<>(activeIncidents.values());
+        incidents.sort(Comparator.comparingInt((IncidentView view) -> priorityRank(view.getPriority()))
+                .thenComparing(IncidentView::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        counters.forEach((dimension, values) -> counts.put(dimension, Map.copyOf(values)));
+
+        long critical = incidents.stream().filter(view -> "CRITICAL".equals(view.getPriority())).count();
+        long unassigned = counters.get(DIMENSION_OPERATOR).getOrDefault(UNASSIGNED, 0L);
+        return new DashboardSnapshot(version, incidents, counts, critical, unassigned);
+    }
+
+    /**
+     * Verilen sürümden sonraki deltalar; geçmiş yetersizse null (istemci snapshot almalı)
+     */
+    public synchronized List<DashboardDelta> deltasSince(long sinceVersion) {
+        if (sinceVersion >= version) {
+            return List.of();
+        }
+        DashboardDelta oldest = recentDeltas.peekFirst();
+        if (oldest == null || oldest.getVersion() > sinceVersion + 1) {
+            return null;
+        }
+        List<DashboardDelta> deltas = new ArrayList<>();
+        for (DashboardDelta delta : recentDeltas) {
+            if (delta.getVersion() > sinceVersion) {
+                deltas.add(delta);
+            }
+        }
+        return deltas;
+    }
+
+    public void addListener(Consumer<DashboardDelta> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Şiddet değerlendirmesinden pano önceliği (1-2 kritik, 3 yüksek, 4 orta, 5 düşük)
+     */
+    public static String priorityOf(Integer severityAssessment) {
+        if (severityAssessment == null) {
+            return null;
+        }
+        if (severityAssessment <= 2) {
+            return "CRITICAL";
+        }
+        return switch (severityAssessment) {
+            case 3 -> "HIGH";
+            case 4 -> "MEDIUM";
+            default -> "LOW";
+        };
+    }
+
+    // Yardımcı metodlar
+    private void emit(DashboardDelta delta) {
+        recentDeltas.addLast(delta);
+        while (recentDeltas.size() > deltaHistorySize) {
+            recentDeltas.removeFirst();
+        }
+        for (Consumer<DashboardDelta> listener : listeners) {
+            try {
+                listener.accept(delta);
+            } catch (Exception e) {
+                log.error("Dashboard delta listener failed", e);
+            }
+        }
+    }
+
+    private void adjustCounters(IncidentView view, long delta, Map<String, Map<String, Long>> changed) {
+        adjust(DIMENSION_STATUS, orDefault(view.getStatus(), UNKNOWN), delta, changed);
+        adjust(DIMENSION_PRIORITY, orDefault(view.getPriority(), UNKNOWN), delta, changed);
+        adjust(DIMENSION_CITY, orDefault(view.getCity(), UNKNOWN), delta, changed);
+        adjust(DIMENSION_OPERATOR, orDefault(view.getAssignedOperatorId(), UNASSIGNED), delta, changed);
+    }
+
+    private void adjust(String dimension, String key, long delta, Map<String, Map<String, Long>> changed) {
+        Map<String, Long> values = counters.get(dimension);
+        long updated = values.getOrDefault(key, 0L) + delta;
+        if (updated <= 0) {
+            values.remove(key);
+            updated = 0;
+        } else {
+            values.put(key, updated);
+        }
+        if (changed != null) {
+            changed.computeIfAbsent(dimension, d -> new HashMap<>()).put(key, updated);
+        }
+    }
+
+    private IncidentView merge(IncidentView previous, Map<String, Object> event) {
+        return new IncidentView(
+                asString(event.get("incidentId")),
+                pick(event, "incidentNumber", previous != null ? previous.getIncidentNumber() : null),
+                pick(event, "incidentType", previous != null ? previous.getIncidentType() : null),
+                pick(event, "status", previous != null ? previous.getStatus() : null),
+                pick(event, "priority", previous != null ? previous.getPriority() : null),
+                pick(event, "city", previous != null ? previous.getCity() : null),
+                pick(event, "assignedOperatorId", previous != null ? previous.getAssignedOperatorId() : null),
+                pickDouble(event, "latitude", previous != null ? previous.getLatitude() : null),
+                pickDouble(event, "longitude", previous != null ? previous.getLongitude() : null),
+                pick(event, "createdAt", previous != null ? previous.getCreatedAt() : null),
+                pick(event, "timestamp", LocalDateTime.now().toString())
+        );
+    }
+
+    private IncidentView toView(EmergencyIncident incident) {
+        return new IncidentView(
+                String.valueOf(incident.getId()),
+                incident.getIncidentNumber(),
+                incident.getIncidentTypeId() != null ? String.valueOf(incident.getIncidentTypeId()) : null,
+                incident.getStatus() != null ? incident.getStatus().name() : null,
+                priorityOf(incident.getSeverityAssessment()),
+                incident.getIncidentCity(),
+                null, // Olaylara operatör ataması henüz tutulmuyor
+                incident.getIncidentLatitude() != null ? incident.getIncidentLatitude().doubleValue() : null,
+                incident.getIncidentLongitude() != null ? incident.getIncidentLongitude().doubleValue() : null,
+                incident.getCreatedAt() != null ? incident.getCreatedAt().toString() : null,
+                incident.getUpdatedAt() != null ? incident.getUpdatedAt().toString() : null
+        );
+    }
+
+    private static String pick(Map<String, Object> event, String field, String fallback) {
+        return event.containsKey(field) ? asString(event.get(field)) : fallback;
+    }
+
+    private static Double pickDouble(Map<String, Object> event, String field, Double fallback) {
+        Object value = event.get(field);
+        if (!event.containsKey(field)) {
+            return fallback;
+        }
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static String orDefault(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private static int priorityRank(String priority) {
+        return switch (priority != null ? priority : "") {
+            case "CRITICAL" -> 0;
+            case "HIGH" -> 1;
+            case "MEDIUM" -> 2;
+            case "LOW" -> 3;
+            default -> 4;
+        };
+    }
+
+    // Inner Classes
+    private record BufferedEvent(Map<String, Object> event, Long outboxEventId) {}
+
+    public static class DashboardDelta {
+        public enum Type { UPSERT, REMOVE, RESYNC }
+
+        private final long version;
+        private final Type type;
+        private final String eventType;
+        private final IncidentView incident;
+        private final Map<String, Map<String, Long>> counters;
+
+        public DashboardDelta(long version, Type type, String eventType, IncidentView incident,
+                              Map<String, Map<String, Long>> counters) {
+            this.version = version;
+            this.type = type;
+            this.eventType = eventType;
+            this.incident = incident;
+            this.counters = counters;
+        }
+
+        // Getters
+        public long getVersion() { return version; }
+        public Type getType() { return type; }
+        public String getEventType() { return eventType; }
+        public IncidentView getIncident() { return incident; }
+        public Map<String, Map<String, Long>> getCounters() { return counters; }
+    }
+
+    public static class DashboardSnapshot {
+        private final long version;
+        private final List<IncidentView> activeIncidents;
+        private final Map<String, Map<String, Long>> counters;
+        private final long criticalCount;
+        private final long unassignedCount;
+
+        public DashboardSnapshot(long version, List<IncidentView> activeIncidents,
+                                 Map<String, Map<String, Long>> counters, long criticalCount, long unassignedCount) {
+            this.version = version;
+            this.activeIncidents = activeIncidents;
+            this.counters = counters;
+            this.criticalCount = criticalCount;
+            this.unassignedCount = unassignedCount;
+        }
+
+        // Getters
+        public long getVersion() { return version; }
+        public List<IncidentView> getActiveIncidents() { return activeIncidents; }
+        public Map<String, Map<String, Long>> getCounters() { return counters; }
+        public long getCriticalCount() { return criticalCount; }
+        public long getUnassignedCount() { return unassignedCount; }
+        public int getActiveCount() { return activeIncidents.size(); }
+    }
+}
@@ -0,0 +1,252 @@
+package com.woltaxi.emergency.service.escalation;
+
+import com.woltaxi.emergency.entity.EmergencyEscalationTimer;
+import com.woltaxi.emergency.entity.EmergencyEscalationTimer.TimerStatus;
+import com.woltaxi.emergency.entity.EmergencyEscalationTimer.TimerType;
+import com.woltaxi.emergency.entity.EmergencyIncident.IncidentStatus;
+import com.woltaxi.emergency.repository.EmergencyEscalationTimerRepository;
+import com.woltaxi.emergency.service.outbox.EmergencyOutboxService;
+import com.woltaxi.emergency.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Escalation Scheduler - Olay Eskalasyon Zamanlayıcısı
+ * Her olay oluşturulduğunda veya durumu değiştiğinde eskalasyon seviyeleri için
+ * zamanlayıcılar olay ile aynı transaction'da kalıcı tabloya yazılır ve commit
+ * sonrası hiyerarşik timing wheel'e eklenir. Zamanı gelen zamanlayıcı tabloda
+ * koşullu güncelleme ile sahiplenilir (tek node tetikler) ve eskalasyon eventi
+ * outbox'a yazılır. Periyodik tablo taraması yapılmaz; yalnızca sahibi düşmüş
+ * gecikmiş zamanlayıcılar için indeksli küçük bir kurtarma sorgusu çalışır.
+ */
+@Slf4j
+@Service
+public class EscalationScheduler {
+
+    public static final String ESCALATION_EVENT_TYPE = "INCIDENT_ESCALATED";
+
+    /** Eskalasyon zamanlayıcılarının çalıştığı durumlar (EmergencyIncident.isActive ile aynı) */
+    private static final Set<String> ESCALATING_STATUSES = EnumSet.of(
+                    IncidentStatus.REPORTED,
+                    IncidentStatus.ACKNOWLEDGED,
+                    IncidentStatus.DISPATCHED,
+                    IncidentStatus.IN_PROGRESS)
+            .stream()
+            .map(Enum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final EmergencyEscalationTimerRepository timerRepository;
+    private final EmergencyOutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, HierarchicalTimingWheel.Timeout<Long>> scheduled = new ConcurrentHashMap<>();
+    private final Map<TimerType, Duration> offsets = new EnumMap<>(TimerType.class);
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final ExecutorService firingExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Timer firingLateness;
+    private final Counter recoveredCounter;
+
+    @Value("${woltaxi.emergency.escalation.scheduler.orphan-grace-seconds:60}")
+    private long orphanGraceSeconds;
+
+    public EscalationScheduler(EmergencyEscalationTimerRepository timerRepository,
+                               EmergencyOutboxService outboxService,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${woltaxi.emergency.escalation.level-1-minutes:5}") long level1Minutes,
+                               @Value("${woltaxi.emergency.escalation.level-2-minutes:15}") long level2Minutes,
+                               @Value("${woltaxi.emergency.escalation.level-3-minutes:30}") long level3Minutes,
+                               @Value("${woltaxi.emergency.escalation.executive-escalation-minutes:60}") long executiveMinutes,
+                               @Value("${woltaxi.emergency.escalation.scheduler.tick-ms:1000}") long tickMs,
+                               @Value("${woltaxi.emergency.escalation.scheduler.firing-threads:2}") int firingThreads) {
+        this.timerRepository = timerRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+
+        offsets.put(TimerType.LEVEL_1, Duration.ofMinutes(level1Minutes));
+        offsets.put(TimerType.LEVEL_2, Duration.ofMinutes(level2Minutes));
+        offsets.put(TimerType.LEVEL_3, Duration.ofMinutes(level3Minutes));
+        offsets.put(TimerType.EXECUTIVE, Duration.ofMinutes(executiveMinutes));
+
+        this.firingExecutor = Executors.newFixedThreadPool(firingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "escalation-fire");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Wheel callback'i ticker thread'inde çalışır; DB işi executor'a devredilir
+        this.wheel = new HierarchicalTimingWheel<>("escalations", tickMs, 64, 4,
+                timerId -> firingExecutor.execute(() -> fire(timerId)));
+
+        this.firingLateness = Timer.builder("emergency.escalation.lateness")
+                .description("Delay between escalation deadline and firing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.recoveredCounter = meterRegistry.counter("emergency.escalation.recovered");
+        meterRegistry.gaugeMapSize("emergency.escalation.scheduled", List.of(), scheduled);
+    }
+
+    /**
+     * Kalıcı bekleyen zamanlayıcıları geri yükle ve çarkı başlat
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<EmergencyEscalationTimer> pending = timerRepository.findByStatus(TimerStatus.PENDING);
+        pending.forEach(this::scheduleInWheel);
+        wheel.start();
+        log.info("Escalation scheduler started with {} recovered timers", pending.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        firingExecutor.shutdown();
+    }
+
+    /**
+     * Olay oluşturuldu veya durumu değişti - zamanlayıcıları buna göre kur ya da iptal et.
+     * Çağıranın transaction'ına katılır; çark commit sonrası güncellenir.
+     */
+    @Transactional
+    public void onIncidentStateChanged(String incidentId, String status, LocalDateTime createdAt) {
+        if (ESCALATING_STATUSES.contains(status)) {
+            ensureTimers(incidentId, createdAt != null ? createdAt : LocalDateTime.now());
+        } else {
+            cancelTimers(incidentId);
+        }
+    }
+
+    /**
+     * Sahibi düşmüş veya çarktan kaçmış gecikmiş zamanlayıcıları tetikle.
+     * (status, due_at) indeksi ile yalnızca gecikmiş satırları okur; normalde boş döner.
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.escalation.scheduler.orphan-sweep-interval-ms:60000}")
+    public void recoverOrphanedTimers() {
+        try {
+            List<EmergencyEscalationTimer> overdue = timerRepository.findOverduePending(
+                    LocalDateTime.now().minusSeconds(orphanGraceSeconds));
+            for (EmergencyEscalationTimer timer : overdue) {
+                recoveredCounter.increment();
+                fire(timer.getId());
+            }
+            if (!overdue.isEmpty()) {
+                log.warn("Fired {} overdue escalation timers during orphan recovery", overdue.size());
+            }
+        } catch (Exception e) {
+            log.error("Escalation orphan recovery failed", e);
+        }
+    }
+
+    public int getScheduledCount() {
+        return scheduled.size();
+    }
+
+    // Yardımcı metodlar
+    private void ensureTimers(String incidentId, LocalDateTime createdAt) {
+        // Tetiklenmiş veya iptal edilmiş seviyeler yeniden kurulmaz; eşzamanlı çağrılar çakışmaz
+        LocalDateTime now = LocalDateTime.now();
+        int inserted = 0;
+        for (Map.Entry<TimerType, Duration> entry : offsets.entrySet()) {
+            inserted += timerRepository.insertIfAbsent(incidentId, entry.getKey().name(),
+                    createdAt.plus(entry.getValue()), now);
+        }
+
+        if (inserted > 0) {
+            List<EmergencyEscalationTimer> pending = timerRepository.findByIncidentIdAndStatus(incidentId, TimerStatus.PENDING);
+            afterCommit(() -> pending.stream()
+                    .filter(timer -> !scheduled.containsKey(timer.getId()))
+                    .forEach(this::scheduleInWheel));
+        }
+    }
+
+    private void cancelTimers(String incidentId) {
+        List<EmergencyEscalationTimer> pending = timerRepository.findByIncidentIdAndStatus(incidentId, TimerStatus.PENDING);
+        if (pending.isEmpty()) {
+            return;
+        }
+        timerRepository.cancelPending(incidentId, EnumSet.allOf(TimerType.class), LocalDateTime.now());
+        afterCommit(() -> pending.forEach(timer -> {
+            HierarchicalTimingWheel.Timeout<Long> timeout = scheduled.remove(timer.getId());
+            if (timeout != null) {
+                wheel.cancel(timeout);
+            }
+        }));
+        log.debug("Cancelled {} escalation timers for incident: {}", pending.size(), incidentId);
+    }
+
+    private void scheduleInWheel(EmergencyEscalationTimer timer) {
+        long deadline = timer.getDueAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        scheduled.put(timer.getId(), wheel.schedule(timer.getId(), deadline));
+    }
+
+    private void fire(Long timerId) {
+        scheduled.remove(timerId);
+        try {
+            EmergencyEscalationTimer fired = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (timerRepository.claimForFiring(timerId, now) == 0) {
+                    return null; // İptal edilmiş veya başka node tetiklemiş
+                }
+                EmergencyEscalationTimer timer = timerRepository.findById(timerId).orElseThrow();
+
+                Map<String, Object> event = new HashMap<>();
+                event.put("eventType", ESCALATION_EVENT_TYPE);
+                event.put("incidentId", timer.getIncidentId());
+                event.put("escalationLevel", timer.getTimerType().name());
+                event.put("dueAt", timer.getDueAt().toString());
+                event.put("timestamp", now.toString());
+                outboxService.recordEmergencyEvent(timer.getIncidentId(), ESCALATION_EVENT_TYPE, event);
+                return timer;
+            });
+
+            if (fired != null) {
+                firingLateness.record(Duration.between(fired.getDueAt(), LocalDateTime.now()));
+                meterRegistry.counter("emergency.escalation.fired", "level", fired.getTimerType().name()).increment();
+                log.warn("Incident {} escalated to {}", fired.getIncidentId(), fired.getTimerType());
+            }
+        } catch (Exception e) {
+            // Zamanlayıcı PENDING kalır; kurtarma taraması tekrar dener
+            log.error("Failed to fire escalation timer: {}", timerId, e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -14,7 +14,6 @@ import jakarta.annotation.PostConstruct;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Firebase Service - Push Notification ve Real-time Communication
@@ -30,6 +29,8 @@ public class FirebaseService {
     @Value("${woltaxi.emergency.integrations.firebase.service-account-key}")
     private String serviceAccountKeyPath;
 
+    public static final int MAX_MULTICAST_TOKENS = 500;
+
     private FirebaseMessaging firebaseMessaging;
 
     @PostConstruct
@@ -116,35 +117,96 @@ public class FirebaseService {
     }
 
     /**
-     * Toplu acil durum bildirim gönder
+     * Tek bir FCM multicast çağrısı ile acil durum bildirimi gönder (en fazla 500 token).
+     * Toplu gönderimler için EmergencyNotificationDispatcher kullanılmalıdır;
+     * bu method sadece tek bir batch'i gönderir ve retry yapmaz.
      */
-    public void sendBulkEmergencyNotifications(List<String> userIds, 
-                                             String title, 
-                                             String body, 
-                                             String incidentId) {
-        log.info("Sending bulk emergency notifications to {} users for incident: {}", 
-                userIds.size(), incidentId);
+    public MulticastResult sendEmergencyMulticast(List<String> userIds, 
+                                                  String title, 
+                                                  String body, 
+                                                  String incidentId) {
+        if (userIds.size() > MAX_MULTICAST_TOKENS) {
+            throw new IllegalArgumentException("FCM multicast supports at most " + MAX_MULTICAST_TOKENS + " tokens");
+        }
+        
+        MulticastResult result = new MulticastResult();
+        List<String> tokens = new ArrayList<>(userIds.size());
+        List<String> tokenOwners = new ArrayList<>(userIds.size());
+        
+        for (String userId : userIds) {
+            String fcmToken = getUserFcmToken(userId);
+            if (fcmToken == null) {
+                result.failed.add(userId);
+            } else {
+                tokens.add(fcmToken);
+                tokenOwners.add(userId);
+            }
+        }
         
-        List<CompletableFuture<Boolean>> futures = userIds.stream()
-                .map(userId -> CompletableFuture.supplyAsync(() -> 
-                        sendEmergencyNotification(userId, title, body, incidentId)))
-                .toList();
+        if (tokens.isEmpty()) {
+            return result;
+        }
         
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenRun(() -> {
-                    long successCount = futures.stream()
-                            .mapToLong(future -> {
-                                try {
-                                    return future.get() ? 1L : 0L;
-                                } catch (Exception e) {
-                                    return 0L;
-                                }
-                            })
-                            .sum();
-                    
-                    log.info("Bulk notifications completed for incident: {}. Success: {}/{}", 
-                            incidentId, successCount, userIds.size());
-                });
+        try {
+            MulticastMessage message = MulticastMessage.builder()
+                    .addAllTokens(tokens)
+                    .setNotification(Notification.builder()
+                            .setTitle(title)
+                            .setBody(body)
+                            .build())
+                    .putData("type", "EMERGENCY")
+                    .putData("incidentId", incidentId)
+                    .putData("priority", "CRITICAL")
+                    .putData("timestamp", String.valueOf(System.currentTimeMillis()))
+                    .setAndroidConfig(AndroidConfig.builder()
+                            .setPriority(AndroidConfig.Priority.HIGH)
+                            .setNotification(AndroidNotification.builder()
+                                    .setIcon("ic_emergency")
+                                    .setColor("#FF0000")
+                                    .setSound("emergency_alarm")
+                                    .setPriority(AndroidNotification.Priority.MAX)
+                                    .setChannelId("emergency_channel")
+                                    .build())
+                            .build())
+                    .setApnsConfig(ApnsConfig.builder()
+                            .setAps(Aps.builder()
+                                    .setAlert(ApsAlert.builder()
+                                            .setTitle(title)
+                                            .setBody(body)
+                                            .build())
+                                    .setSound("emergency_alarm.wav")
+                                    .setBadge(1)
+                                    .setCategory("EMERGENCY")
+                                    .setThreadId("emergency_" + incidentId)
+                                    .build())
+                            .build())
+                    .build();
+
+            BatchResponse response = firebaseMessaging.sendEachForMulticast(message);
+            List<SendResponse> responses = response.getResponses();
+            
+            for (int i = 0; i < responses.size(); i++) {
+                SendResponse sendResponse = responses.get(i);
+                String userId = tokenOwners.get(i);
+                if (sendResponse.isSuccessful()) {
+                    result.succeeded.add(userId);
+                } else if (isRetryable(sendResponse.getException())) {
+                    result.retryable.add(userId);
+                } else {
+                    result.failed.add(userId);
+                }
+            }
+            
+            log.info("Emergency multicast sent for incident: {}. Success: {}/{}", 
+                    incidentId, response.getSuccessCount(), tokens.size());
+            
+        } catch (Exception e) {
+            // Tüm batch başarısız - geçici hata kabul edilir, dispatcher tekrar dener
+            log.error("Failed to send emergency multicast for incident: {}", incidentId, e);
+            result.retryable.addAll(tokenOwners);
+        }
+        
+        return result;
     }
 
     /**
@@ -396,6 +458,16 @@ public class FirebaseService {
     }
 
     // Yardımcı metodlar
+    private boolean isRetryable(FirebaseMessagingException exception) {
+        if (exception == null || exception.getMessagingErrorCode() == null) {
+            return true;
+        }
+        return switch (exception.getMessagingErrorCode()) {
+            case UNAVAILABLE, INTERNAL, QUOTA_EXCEEDED -> true;
+            default -> false;
+        };
+    }
+
     private String getUserFcmToken(String userId) {
         // Gerçek implementasyonda, bu method database'den kullanıcının FCM token'ını almalı
         // Şimdilik mock implementation
@@ -444,4 +516,16 @@ public class FirebaseService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Inner Classes
+    public static class MulticastResult {
+        private final List<String> succeeded = new ArrayList<>();
+        private final List<String> retryable = new ArrayList<>();
+        private final List<String> failed = new ArrayList<>();
+
+        // Getters
+        public List<String> getSucceeded() { return succeeded; }
+        public List<String> getRetryable() { return retryable; }
+        public List<String> getFailed() { return failed; }
+    }
+}
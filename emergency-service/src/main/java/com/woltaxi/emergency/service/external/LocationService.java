@@ -1,15 +1,21 @@
 package com.woltaxi.emergency.service.external;
 
+import com.woltaxi.emergency.service.geocoding.EmergencyPoiIndex;
+import com.woltaxi.emergency.service.geocoding.GeohashAddressCache;
+import com.woltaxi.emergency.service.geocoding.OfflineBoundaryIndex;
+import com.woltaxi.emergency.service.location.EmergencyLocationStreamService;
+import com.woltaxi.emergency.service.location.LocationSession;
+import com.woltaxi.emergency.service.location.LocationSessionRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.retry.annotation.Backoff;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Location Service - Konum ve Coğrafi Bilgi Hizmetleri
@@ -22,11 +28,36 @@ public class LocationService {
     @Value("${woltaxi.emergency.integrations.google-maps.api-key}")
     private String googleMapsApiKey;
 
+    private static final int MAX_NEARBY_PLACES = 20;
+    private static final String DEFAULT_COUNTRY_CODE = "TR";
+    // Ülke kodları adreslerle aynı geohash önbelleğinde, ayrı bir dil anahtarıyla tutulur
+    private static final String COUNTRY_CACHE_LANGUAGE = "country";
+
     private final RestTemplate restTemplate;
-    private final Map<String, LocationSession> activeSessions = new ConcurrentHashMap<>();
+    private final EmergencyLocationStreamService locationStreamService;
+    private final LocationSessionRegistry sessionRegistry;
+    private final OfflineBoundaryIndex boundaryIndex;
+    private final GeohashAddressCache addressCache;
+    private final EmergencyPoiIndex poiIndex;
 
-    public LocationService() {
-        this.restTemplate = new RestTemplate();
+    public LocationService(EmergencyLocationStreamService locationStreamService,
+                           LocationSessionRegistry sessionRegistry,
+                           OfflineBoundaryIndex boundaryIndex,
+                           GeohashAddressCache addressCache,
+                           EmergencyPoiIndex poiIndex,
+                           @Value("${woltaxi.emergency.integrations.google-maps.connect-timeout-ms:1000}") int connectTimeoutMs,
+                           @Value("${woltaxi.emergency.integrations.google-maps.read-timeout-ms:2000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.locationStreamService = locationStreamService;
+        this.sessionRegistry = sessionRegistry;
+        this.boundaryIndex = boundaryIndex;
+        this.addressCache = addressCache;
+        this.poiIndex = poiIndex;
+        // Süresi dolan oturumların akışı da kapatılır
+        sessionRegistry.onExpiry(session -> locationStreamService.closeStream(session.getIncidentId()));
     }
 
     /**
@@ -50,7 +81,11 @@ public class LocationService {
                     true
             );
             
-            activeSessions.put(sessionId, session);
+            // Kullanıcının önceki oturumu kapanır; başka bir olaya aitse akışı da kapatılır
+            LocationSession superseded = sessionRegistry.register(session);
+            if (superseded != null && !Objects.equals(superseded.getIncidentId(), incidentId)) {
+                locationStreamService.closeStream(superseded.getIncidentId());
+            }
             
             log.info("Emergency location tracking started. Session ID: {}", sessionId);
             return sessionId;
@@ -68,10 +103,9 @@ public class LocationService {
         try {
             log.info("Stopping location tracking for session: {}", sessionId);
             
-            LocationSession session = activeSessions.get(sessionId);
+            LocationSession session = sessionRegistry.remove(sessionId);
             if (session != null) {
-                session.setActive(false);
-                activeSessions.remove(sessionId);
+                locationStreamService.closeStream(session.getIncidentId());
                 log.info("Location tracking stopped for session: {}", sessionId);
                 return true;
             } else {
@@ -90,25 +124,21 @@ public class LocationService {
      */
     public boolean updateLocation(String sessionId, double latitude, double longitude, double accuracy) {
         try {
-            LocationSession session = activeSessions.get(sessionId);
-            if (session == null || !session.isActive()) {
+            long now = System.currentTimeMillis();
+            LocationSession session = sessionRegistry.updateLocation(sessionId, latitude, longitude, accuracy, now);
+            if (session == null) {
                 log.warn("Invalid or inactive location session: {}", sessionId);
                 return false;
             }
             
-            // Session süresini kontrol et
-            if (System.currentTimeMillis() - session.getStartTime() > session.getDurationMs()) {
+            // Session süresini kontrol et (timing wheel bir tick geç tetikleyebilir)
+            if (session.isExpired(now)) {
                 log.info("Location session expired: {}", sessionId);
                 stopLocationTracking(sessionId);
                 return false;
             }
             
-            session.setLastLatitude(latitude);
-            session.setLastLongitude(longitude);
-            session.setLastAccuracy(accuracy);
-            session.setLastUpdateTime(System.currentTimeMillis());
-            
-            // Konum verilerini gerçek zamanlı olarak yayınla (WebSocket, Kafka etc.)
+            // Konum verilerini gerçek zamanlı olarak yayınla (STOMP + toplu kalıcılık)
             publishLocationUpdate(session, latitude, longitude, accuracy);
             
             log.debug("Location updated for session: {} - Lat: {}, Lng: {}, Accuracy: {}", 
@@ -122,85 +152,55 @@ public class LocationService {
     }
 
     /**
-     * Koordinatlardan ülke kodu al
+     * Koordinatlardan ülke kodu al - önce çevrimdışı sınır indeksi, ağ çağrısı yapmaz.
+     * İndeks yüklenemediyse veya nokta hiçbir sınıra düşmüyorsa (kıyı, sınır boşlukları)
+     * önceden çevrimiçi çözülmüş sonuç kullanılır; o da yoksa varsayılan ülke hemen döner
+     * ve çevrimiçi geocoder arka planda sorgulanır. SOS yolu ağ çağrısı beklemez.
      */
-    @Retryable(value = {Exception.class}, maxAttempts = 3, backoff = @Backoff(delay = 1000))
     public String getCountryCode(double latitude, double longitude) {
         try {
-            log.debug("Getting country code for coordinates: {}, {}", latitude, longitude);
-            
-            String url = String.format(
-                    "https://maps.googleapis.com/maps/api/geocode/json?latlng=%f,%f&key=%s&result_type=country",
-                    latitude, longitude, googleMapsApiKey
-            );
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response != null && "OK".equals(response.get("status"))) {
-                @SuppressWarnings("unchecked")
-                var results = (java.util.List<Map<String, Object>>) response.get("results");
-                
-                if (!results.isEmpty()) {
-                    @SuppressWarnings("unchecked")
-                    var components = (java.util.List<Map<String, Object>>) results.get(0).get("address_components");
-                    
-                    for (Map<String, Object> component : components) {
-                        @SuppressWarnings("unchecked")
-                        var types = (java.util.List<String>) component.get("types");
-                        if (types.contains("country")) {
-                            String countryCode = (String) component.get("short_name");
-                            log.debug("Country code found: {} for coordinates: {}, {}", 
-                                    countryCode, latitude, longitude);
-                            return countryCode;
-                        }
-                    }
-                }
+            OfflineBoundaryIndex.BoundaryMatch match = boundaryIndex.resolve(latitude, longitude);
+            if (match != null) {
+                log.debug("Country code found: {} for coordinates: {}, {}", 
+                        match.getCountryCode(), latitude, longitude);
+                return match.getCountryCode();
             }
-            
-            log.warn("Could not determine country code for coordinates: {}, {}", latitude, longitude);
-            return "TR"; // Default to Turkey
-            
         } catch (Exception e) {
-            log.error("Failed to get country code for coordinates: {}, {}", latitude, longitude, e);
-            return "TR"; // Default to Turkey
+            log.error("Offline country lookup failed for coordinates: {}, {}", latitude, longitude, e);
+        }
+        
+        String countryCode = addressCache.getIfPresent(latitude, longitude, COUNTRY_CACHE_LANGUAGE);
+        if (countryCode != null) {
+            return countryCode;
         }
+        
+        addressCache.loadAsync(latitude, longitude, COUNTRY_CACHE_LANGUAGE,
+                () -> fetchCountryCode(latitude, longitude));
+        log.warn("Country code not known offline for coordinates: {}, {} - using default {}",
+                latitude, longitude, DEFAULT_COUNTRY_CODE);
+        return DEFAULT_COUNTRY_CODE;
     }
 
     /**
      * Koordinatlardan adres al (Reverse Geocoding)
+     * Önbellekte yoksa adres arka planda çekilir ve hemen çevrimdışı yaklaşık adres döner
      */
-    @Retryable(value = {Exception.class}, maxAttempts = 3, backoff = @Backoff(delay = 1000))
     public String getAddressFromCoordinates(double latitude, double longitude, String language) {
-        try {
-            log.debug("Getting address for coordinates: {}, {} in language: {}", latitude, longitude, language);
-            
-            String url = String.format(
-                    "https://maps.googleapis.com/maps/api/geocode/json?latlng=%f,%f&key=%s&language=%s",
-                    latitude, longitude, googleMapsApiKey, language != null ? language : "tr"
-            );
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response != null && "OK".equals(response.get("status"))) {
-                @SuppressWarnings("unchecked")
-                var results = (java.util.List<Map<String, Object>>) response.get("results");
-                
-                if (!results.isEmpty()) {
-                    String address = (String) results.get(0).get("formatted_address");
-                    log.debug("Address found: {} for coordinates: {}, {}", address, latitude, longitude);
-                    return address;
-                }
-            }
-            
-            log.warn("Could not get address for coordinates: {}, {}", latitude, longitude);
-            return String.format("Lat: %.4f, Lng: %.4f", latitude, longitude);
-            
-        } catch (Exception e) {
-            log.error("Failed to get address for coordinates: {}, {}", latitude, longitude, e);
-            return String.format("Lat: %.4f, Lng: %.4f", latitude, longitude);
+        String cached = addressCache.getIfPresent(latitude, longitude, language);
+        if (cached != null) {
+            return cached;
         }
+        
+        addressCache.loadAsync(latitude, longitude, language, () -> fetchAddress(latitude, longitude, language));
+        return approximateAddress(latitude, longitude);
+    }
+
+    /**
+     * Sokak adresini asenkron al; aynı geohash hücresi için istekler birleştirilir
+     */
+    public CompletableFuture<String> getAddressFromCoordinatesAsync(double latitude, double longitude, String language) {
+        return addressCache.getOrLoadAsync(latitude, longitude, language,
+                () -> fetchAddress(latitude, longitude, language));
     }
 
     /**
@@ -235,56 +235,65 @@ public class LocationService {
      * Aktif konum takip session'ları al
      */
     public Map<String, LocationSession> getActiveSessions() {
-        return new ConcurrentHashMap<>(activeSessions);
+        return sessionRegistry.snapshot();
     }
 
     /**
      * Belirli bir session bilgilerini al
      */
     public LocationSession getSession(String sessionId) {
-        return activeSessions.get(sessionId);
+        return sessionRegistry.get(sessionId);
     }
 
     /**
      * Kullanıcının aktif session'ını al
      */
     public LocationSession getUserActiveSession(String userId) {
-        return activeSessions.values().stream()
-                .filter(session -> session.getUserId().equals(userId) && session.isActive())
-                .findFirst()
-                .orElse(null);
+        return sessionRegistry.findActiveByUser(userId);
     }
 
     /**
      * Süresi dolmuş session'ları temizle
      */
     public void cleanupExpiredSessions() {
-        long currentTime = System.currentTimeMillis();
-        
-        activeSessions.entrySet().removeIf(entry -> {
-            LocationSession session = entry.getValue();
-            boolean expired = (currentTime - session.getStartTime()) > session.getDurationMs();
-            
-            if (expired) {
-                log.info("Cleaning up expired location session: {}", entry.getKey());
-                session.setActive(false);
-            }
-            
-            return expired;
-        });
+        // Süre dolumu timing wheel ile yürür; burada yalnızca çark şimdiye ilerletilir
+        sessionRegistry.advanceExpiry();
     }
 
     /**
      * Acil durum için en yakın hastane/polis karakolu bul
+     * Önce yerel POI indeksine bakılır; yalnızca ıskalamada Places API çağrılır
      */
     public java.util.List<NearbyPlace> findNearbyEmergencyServices(double latitude, 
                                                                    double longitude, 
                                                                    String serviceType, 
                                                                    int radiusMeters) {
+        log.info("Finding nearby {} services for location: {}, {} within {} meters", 
+                serviceType, latitude, longitude, radiusMeters);
+        
+        try {
+            java.util.List<EmergencyPoiIndex.PoiRecord> local = poiIndex.findNearest(
+                    serviceType, latitude, longitude, MAX_NEARBY_PLACES, radiusMeters);
+            if (local != null && !local.isEmpty()) {
+                java.util.List<NearbyPlace> places = new java.util.ArrayList<>(local.size());
+                for (EmergencyPoiIndex.PoiRecord poi : local) {
+                    places.add(new NearbyPlace(poi.getPlaceId(), poi.getName(), poi.getAddress(),
+                            poi.getLatitude(), poi.getLongitude(), poi.getRating(), serviceType));
+                }
+                log.info("Found {} nearby {} services in local index", places.size(), serviceType);
+                return places;
+            }
+        } catch (Exception e) {
+            log.error("Local POI lookup failed, falling back to Places API", e);
+        }
+        
+        return findNearbyFromPlacesApi(latitude, longitude, serviceType, radiusMeters);
+    }
+
+    // Yardımcı metodlar
+    private java.util.List<NearbyPlace> findNearbyFromPlacesApi(double latitude, double longitude,
+                                                                String serviceType, int radiusMeters) {
         try {
-            log.info("Finding nearby {} services for location: {}, {} within {} meters", 
-                    serviceType, latitude, longitude, radiusMeters);
-            
             String placeType = mapServiceTypeToGoogleType(serviceType);
             String url = String.format(
                     "https://maps.googleapis.com/maps/api/place/nearbysearch/json?location=%f,%f&radius=%d&type=%s&key=%s",
@@ -323,7 +332,7 @@ public class LocationService {
                 });
             }
             
-            log.info("Found {} nearby {} services", places.size(), serviceType);
+            log.info("Found {} nearby {} services via Places API", places.size(), serviceType);
             return places;
             
         } catch (Exception e) {
@@ -332,18 +341,91 @@ public class LocationService {
         }
     }
 
-    // Yardımcı metodlar
+    private String fetchCountryCode(double latitude, double longitude) {
+        try {
+            String url = String.format(
+                    "https://maps.googleapis.com/maps/api/geocode/json?latlng=%f,%f&key=%s&result_type=country",
+                    latitude, longitude, googleMapsApiKey
+            );
+            
+            @SuppressWarnings("unchecked")
+            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+            
+            if (response != null && "OK".equals(response.get("status"))) {
+                @SuppressWarnings("unchecked")
+                var results = (java.util.List<Map<String, Object>>) response.get("results");
+                
+                if (!results.isEmpty()) {
+                    @SuppressWarnings("unchecked")
+                    var components = (java.util.List<Map<String, Object>>) results.get(0).get("address_components");
+                    
+                    for (Map<String, Object> component : components) {
+                        @SuppressWarnings("unchecked")
+                        var types = (java.util.List<String>) component.get("types");
+                        if (types.contains("country")) {
+                            String countryCode = (String) component.get("short_name");
+                            log.debug("Country code found online: {} for coordinates: {}, {}", 
+                                    countryCode, latitude, longitude);
+                            return countryCode;
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to get country code online for coordinates: {}, {}", latitude, longitude, e);
+        }
+        return null;
+    }
+
+    private String fetchAddress(double latitude, double longitude, String language) {
+        log.debug("Getting address for coordinates: {}, {} in language: {}", latitude, longitude, language);
+        
+        String url = String.format(
+                "https://maps.googleapis.com/maps/api/geocode/json?latlng=%f,%f&key=%s&language=%s",
+                latitude, longitude, googleMapsApiKey, language != null ? language : "tr"
+        );
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+        
+        if (response != null && "OK".equals(response.get("status"))) {
+            @SuppressWarnings("unchecked")
+            var results = (java.util.List<Map<String, Object>>) response.get("results");
+            
+            if (!results.isEmpty()) {
+                String address = (String) results.get(0).get("formatted_address");
+                log.debug("Address found: {} for coordinates: {}, {}", address, latitude, longitude);
+                return address;
+            }
+        }
+        
+        log.warn("Could not get address for coordinates: {}, {}", latitude, longitude);
+        return null;
+    }
+
+    private String approximateAddress(double latitude, double longitude) {
+        String coordinates = String.format("Lat: %.4f, Lng: %.4f", latitude, longitude);
+        try {
+            OfflineBoundaryIndex.BoundaryMatch match = boundaryIndex.resolve(latitude, longitude);
+            if (match == null) {
+                return coordinates;
+            }
+            return match.getAdminName() != null
+                    ? String.format("%s, %s (%s)", match.getAdminName(), match.getCountryCode(), coordinates)
+                    : String.format("%s (%s)", match.getCountryCode(), coordinates);
+        } catch (Exception e) {
+            log.error("Failed to resolve approximate address for coordinates: {}, {}", latitude, longitude, e);
+            return coordinates;
+        }
+    }
+
     private void publishLocationUpdate(LocationSession session, double latitude, double longitude, double accuracy) {
         try {
-            // Gerçek implementasyonda WebSocket veya Kafka ile publish edilmeli
             log.debug("Publishing location update for session: {} - Incident: {}", 
                     session.getSessionId(), session.getIncidentId());
             
-            // WebSocket publish:
-            // webSocketService.publishLocationUpdate(session.getIncidentId(), latitude, longitude, accuracy);
-            
-            // Kafka publish:
-            // kafkaTemplate.send("location-updates", session.getIncidentId(), locationUpdateEvent);
+            locationStreamService.publish(session.getIncidentId(), session.getSessionId(), 
+                    latitude, longitude, accuracy);
             
         } catch (Exception e) {
             log.error("Failed to publish location update", e);
@@ -362,54 +444,6 @@ public class LocationService {
     }
 
     // Inner Classes
-    public static class LocationSession {
-        private final String sessionId;
-        private final String incidentId;
-        private final String userId;
-        private final long startTime;
-        private final long durationMs;
-        private final long updateIntervalMs;
-        private boolean active;
-        private double lastLatitude;
-        private double lastLongitude;
-        private double lastAccuracy;
-        private long lastUpdateTime;
-
-        public LocationSession(String sessionId, String incidentId, String userId, 
-                             long startTime, long durationMs, long updateIntervalMs, boolean active) {
-            this.sessionId = sessionId;
-            this.incidentId = incidentId;
-            this.userId = userId;
-            this.startTime = startTime;
-            this.durationMs = durationMs;
-            this.updateIntervalMs = updateIntervalMs;
-            this.active = active;
-        }
-
-        // Getters and Setters
-        public String getSessionId() { return sessionId; }
-        public String getIncidentId() { return incidentId; }
-        public String getUserId() { return userId; }
-        public long getStartTime() { return startTime; }
-        public long getDurationMs() { return durationMs; }
-        public long getUpdateIntervalMs() { return updateIntervalMs; }
-        
-        public boolean isActive() { return active; }
-        public void setActive(boolean active) { this.active = active; }
-        
-        public double getLastLatitude() { return lastLatitude; }
-        public void setLastLatitude(double lastLatitude) { this.lastLatitude = lastLatitude; }
-        
-        public double getLastLongitude() { return lastLongitude; }
-        public void setLastLongitude(double lastLongitude) { this.lastLongitude = lastLongitude; }
-        
-        public double getLastAccuracy() { return lastAccuracy; }
-        public void setLastAccuracy(double lastAccuracy) { this.lastAccuracy = lastAccuracy; }
-        
-        public long getLastUpdateTime() { return lastUpdateTime; }
-        public void setLastUpdateTime(long lastUpdateTime) { this.lastUpdateTime = lastUpdateTime; }
-    }
-
     public static class NearbyPlace {
         private final String placeId;
         private final String name;
@@ -1,6 +1,7 @@
 package com.woltaxi.emergency.service.external;
 
 import com.twilio.Twilio;
+import com.twilio.exception.ApiException;
 import com.twilio.rest.api.v2010.account.Call;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
@@ -13,6 +14,7 @@ import org.springframework.retry.annotation.Backoff;
 
 import jakarta.annotation.PostConstruct;
 import java.net.URI;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -23,6 +25,10 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class TwilioService {
 
+    // Tekrar denemekle düzelmeyen Twilio hata kodları (geçersiz/ulaşılamaz numara, abonelikten çıkmış alıcı)
+    private static final Set<Integer> PERMANENT_SMS_ERROR_CODES = Set.of(
+            21211, 21214, 21217, 21401, 21407, 21408, 21421, 21610, 21612, 21614);
+
     @Value("${woltaxi.emergency.integrations.twilio.account-sid}")
     private String accountSid;
 
@@ -95,6 +101,33 @@ public class TwilioService {
         }
     }
 
+    /**
+     * Acil durum SMS'ini tek seferde göndermeyi dene ve sonucu sınıflandır.
+     * Tekrar deneme çağırana bırakılır; kalıcı hatalar tekrar denenmemelidir.
+     */
+    public SmsResult trySendEmergencySms(String toPhoneNumber, String messageBody, String incidentId) {
+        try {
+            Message message = Message.creator(
+                    new PhoneNumber(toPhoneNumber),
+                    new PhoneNumber(emergencyNumber),
+                    messageBody
+            ).create();
+
+            log.info("Emergency SMS sent successfully. SID: {} for incident: {}",
+                    message.getSid(), incidentId);
+            return SmsResult.SENT;
+
+        } catch (ApiException e) {
+            SmsResult result = isPermanent(e) ? SmsResult.PERMANENT_FAILURE : SmsResult.RETRYABLE_FAILURE;
+            log.warn("Failed to send emergency SMS to: {} for incident: {} (code: {}, status: {}, {})",
+                    toPhoneNumber, incidentId, e.getCode(), e.getStatusCode(), result);
+            return result;
+        } catch (Exception e) {
+            log.warn("Failed to send emergency SMS to: {} for incident: {}", toPhoneNumber, incidentId, e);
+            return SmsResult.RETRYABLE_FAILURE;
+        }
+    }
+
     /**
      * Asenkron SMS gönderimi
      */
@@ -115,37 +148,6 @@ public class TwilioService {
                 makeEmergencyCall(toPhoneNumber, incidentId, callScript));
     }
 
-    /**
-     * Toplu SMS gönderimi
-     */
-    public void sendBulkEmergencySms(java.util.List<String> phoneNumbers, 
-                                   String messageBody, 
-                                   String incidentId) {
-        log.info("Sending bulk emergency SMS to {} recipients for incident: {}", 
-                phoneNumbers.size(), incidentId);
-        
-        java.util.List<CompletableFuture<Boolean>> futures = phoneNumbers.stream()
-                .map(phone -> sendEmergencySmsAsync(phone, messageBody, incidentId))
-                .toList();
-        
-        // Tüm SMS'lerin gönderilmesini bekle
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenRun(() -> {
-                    long successCount = futures.stream()
-                            .mapToLong(future -> {
-                                try {
-                                    return future.get() ? 1L : 0L;
-                                } catch (Exception e) {
-                                    return 0L;
-                                }
-                            })
-                            .sum();
-                    
-                    log.info("Bulk SMS completed for incident: {}. Success: {}/{}", 
-                            incidentId, successCount, phoneNumbers.size());
-                });
-    }
-
     /**
      * SMS durumu sorgula
      */
@@ -272,4 +274,19 @@ public class TwilioService {
             default -> "90"; // Default to Turkey
         };
     }
-}
\ No newline at end of file
+
+    private boolean isPermanent(ApiException e) {
+        if (e.getCode() != null && PERMANENT_SMS_ERROR_CODES.contains(e.getCode())) {
+            return true;
+        }
+        // 429 ve 5xx geçicidir; diğer 4xx'ler aynı istekle tekrar başarısız olur
+        Integer status = e.getStatusCode();
+        return status != null && status >= 400 && status < 500 && status != 429;
+    }
+
+    public enum SmsResult {
+        SENT,
+        RETRYABLE_FAILURE,      // Ağ, kota (429) veya sağlayıcı (5xx) hatası
+        PERMANENT_FAILURE       // Geçersiz numara, abonelikten çıkmış alıcı vb.
+    }
+}
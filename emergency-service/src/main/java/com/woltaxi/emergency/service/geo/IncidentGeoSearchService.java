@@ -0,0 +1,327 @@
+package com.woltaxi.emergency.service.geo;
+
+import com.woltaxi.emergency.entity.EmergencyIncident;
+import com.woltaxi.emergency.repository.EmergencyIncidentRepository;
+import com.woltaxi.emergency.service.outbox.EmergencyOutboxService;
+import com.woltaxi.emergency.util.GeoHash;
+import com.woltaxi.emergency.util.SphericalKdTree;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incident Geo Search Service - Geohash Bölümlü Olay Arama
+ * Son olaylar (varsayılan 24 saat) geohash hücresi başına bellek içi grid'de tutulur;
+ * bu pencere içindeki ısı haritası ve yakın olay sorguları veritabanına gitmez.
+ * Daha eski zaman aralıkları (hücre, reported_at) indeksi üzerinden yalnızca
+ * kapsayan hücreleri tarayan native sorgularla yanıtlanır.
+ */
+@Slf4j
+@Service
+public class IncidentGeoSearchService {
+
+    private static final int CELL_PRECISION = EmergencyIncident.GEOHASH_CELL_PRECISION;
+    private static final int MAX_QUERY_CELLS = 2048;
+    private static final double METERS_PER_DEGREE_LAT = 111_320d;
+
+    private final EmergencyIncidentRepository incidentRepository;
+    private final Map<String, List<GeoIncident>> grid = new ConcurrentHashMap<>();
+    private final Set<String> indexedIds = ConcurrentHashMap.newKeySet();
+    private final Timer heatmapTimer;
+
+    private volatile boolean gridReady;
+
+    @Value("${woltaxi.emergency.geo-search.grid-retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${woltaxi.emergency.geo-search.max-results:500}")
+    private int maxResults;
+
+    public IncidentGeoSearchService(EmergencyIncidentRepository incidentRepository, MeterRegistry meterRegistry) {
+        this.incidentRepository = incidentRepository;
+        this.heatmapTimer = Timer.builder("emergency.geo.heatmap")
+                .description("Heatmap query latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("emergency.geo.grid.incidents", List.of(), indexedIds);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            LocalDateTime since = LocalDateTime.now().minusHours(retentionHours);
+            for (Object[] row : incidentRepository.findRecentGeoPoints(since)) {
+                index(String.valueOf(row[0]), ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue(),
+                        (String) row[3], timestampMillis(row[4]));
+            }
+            gridReady = true;
+            log.info("Incident geo grid loaded with {} incidents in {} cells", indexedIds.size(), grid.size());
+        } catch (Exception e) {
+            log.error("Failed to load incident geo grid - queries will use the database", e);
+        }
+    }
+
+    @KafkaListener(
+            topics = EmergencyOutboxService.EMERGENCY_EVENTS_TOPIC,
+            groupId = "emergency-geo-grid-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "spring.json.use.type.headers=false",
+                    "spring.json.value.default.type=java.util.LinkedHashMap"
+            })
+    public void onEmergencyEvent(@Payload Map<String, Object> event) {
+        Object incidentId = event.get("incidentId");
+        if (incidentId == null || !(event.get("latitude") instanceof Number latitude)
+                || !(event.get("longitude") instanceof Number longitude)) {
+            return;
+        }
+        long reportedAt = parseEpochMillis(event.get("createdAt"));
+        index(incidentId.toString(), latitude.doubleValue(), longitude.doubleValue(), null, reportedAt);
+    }
+
+    /**
+     * Olayı grid'e ekle - aynı olay tekrar eklenmez
+     */
+    public void index(String incidentId, double latitude, double longitude, String geohash, long reportedAtMillis) {
+        if (!indexedIds.add(incidentId)) {
+            return;
+        }
+        String fullHash = geohash != null ? geohash
+                : GeoHash.encode(latitude, longitude, EmergencyIncident.GEOHASH_PRECISION);
+        GeoIncident incident = new GeoIncident(incidentId, latitude, longitude, fullHash, reportedAtMillis);
+
+        // Hücre listeleri kopyala-yaz; okuyucular kilitsiz tutarlı liste görür
+        grid.compute(fullHash.substring(0, CELL_PRECISION), (cell, current) -> {
+            List<GeoIncident> updated = current != null ? new ArrayList<>(current) : new ArrayList<>(1);
+            updated.add(incident);
+            return List.copyOf(updated);
+        });
+    }
+
+    /**
+     * Isı haritası: hücre → olay sayısı. precision 5..9 arasıdır.
+     */
+    public Map<String, Long> heatmap(double minLat, double maxLat, double minLng, double maxLng,
+                                     LocalDateTime from, LocalDateTime to, int precision) {
+        if (precision < CELL_PRECISION || precision > EmergencyIncident.GEOHASH_PRECISION) {
+            throw new IllegalArgumentException("Heatmap precision must be between "
+                    + CELL_PRECISION + " and " + EmergencyIncident.GEOHASH_PRECISION);
+        }
+
+        return heatmapTimer.record(() -> {
+            Set<String> cells = coveringCells(minLat, maxLat, minLng, maxLng);
+            Map<String, Long> counts = new HashMap<>();
+
+            if (servedFromGrid(from)) {
+                long fromMs = toEpochMillis(from);
+                long toMs = toEpochMillis(to);
+                for (String cell : cells) {
+                    for (GeoIncident incident : grid.getOrDefault(cell, List.of())) {
+                        if (incident.matches(minLat, maxLat, minLng, maxLng, fromMs, toMs)) {
+                            counts.merge(incident.getGeohash().substring(0, precision), 1L, Long::sum);
+                        }
+                    }
+                }
+                return counts;
+            }
+
+            for (Object[] row : incidentRepository.aggregateHeatmap(cells, precision, from, to,
+                    minLat, maxLat, minLng, maxLng)) {
+                counts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            return counts;
+        });
+    }
+
+    /**
+     * Noktanın çevresindeki olaylar, yakından uzağa sıralı
+     */
+    public List<GeoIncident> findNearby(double latitude, double longitude, double radiusMeters,
+                                        LocalDateTime from, LocalDateTime to) {
+        double latDelta = radiusMeters / METERS_PER_DEGREE_LAT;
+        double lngDelta = radiusMeters / (METERS_PER_DEGREE_LAT * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        double minLat = latitude - latDelta;
+        double maxLat = latitude + latDelta;
+        double minLng = longitude - lngDelta;
+        double maxLng = longitude + lngDelta;
+
+        Set<String> cells = coveringCells(minLat, maxLat, minLng, maxLng);
+        List<GeoIncident> candidates = new ArrayList<>();
+
+        if (servedFromGrid(from)) {
+            long fromMs = toEpochMillis(from);
+            long toMs = toEpochMillis(to);
+            for (String cell : cells) {
+                for (GeoIncident incident : grid.getOrDefault(cell, List.of())) {
+                    if (incident.matches(minLat, maxLat, minLng, maxLng, fromMs, toMs)) {
+                        candidates.add(incident);
+                    }
+                }
+            }
+        } else {
+            for (EmergencyIncident incident : incidentRepository.findInGeohashCells(cells, from, to,
+                    minLat, maxLat, minLng, maxLng, maxResults)) {
+                candidates.add(new GeoIncident(String.valueOf(incident.getId()),
+                        incident.getIncidentLatitude().doubleValue(), incident.getIncidentLongitude().doubleValue(),
+                        incident.getIncidentGeohash(), toEpochMillis(incident.getReportedAt())));
+            }
+        }
+
+        List<GeoIncident> nearby = new ArrayList<>();
+        for (GeoIncident incident : candidates) {
+            double distance = SphericalKdTree.distanceMeters(latitude, longitude,
+                    incident.getLatitude(), incident.getLongitude());
+            if (distance <= radiusMeters) {
+                nearby.add(incident.withDistance(distance));
+            }
+        }
+        nearby.sort(Comparator.comparingDouble(GeoIncident::getDistanceMeters));
+        return nearby.size() > maxResults ? nearby.subList(0, maxResults) : nearby;
+    }
+
+    /**
+     * Saklama penceresi dışına çıkan olayları grid'den at
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.geo-search.prune-interval-ms:300000}")
+    public void pruneGrid() {
+        long threshold = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours);
+        int[] removed = new int[1];
+
+        for (String cell : grid.keySet()) {
+            grid.computeIfPresent(cell, (key, current) -> {
+                List<GeoIncident> kept = new ArrayList<>(current.size());
+                for (GeoIncident incident : current) {
+                    if (incident.getReportedAtMillis() >= threshold) {
+                        kept.add(incident);
+                    } else {
+                        indexedIds.remove(incident.getIncidentId());
+                        removed[0]++;
+                    }
+                }
+                return kept.isEmpty() ? null : List.copyOf(kept);
+            });
+        }
+
+        if (removed[0] > 0) {
+            log.debug("Pruned {} incidents from geo grid", removed[0]);
+        }
+    }
+
+    // Yardımcı metodlar
+    private boolean servedFromGrid(LocalDateTime from) {
+        return gridReady && toEpochMillis(from) >= System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours);
+    }
+
+    /**
+     * Sınır kutusunu kapsayan bölüm hücreleri. Çok büyük kutular reddedilir
+     * (IllegalArgumentException, controller 400 döner).
+     */
+    static Set<String> coveringCells(double minLat, double maxLat, double minLng, double maxLng) {
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Invalid search area: min bounds exceed max bounds");
+        }
+        double[] sample = GeoHash.bounds(GeoHash.encode(minLat, minLng, CELL_PRECISION));
+        double latStep = sample[2] - sample[0];
+        double lngStep = sample[3] - sample[1];
+
+        long rows = (long) Math.ceil((maxLat - minLat) / latStep) + 1;
+        long columns = (long) Math.ceil((maxLng - minLng) / lngStep) + 1;
+        if (rows * columns > MAX_QUERY_CELLS) {
+            throw new IllegalArgumentException("Search area too large: " + rows * columns + " geohash cells");
+        }
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (long row = 0; row < rows; row++) {
+            double lat = Math.min(maxLat, minLat + row * latStep);
+            for (long column = 0; column < columns; column++) {
+                double lng = Math.min(maxLng, minLng + column * lngStep);
+                cells.add(GeoHash.encode(lat, lng, CELL_PRECISION));
+            }
+        }
+        return cells;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long timestampMillis(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.getTime();
+        }
+        return toEpochMillis((LocalDateTime) value);
+    }
+
+    private static long parseEpochMillis(Object value) {
+        if (value == null) {
+            return System.currentTimeMillis();
+        }
+        try {
+            return toEpochMillis(LocalDateTime.parse(value.toString()));
+        } catch (Exception e) {
+            return Instant.now().toEpochMilli();
+        }
+    }
+
+    // Inner Classes
+    public static class GeoIncident {
+        private final String incidentId;
+        private final double latitude;
+        private final double longitude;
+        private final String geohash;
+        private final long reportedAtMillis;
+        private final double distanceMeters;
+
+        public GeoIncident(String incidentId, double latitude, double longitude, String geohash, long reportedAtMillis) {
+            this(incidentId, latitude, longitude, geohash, reportedAtMillis, 0d);
+        }
+
+        private GeoIncident(String incidentId, double latitude, double longitude, String geohash,
+                            long reportedAtMillis, double distanceMeters) {
+            this.incidentId = incidentId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.geohash = geohash;
+            this.reportedAtMillis = reportedAtMillis;
+            this.distanceMeters = distanceMeters;
+        }
+
+        GeoIncident withDistance(double distance) {
+            return new GeoIncident(incidentId, latitude, longitude, geohash, reportedAtMillis, distance);
+        }
+
+        boolean matches(double minLat, double maxLat, double minLng, double maxLng, long fromMs, long toMs) {
+            return latitude >= minLat && latitude <= maxLat
+                    && longitude >= minLng && longitude <= maxLng
+                    && reportedAtMillis >= fromMs && reportedAtMillis < toMs;
+        }
+
+        // Getters
+        public String getIncidentId() { return incidentId; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public String getGeohash() { return geohash; }
+        public long getReportedAtMillis() { return reportedAtMillis; }
+        public double getDistanceMeters() { return distanceMeters; }
+    }
+}
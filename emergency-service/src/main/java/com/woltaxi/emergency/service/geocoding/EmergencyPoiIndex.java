@@ -0,0 +1,234 @@
+package com.woltaxi.emergency.service.geocoding;
+
+import com.woltaxi.emergency.util.SphericalKdTree;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emergency POI Index - Yerel Acil Servis Noktaları İndeksi
+ * Hastane, polis ve itfaiye gibi noktalar ülke başına CSV dosyalarından yüklenir
+ * ve servis türü başına küresel KD-tree'de tutulur. Dizin periyodik taranır;
+ * yalnızca değişen/silinen ülke dosyaları yeniden okunur ve ağaçlar arka planda
+ * kurulup atomik olarak değiştirilir.
+ *
+ * Dosya: {poi-directory}/{ÜLKE_KODU}.csv
+ * Satır: serviceType,placeId,name,address,latitude,longitude[,rating]
+ * Virgül içeren alanlar RFC 4180'e göre çift tırnakla yazılır ("Atatürk Cad. 12, Kadıköy");
+ * tırnak içindeki tırnak "" ile kaçırılır.
+ */
+@Slf4j
+@Component
+public class EmergencyPoiIndex {
+
+    private final Map<String, LoadedFile> loadedFiles = new ConcurrentHashMap<>();
+    private volatile Map<String, SphericalKdTree<PoiRecord>> treesByType = Map.of();
+
+    @Value("${woltaxi.emergency.geocoding.poi.directory:/opt/woltaxi/geodata/poi}")
+    private String poiDirectory;
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * Dosya bırakma dizinini tara ve değişen ülkeleri yeniden yükle
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.geocoding.poi.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        Path directory = Path.of(poiDirectory);
+        if (!Files.isDirectory(directory)) {
+            log.debug("POI directory not found: {}", directory);
+            return;
+        }
+
+        Set<String> seen = new HashSet<>();
+        boolean changed = false;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path file : files) {
+                String countryCode = file.getFileName().toString().replace(".csv", "").toUpperCase();
+                seen.add(countryCode);
+
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                LoadedFile current = loadedFiles.get(countryCode);
+                if (current != null && current.modifiedAt == modified) {
+                    continue;
+                }
+
+                List<PoiRecord> records = parse(file, countryCode);
+                loadedFiles.put(countryCode, new LoadedFile(modified, records));
+                changed = true;
+                log.info("Loaded {} emergency POIs for country {}", records.size(), countryCode);
+            }
+        } catch (Exception e) {
+            log.error("Failed to scan POI directory: {}", directory, e);
+            return;
+        }
+
+        changed |= loadedFiles.keySet().retainAll(seen);
+        if (changed) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Yarıçap içindeki en yakın k nokta; tür için veri yoksa null (uzak API'ye düşülmeli)
+     */
+    public List<PoiRecord> findNearest(String serviceType, double latitude, double longitude,
+                                       int k, double radiusMeters) {
+        SphericalKdTree<PoiRecord> tree = treesByType.get(serviceType.toUpperCase());
+        if (tree == null || tree.size() == 0) {
+            return null;
+        }
+        return tree.nearest(latitude, longitude, k, radiusMeters);
+    }
+
+    public int size() {
+        return treesByType.values().stream().mapToInt(SphericalKdTree::size).sum();
+    }
+
+    // Yardımcı metodlar
+    private void rebuild() {
+        Map<String, List<PoiRecord>> byType = new HashMap<>();
+        loadedFiles.values().forEach(file -> file.records.forEach(record ->
+                byType.computeIfAbsent(record.getServiceType(), type -> new ArrayList<>()).add(record)));
+
+        Map<String, SphericalKdTree<PoiRecord>> trees = new HashMap<>();
+        byType.forEach((type, records) ->
+                trees.put(type, SphericalKdTree.build(records, PoiRecord::getLatitude, PoiRecord::getLongitude)));
+
+        treesByType = Map.copyOf(trees);
+        log.info("Rebuilt emergency POI index: {} types, {} points", trees.size(), size());
+    }
+
+    private List<PoiRecord> parse(Path file, String countryCode) throws Exception {
+        List<PoiRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                List<String> columns = splitCsvLine(line);
+                if (columns == null || columns.size() < 6) {
+                    log.warn("Skipping malformed POI line {} in {}", lineNumber, file);
+                    continue;
+                }
+                try {
+                    records.add(new PoiRecord(
+                            columns.get(0).trim().toUpperCase(),
+                            columns.get(1).trim(),
+                            columns.get(2).trim(),
+                            columns.get(3).trim(),
+                            Double.parseDouble(columns.get(4).trim()),
+                            Double.parseDouble(columns.get(5).trim()),
+                            columns.size() > 6 && !columns.get(6).isBlank() ? Double.valueOf(columns.get(6).trim()) : null,
+                            countryCode
+                    ));
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping POI line {} in {} with invalid coordinates", lineNumber, file);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Tırnak duyarlı CSV satır ayrıştırma; kapanmamış tırnakta null
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            return null;
+        }
+        columns.add(field.toString());
+        return columns;
+    }
+
+    // Inner Classes
+    private static final class LoadedFile {
+        private final long modifiedAt;
+        private final List<PoiRecord> records;
+
+        LoadedFile(long modifiedAt, List<PoiRecord> records) {
+            this.modifiedAt = modifiedAt;
+            this.records = records;
+        }
+    }
+
+    public static class PoiRecord {
+        private final String serviceType;
+        private final String placeId;
+        private final String name;
+        private final String address;
+        private final double latitude;
+        private final double longitude;
+        private final Double rating;
+        private final String countryCode;
+
+        public PoiRecord(String serviceType, String placeId, String name, String address,
+                         double latitude, double longitude, Double rating, String countryCode) {
+            this.serviceType = serviceType;
+            this.placeId = placeId;
+            this.name = name;
+            this.address = address;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.rating = rating;
+            this.countryCode = countryCode;
+        }
+
+        // Getters
+        public String getServiceType() { return serviceType; }
+        public String getPlaceId() { return placeId; }
+        public String getName() { return name; }
+        public String getAddress() { return address; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public Double getRating() { return rating; }
+        public String getCountryCode() { return countryCode; }
+    }
+}
@@ -0,0 +1,142 @@
+package com.woltaxi.emergency.service.geocoding;
+
+import com.woltaxi.emergency.util.GeoHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Geohash Address Cache - Sokak Adresi Önbelleği
+ * Adresler geohash hücresi + dil anahtarıyla LRU önbellekte tutulur. Iskalamada
+ * adres arka planda çekilir; aynı hücre için eşzamanlı istekler tek çağrıda birleşir.
+ * Çağıran hiçbir zaman ağ çağrısını beklemek zorunda değildir.
+ */
+@Slf4j
+@Component
+public class GeohashAddressCache {
+
+    private final Map<String, String> addresses;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService fetchExecutor;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${woltaxi.emergency.geocoding.address-cache.geohash-precision:7}")
+    private int geohashPrecision;
+
+    public GeohashAddressCache(MeterRegistry meterRegistry,
+                               @Value("${woltaxi.emergency.geocoding.address-cache.max-entries:50000}") int maxEntries,
+                               @Value("${woltaxi.emergency.geocoding.address-cache.fetch-threads:4}") int fetchThreads) {
+        this.addresses = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.fetchExecutor = Executors.newFixedThreadPool(fetchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "geocode-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hits = meterRegistry.counter("emergency.geocoding.address.cache", "result", "hit");
+        this.misses = meterRegistry.counter("emergency.geocoding.address.cache", "result", "miss");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Önbellekteki adres; yoksa null
+     */
+    public String getIfPresent(double latitude, double longitude, String language) {
+        String address = lookup(key(latitude, longitude, language));
+        if (address != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return address;
+    }
+
+    /**
+     * Adresi önbellekten döndür veya arka planda yükle. Yükleyici null dönerse
+     * sonuç önbelleğe alınmaz (sonraki istekte tekrar denenir).
+     */
+    public CompletableFuture<String> getOrLoadAsync(double latitude, double longitude, String language,
+                                                    Supplier<String> loader) {
+        String cached = getIfPresent(latitude, longitude, language);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return loadAsync(latitude, longitude, language, loader);
+    }
+
+    /**
+     * getIfPresent ıskaladıktan sonra adresi arka planda yükle. Iskalama zaten
+     * sayıldığı için metrik tekrar sayılmaz.
+     */
+    public CompletableFuture<String> loadAsync(double latitude, double longitude, String language,
+                                               Supplier<String> loader) {
+        String key = key(latitude, longitude, language);
+        // Arada başka bir yükleme tamamlanmış olabilir
+        String cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return existing;
+        }
+
+        fetchExecutor.execute(() -> {
+            try {
+                String address = loader.get();
+                if (address != null) {
+                    synchronized (addresses) {
+                        addresses.put(key, address);
+                    }
+                }
+                inFlight.remove(key, pending);
+                pending.complete(address);
+            } catch (Exception e) {
+                log.warn("Background address fetch failed for cell: {}", key, e);
+                inFlight.remove(key, pending);
+                pending.completeExceptionally(e);
+            }
+        });
+        return pending;
+    }
+
+    public int size() {
+        synchronized (addresses) {
+            return addresses.size();
+        }
+    }
+
+    // Yardımcı metodlar
+    private String lookup(String key) {
+        synchronized (addresses) {
+            return addresses.get(key);
+        }
+    }
+
+    private String key(double latitude, double longitude, String language) {
+        return GeoHash.encode(latitude, longitude, geohashPrecision) + ":" + (language != null ? language : "tr");
+    }
+}
@@ -0,0 +1,184 @@
+package com.woltaxi.emergency.service.geocoding;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.WKBReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Offline Boundary Index - Çevrimdışı Ülke/İl Sınır İndeksi
+ * Ülke ve idari sınır poligonları bellek eşlemeli (memory-mapped) dosyadan okunur,
+ * zarfları (envelope) STR-tree'ye yerleştirilir. Poligonlar ilk isabette WKB'den
+ * çözülüp PreparedGeometry olarak saklanır; sorgu mikrosaniye mertebesindedir.
+ *
+ * Dosya formatı (big-endian):
+ *   "WGEO" | int version | int recordCount |
+ *   record* = short len + countryCode (UTF-8) | short len + adminName (UTF-8) | byte level |
+ *             double minLng, minLat, maxLng, maxLat | int wkbLength | wkb
+ * level 0 ülke, 1+ idari bölge sınırıdır.
+ */
+@Slf4j
+@Component
+public class OfflineBoundaryIndex {
+
+    private static final int MAGIC = 0x5747454F; // "WGEO"
+    private static final int SUPPORTED_VERSION = 1;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private volatile STRtree index = new STRtree();
+    private volatile int boundaryCount;
+
+    @Value("${woltaxi.emergency.geocoding.offline.boundaries-file:/opt/woltaxi/geodata/boundaries.wgeo}")
+    private String boundariesFile;
+
+    @PostConstruct
+    public void load() {
+        Path path = Path.of(boundariesFile);
+        if (!Files.isReadable(path)) {
+            log.error("Offline boundary file not found: {} - country lookups fall back to the online geocoder", path);
+            index.build();
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != SUPPORTED_VERSION) {
+                throw new IOException("Unsupported boundary file format: " + path);
+            }
+
+            int count = buffer.getInt();
+            STRtree tree = new STRtree();
+            for (int i = 0; i < count; i++) {
+                String countryCode = readString(buffer);
+                String adminName = readString(buffer);
+                int level = buffer.get();
+                double minLng = buffer.getDouble();
+                double minLat = buffer.getDouble();
+                double maxLng = buffer.getDouble();
+                double maxLat = buffer.getDouble();
+                Envelope envelope = new Envelope(minLng, maxLng, minLat, maxLat);
+                int wkbLength = buffer.getInt();
+                ByteBuffer wkb = buffer.slice(buffer.position(), wkbLength);
+                buffer.position(buffer.position() + wkbLength);
+
+                tree.insert(envelope, new Boundary(countryCode, adminName, level, wkb));
+            }
+            tree.build();
+
+            index = tree;
+            boundaryCount = count;
+            log.info("Loaded {} offline boundaries from {}", count, path);
+
+        } catch (Exception e) {
+            log.error("Failed to load offline boundary file: {} - country lookups fall back to the online geocoder",
+                    path, e);
+            index.build();
+        }
+    }
+
+    /**
+     * Noktayı içeren en spesifik sınırı bul; bulunamazsa null
+     */
+    public BoundaryMatch resolve(double latitude, double longitude) {
+        Point point = geometryFactory.createPoint(new Coordinate(longitude, latitude));
+
+        @SuppressWarnings("unchecked")
+        List<Boundary> candidates = index.query(point.getEnvelopeInternal());
+
+        Boundary country = null;
+        Boundary admin = null;
+        for (Boundary candidate : candidates) {
+            if (!candidate.geometry().contains(point)) {
+                continue;
+            }
+            if (candidate.level == 0) {
+                country = candidate;
+            } else if (admin == null || candidate.level > admin.level) {
+                admin = candidate;
+            }
+        }
+
+        if (country == null && admin == null) {
+            return null;
+        }
+        String countryCode = country != null ? country.countryCode : admin.countryCode;
+        return new BoundaryMatch(countryCode, admin != null ? admin.name : null);
+    }
+
+    public int getBoundaryCount() {
+        return boundaryCount;
+    }
+
+    // Yardımcı metodlar
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Inner Classes
+    private static final class Boundary {
+        private final String countryCode;
+        private final String name;
+        private final int level;
+        private final ByteBuffer wkb;
+        private volatile PreparedGeometry prepared;
+
+        Boundary(String countryCode, String name, int level, ByteBuffer wkb) {
+            this.countryCode = countryCode;
+            this.name = name;
+            this.level = level;
+            this.wkb = wkb;
+        }
+
+        /**
+         * Poligon ilk ihtiyaçta çözülür; eşzamanlı çözüm zararsızdır (aynı sonuç)
+         */
+        PreparedGeometry geometry() {
+            PreparedGeometry geometry = prepared;
+            if (geometry == null) {
+                try {
+                    byte[] bytes = new byte[wkb.remaining()];
+                    wkb.duplicate().get(bytes);
+                    geometry = PreparedGeometryFactory.prepare(new WKBReader().read(bytes));
+                    prepared = geometry;
+                } catch (Exception e) {
+                    throw new IllegalStateException("Corrupt boundary geometry for " + countryCode + "/" + name, e);
+                }
+            }
+            return geometry;
+        }
+    }
+
+    public static class BoundaryMatch {
+        private final String countryCode;
+        private final String adminName;
+
+        public BoundaryMatch(String countryCode, String adminName) {
+            this.countryCode = countryCode;
+            this.adminName = adminName;
+        }
+
+        // Getters
+        public String getCountryCode() { return countryCode; }
+        public String getAdminName() { return adminName; }
+    }
+}
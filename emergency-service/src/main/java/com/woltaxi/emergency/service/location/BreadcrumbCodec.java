@@ -0,0 +1,107 @@
+package com.woltaxi.emergency.service.location;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Breadcrumb Codec - Sıkıştırılmış Konum İzi Kodlayıcı
+ * Koordinatlar 1e-7 derece hassasiyetinde tamsayıya çevrilir, ardışık noktalar
+ * arasındaki farklar zigzag varint olarak yazılır ve sonuç deflate ile sıkıştırılır.
+ * 15 saniyelik güncellemelerde nokta başına tipik olarak 6-8 byte tutar.
+ */
+public final class BreadcrumbCodec {
+
+    private static final double COORDINATE_SCALE = 1e7;
+    private static final double ACCURACY_SCALE = 10.0; // desimetre
+
+    private BreadcrumbCodec() {
+    }
+
+    public static byte[] encode(List<LocationFrame> frames) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(frames.size() * 8 + 16);
+        try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_SPEED))) {
+            writeVarLong(out, frames.size());
+
+            long prevLat = 0;
+            long prevLng = 0;
+            long prevTime = 0;
+            for (LocationFrame frame : frames) {
+                long lat = Math.round(frame.getLatitude() * COORDINATE_SCALE);
+                long lng = Math.round(frame.getLongitude() * COORDINATE_SCALE);
+                writeVarLong(out, zigzag(lat - prevLat));
+                writeVarLong(out, zigzag(lng - prevLng));
+                writeVarLong(out, zigzag(frame.getTimestamp() - prevTime));
+                writeVarLong(out, Math.max(0, Math.round(frame.getAccuracy() * ACCURACY_SCALE)));
+                prevLat = lat;
+                prevLng = lng;
+                prevTime = frame.getTimestamp();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode breadcrumb trail", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<LocationFrame> decode(String incidentId, String sessionId, byte[] encoded) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(encoded))) {
+            int count = (int) readVarLong(in);
+            List<LocationFrame> frames = new ArrayList<>(count);
+
+            long lat = 0;
+            long lng = 0;
+            long time = 0;
+            for (int i = 0; i < count; i++) {
+                lat += unzigzag(readVarLong(in));
+                lng += unzigzag(readVarLong(in));
+                time += unzigzag(readVarLong(in));
+                double accuracy = readVarLong(in) / ACCURACY_SCALE;
+                frames.add(new LocationFrame(incidentId, sessionId, i,
+                        lat / COORDINATE_SCALE, lng / COORDINATE_SCALE, accuracy, time));
+            }
+            return frames;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode breadcrumb trail", e);
+        }
+    }
+
+    // Yardımcı metodlar
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated breadcrumb trail");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint in breadcrumb trail");
+    }
+}
@@ -0,0 +1,214 @@
+package com.woltaxi.emergency.service.location;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emergency Location Stream Service - Gerçek Zamanlı Konum Akışı
+ * Her konum güncellemesi olay bazlı ring buffer'a eklenir ve hemen STOMP ile
+ * abonelere (operatörler ve acil durum kişileri) yayınlanır. Veritabanı yazımları
+ * periyodik olarak birleştirilir: her olay için bir flush turunda tek satırlık
+ * sıkıştırılmış iz (breadcrumb) JDBC batch ile yazılır.
+ *
+ * Tampon ekleme ve tamponun haritadan çıkarılması aynı map girdisi üzerinde atomik
+ * yapılır; böylece boşta tampon temizliği ya da akış kapatma yeni eklenen bir
+ * frame'i kaybetmez. Yeni tamponların sıra numarası olayın son yazılmış izinden
+ * devam eder, breadcrumb first_sequence değerleri çakışmaz.
+ */
+@Slf4j
+@Service
+public class EmergencyLocationStreamService {
+
+    public static final String LOCATION_TOPIC_TEMPLATE = "/topic/emergency/%s/location";
+
+    private static final String INSERT_BREADCRUMB_SQL =
+            "INSERT INTO emergency_location_breadcrumbs " +
+            "(incident_id, session_id, first_sequence, point_count, first_recorded_at, last_recorded_at, " +
+            "last_latitude, last_longitude, encoded_path) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String NEXT_SEQUENCE_SQL =
+            "SELECT COALESCE(MAX(first_sequence + point_count), 0) FROM emergency_location_breadcrumbs " +
+            "WHERE incident_id = ?";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, LocationRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    private final Counter framesPublished;
+    private final Counter framesPersisted;
+    private final Counter framesDropped;
+
+    @Value("${woltaxi.emergency.location-tracking.stream.buffer-capacity:256}")
+    private int bufferCapacity;
+
+    @Value("${woltaxi.emergency.location-tracking.stream.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    public EmergencyLocationStreamService(SimpMessagingTemplate messagingTemplate,
+                                          JdbcTemplate jdbcTemplate,
+                                          MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.framesPublished = meterRegistry.counter("emergency.location.frames.published");
+        this.framesPersisted = meterRegistry.counter("emergency.location.frames.persisted");
+        this.framesDropped = meterRegistry.counter("emergency.location.frames.dropped");
+        meterRegistry.gaugeMapSize("emergency.location.streams.active", List.of(), buffers);
+    }
+
+    /**
+     * Konum frame'ini tampona ekle ve abonelere hemen yayınla
+     */
+    public LocationFrame publish(String incidentId, String sessionId,
+                                 double latitude, double longitude, double accuracy) {
+        // İlk frame'de sıra numarası tampon kilidi dışında okunur
+        long firstSequence = buffers.containsKey(incidentId) ? 0L : nextSequence(incidentId);
+
+        LocationFrame[] appended = new LocationFrame[1];
+        buffers.compute(incidentId, (id, buffer) -> {
+            LocationRingBuffer target = buffer != null ? buffer : new LocationRingBuffer(bufferCapacity, firstSequence);
+            appended[0] = target.append(incidentId, sessionId, latitude, longitude, accuracy,
+                    System.currentTimeMillis());
+            return target;
+        });
+        LocationFrame frame = appended[0];
+
+        try {
+            messagingTemplate.convertAndSend(String.format(LOCATION_TOPIC_TEMPLATE, incidentId), frame);
+            framesPublished.increment();
+        } catch (Exception e) {
+            // Yayın hatası kalıcılığı engellememeli - frame tamponda kalır
+            log.error("Failed to broadcast location frame for incident: {}", incidentId, e);
+        }
+        return frame;
+    }
+
+    /**
+     * Yeni abonelere gösterilecek son konum izi
+     */
+    public List<LocationFrame> getRecentTrail(String incidentId) {
+        LocationRingBuffer buffer = buffers.get(incidentId);
+        return buffer != null ? buffer.snapshot() : List.of();
+    }
+
+    /**
+     * Akışı kapat - kalan frame'ler hemen yazılır ve tampon bırakılır.
+     * Yazma başarısız olursa tampon kalır, frame'ler bir sonraki flush'ta tekrar denenir.
+     */
+    public void closeStream(String incidentId) {
+        LocationRingBuffer buffer = buffers.get(incidentId);
+        if (buffer == null) {
+            return;
+        }
+        if (!flush(List.of(Map.entry(incidentId, buffer)))) {
+            log.warn("Location stream for incident: {} kept open until its frames are persisted", incidentId);
+            return;
+        }
+        // Flush ile kapatma arasında eklenen frame varsa tampon kalır
+        buffers.computeIfPresent(incidentId, (id, current) ->
+                current == buffer && !current.hasUnpersisted() ? null : current);
+    }
+
+    /**
+     * Birikmiş frame'leri toplu olarak yaz
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.location-tracking.stream.flush-interval-ms:5000}")
+    public void flushBuffers() {
+        List<Map.Entry<String, LocationRingBuffer>> dirty = new ArrayList<>();
+        long idleThreshold = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictionMinutes);
+
+        buffers.forEach((incidentId, buffer) -> {
+            if (buffer.hasUnpersisted()) {
+                dirty.add(Map.entry(incidentId, buffer));
+            } else {
+                // Ekleme ile aynı map girdisi kilidi altında - yeni gelen frame kaybolmaz
+                buffers.computeIfPresent(incidentId, (id, current) ->
+                        current.isIdleSince(idleThreshold) ? null : current);
+            }
+        });
+
+        if (!dirty.isEmpty()) {
+            flush(dirty);
+        }
+    }
+
+    // Yardımcı metodlar
+
+    /**
+     * Olayın yazılmış son frame'inden sonraki sıra numarası
+     */
+    private long nextSequence(String incidentId) {
+        try {
+            Long next = jdbcTemplate.queryForObject(NEXT_SEQUENCE_SQL, Long.class, incidentId);
+            return next != null ? next : 0L;
+        } catch (Exception e) {
+            // Canlı yayın DB'ye bağlı kalmamalı - saat tabanlı başlangıç önceki tamponların üstünde kalır
+            log.warn("Could not read last breadcrumb sequence for incident: {}", incidentId, e);
+            return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @return yazılacak bir şey yoksa veya yazma başarılıysa true
+     */
+    private boolean flush(List<Map.Entry<String, LocationRingBuffer>> entries) {
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        List<Map.Entry<LocationRingBuffer, Long>> cursors = new ArrayList<>(entries.size());
+        long[] dropped = new long[1];
+        int points = 0;
+
+        for (Map.Entry<String, LocationRingBuffer> entry : entries) {
+            List<LocationFrame> frames = entry.getValue().drainUnpersisted(dropped);
+            if (dropped[0] > 0) {
+                framesDropped.increment(dropped[0]);
+                log.warn("Dropped {} unpersisted location frames for incident: {}", dropped[0], entry.getKey());
+            }
+            if (frames.isEmpty()) {
+                continue;
+            }
+
+            LocationFrame first = frames.get(0);
+            LocationFrame last = frames.get(frames.size() - 1);
+            rows.add(new Object[]{
+                    entry.getKey(),
+                    last.getSessionId(),
+                    first.getSequence(),
+                    frames.size(),
+                    new Timestamp(first.getTimestamp()),
+                    new Timestamp(last.getTimestamp()),
+                    last.getLatitude(),
+                    last.getLongitude(),
+                    BreadcrumbCodec.encode(frames)
+            });
+            cursors.add(Map.entry(entry.getValue(), first.getSequence()));
+            points += frames.size();
+        }
+
+        if (rows.isEmpty()) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT_BREADCRUMB_SQL, rows);
+            framesPersisted.increment(points);
+            log.debug("Persisted {} location frames in {} breadcrumb rows", points, rows.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to persist location breadcrumbs, will retry on next flush", e);
+            cursors.forEach(cursor -> cursor.getKey().rewindPersisted(cursor.getValue()));
+            return false;
+        }
+    }
+}
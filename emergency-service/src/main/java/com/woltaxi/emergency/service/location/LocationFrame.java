@@ -0,0 +1,36 @@
+package com.woltaxi.emergency.service.location;
+
+/**
+ * Location Frame - Tek Bir Konum Güncellemesi
+ * Değişmez (immutable) nesne; ring buffer'da tutulur ve STOMP ile abonelere gönderilir.
+ */
+public class LocationFrame {
+
+    private final String incidentId;
+    private final String sessionId;
+    private final long sequence;
+    private final double latitude;
+    private final double longitude;
+    private final double accuracy;
+    private final long timestamp;
+
+    public LocationFrame(String incidentId, String sessionId, long sequence,
+                         double latitude, double longitude, double accuracy, long timestamp) {
+        this.incidentId = incidentId;
+        this.sessionId = sessionId;
+        this.sequence = sequence;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracy = accuracy;
+        this.timestamp = timestamp;
+    }
+
+    // Getters
+    public String getIncidentId() { return incidentId; }
+    public String getSessionId() { return sessionId; }
+    public long getSequence() { return sequence; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public double getAccuracy() { return accuracy; }
+    public long getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,100 @@
+package com.woltaxi.emergency.service.location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Location Ring Buffer - Olay Bazlı Sabit Kapasiteli Konum Tamponu
+ * Son N konumu tutar (yeni abonelere iz göstermek için) ve henüz veritabanına
+ * yazılmamış konumların imlecini takip eder. Kapasite dolunca en eski kayıt ezilir.
+ * Sıra numaraları olay bazında artmaya devam eder; yeni bir tampon, aynı olayın
+ * önceki tamponlarının bıraktığı sıra numarasından başlatılır.
+ */
+public class LocationRingBuffer {
+
+    private final LocationFrame[] frames;
+    private final long firstSequence;   // Bu tamponun ilk frame'inin sıra numarası
+    private long nextSequence;          // Yazılacak bir sonraki frame'in sıra numarası
+    private long persistedSequence;     // Bu sıra numarasından küçük frame'ler kalıcı
+    private long lastAppendMillis;
+
+    public LocationRingBuffer(int capacity) {
+        this(capacity, 0L);
+    }
+
+    public LocationRingBuffer(int capacity, long firstSequence) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive");
+        }
+        if (firstSequence < 0) {
+            throw new IllegalArgumentException("First sequence must not be negative");
+        }
+        this.frames = new LocationFrame[capacity];
+        this.firstSequence = firstSequence;
+        this.nextSequence = firstSequence;
+        this.persistedSequence = firstSequence;
+        this.lastAppendMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Yeni konum ekle ve sıra numarası atanmış frame'i dön
+     */
+    public synchronized LocationFrame append(String incidentId, String sessionId,
+                                             double latitude, double longitude, double accuracy, long timestamp) {
+        LocationFrame frame = new LocationFrame(incidentId, sessionId, nextSequence,
+                latitude, longitude, accuracy, timestamp);
+        frames[(int) (nextSequence % frames.length)] = frame;
+        nextSequence++;
+        lastAppendMillis = System.currentTimeMillis();
+        return frame;
+    }
+
+    /**
+     * Tampondaki son konumları eski → yeni sırasıyla dön
+     */
+    public synchronized List<LocationFrame> snapshot() {
+        long from = Math.max(firstSequence, nextSequence - frames.length);
+        List<LocationFrame> result = new ArrayList<>((int) (nextSequence - from));
+        for (long seq = from; seq < nextSequence; seq++) {
+            result.add(frames[(int) (seq % frames.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * Henüz yazılmamış frame'leri al ve kalıcı olarak işaretle.
+     * Ezilen (kaybolan) frame sayısı droppedCount içine yazılır.
+     */
+    public synchronized List<LocationFrame> drainUnpersisted(long[] droppedCount) {
+        long from = Math.max(persistedSequence, nextSequence - frames.length);
+        droppedCount[0] = from - persistedSequence;
+        List<LocationFrame> result = new ArrayList<>((int) (nextSequence - from));
+        for (long seq = from; seq < nextSequence; seq++) {
+            result.add(frames[(int) (seq % frames.length)]);
+        }
+        persistedSequence = nextSequence;
+        return result;
+    }
+
+    /**
+     * Yazma başarısız olursa imleci geri al
+     */
+    public synchronized void rewindPersisted(long sequence) {
+        persistedSequence = Math.min(persistedSequence, sequence);
+    }
+
+    public synchronized boolean hasUnpersisted() {
+        return persistedSequence < nextSequence;
+    }
+
+    public synchronized long getLastAppendMillis() {
+        return lastAppendMillis;
+    }
+
+    /**
+     * Tüm frame'ler yazıldı ve verilen zamandan beri yeni frame gelmedi mi
+     */
+    public synchronized boolean isIdleSince(long thresholdMillis) {
+        return persistedSequence >= nextSequence && lastAppendMillis < thresholdMillis;
+    }
+}
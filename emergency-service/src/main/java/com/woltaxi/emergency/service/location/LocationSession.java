@@ -0,0 +1,80 @@
+package com.woltaxi.emergency.service.location;
+
+/**
+ * Location Session - Acil Durum Konum Takip Oturumu
+ * Değişmez (immutable) nesne; her güncelleme yeni bir örnek üretir ve registry
+ * tarafından atomik olarak yerine konur. Böylece okuyucular her zaman tutarlı
+ * bir konum + zaman çifti görür.
+ */
+public final class LocationSession {
+
+    private final String sessionId;
+    private final String incidentId;
+    private final String userId;
+    private final long startTime;
+    private final long durationMs;
+    private final long updateIntervalMs;
+    private final boolean active;
+    private final double lastLatitude;
+    private final double lastLongitude;
+    private final double lastAccuracy;
+    private final long lastUpdateTime;
+
+    public LocationSession(String sessionId, String incidentId, String userId,
+                           long startTime, long durationMs, long updateIntervalMs, boolean active) {
+        this(sessionId, incidentId, userId, startTime, durationMs, updateIntervalMs, active, 0, 0, 0, 0);
+    }
+
+    public LocationSession(String sessionId, String incidentId, String userId,
+                           long startTime, long durationMs, long updateIntervalMs, boolean active,
+                           double lastLatitude, double lastLongitude, double lastAccuracy, long lastUpdateTime) {
+        this.sessionId = sessionId;
+        this.incidentId = incidentId;
+        this.userId = userId;
+        this.startTime = startTime;
+        this.durationMs = durationMs;
+        this.updateIntervalMs = updateIntervalMs;
+        this.active = active;
+        this.lastLatitude = lastLatitude;
+        this.lastLongitude = lastLongitude;
+        this.lastAccuracy = lastAccuracy;
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    /**
+     * Yeni konum ile kopyala
+     */
+    public LocationSession withLocation(double latitude, double longitude, double accuracy, long updateTime) {
+        return new LocationSession(sessionId, incidentId, userId, startTime, durationMs, updateIntervalMs,
+                active, latitude, longitude, accuracy, updateTime);
+    }
+
+    /**
+     * Pasif olarak kopyala
+     */
+    public LocationSession deactivate() {
+        return new LocationSession(sessionId, incidentId, userId, startTime, durationMs, updateIntervalMs,
+                false, lastLatitude, lastLongitude, lastAccuracy, lastUpdateTime);
+    }
+
+    public long getExpiresAt() {
+        return startTime + durationMs;
+    }
+
+    public boolean isExpired(long now) {
+        return now > getExpiresAt();
+    }
+
+    // Getters
+    public String getSessionId() { return sessionId; }
+    public String getIncidentId() { return incidentId; }
+    public String getUserId() { return userId; }
+    public long getStartTime() { return startTime; }
+    public long getDurationMs() { return durationMs; }
+    public long getUpdateIntervalMs() { return updateIntervalMs; }
+    public boolean isActive() { return active; }
+    public double getLastLatitude() { return lastLatitude; }
+    public double getLastLongitude() { return lastLongitude; }
+    public double getLastAccuracy() { return lastAccuracy; }
+    public long getLastUpdateTime() { return lastUpdateTime; }
+}
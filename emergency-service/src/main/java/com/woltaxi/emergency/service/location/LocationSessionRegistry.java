@@ -0,0 +1,322 @@
+package com.woltaxi.emergency.service.location;
+
+import com.woltaxi.emergency.util.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Location Session Registry - Konum Oturumu Kayıt Defteri
+ * - sessionId → oturum ana indeksi, userId → aktif sessionId ikincil indeksi (O(1) arama)
+ * - Kullanıcı başına tek aktif oturum; yeni oturum öncekini kaldırır
+ * - Oturumlar değişmezdir; güncellemeler computeIfPresent ile atomik olarak yer değiştirir
+ * - Süre dolumu hiyerarşik timing wheel ile tetiklenir, tam tarama yapılmaz
+ * - Her değişiklik Redis'e yazılır; başka bir node oturumu ilk erişimde Redis'ten yükler
+ */
+@Slf4j
+@Component
+public class LocationSessionRegistry {
+
+    private static final String SESSION_KEY_PREFIX = "emergency:location:session:";
+    private static final String USER_KEY_PREFIX = "emergency:location:user:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Map<String, LocationSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, String> activeSessionByUser = new ConcurrentHashMap<>();
+    private final Map<String, HierarchicalTimingWheel.Timeout<String>> expiryTimers = new ConcurrentHashMap<>();
+    private final List<Consumer<LocationSession>> expiryListeners = new CopyOnWriteArrayList<>();
+
+    private HierarchicalTimingWheel<String> expiryWheel;
+
+    @Value("${woltaxi.emergency.location-tracking.registry.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${woltaxi.emergency.location-tracking.registry.redis-grace-minutes:5}")
+    private long redisGraceMinutes;
+
+    public LocationSessionRegistry(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        // 1s x 64 = ~1 dk, 64 dk, ~68 saat, ~182 gün
+        expiryWheel = new HierarchicalTimingWheel<>("location-sessions", tickMs, 64, 4, this::expire);
+        expiryWheel.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryWheel.stop();
+    }
+
+    /**
+     * Süre dolumunda çağrılacak dinleyici ekle
+     */
+    public void onExpiry(Consumer<LocationSession> listener) {
+        expiryListeners.add(listener);
+    }
+
+    /**
+     * Yeni oturum kaydet ve replike et. Kullanıcının önceki oturumu kaldırılır
+     * (zamanlayıcı, replika); bu node'daysa devre dışı hali döner, akışını çağıran kapatır.
+     */
+    public LocationSession register(LocationSession session) {
+        String previous = activeSessionByUser.put(session.getUserId(), session.getSessionId());
+        if (previous == null) {
+            previous = readReplicaUserIndex(session.getUserId());
+        }
+
+        LocationSession superseded = null;
+        if (previous != null && !previous.equals(session.getSessionId())) {
+            log.info("User {} started a new location session {}, superseding {}",
+                    session.getUserId(), session.getSessionId(), previous);
+            superseded = supersede(previous);
+        }
+
+        sessions.put(session.getSessionId(), session);
+        scheduleExpiry(session);
+        replicate(session);
+        return superseded;
+    }
+
+    /**
+     * Konumu atomik olarak güncelle. Oturum bu node'da yoksa Redis'ten yüklenir.
+     * Oturum bulunamaz veya aktif değilse null döner.
+     */
+    public LocationSession updateLocation(String sessionId, double latitude, double longitude,
+                                          double accuracy, long updateTime) {
+        if (!sessions.containsKey(sessionId)) {
+            loadFromReplica(sessionId);
+        }
+
+        LocationSession updated = sessions.computeIfPresent(sessionId, (id, current) ->
+                current.isActive() ? current.withLocation(latitude, longitude, accuracy, updateTime) : current);
+
+        if (updated == null || !updated.isActive()) {
+            return null;
+        }
+
+        replicateLocation(updated);
+        return updated;
+    }
+
+    /**
+     * Oturumu kaldır (durdurma veya süre dolumu)
+     */
+    public LocationSession remove(String sessionId) {
+        LocationSession removed = sessions.remove(sessionId);
+        HierarchicalTimingWheel.Timeout<String> timer = expiryTimers.remove(sessionId);
+        if (timer != null) {
+            expiryWheel.cancel(timer);
+        }
+
+        if (removed != null) {
+            activeSessionByUser.remove(removed.getUserId(), sessionId);
+            deleteReplica(removed);
+            return removed.deactivate();
+        }
+        return null;
+    }
+
+    public LocationSession get(String sessionId) {
+        LocationSession session = sessions.get(sessionId);
+        return session != null ? session : loadFromReplica(sessionId);
+    }
+
+    /**
+     * Kullanıcının aktif oturumu - ikincil indeks üzerinden O(1)
+     */
+    public LocationSession findActiveByUser(String userId) {
+        String sessionId = activeSessionByUser.get(userId);
+        if (sessionId == null) {
+            sessionId = readReplicaUserIndex(userId);
+        }
+        if (sessionId == null) {
+            return null;
+        }
+        LocationSession session = get(sessionId);
+        return session != null && session.isActive() ? session : null;
+    }
+
+    public Map<String, LocationSession> snapshot() {
+        return Map.copyOf(sessions);
+    }
+
+    /**
+     * Zamanlayıcıyı şimdiye kadar ilerlet (ticker thread'ine ek olarak elle tetikleme)
+     */
+    public void advanceExpiry() {
+        expiryWheel.advanceTo(System.currentTimeMillis());
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // Oturum devri
+    private LocationSession supersede(String sessionId) {
+        // Kullanıcı indeksi yeni oturumu gösterdiği için remove onu silmez
+        LocationSession superseded = remove(sessionId);
+        if (superseded == null) {
+            // Önceki oturum başka bir node'da; replikası silinince devralınamaz
+            try {
+                redisTemplate.delete(SESSION_KEY_PREFIX + sessionId);
+            } catch (Exception e) {
+                log.error("Failed to delete superseded location session replica: {}", sessionId, e);
+            }
+        }
+        return superseded;
+    }
+
+    // Süre dolumu
+    private void scheduleExpiry(LocationSession session) {
+        HierarchicalTimingWheel.Timeout<String> timer =
+                expiryWheel.schedule(session.getSessionId(), session.getExpiresAt());
+        HierarchicalTimingWheel.Timeout<String> previous = expiryTimers.put(session.getSessionId(), timer);
+        if (previous != null) {
+            expiryWheel.cancel(previous);
+        }
+    }
+
+    private void expire(String sessionId) {
+        expiryTimers.remove(sessionId);
+        LocationSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+
+        log.info("Location session expired: {}", sessionId);
+        LocationSession removed = remove(sessionId);
+        if (removed != null) {
+            expiryListeners.forEach(listener -> listener.accept(removed));
+        }
+    }
+
+    // Redis replikasyonu
+    private void replicate(LocationSession session) {
+        try {
+            String key = SESSION_KEY_PREFIX + session.getSessionId();
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("sessionId", session.getSessionId());
+            fields.put("incidentId", session.getIncidentId());
+            fields.put("userId", session.getUserId());
+            fields.put("startTime", String.valueOf(session.getStartTime()));
+            fields.put("durationMs", String.valueOf(session.getDurationMs()));
+            fields.put("updateIntervalMs", String.valueOf(session.getUpdateIntervalMs()));
+            fields.put("active", String.valueOf(session.isActive()));
+            putLocationFields(fields, session);
+
+            long ttlMs = replicaTtlMs(session);
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, ttlMs, TimeUnit.MILLISECONDS);
+            redisTemplate.opsForValue().set(USER_KEY_PREFIX + session.getUserId(),
+                    session.getSessionId(), ttlMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.error("Failed to replicate location session: {}", session.getSessionId(), e);
+        }
+    }
+
+    private void replicateLocation(LocationSession session) {
+        try {
+            Map<String, Object> fields = new HashMap<>();
+            putLocationFields(fields, session);
+            redisTemplate.opsForHash().putAll(SESSION_KEY_PREFIX + session.getSessionId(), fields);
+        } catch (Exception e) {
+            log.error("Failed to replicate location update for session: {}", session.getSessionId(), e);
+        }
+    }
+
+    private void deleteReplica(LocationSession session) {
+        try {
+            redisTemplate.delete(SESSION_KEY_PREFIX + session.getSessionId());
+            Object indexed = redisTemplate.opsForValue().get(USER_KEY_PREFIX + session.getUserId());
+            if (session.getSessionId().equals(indexed)) {
+                redisTemplate.delete(USER_KEY_PREFIX + session.getUserId());
+            }
+        } catch (Exception e) {
+            log.error("Failed to delete replicated location session: {}", session.getSessionId(), e);
+        }
+    }
+
+    private LocationSession loadFromReplica(String sessionId) {
+        try {
+            Map<Object, Object> fields = redisTemplate.opsForHash().entries(SESSION_KEY_PREFIX + sessionId);
+            if (fields == null || fields.isEmpty()) {
+                return null;
+            }
+
+            LocationSession session = new LocationSession(
+                    sessionId,
+                    (String) fields.get("incidentId"),
+                    (String) fields.get("userId"),
+                    parseLong(fields.get("startTime")),
+                    parseLong(fields.get("durationMs")),
+                    parseLong(fields.get("updateIntervalMs")),
+                    Boolean.parseBoolean(String.valueOf(fields.get("active"))),
+                    parseDouble(fields.get("lastLatitude")),
+                    parseDouble(fields.get("lastLongitude")),
+                    parseDouble(fields.get("lastAccuracy")),
+                    parseLong(fields.get("lastUpdateTime"))
+            );
+
+            if (!session.isActive() || session.isExpired(System.currentTimeMillis())) {
+                return null;
+            }
+
+            LocationSession existing = sessions.putIfAbsent(sessionId, session);
+            if (existing != null) {
+                return existing;
+            }
+            activeSessionByUser.putIfAbsent(session.getUserId(), sessionId);
+            scheduleExpiry(session);
+            log.info("Location session {} taken over from replica", sessionId);
+            return session;
+
+        } catch (Exception e) {
+            log.error("Failed to load replicated location session: {}", sessionId, e);
+            return null;
+        }
+    }
+
+    private String readReplicaUserIndex(String userId) {
+        try {
+            Object sessionId = redisTemplate.opsForValue().get(USER_KEY_PREFIX + userId);
+            return sessionId != null ? sessionId.toString() : null;
+        } catch (Exception e) {
+            log.error("Failed to read replicated session index for user: {}", userId, e);
+            return null;
+        }
+    }
+
+    private void putLocationFields(Map<String, Object> fields, LocationSession session) {
+        fields.put("lastLatitude", String.valueOf(session.getLastLatitude()));
+        fields.put("lastLongitude", String.valueOf(session.getLastLongitude()));
+        fields.put("lastAccuracy", String.valueOf(session.getLastAccuracy()));
+        fields.put("lastUpdateTime", String.valueOf(session.getLastUpdateTime()));
+    }
+
+    private long replicaTtlMs(LocationSession session) {
+        long remaining = session.getExpiresAt() - System.currentTimeMillis();
+        return Math.max(remaining, 0) + TimeUnit.MINUTES.toMillis(redisGraceMinutes);
+    }
+
+    private static long parseLong(Object value) {
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private static double parseDouble(Object value) {
+        return value != null ? Double.parseDouble(value.toString()) : 0.0;
+    }
+}
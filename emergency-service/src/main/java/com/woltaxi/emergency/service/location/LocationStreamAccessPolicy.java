@@ -0,0 +1,81 @@
+package com.woltaxi.emergency.service.location;
+
+import com.woltaxi.emergency.service.contact.EmergencyContactResolutionCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Location Stream Access Policy - Canlı Konum Akışı Yetkilendirmesi
+ * Bir olayın canlı konumunu yalnızca operatörler, olayın kullanıcısı/sürücüsü ve
+ * kullanıcının acil durum kişileri takip edebilir. Kullanıcı kimliği, principal
+ * adı (JWT subject = kullanıcı id) ile eşleştirilir.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationStreamAccessPolicy {
+
+    private static final Set<String> OPERATOR_ROLES = Set.of("ROLE_ADMIN", "ROLE_EMERGENCY_OPERATOR", "ROLE_MANAGER");
+
+    private static final String INCIDENT_PARTIES_SQL =
+            "SELECT user_id, driver_id FROM emergency_incidents WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmergencyContactResolutionCache contactResolutionCache;
+
+    /**
+     * Kullanıcı bu olayın konum akışına abone olabilir mi
+     */
+    public boolean canFollow(Principal user, String incidentId) {
+        if (user == null || incidentId == null) {
+            return false;
+        }
+        if (isOperator(user)) {
+            return true;
+        }
+
+        long id;
+        try {
+            id = Long.parseLong(incidentId);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        IncidentParties parties;
+        try {
+            parties = jdbcTemplate.queryForObject(INCIDENT_PARTIES_SQL, (rs, rowNum) -> new IncidentParties(
+                    rs.getObject("user_id") != null ? String.valueOf(rs.getLong("user_id")) : null,
+                    rs.getObject("driver_id") != null ? String.valueOf(rs.getLong("driver_id")) : null), id);
+        } catch (EmptyResultDataAccessException e) {
+            return false;
+        }
+        if (parties == null) {
+            return false;
+        }
+
+        String principal = user.getName();
+        if (Objects.equals(principal, parties.userId()) || Objects.equals(principal, parties.driverId())) {
+            return true;
+        }
+        return parties.userId() != null && contactResolutionCache.resolve(parties.userId()).stream()
+                .anyMatch(contact -> Objects.equals(principal, contact.getContactUserId()));
+    }
+
+    // Yardımcı metodlar
+    private boolean isOperator(Principal user) {
+        return user instanceof Authentication authentication && authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(OPERATOR_ROLES::contains);
+    }
+
+    private record IncidentParties(String userId, String driverId) {}
+}
@@ -0,0 +1,412 @@
+package com.woltaxi.emergency.service.notification;
+
+import com.woltaxi.emergency.service.external.FirebaseService;
+import com.woltaxi.emergency.service.external.TwilioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Emergency Notification Dispatcher - Çok Kanallı Toplu Bildirim Dağıtıcı
+ * Push bildirimlerini 500'lük FCM multicast batch'lerine gruplar, SMS'leri
+ * sınırlı eşzamanlılıkla gönderir. Her kanal kendi thread havuzu ve token
+ * bucket'ı ile sağlayıcı kotalarına uyar. Geçici hatalar jitter'lı üstel
+ * bekleme ile kendi zamanlayıcısı üzerinden tekrar denenir, kalıcı hatalar
+ * (geçersiz numara vb.) denenmez; aynı olay + kişi + kanal için tekrar gönderim yapılmaz.
+ * Kuyruk doluysa gönderim reddedilir; çağıran thread (SOS isteği) hiçbir zaman
+ * gönderimi kendisi çalıştırmaz veya token beklemez.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmergencyNotificationDispatcher {
+
+    public enum Channel {
+        PUSH,
+        SMS
+    }
+
+    private final FirebaseService firebaseService;
+    private final TwilioService twilioService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.push.batch-size:500}")
+    private int pushBatchSize;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.push.concurrency:8}")
+    private int pushConcurrency;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.push.rate-per-second:5000}")
+    private double pushRatePerSecond;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.push.burst:10000}")
+    private long pushBurst;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.sms.concurrency:20}")
+    private int smsConcurrency;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.sms.rate-per-second:100}")
+    private double smsRatePerSecond;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.sms.burst:200}")
+    private long smsBurst;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${woltaxi.emergency.communication.max-retry-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.retry-base-delay-ms:500}")
+    private long retryBaseDelayMs;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.retry-max-delay-ms:10000}")
+    private long retryMaxDelayMs;
+
+    @Value("${woltaxi.emergency.notification.dispatcher.dedupe-ttl-minutes:60}")
+    private long dedupeTtlMinutes;
+
+    private final Map<String, Long> dispatchedKeys = new ConcurrentHashMap<>();
+    private final Map<Channel, ThreadPoolExecutor> executors = new EnumMap<>(Channel.class);
+    private final Map<Channel, TokenBucket> rateLimiters = new EnumMap<>(Channel.class);
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void init() {
+        executors.put(Channel.PUSH, newChannelExecutor(Channel.PUSH, pushConcurrency));
+        executors.put(Channel.SMS, newChannelExecutor(Channel.SMS, smsConcurrency));
+        rateLimiters.put(Channel.PUSH, new TokenBucket(pushBurst, pushRatePerSecond));
+        rateLimiters.put(Channel.SMS, new TokenBucket(smsBurst, smsRatePerSecond));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "emergency-notification-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executors.forEach((channel, executor) -> meterRegistry.gauge(
+                "emergency.notification.queue.size",
+                List.of(Tag.of("channel", channel.name())),
+                executor, e -> e.getQueue().size()));
+
+        log.info("Emergency notification dispatcher initialized. Push: {} threads @ {}/s, SMS: {} threads @ {}/s",
+                pushConcurrency, pushRatePerSecond, smsConcurrency, smsRatePerSecond);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdown();
+        executors.values().forEach(ExecutorService::shutdown);
+    }
+
+    /**
+     * Alıcılara tüm uygun kanallardan bildirim gönder.
+     * Dönen future, tüm gönderimler ve retry'lar tamamlandığında tamamlanır.
+     */
+    public CompletableFuture<DispatchReport> dispatch(String incidentId,
+                                                      String title,
+                                                      String body,
+                                                      List<Recipient> recipients) {
+        DispatchReport report = new DispatchReport(incidentId);
+
+        List<Recipient> pushTargets = new ArrayList<>();
+        List<CompletableFuture<Void>> operations = new ArrayList<>();
+
+        for (Recipient recipient : recipients) {
+            if (recipient.getUserId() != null) {
+                if (claim(incidentId, Channel.PUSH, recipient)) {
+                    pushTargets.add(recipient);
+                } else {
+                    report.duplicates.incrementAndGet();
+                }
+            }
+            if (recipient.getPhoneNumber() != null) {
+                if (claim(incidentId, Channel.SMS, recipient)) {
+                    operations.add(sendSms(incidentId, body, recipient, 1, 0L, report));
+                } else {
+                    report.duplicates.incrementAndGet();
+                }
+            }
+        }
+
+        for (int from = 0; from < pushTargets.size(); from += pushBatchSize) {
+            List<Recipient> batch = pushTargets.subList(from, Math.min(from + pushBatchSize, pushTargets.size()));
+            operations.add(sendPushBatch(incidentId, title, body, new ArrayList<>(batch), 1, 0L, report));
+        }
+
+        return CompletableFuture.allOf(operations.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    report.complete();
+                    log.info("Notification dispatch completed for incident: {}. Push: {}/{}, SMS: {}/{}, " +
+                                    "duplicates skipped: {}, throughput: {} msg/s",
+                            incidentId,
+                            report.getDeliveredCount(Channel.PUSH), pushTargets.size(),
+                            report.getDeliveredCount(Channel.SMS),
+                            report.getDeliveredCount(Channel.SMS) + report.getFailedCount(Channel.SMS),
+                            report.getDuplicateCount(),
+                            String.format("%.1f", report.getThroughputPerSecond()));
+                    return report;
+                });
+    }
+
+    /**
+     * Süresi dolmuş dedupe anahtarlarını temizle
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredDedupeKeys() {
+        long now = System.currentTimeMillis();
+        dispatchedKeys.entrySet().removeIf(entry -> entry.getValue() < now);
+    }
+
+    // Kanal gönderimleri
+    private CompletableFuture<Void> sendPushBatch(String incidentId, String title, String body,
+                                                  List<Recipient> batch, int attempt,
+                                                  long delayMs, DispatchReport report) {
+        return submit(Channel.PUSH, delayMs, () -> {
+            acquire(Channel.PUSH, batch.size());
+
+            Map<String, Recipient> byUserId = new HashMap<>();
+            batch.forEach(r -> byUserId.put(r.getUserId(), r));
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            FirebaseService.MulticastResult result = firebaseService.sendEmergencyMulticast(
+                    new ArrayList<>(byUserId.keySet()), title, body, incidentId);
+            sample.stop(meterRegistry.timer("emergency.notification.provider.call", "channel", Channel.PUSH.name()));
+
+            result.getSucceeded().forEach(userId -> markDelivered(report, Channel.PUSH, byUserId.get(userId)));
+            result.getFailed().forEach(userId -> markFailed(report, incidentId, Channel.PUSH, byUserId.get(userId)));
+
+            List<Recipient> retry = new ArrayList<>();
+            result.getRetryable().forEach(userId -> retry.add(byUserId.get(userId)));
+            return retry;
+
+        }).handle((retry, error) -> {
+            if (error != null) {
+                logDispatchError(incidentId, Channel.PUSH, error);
+                if (isRejected(error)) {
+                    batch.forEach(r -> markFailed(report, incidentId, Channel.PUSH, r));
+                    return List.<Recipient>of();
+                }
+                // Sağlayıcı çağrısı patladı - tüm batch tekrar denenebilir
+                return batch;
+            }
+            return retry;
+        }).thenCompose(retry -> {
+            if (retry.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (attempt >= maxAttempts) {
+                retry.forEach(r -> markFailed(report, incidentId, Channel.PUSH, r));
+                return CompletableFuture.completedFuture(null);
+            }
+            meterRegistry.counter("emergency.notification.retries", "channel", Channel.PUSH.name())
+                    .increment(retry.size());
+            return sendPushBatch(incidentId, title, body, retry, attempt + 1, retryDelayMs(attempt), report);
+        });
+    }
+
+    private CompletableFuture<Void> sendSms(String incidentId, String body, Recipient recipient,
+                                            int attempt, long delayMs, DispatchReport report) {
+        return submit(Channel.SMS, delayMs, () -> {
+            acquire(Channel.SMS, 1);
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            TwilioService.SmsResult result = twilioService.trySendEmergencySms(
+                    recipient.getPhoneNumber(), body, incidentId);
+            sample.stop(meterRegistry.timer("emergency.notification.provider.call", "channel", Channel.SMS.name()));
+            return result;
+
+        }).handle((result, error) -> {
+            if (error != null) {
+                logDispatchError(incidentId, Channel.SMS, error);
+                return isRejected(error) ? TwilioService.SmsResult.PERMANENT_FAILURE
+                        : TwilioService.SmsResult.RETRYABLE_FAILURE;
+            }
+            return result;
+        }).thenCompose(result -> {
+            if (result == TwilioService.SmsResult.SENT) {
+                markDelivered(report, Channel.SMS, recipient);
+                return CompletableFuture.completedFuture(null);
+            }
+            if (result == TwilioService.SmsResult.PERMANENT_FAILURE || attempt >= maxAttempts) {
+                markFailed(report, incidentId, Channel.SMS, recipient);
+                return CompletableFuture.completedFuture(null);
+            }
+            meterRegistry.counter("emergency.notification.retries", "channel", Channel.SMS.name()).increment();
+            return sendSms(incidentId, body, recipient, attempt + 1, retryDelayMs(attempt), report);
+        });
+    }
+
+    // Yardımcı metodlar
+    private boolean claim(String incidentId, Channel channel, Recipient recipient) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + TimeUnit.MINUTES.toMillis(dedupeTtlMinutes);
+        Long previous = dispatchedKeys.putIfAbsent(dedupeKey(incidentId, channel, recipient), expiresAt);
+        if (previous == null) {
+            return true;
+        }
+        // Süresi dolmuş kayıt - atomik olarak yeniden sahiplen
+        return previous < now && dispatchedKeys.replace(dedupeKey(incidentId, channel, recipient), previous, expiresAt);
+    }
+
+    private String dedupeKey(String incidentId, Channel channel, Recipient recipient) {
+        return incidentId + ":" + channel + ":" + recipient.getContactId();
+    }
+
+    private void acquire(Channel channel, int tokens) {
+        try {
+            rateLimiters.get(channel).acquire(tokens);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Görevi kanalın havuzuna ver; gecikmeli görevler önce retry zamanlayıcısında bekler.
+     * Kuyruk doluysa future RejectedExecutionException ile tamamlanır - görev
+     * hiçbir zaman çağıran thread'de çalışmaz.
+     */
+    private <T> CompletableFuture<T> submit(Channel channel, long delayMs, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable enqueue = () -> {
+            try {
+                executors.get(channel).execute(() -> {
+                    try {
+                        future.complete(task.get());
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                meterRegistry.counter("emergency.notification.rejected", "channel", channel.name()).increment();
+                future.completeExceptionally(e);
+            }
+        };
+
+        if (delayMs <= 0) {
+            enqueue.run();
+        } else {
+            try {
+                retryScheduler.schedule(enqueue, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Full jitter: [0, min(maxDelay, baseDelay * 2^(attempt-1))]
+     */
+    private long retryDelayMs(int attempt) {
+        long ceiling = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private boolean isRejected(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RejectedExecutionException;
+    }
+
+    private void logDispatchError(String incidentId, Channel channel, Throwable error) {
+        if (isRejected(error)) {
+            log.error("{} notification queue full, dropping send for incident: {}", channel, incidentId);
+        } else {
+            log.warn("{} notification send failed for incident: {}", channel, incidentId, error);
+        }
+    }
+
+    private void markDelivered(DispatchReport report, Channel channel, Recipient recipient) {
+        report.delivered.computeIfAbsent(recipient.getContactId(), k -> ConcurrentHashMap.newKeySet()).add(channel);
+        meterRegistry.counter("emergency.notification.sent", "channel", channel.name(), "result", "success").increment();
+    }
+
+    private void markFailed(DispatchReport report, String incidentId, Channel channel, Recipient recipient) {
+        report.failed.computeIfAbsent(recipient.getContactId(), k -> ConcurrentHashMap.newKeySet()).add(channel);
+        // Başarısız gönderim sahipliği bırakır, sonraki dispatch tekrar deneyebilir
+        dispatchedKeys.remove(dedupeKey(incidentId, channel, recipient));
+        meterRegistry.counter("emergency.notification.sent", "channel", channel.name(), "result", "failed").increment();
+    }
+
+    private ThreadPoolExecutor newChannelExecutor(Channel channel, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "emergency-" + channel.name().toLowerCase() + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Inner Classes
+    public static class Recipient {
+        private final String contactId;
+        private final String userId;
+        private final String phoneNumber;
+
+        public Recipient(String contactId, String userId, String phoneNumber) {
+            this.contactId = contactId;
+            this.userId = userId;
+            this.phoneNumber = phoneNumber;
+        }
+
+        // Getters
+        public String getContactId() { return contactId; }
+        public String getUserId() { return userId; }
+        public String getPhoneNumber() { return phoneNumber; }
+    }
+
+    public static class DispatchReport {
+        private final String incidentId;
+        private final long startedAt = System.nanoTime();
+        private final Map<String, Set<Channel>> delivered = new ConcurrentHashMap<>();
+        private final Map<String, Set<Channel>> failed = new ConcurrentHashMap<>();
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private volatile long elapsedNanos;
+
+        public DispatchReport(String incidentId) {
+            this.incidentId = incidentId;
+        }
+
+        void complete() {
+            this.elapsedNanos = System.nanoTime() - startedAt;
+        }
+
+        public String getIncidentId() { return incidentId; }
+
+        public boolean isDelivered(String contactId, Channel channel) {
+            return delivered.getOrDefault(contactId, Set.of()).contains(channel);
+        }
+
+        public long getDeliveredCount(Channel channel) {
+            return delivered.values().stream().filter(channels -> channels.contains(channel)).count();
+        }
+
+        public long getFailedCount(Channel channel) {
+            return failed.values().stream().filter(channels -> channels.contains(channel)).count();
+        }
+
+        public int getDuplicateCount() { return duplicates.get(); }
+
+        public long getElapsedMs() { return TimeUnit.NANOSECONDS.toMillis(elapsedNanos); }
+
+        public double getThroughputPerSecond() {
+            long total = getDeliveredCount(Channel.PUSH) + getDeliveredCount(Channel.SMS);
+            return elapsedNanos == 0 ? 0.0 : total * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.woltaxi.emergency.service.notification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token Bucket - Kanal Bazlı Hız Sınırlayıcı
+ * Sağlayıcı kotalarını (Twilio msg/s, FCM msg/dk) aşmamak için kullanılır.
+ * Tokenlar zamanla doldurulur; burst kapasitesi kadar ani yük kabul edilir.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+
+    private double availableTokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.availableTokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Token varsa hemen al, yoksa false dön
+     */
+    public synchronized boolean tryAcquire(int tokens) {
+        refill();
+        if (availableTokens >= tokens) {
+            availableTokens -= tokens;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Token yetene kadar bekle. Kapasiteden büyük talepler kapasiteye kırpılır.
+     */
+    public void acquire(int tokens) throws InterruptedException {
+        int requested = (int) Math.min(tokens, capacity);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (availableTokens >= requested) {
+                    availableTokens -= requested;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((requested - availableTokens) / refillPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1_000L));
+        }
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill();
+        return availableTokens;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            availableTokens = Math.min(capacity, availableTokens + elapsed * refillPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
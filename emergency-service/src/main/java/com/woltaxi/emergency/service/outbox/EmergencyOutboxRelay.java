@@ -0,0 +1,297 @@
+package com.woltaxi.emergency.service.outbox;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woltaxi.emergency.entity.EmergencyOutboxEvent;
+import com.woltaxi.emergency.repository.EmergencyOutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emergency Outbox Relay - Outbox'tan Kafka'ya Aktarım
+ * Bekleyen outbox satırlarını toplu olarak kilitler, Kafka'ya gönderir ve
+ * onaylananları tek bir UPDATE ile işaretler.
+ *
+ * Sıralama: key = incidentId olduğu için aynı olayın eventleri aynı partition'a düşer.
+ * Bir olayın eventleri sırayla gönderilir; her event bir öncekinin onayından sonra
+ * yola çıkar. Bir event başarısız olursa aynı olayın sonraki eventleri bu turda hiç
+ * gönderilmez ve bir sonraki turda sırayla tekrar denenir. Farklı olaylar paralel
+ * ilerler; tüm batch tek bir süre sınırı (send-timeout-ms) içinde onaylanmalıdır,
+ * böylece satır kilitleri en fazla bu kadar tutulur.
+ * Tüketiciler "outbox-event-id" header'ı ile tekrarları ayıklayabilir.
+ *
+ * Cluster genelinde aynı anda tek bir relay çalışır (advisory lock): iki node
+ * ayrı batch'ler alsaydı bir olayın k+1. eventi, k. event başka node'da
+ * beklerken ya da başarısız olup PENDING'e dönmüşken yayınlanabilirdi.
+ */
+@Slf4j
+@Component
+public class EmergencyOutboxRelay {
+
+    public static final String OUTBOX_EVENT_ID_HEADER = "outbox-event-id";
+    public static final String EVENT_TYPE_HEADER = "event-type";
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+    private static final long RELAY_LOCK_KEY = 0x454D_4F55_5442_4F58L;
+
+    private final EmergencyOutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Bir sonraki send Kafka producer I/O thread'inde değil burada yapılır
+    private final ExecutorService chainExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    @Value("${woltaxi.emergency.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${woltaxi.emergency.outbox.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${woltaxi.emergency.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${woltaxi.emergency.outbox.retention-hours:72}")
+    private int retentionHours;
+
+    public EmergencyOutboxRelay(EmergencyOutboxEventRepository outboxRepository,
+                                KafkaTemplate<String, Object> kafkaTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+
+        this.publishedCounter = Counter.builder("emergency.outbox.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("emergency.outbox.failed")
+                .description("Outbox event send failures")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("emergency.outbox.relay.batch")
+                .description("Time to relay one outbox batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("emergency.outbox.lag.seconds", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest unpublished outbox event")
+                .register(meterRegistry);
+        Gauge.builder("emergency.outbox.pending", pendingCount, AtomicLong::get)
+                .description("Number of unpublished outbox events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bekleyen eventleri yayınla
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.outbox.poll-interval-ms:100}")
+    @Transactional
+    public void relayPendingEvents() {
+        // Olay başına sıra yalnızca tek relay ile korunur
+        if (!outboxRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return;
+        }
+        List<EmergencyOutboxEvent> batch = outboxRepository.lockPendingBatch(batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+
+        // 1. Eventleri olaya göre grupla - batch id sırasında geldiği için grup içi sıra korunur
+        Map<String, List<EmergencyOutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (EmergencyOutboxEvent event : batch) {
+            byAggregate.computeIfAbsent(event.getAggregateId(), key -> new ArrayList<>()).add(event);
+        }
+
+        // 2. Her olayın eventlerini sırayla, olayları paralel gönder
+        RelayRound round = new RelayRound();
+        CompletableFuture<?>[] chains = byAggregate.values().stream()
+                .map(events -> relayInOrder(events.iterator(), round))
+                .toArray(CompletableFuture[]::new);
+
+        // 3. Tüm batch için tek süre sınırı
+        try {
+            CompletableFuture.allOf(chains).get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Outbox relay batch not acknowledged within {}ms, unacknowledged events stay pending",
+                    sendTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Zincirler hataları kendileri topluyor, buraya düşmemeli
+            log.error("Outbox relay chain failed unexpectedly", e);
+        }
+        round.expired = true;
+
+        // 4. Sonuçları topla - entity değişiklikleri yalnızca bu thread'de yapılır
+        List<Long> publishedIds = new ArrayList<>(batch.size());
+        Set<String> blockedAggregates = new HashSet<>();
+
+        for (EmergencyOutboxEvent event : batch) {
+            if (blockedAggregates.contains(event.getAggregateId())) {
+                continue;
+            }
+            if (round.acknowledged.contains(event.getId())) {
+                publishedIds.add(event.getId());
+                continue;
+            }
+
+            blockedAggregates.add(event.getAggregateId());
+            Throwable error = round.failures.get(event.getId());
+            if (error != null) {
+                handleFailure(event, error);
+            } else if (round.sent.contains(event.getId())) {
+                handleFailure(event, new TimeoutException("Not acknowledged within " + sendTimeoutMs + "ms"));
+            }
+        }
+
+        if (!publishedIds.isEmpty()) {
+            outboxRepository.markPublished(publishedIds, LocalDateTime.now());
+            publishedCounter.increment(publishedIds.size());
+        }
+
+        sample.stop(batchTimer);
+        log.debug("Outbox relay batch completed. Published: {}/{}, blocked incidents: {}",
+                publishedIds.size(), batch.size(), blockedAggregates.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chainExecutor.shutdownNow();
+    }
+
+    /**
+     * Lag ve bekleyen event metriklerini güncelle
+     */
+    @Scheduled(fixedDelayString = "${woltaxi.emergency.outbox.metrics-interval-ms:10000}")
+    @Transactional(readOnly = true)
+    public void refreshLagMetrics() {
+        LocalDateTime oldest = outboxRepository.findOldestPendingCreatedAt();
+        lagMillis.set(oldest == null ? 0L
+                : java.time.Duration.between(oldest, LocalDateTime.now()).toMillis());
+        pendingCount.set(outboxRepository.countByStatus(EmergencyOutboxEvent.OutboxStatus.PENDING));
+
+        if (lagMillis.get() > sendTimeoutMs * 2) {
+            log.warn("Emergency outbox lag is {}ms with {} pending events", lagMillis.get(), pendingCount.get());
+        }
+    }
+
+    /**
+     * Saklama süresi dolan yayınlanmış eventleri temizle
+     */
+    @Scheduled(cron = "${woltaxi.emergency.outbox.cleanup-cron:0 15 * * * *}")
+    @Transactional
+    public void purgePublishedEvents() {
+        int deleted = outboxRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events older than {} hours", deleted, retentionHours);
+        }
+    }
+
+    // Yardımcı metodlar
+
+    /**
+     * Bir olayın eventlerini sırayla gönder; ilk hatada ya da süre dolunca dur
+     */
+    private CompletableFuture<Void> relayInOrder(Iterator<EmergencyOutboxEvent> events, RelayRound round) {
+        if (!events.hasNext() || round.expired) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        EmergencyOutboxEvent event = events.next();
+        round.sent.add(event.getId());
+        return send(event)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        round.acknowledged.add(event.getId());
+                    } else {
+                        round.failures.put(event.getId(), error);
+                    }
+                    return error == null;
+                })
+                // Producer I/O thread'inde yeni send yapılmaz
+                .thenComposeAsync(acknowledged -> acknowledged
+                        ? relayInOrder(events, round)
+                        : CompletableFuture.completedFuture(null), chainExecutor);
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(EmergencyOutboxEvent event) {
+        try {
+            Map<String, Object> payload = objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE);
+
+            ProducerRecord<String, Object> record = new ProducerRecord<>(
+                    event.getTopic(), event.getAggregateId(), payload);
+            record.headers().add(OUTBOX_EVENT_ID_HEADER,
+                    String.valueOf(event.getId()).getBytes(StandardCharsets.UTF_8));
+            record.headers().add(EVENT_TYPE_HEADER,
+                    event.getEventType().getBytes(StandardCharsets.UTF_8));
+
+            return kafkaTemplate.send(record);
+
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void handleFailure(EmergencyOutboxEvent event, Throwable error) {
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        failedCounter.increment();
+
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(e.getMessage());
+
+        if (attempts >= maxAttempts) {
+            event.setStatus(EmergencyOutboxEvent.OutboxStatus.FAILED);
+            log.error("Outbox event {} for incident: {} failed permanently after {} attempts",
+                    event.getId(), event.getAggregateId(), attempts, e);
+        } else {
+            log.warn("Outbox event {} for incident: {} failed (attempt {}/{}): {}",
+                    event.getId(), event.getAggregateId(), attempts, maxAttempts, e.getMessage());
+        }
+    }
+
+    /**
+     * Bir relay turunun paylaşılan durumu; Kafka callback'leri yalnızca id toplar
+     */
+    private static final class RelayRound {
+        private final Set<Long> sent = ConcurrentHashMap.newKeySet();
+        private final Set<Long> acknowledged = ConcurrentHashMap.newKeySet();
+        private final Map<Long, Throwable> failures = new ConcurrentHashMap<>();
+        private volatile boolean expired;
+    }
+}
@@ -0,0 +1,62 @@
+package com.woltaxi.emergency.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woltaxi.emergency.entity.EmergencyOutboxEvent;
+import com.woltaxi.emergency.repository.EmergencyOutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Emergency Outbox Service - Transactional Outbox Yazıcı
+ * Eventleri Kafka'ya doğrudan göndermek yerine, çağıranın transaction'ı içinde
+ * outbox tablosuna yazar. Sadece commit edilen eventler relay tarafından yayınlanır.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmergencyOutboxService {
+
+    public static final String EMERGENCY_EVENTS_TOPIC = "emergency-events";
+
+    private final EmergencyOutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Eventi outbox'a kaydet - aktif bir transaction zorunludur
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EmergencyOutboxEvent record(String topic, String aggregateId, String eventType,
+                                       Map<String, Object> payload) {
+        try {
+            EmergencyOutboxEvent event = EmergencyOutboxEvent.builder()
+                    .topic(topic)
+                    .aggregateId(aggregateId)
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build();
+
+            EmergencyOutboxEvent saved = outboxRepository.save(event);
+            log.debug("Outbox event recorded: {} for aggregate: {} (outboxId: {})",
+                    eventType, aggregateId, saved.getId());
+            return saved;
+
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload could not be serialized for event: " + eventType, e);
+        }
+    }
+
+    /**
+     * emergency-events topic'i için kısayol
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EmergencyOutboxEvent recordEmergencyEvent(String incidentId, String eventType,
+                                                     Map<String, Object> payload) {
+        return record(EMERGENCY_EVENTS_TOPIC, incidentId, eventType, payload);
+    }
+}
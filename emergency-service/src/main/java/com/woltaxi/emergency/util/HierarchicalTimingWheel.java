@@ -0,0 +1,208 @@
+package com.woltaxi.emergency.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical Timing Wheel - Hiyerarşik Zamanlayıcı Çarkı
+ * Çok sayıda zaman aşımını O(1) ekleme/iptal ile yönetir; periyodik tam tarama gerekmez.
+ *
+ * Seviye 0, tick başına bir slot içerir (wheelSize tick kapsar). Her üst seviyenin
+ * bir slotu, alt seviyenin tüm turunu kapsar. Bir üst seviye slotunun zamanı
+ * geldiğinde içindeki kayıtlar alt seviyelere dağıtılır (cascade). Kapsamı aşan
+ * kayıtlar en üst seviyenin en uzak slotuna konur ve zamanı geldikçe yeniden yerleşir.
+ *
+ * Zaman aşımı callback'leri tek ticker thread'inde, kilit dışında çalışır;
+ * uzun süren işler callback içinde başka bir executor'a devredilmelidir.
+ */
+@Slf4j
+public class HierarchicalTimingWheel<T> {
+
+    private final String name;
+    private final long tickMs;
+    private final int wheelBits;
+    private final int wheelMask;
+    private final int levels;
+    private final Set<Timeout<T>>[][] slots;
+    private final Consumer<T> expiryHandler;
+    private final long startMs;
+
+    private long currentTick;
+    private int pendingCount;
+    private volatile Thread ticker;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(String name, long tickMs, int wheelSize, int levels, Consumer<T> expiryHandler) {
+        if (tickMs <= 0 || levels <= 0 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMs and levels must be positive, wheelSize a power of two");
+        }
+        this.name = name;
+        this.tickMs = tickMs;
+        this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+        this.wheelMask = wheelSize - 1;
+        this.levels = levels;
+        this.expiryHandler = expiryHandler;
+        this.startMs = System.currentTimeMillis();
+        this.slots = new Set[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots[level][slot] = new HashSet<>();
+            }
+        }
+    }
+
+    /**
+     * Verilen epoch milisaniyesinde zaman aşımı planla
+     */
+    public synchronized Timeout<T> schedule(T item, long deadlineEpochMs) {
+        long deadlineTick = Math.max(currentTick + 1, ceilDiv(deadlineEpochMs - startMs, tickMs));
+        Timeout<T> timeout = new Timeout<>(item, deadlineEpochMs, deadlineTick);
+        place(timeout);
+        pendingCount++;
+        return timeout;
+    }
+
+    /**
+     * Zaman aşımını iptal et. Zaten tetiklenmiş ise false döner.
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.cancelled || timeout.expired) {
+            return false;
+        }
+        timeout.cancelled = true;
+        if (slots[timeout.level][timeout.slot].remove(timeout)) {
+            pendingCount--;
+        }
+        return true;
+    }
+
+    /**
+     * Çarkı verilen ana kadar ilerlet ve süresi dolan kayıtları tetikle.
+     * Ticker thread'i bunu periyodik çağırır; testlerde veya manuel tetiklemede de kullanılabilir.
+     */
+    public void advanceTo(long nowEpochMs) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = (nowEpochMs - startMs) / tickMs;
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                Set<Timeout<T>> due = slots[0][(int) (currentTick & wheelMask)];
+                for (Timeout<T> timeout : due) {
+                    timeout.expired = true;
+                    expired.add(timeout.item);
+                }
+                pendingCount -= due.size();
+                due.clear();
+            }
+        }
+
+        for (T item : expired) {
+            try {
+                expiryHandler.accept(item);
+            } catch (Exception e) {
+                log.error("Timing wheel '{}' expiry handler failed", name, e);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return pendingCount;
+    }
+
+    /**
+     * Daemon ticker thread'ini başlat
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(tickMs);
+                    advanceTo(System.currentTimeMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "timing-wheel-" + name);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.interrupt();
+            ticker = null;
+        }
+    }
+
+    // Yardımcı metodlar
+    private void place(Timeout<T> timeout) {
+        long remaining = timeout.deadlineTick - currentTick;
+        for (int level = 0; level < levels; level++) {
+            int shift = wheelBits * level;
+            if (remaining < (1L << (shift + wheelBits)) || level == levels - 1) {
+                long block = timeout.deadlineTick >> shift;
+                if (level == levels - 1 && remaining >= (1L << (shift + wheelBits))) {
+                    // Kapsam dışı - en uzak slota koy, zamanı gelince yeniden yerleşir
+                    block = (currentTick >> shift) + wheelMask;
+                }
+                timeout.level = level;
+                timeout.slot = (int) (block & wheelMask);
+                slots[level][timeout.slot].add(timeout);
+                return;
+            }
+        }
+    }
+
+    private void cascade() {
+        for (int level = levels - 1; level >= 1; level--) {
+            int shift = wheelBits * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            Set<Timeout<T>> bucket = slots[level][(int) ((currentTick >> shift) & wheelMask)];
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Timeout<T>> moving = new ArrayList<>(bucket);
+            bucket.clear();
+            moving.forEach(this::place);
+        }
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    // Inner Classes
+    public static class Timeout<T> {
+        private final T item;
+        private final long deadlineEpochMs;
+        private final long deadlineTick;
+        private int level;
+        private int slot;
+        private volatile boolean cancelled;
+        private volatile boolean expired;
+
+        Timeout(T item, long deadlineEpochMs, long deadlineTick) {
+            this.item = item;
+            this.deadlineEpochMs = deadlineEpochMs;
+            this.deadlineTick = deadlineTick;
+        }
+
+        // Getters
+        public T getItem() { return item; }
+        public long getDeadlineEpochMs() { return deadlineEpochMs; }
+        public boolean isCancelled() { return cancelled; }
+        public boolean isExpired() { return expired; }
+    }
+}
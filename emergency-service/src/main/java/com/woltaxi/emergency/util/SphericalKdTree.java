@@ -0,0 +1,154 @@
+package com.woltaxi.emergency.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Spherical KD-Tree - Küresel k-en-yakın ve yarıçap sorguları
+ * Noktalar birim küre üzerindeki (x, y, z) koordinatlarına çevrilir; kiriş (chord)
+ * uzaklığı büyük daire uzaklığı ile monoton olduğundan Öklid KD-tree budaması
+ * doğru sonuç verir ve kutup/antimeridyen yakınında da bozulmaz.
+ *
+ * Ağaç değişmezdir (immutable); güncelleme yeni ağaç kurup referansı değiştirerek yapılır.
+ */
+public final class SphericalKdTree<T> {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000d;
+
+    private final Object[] items;
+    private final double[][] points;
+
+    private SphericalKdTree(Object[] items, double[][] points) {
+        this.items = items;
+        this.points = points;
+    }
+
+    public static <T> SphericalKdTree<T> build(List<T> source,
+                                               ToDoubleFunction<T> latitude,
+                                               ToDoubleFunction<T> longitude) {
+        int n = source.size();
+        Integer[] order = new Integer[n];
+        double[][] raw = new double[n][];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            T item = source.get(i);
+            raw[i] = toUnitVector(latitude.applyAsDouble(item), longitude.applyAsDouble(item));
+        }
+
+        buildRange(order, raw, 0, n, 0);
+
+        Object[] items = new Object[n];
+        double[][] points = new double[n][];
+        for (int i = 0; i < n; i++) {
+            items[i] = source.get(order[i]);
+            points[i] = raw[order[i]];
+        }
+        return new SphericalKdTree<>(items, points);
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Yarıçap içindeki en yakın k kayıt, yakından uzağa sıralı
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> nearest(double latitude, double longitude, int k, double radiusMeters) {
+        if (items.length == 0 || k <= 0) {
+            return List.of();
+        }
+
+        double[] target = toUnitVector(latitude, longitude);
+        double maxChord = chordForMeters(radiusMeters);
+        // En uzak aday başta (max-heap)
+        PriorityQueue<double[]> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble((double[] candidate) -> candidate[1]).reversed());
+
+        search(target, 0, items.length, 0, k, maxChord * maxChord, best);
+
+        List<double[]> ordered = new ArrayList<>(best);
+        ordered.sort(Comparator.comparingDouble(candidate -> candidate[1]));
+        List<T> result = new ArrayList<>(ordered.size());
+        for (double[] candidate : ordered) {
+            result.add((T) items[(int) candidate[0]]);
+        }
+        return result;
+    }
+
+    /**
+     * İki koordinat arasındaki büyük daire uzaklığı (metre)
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double[] a = toUnitVector(lat1, lng1);
+        double[] b = toUnitVector(lat2, lng2);
+        double chord = Math.sqrt(squaredDistance(a, b));
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1d, chord / 2));
+    }
+
+    // Yardımcı metodlar
+    private void search(double[] target, int from, int to, int axis, int k,
+                        double maxSquared, PriorityQueue<double[]> best) {
+        if (from >= to) {
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        double squared = squaredDistance(target, points[mid]);
+        if (squared <= maxSquared && (best.size() < k || squared < best.peek()[1])) {
+            best.offer(new double[]{mid, squared});
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+
+        double delta = target[axis] - points[mid][axis];
+        int nextAxis = (axis + 1) % 3;
+        int nearFrom = delta < 0 ? from : mid + 1;
+        int nearTo = delta < 0 ? mid : to;
+        int farFrom = delta < 0 ? mid + 1 : from;
+        int farTo = delta < 0 ? to : mid;
+
+        search(target, nearFrom, nearTo, nextAxis, k, maxSquared, best);
+
+        double planeSquared = delta * delta;
+        double bound = best.size() < k ? maxSquared : Math.min(maxSquared, best.peek()[1]);
+        if (planeSquared <= bound) {
+            search(target, farFrom, farTo, nextAxis, k, maxSquared, best);
+        }
+    }
+
+    private static void buildRange(Integer[] order, double[][] raw, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(order, from, to, Comparator.comparingDouble(index -> raw[index][axis]));
+        int mid = (from + to) >>> 1;
+        int nextAxis = (axis + 1) % 3;
+        buildRange(order, raw, from, mid, nextAxis);
+        buildRange(order, raw, mid + 1, to, nextAxis);
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lng = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lng), cosLat * Math.sin(lng), Math.sin(lat)};
+    }
+
+    private static double chordForMeters(double meters) {
+        double angle = Math.min(Math.PI, meters / EARTH_RADIUS_METERS);
+        return 2 * Math.sin(angle / 2);
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
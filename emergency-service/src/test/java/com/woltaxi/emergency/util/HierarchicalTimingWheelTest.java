@@ -0,0 +1,144 @@
+package com.woltaxi.emergency.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hierarchical Timing Wheel Test - Hiyerarşik Zamanlayıcı Çarkı Testi
+ * Çark advanceTo ile tick tick ilerletilir; her kayıt tam kendi tick'inde,
+ * bir kez tetiklenmelidir (cascade, kapsam aşımı ve cascade sonrası iptal dahil).
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private final Map<Long, Long> firedAt = new HashMap<>();
+    private long currentTick;
+
+    @Test
+    void firesLevelZeroTimeoutsOnTheirTick() {
+        HierarchicalTimingWheel<Long> wheel = wheel(4, 3);
+        schedule(wheel, 3);
+
+        advanceTo(wheel, 2);
+        assertThat(firedAt).isEmpty();
+
+        advanceTo(wheel, 3);
+        assertThat(firedAt).containsEntry(3L, 3L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesUpperLevelTimeoutsDownToTheirTick() {
+        HierarchicalTimingWheel<Long> wheel = wheel(4, 3);
+        // 9 seviye 1'e, 37 seviye 2'ye yerleşir; ikisi de alt seviyelere inerek tetiklenir
+        schedule(wheel, 9);
+        schedule(wheel, 37);
+
+        advanceTo(wheel, 40);
+
+        assertThat(firedAt).containsOnly(Map.entry(9L, 9L), Map.entry(37L, 37L));
+    }
+
+    @Test
+    void keepsTimeoutsBeyondTheTopLevelUntilTheirTick() {
+        // 2 seviye x 4 slot yalnızca 16 tick kapsar
+        HierarchicalTimingWheel<Long> wheel = wheel(4, 2);
+        schedule(wheel, 50);
+        schedule(wheel, 200);
+
+        advanceTo(wheel, 49);
+        assertThat(firedAt).isEmpty();
+        assertThat(wheel.size()).isEqualTo(2);
+
+        advanceTo(wheel, 210);
+        assertThat(firedAt).containsOnly(Map.entry(50L, 50L), Map.entry(200L, 200L));
+    }
+
+    @Test
+    void cancelsTimeoutsThatAlreadyCascaded() {
+        HierarchicalTimingWheel<Long> wheel = wheel(4, 3);
+        HierarchicalTimingWheel.Timeout<Long> timeout = schedule(wheel, 9);
+
+        // Tick 8'de seviye 1 slotu seviye 0'a iner
+        advanceTo(wheel, 8);
+        assertThat(wheel.cancel(timeout)).isTrue();
+        assertThat(wheel.size()).isZero();
+
+        advanceTo(wheel, 20);
+        assertThat(firedAt).isEmpty();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(wheel.cancel(timeout)).isFalse();
+    }
+
+    @Test
+    void doesNotCancelExpiredTimeouts() {
+        HierarchicalTimingWheel<Long> wheel = wheel(4, 3);
+        HierarchicalTimingWheel.Timeout<Long> timeout = schedule(wheel, 2);
+
+        advanceTo(wheel, 2);
+
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(wheel.cancel(timeout)).isFalse();
+    }
+
+    @Test
+    void firesEveryTimeoutExactlyOnItsTickWhenScheduledMidTurn() {
+        HierarchicalTimingWheel<Long> wheel = wheel(4, 3);
+        Random random = new Random(7);
+        advanceTo(wheel, 13);
+
+        List<Long> deadlines = random.longs(200, 14, 400).boxed().distinct().toList();
+        deadlines.forEach(deadline -> schedule(wheel, deadline));
+        advanceTo(wheel, 400);
+
+        assertThat(firedAt).hasSize(deadlines.size());
+        deadlines.forEach(deadline -> assertThat(firedAt).containsEntry(deadline, deadline));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firesPastDeadlinesOnTheNextTick() {
+        HierarchicalTimingWheel<Long> wheel = wheel(4, 3);
+        advanceTo(wheel, 5);
+        wheel.schedule(-1L, startMs(wheel));
+
+        advanceTo(wheel, 6);
+
+        assertThat(firedAt).containsOnly(Map.entry(-1L, 6L));
+    }
+
+    // Yardımcı metodlar
+    private HierarchicalTimingWheel<Long> wheel(int wheelSize, int levels) {
+        return new HierarchicalTimingWheel<>("test", TICK_MS, wheelSize, levels,
+                item -> assertThat(firedAt.put(item, currentTick)).as("fired twice: %d", item).isNull());
+    }
+
+    /**
+     * Kaydı kendi tick'i ile anahtarlanarak planla
+     */
+    private HierarchicalTimingWheel.Timeout<Long> schedule(HierarchicalTimingWheel<Long> wheel, long tick) {
+        return wheel.schedule(tick, startMs(wheel) + tick * TICK_MS);
+    }
+
+    /**
+     * Tetiklenme tick'ini kaydedebilmek için tek tek ilerlet
+     */
+    private void advanceTo(HierarchicalTimingWheel<Long> wheel, long tick) {
+        while (currentTick < tick) {
+            currentTick++;
+            wheel.advanceTo(startMs(wheel) + currentTick * TICK_MS);
+        }
+    }
+
+    private static long startMs(HierarchicalTimingWheel<Long> wheel) {
+        return (long) ReflectionTestUtils.getField(wheel, "startMs");
+    }
+}
@@ -0,0 +1,169 @@
+package com.woltaxi.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Benchmark Gate
+ *
+ * Runs the payment benchmarks with the GC profiler and compares every
+ * benchmark's time and normalized allocation (bytes per operation) with a
+ * recorded baseline. Exits non-zero when any of them got slower or
+ * allocates more than the configured tolerance allows, so the
+ * {@code benchmarks} Maven profile fails the build.
+ *
+ * Scores only compare on the hardware that recorded them: record the
+ * baseline on the machine that runs the gate
+ * ({@code -Dbenchmark.record-baseline=true}) and copy the recorded file
+ * from {@code target/} to the baseline location once it has been reviewed.
+ * Without a baseline file the gate fails rather than passing unchecked.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public final class BenchmarkGate {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOCATION_SLACK_BYTES = 1.0;    // below measurement noise
+
+    private BenchmarkGate() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path baselineFile = Path.of(System.getProperty("benchmark.baseline", "src/jmh/resources/benchmark-baseline.json"));
+        Path resultFile = Path.of(System.getProperty("benchmark.results", "target/jmh-result.json"));
+        double timeTolerance = Double.parseDouble(System.getProperty("benchmark.time-tolerance", "0.15"));
+        double allocationTolerance = Double.parseDouble(System.getProperty("benchmark.allocation-tolerance", "0.10"));
+        boolean recordBaseline = Boolean.getBoolean("benchmark.record-baseline");
+        Path recordFile = Path.of(System.getProperty("benchmark.baseline-output", "target/benchmark-baseline.json"));
+
+        if (!recordBaseline && !Files.exists(baselineFile)) {
+            System.err.printf("No benchmark baseline at %s; run with -Dbenchmark.record-baseline=true to record one%n",
+                    baselineFile);
+            System.exit(1);
+        }
+
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", ".*Benchmark.*"))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.toString())
+                .build();
+        Map<String, Measurement> current = measurements(new Runner(options).run());
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (recordBaseline) {
+            writeBaseline(objectMapper, recordFile, current);
+            System.out.printf("Recorded benchmark baseline for %d benchmarks in %s%n", current.size(), recordFile);
+            return;
+        }
+
+        Baseline baseline = objectMapper.readValue(baselineFile.toFile(), Baseline.class);
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-70s %14s %14s %12s %12s%n", "Benchmark", "Baseline", "Current", "B/op base", "B/op now");
+        for (Map.Entry<String, Measurement> entry : current.entrySet()) {
+            Measurement now = entry.getValue();
+            Measurement before = baseline.benchmarks().get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %11.3f %-2s %12s %12.1f%n",
+                        entry.getKey(), "new", now.score(), now.unit(), "-", now.allocatedBytesPerOp());
+                continue;
+            }
+            System.out.printf("%-70s %11.3f %-2s %11.3f %-2s %12.1f %12.1f%n", entry.getKey(),
+                    before.score(), before.unit(), now.score(), now.unit(),
+                    before.allocatedBytesPerOp(), now.allocatedBytesPerOp());
+
+            if (!before.unit().equals(now.unit())) {
+                regressions.add(entry.getKey() + ": unit changed from " + before.unit() + " to " + now.unit());
+                continue;
+            }
+            if (now.score() > before.score() * (1 + timeTolerance)) {
+                regressions.add(String.format("%s: %.3f %s vs baseline %.3f %s (+%.1f%%)", entry.getKey(),
+                        now.score(), now.unit(), before.score(), before.unit(),
+                        (now.score() / before.score() - 1) * 100));
+            }
+            if (now.allocatedBytesPerOp() > before.allocatedBytesPerOp() * (1 + allocationTolerance)
+                    + ALLOCATION_SLACK_BYTES) {
+                regressions.add(String.format("%s: allocates %.1f B/op vs baseline %.1f B/op", entry.getKey(),
+                        now.allocatedBytesPerOp(), before.allocatedBytesPerOp()));
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark regressions against %s:%n", regressions.size(), baselineFile);
+            regressions.forEach(regression -> System.err.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.printf("No benchmark regressions against %s%n", baselineFile);
+    }
+
+    // Private helper methods
+    private static Map<String, Measurement> measurements(Collection<RunResult> runs) {
+        Map<String, Measurement> measurements = new TreeMap<>();
+        for (RunResult run : runs) {
+            Result<?> primary = run.getPrimaryResult();
+            measurements.put(key(run.getParams()),
+                    new Measurement(primary.getScore(), primary.getScoreUnit(), allocatedBytesPerOp(run)));
+        }
+        return measurements;
+    }
+
+    private static double allocatedBytesPerOp(RunResult run) {
+        // Older JMH versions prefix the GC profiler's metrics with a middle dot
+        for (Map.Entry<String, Result> secondary : run.getSecondaryResults().entrySet()) {
+            if (secondary.getKey().endsWith(ALLOCATION_METRIC)) {
+                return secondary.getValue().getScore();
+            }
+        }
+        return 0.0;
+    }
+
+    private static String key(BenchmarkParams params) {
+        StringBuilder key = new StringBuilder(params.getBenchmark()
+                .substring(params.getBenchmark().lastIndexOf('.', params.getBenchmark().lastIndexOf('.') - 1) + 1));
+        for (String param : params.getParamsKeys()) {
+            key.append(':').append(param).append('=').append(params.getParam(param));
+        }
+        return key.toString();
+    }
+
+    private static void writeBaseline(ObjectMapper objectMapper, Path baselineFile,
+                                      Map<String, Measurement> measurements) throws IOException {
+        Path parent = baselineFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        objectMapper.writeValue(baselineFile.toFile(), new Baseline(measurements));
+    }
+
+    /**
+     * Recorded benchmark results, keyed by Class.method[:param=value...]
+     */
+    record Baseline(
+            Map<String, Measurement> benchmarks
+    ) {}
+
+    record Measurement(
+            double score,
+            String unit,
+            double allocatedBytesPerOp
+    ) {}
+}
@@ -0,0 +1,134 @@
+package com.woltaxi.payment.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Money
+ *
+ * Amount in minor units (cents, kuruş...) of one currency. Arithmetic is
+ * plain long math with overflow checks, so limit checks, fees and refund
+ * balances need no BigDecimal allocation; convert at the persistence and
+ * API boundaries with {@link #of(BigDecimal, String)} and {@link #toBigDecimal()}.
+ * Only {@link MoneyArithmeticBenchmark} uses it, to price a move away from BigDecimal.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public record Money(
+        long amountMinor,
+        String currency,
+        int fractionDigits
+) implements Comparable<Money> {
+
+    /** Basis points in one whole (100%) */
+    public static final long BASIS_POINTS = 10_000L;
+
+    public Money {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Invalid currency: " + currency);
+        }
+    }
+
+    public static Money ofMinor(long amountMinor, String currency) {
+        return new Money(amountMinor, currency, fractionDigits(currency));
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0L, currency);
+    }
+
+    /**
+     * Convert a major-unit amount; it must not carry more decimals than the currency has
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        int digits = fractionDigits(currency);
+        try {
+            return new Money(amount.setScale(digits, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(),
+                    currency, digits);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " is not representable in " + currency, e);
+        }
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(amountMinor, other.amountMinor), currency, fractionDigits);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(amountMinor, other.amountMinor), currency, fractionDigits);
+    }
+
+    /**
+     * Share of this amount in basis points (290 = 2.90%), rounded half up
+     */
+    public Money percentage(long basisPoints) {
+        long product = Math.multiplyExact(amountMinor, basisPoints);
+        long half = product >= 0 ? BASIS_POINTS / 2 : -BASIS_POINTS / 2;
+        return new Money((product + half) / BASIS_POINTS, currency, fractionDigits);
+    }
+
+    /**
+     * Percentage fee plus a fixed fee, the usual provider processing fee shape
+     */
+    public Money fee(long basisPoints, Money fixed) {
+        return percentage(basisPoints).plus(fixed);
+    }
+
+    public Money min(Money other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    /**
+     * True when adding {@code additional} to this amount would go over {@code limit}
+     */
+    public boolean exceedsWith(Money additional, Money limit) {
+        requireSameCurrency(additional);
+        requireSameCurrency(limit);
+        return Math.addExact(amountMinor, additional.amountMinor) > limit.amountMinor;
+    }
+
+    public boolean isZero() {
+        return amountMinor == 0L;
+    }
+
+    public boolean isNegative() {
+        return amountMinor < 0L;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(amountMinor, fractionDigits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(amountMinor, other.amountMinor);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    // Private helper methods
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    private static int fractionDigits(String currency) {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Invalid currency: " + currency);
+        }
+        return Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+    }
+}
@@ -0,0 +1,255 @@
+package com.woltaxi.payment.benchmark;
+
+import com.woltaxi.payment.entity.MultiCurrencyWallet;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.event.PaymentEventPublisher;
+import com.woltaxi.payment.repository.PaymentTransactionKeysetRepository;
+import com.woltaxi.payment.repository.PaymentTransactionRepository;
+import com.woltaxi.payment.service.PaymentService;
+import com.woltaxi.payment.service.currency.CurrencyService;
+import com.woltaxi.payment.service.currency.FxRateService;
+import com.woltaxi.payment.service.fraud.FraudDetectionService;
+import com.woltaxi.payment.service.fraud.FraudScoringEngine;
+import com.woltaxi.payment.service.impl.PaymentServiceImpl;
+import com.woltaxi.payment.service.pipeline.PaymentIdempotencyService;
+import com.woltaxi.payment.service.pipeline.PaymentStageRunner;
+import com.woltaxi.payment.service.provider.PaymentProviderFactory;
+import com.woltaxi.payment.service.provider.PaymentProviderService;
+import com.woltaxi.payment.service.routing.PaymentProviderRouter;
+import com.woltaxi.payment.service.statistics.PaymentStatisticsRollup;
+import com.woltaxi.payment.service.validation.PaymentValidationService;
+import com.woltaxi.payment.service.wallet.WalletService;
+import com.woltaxi.payment.service.webhook.WebhookInboxService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Money Arithmetic Benchmark
+ *
+ * The payment path's money hot spots as written today with BigDecimal
+ * (wallet limit checks, processing fee, refundable amount) next to the same
+ * computation on {@link Money} minor units. Inputs cycle through a table of
+ * random amounts with the database's scale 4, so nothing constant-folds and
+ * the BigDecimal side pays for rescaling like it does in production.
+ *
+ * The BigDecimal processing fee goes through
+ * {@link PaymentService#calculateProcessingFee} and the provider factory like
+ * the fee endpoint does. Provider implementations live outside this module,
+ * so a stub-only provider applies the card rate; its dispatch cost is part of
+ * the measured path.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MoneyArithmeticBenchmark {
+
+    private static final int SIZE = 1024;                      // power of two, indexes are masked
+    private static final int DB_SCALE = 4;
+    private static final BigDecimal FEE_RATE = new BigDecimal("0.029");
+    private static final long FEE_BASIS_POINTS = 290L;
+    private static final long FIXED_FEE_MINOR = 25L;
+
+    @Param({"TRY", "JPY"})
+    private String currency;
+
+    private int digits;
+    private BigDecimal fixedFee;
+    private Money fixedFeeMoney;
+    private PaymentService paymentService;
+
+    private MultiCurrencyWallet[] wallets;
+    private PaymentTransaction[] transactions;
+    private BigDecimal[] amounts;
+
+    private Money[] moneyAmounts;
+    private Money[] dailySpent;
+    private Money[] dailyLimits;
+    private Money[] monthlySpent;
+    private Money[] monthlyLimits;
+    private Money[] captured;
+    private Money[] refunded;
+
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        fixedFeeMoney = Money.ofMinor(FIXED_FEE_MINOR, currency);
+        digits = fixedFeeMoney.fractionDigits();
+        fixedFee = fixedFeeMoney.toBigDecimal();
+        paymentService = paymentService();
+
+        wallets = new MultiCurrencyWallet[SIZE];
+        transactions = new PaymentTransaction[SIZE];
+        amounts = new BigDecimal[SIZE];
+        moneyAmounts = new Money[SIZE];
+        dailySpent = new Money[SIZE];
+        dailyLimits = new Money[SIZE];
+        monthlySpent = new Money[SIZE];
+        monthlyLimits = new Money[SIZE];
+        captured = new Money[SIZE];
+        refunded = new Money[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            long amount = random.nextLong(100L, 50_000L);
+            long dailyLimit = 1_000_000L;
+            long daily = random.nextLong(0L, dailyLimit);
+            long monthlyLimit = 10_000_000L;
+            long monthly = random.nextLong(daily, monthlyLimit);
+            long refund = random.nextInt(4) == 0 ? random.nextLong(1L, amount) : 0L;
+
+            wallets[i] = MultiCurrencyWallet.builder()
+                    .currency(currency)
+                    .dailySpentAmount(decimal(daily))
+                    .dailyTransactionLimit(decimal(dailyLimit))
+                    .monthlySpentAmount(decimal(monthly))
+                    .monthlyTransactionLimit(decimal(monthlyLimit))
+                    .build();
+            transactions[i] = PaymentTransaction.builder()
+                    .amount(decimal(amount))
+                    .currency(currency)
+                    .refundAmount(refund > 0 ? decimal(refund) : null)
+                    .build();
+            amounts[i] = decimal(amount);
+
+            moneyAmounts[i] = Money.ofMinor(amount, currency);
+            dailySpent[i] = Money.ofMinor(daily, currency);
+            dailyLimits[i] = Money.ofMinor(dailyLimit, currency);
+            monthlySpent[i] = Money.ofMinor(monthly, currency);
+            monthlyLimits[i] = Money.ofMinor(monthlyLimit, currency);
+            captured[i] = Money.ofMinor(amount, currency);
+            refunded[i] = Money.ofMinor(refund, currency);
+        }
+    }
+
+    @Benchmark
+    public boolean dailyLimitBigDecimal() {
+        int i = next();
+        return wallets[i].hasReachedDailyLimit(amounts[i]);
+    }
+
+    @Benchmark
+    public boolean dailyLimitMoney() {
+        int i = next();
+        return dailySpent[i].exceedsWith(moneyAmounts[i], dailyLimits[i]);
+    }
+
+    @Benchmark
+    public BigDecimal remainingMonthlyLimitBigDecimal() {
+        return wallets[next()].getRemainingMonthlyLimit();
+    }
+
+    @Benchmark
+    public Money remainingMonthlyLimitMoney() {
+        int i = next();
+        return monthlyLimits[i].minus(monthlySpent[i]);
+    }
+
+    @Benchmark
+    public BigDecimal processingFeeBigDecimal() {
+        return paymentService.calculateProcessingFee(amounts[next()], currency,
+                PaymentTransaction.PaymentProvider.STRIPE, PaymentTransaction.PaymentMethod.CARD);
+    }
+
+    @Benchmark
+    public Money processingFeeMoney() {
+        return moneyAmounts[next()].fee(FEE_BASIS_POINTS, fixedFeeMoney);
+    }
+
+    /**
+     * Same computation as PaymentServiceImpl#calculateRefundableAmount
+     */
+    @Benchmark
+    public BigDecimal refundableAmountBigDecimal() {
+        PaymentTransaction transaction = transactions[next()];
+        BigDecimal refundedAmount = transaction.getRefundAmount() != null ?
+                transaction.getRefundAmount() : BigDecimal.ZERO;
+        return transaction.getAmount().subtract(refundedAmount);
+    }
+
+    @Benchmark
+    public Money refundableAmountMoney() {
+        int i = next();
+        return captured[i].minus(refunded[i]);
+    }
+
+    /**
+     * Price of adopting Money at the persistence boundary: one conversion per loaded amount
+     */
+    @Benchmark
+    public Money toMoneyConversion() {
+        return Money.of(amounts[next()], currency);
+    }
+
+    // Private helper methods
+    /**
+     * Payment service whose fee lookup reaches a provider charging FEE_RATE plus the fixed fee
+     */
+    private PaymentService paymentService() {
+        PaymentProviderService provider = stub(PaymentProviderService.class);
+        when(provider.calculateProcessingFee(any(), anyString(), any())).thenAnswer(invocation ->
+                invocation.<BigDecimal>getArgument(0).multiply(FEE_RATE).add(fixedFee)
+                        .setScale(digits, RoundingMode.HALF_UP));
+        PaymentProviderFactory providerFactory = stub(PaymentProviderFactory.class);
+        when(providerFactory.getProvider(any())).thenReturn(provider);
+
+        return new PaymentServiceImpl(
+                stub(PaymentTransactionRepository.class),
+                stub(PaymentTransactionKeysetRepository.class),
+                providerFactory,
+                stub(PaymentProviderRouter.class),
+                stub(PaymentValidationService.class),
+                stub(FraudDetectionService.class),
+                stub(FraudScoringEngine.class),
+                stub(CurrencyService.class),
+                stub(FxRateService.class),
+                stub(WalletService.class),
+                stub(PaymentEventPublisher.class),
+                stub(ApplicationEventPublisher.class),
+                stub(PaymentIdempotencyService.class),
+                stub(PaymentStageRunner.class),
+                stub(WebhookInboxService.class),
+                stub(PaymentStatisticsRollup.class),
+                stub(TransactionTemplate.class));
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (SIZE - 1);
+    }
+
+    private BigDecimal decimal(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, digits).setScale(DB_SCALE, RoundingMode.UNNECESSARY);
+    }
+}
@@ -0,0 +1,197 @@
+package com.woltaxi.payment.benchmark;
+
+import com.woltaxi.payment.dto.request.PaymentRequest;
+import com.woltaxi.payment.dto.response.PaymentResponse;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.event.PaymentEventPublisher;
+import com.woltaxi.payment.repository.PaymentIdempotencyKeyRepository;
+import com.woltaxi.payment.repository.PaymentTransactionKeysetRepository;
+import com.woltaxi.payment.repository.PaymentTransactionRepository;
+import com.woltaxi.payment.service.PaymentService;
+import com.woltaxi.payment.service.currency.CurrencyService;
+import com.woltaxi.payment.service.currency.FxRateService;
+import com.woltaxi.payment.service.fraud.FraudDetectionService;
+import com.woltaxi.payment.service.fraud.FraudFeatureStore;
+import com.woltaxi.payment.service.fraud.FraudScoringEngine;
+import com.woltaxi.payment.service.impl.PaymentServiceImpl;
+import com.woltaxi.payment.service.pipeline.PaymentIdempotencyService;
+import com.woltaxi.payment.service.pipeline.PaymentStageRunner;
+import com.woltaxi.payment.service.provider.PaymentProviderFactory;
+import com.woltaxi.payment.service.provider.PaymentProviderService;
+import com.woltaxi.payment.service.routing.PaymentProviderRouter;
+import com.woltaxi.payment.service.routing.ProviderHealthTracker;
+import com.woltaxi.payment.service.statistics.PaymentStatisticsRollup;
+import com.woltaxi.payment.service.validation.PaymentValidationService;
+import com.woltaxi.payment.service.wallet.WalletService;
+import com.woltaxi.payment.service.webhook.WebhookInboxService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Process Payment Benchmark
+ *
+ * {@link PaymentService#processPayment} end to end, in process. The pipeline
+ * components that do CPU work (stage runner, provider router and health
+ * tracker, fraud feature store and scoring, idempotency) are the real beans,
+ * wired by a bare Spring context so their {@code @Value} defaults apply.
+ * Everything that would leave the JVM (repositories, payment providers,
+ * Kafka publisher, validation and rule-based fraud services) is a stub-only
+ * Mockito mock that answers immediately; the transaction manager is a no-op.
+ *
+ * Each invocation pays for a new user so velocity rules never block it,
+ * which also keeps the fraud feature store churning like under real traffic.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProcessPaymentBenchmark {
+
+    private static final String CURRENCY = "TRY";
+    private static final BigDecimal AMOUNT = new BigDecimal("125.50");
+
+    private AnnotationConfigApplicationContext context;
+    private PaymentService paymentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+
+        PaymentProviderService provider = stub(PaymentProviderService.class);
+        when(provider.getSupportedPaymentMethods()).thenReturn(List.of(PaymentTransaction.PaymentMethod.CARD));
+        when(provider.getSupportedCurrencies()).thenReturn(List.of(CURRENCY));
+        when(provider.calculateProcessingFee(any(), any(), any())).thenReturn(new BigDecimal("3.89"));
+        when(provider.processPayment(any(PaymentRequest.class), any(PaymentTransaction.class)))
+                .thenAnswer(invocation -> approved(invocation.getArgument(1)));
+        PaymentProviderFactory providerFactory = register(PaymentProviderFactory.class);
+        when(providerFactory.getProvider(any())).thenReturn(provider);
+
+        PaymentTransactionRepository paymentRepository = register(PaymentTransactionRepository.class);
+        when(paymentRepository.save(any(PaymentTransaction.class))).thenAnswer(invocation -> {
+            PaymentTransaction transaction = invocation.getArgument(0);
+            if (transaction.getId() == null) {
+                transaction.setId(UUID.randomUUID());
+            }
+            return transaction;
+        });
+
+        PaymentValidationService validationService = register(PaymentValidationService.class);
+        when(validationService.validatePaymentRequest(any()))
+                .thenReturn(new PaymentService.ValidationResult(true, List.of(), List.of()));
+
+        FraudDetectionService.FraudResult fraudResult = stub(FraudDetectionService.FraudResult.class);
+        when(fraudResult.isBlocked()).thenReturn(false);
+        when(fraudResult.getRiskScore()).thenReturn(BigDecimal.TEN);
+        when(fraudResult.getRiskLevel()).thenReturn("LOW");
+        FraudDetectionService fraudDetectionService = register(FraudDetectionService.class);
+        when(fraudDetectionService.assessRisk(any())).thenReturn(fraudResult);
+
+        register(PaymentTransactionKeysetRepository.class);
+        register(PaymentIdempotencyKeyRepository.class);
+        register(CurrencyService.class);
+        register(WalletService.class);
+        register(PaymentEventPublisher.class);
+        register(WebhookInboxService.class);
+        register(PaymentStatisticsRollup.class);
+
+        PlatformTransactionManager transactionManager = stub(PlatformTransactionManager.class);
+        context.registerBean(TransactionTemplate.class, () -> new TransactionTemplate(transactionManager));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(CircuitBreakerRegistry.class, () -> CircuitBreakerRegistry.of(
+                Map.of("payment-provider-routing", CircuitBreakerConfig.ofDefaults())));
+        context.register(
+                PaymentStageRunner.class,
+                PaymentIdempotencyService.class,
+                ProviderHealthTracker.class,
+                PaymentProviderRouter.class,
+                FxRateService.class,
+                FraudFeatureStore.class,
+                FraudScoringEngine.class,
+                PaymentServiceImpl.class);
+        context.refresh();
+        paymentService = context.getBean(PaymentService.class);
+
+        PaymentResponse response = processPayment();
+        if (!response.isSuccessful()) {
+            throw new IllegalStateException("Benchmark payment did not succeed: " + response.getProviderResponseMessage());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaymentResponse processPayment() {
+        return paymentService.processPayment(PaymentRequest.builder()
+                .userId(UUID.randomUUID())
+                .amount(AMOUNT)
+                .currency(CURRENCY)
+                .paymentProvider(PaymentTransaction.PaymentProvider.IYZICO)
+                .paymentMethod(PaymentTransaction.PaymentMethod.CARD)
+                .transactionType(PaymentTransaction.TransactionType.PAYMENT)
+                .description("Benchmark ride")
+                .build());
+    }
+
+    // Private helper methods
+    private <T> T register(Class<T> type) {
+        T mock = stub(type);
+        context.registerBean(type, () -> mock);
+        return mock;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static PaymentResponse approved(PaymentTransaction transaction) {
+        return PaymentResponse.builder()
+                .transactionId(transaction.getId())
+                .externalTransactionId(transaction.getExternalTransactionId())
+                .userId(transaction.getUserId())
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .status(PaymentTransaction.PaymentStatus.SUCCEEDED)
+                .paymentProvider(transaction.getPaymentProvider())
+                .paymentMethod(transaction.getPaymentMethod())
+                .transactionType(transaction.getTransactionType())
+                .providerTransactionId("bench_" + transaction.getId())
+                .providerResponseCode("00")
+                .build();
+    }
+}
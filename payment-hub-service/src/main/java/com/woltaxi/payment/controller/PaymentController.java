@@ -1,7 +1,9 @@
 package com.woltaxi.payment.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.woltaxi.payment.dto.request.PaymentRequest;
 import com.woltaxi.payment.dto.response.PaymentResponse;
+import com.woltaxi.payment.dto.response.PaymentTransactionSummary;
 import com.woltaxi.payment.entity.PaymentTransaction;
 import com.woltaxi.payment.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,6 +16,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -21,15 +24,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Payment Hub Controller
@@ -50,6 +57,7 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
         summary = "Process Payment",
@@ -67,11 +75,18 @@ public class PaymentController {
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
     public ResponseEntity<PaymentResponse> processPayment(
-            @Valid @RequestBody PaymentRequest request) {
+            @Valid @RequestBody PaymentRequest request,
+            
+            @Parameter(description = "Client generated key that makes retries safe") 
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         
         log.info("Processing payment request for user: {} with provider: {}", 
                 request.getUserId(), request.getPaymentProvider());
         
+        if (idempotencyKey != null) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
+        
         PaymentResponse response = paymentService.processPayment(request);
         
         return ResponseEntity.ok(response);
@@ -276,6 +291,88 @@ public class PaymentController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+        summary = "Browse User Payments",
+        description = "Cursor-paginated payment summaries for a user, newest first"
+    )
+    @GetMapping("/user/{userId}/cursor")
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER') or hasRole('ADMIN')")
+    public ResponseEntity<PaymentService.CursorPage<PaymentTransactionSummary>> browseUserPayments(
+            @Parameter(description = "User ID") 
+            @PathVariable UUID userId,
+            
+            @Parameter(description = "Continuation token from the previous page") 
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Page size") 
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int size) {
+        
+        return ResponseEntity.ok(paymentService.getPaymentsByUser(userId, cursor, size));
+    }
+
+    @Operation(
+        summary = "Browse Subscription Payments",
+        description = "Cursor-paginated payment summaries for a subscription, newest first"
+    )
+    @GetMapping("/subscription/{subscriptionId}/cursor")
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER') or hasRole('ADMIN')")
+    public ResponseEntity<PaymentService.CursorPage<PaymentTransactionSummary>> browseSubscriptionPayments(
+            @Parameter(description = "Subscription ID") 
+            @PathVariable UUID subscriptionId,
+            
+            @Parameter(description = "Continuation token from the previous page") 
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Page size") 
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int size) {
+        
+        return ResponseEntity.ok(paymentService.getPaymentsBySubscription(subscriptionId, cursor, size));
+    }
+
+    @Operation(
+        summary = "Browse Payments by Status",
+        description = "Cursor-paginated payment summaries by status, newest first"
+    )
+    @GetMapping("/status/{status}/cursor")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE')")
+    public ResponseEntity<PaymentService.CursorPage<PaymentTransactionSummary>> browsePaymentsByStatus(
+            @Parameter(description = "Payment status") 
+            @PathVariable PaymentTransaction.PaymentStatus status,
+            
+            @Parameter(description = "Continuation token from the previous page") 
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Page size") 
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int size) {
+        
+        return ResponseEntity.ok(paymentService.getPaymentsByStatus(status, cursor, size));
+    }
+
+    @Operation(
+        summary = "Export Payments by Status",
+        description = "Stream every payment summary with the given status as newline-delimited JSON"
+    )
+    @GetMapping(value = "/status/{status}/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('FINANCE')")
+    public ResponseEntity<StreamingResponseBody> exportPaymentsByStatus(
+            @Parameter(description = "Payment status") 
+            @PathVariable PaymentTransaction.PaymentStatus status) {
+        
+        StreamingResponseBody body = output -> {
+            try (Stream<PaymentTransactionSummary> summaries = paymentService.exportPaymentsByStatus(status)) {
+                Iterator<PaymentTransactionSummary> rows = summaries.iterator();
+                while (rows.hasNext()) {
+                    output.write(objectMapper.writeValueAsBytes(rows.next()));
+                    output.write('\n');
+                }
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=payments-" + status + ".ndjson")
+                .body(body);
+    }
+
     @Operation(
         summary = "Get Payment Statistics",
         description = "Retrieve payment statistics for a user"
@@ -403,7 +500,55 @@ public class PaymentController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+        summary = "Receive Provider Webhook",
+        description = "Verify and queue a payment provider webhook; processing is asynchronous"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Webhook accepted"),
+        @ApiResponse(responseCode = "401", description = "Invalid webhook signature")
+    })
+    @PostMapping("/webhooks/{provider}")
+    public ResponseEntity<Void> receiveWebhook(
+            @Parameter(description = "Payment provider") 
+            @PathVariable PaymentTransaction.PaymentProvider provider,
+            
+            @RequestBody String payload,
+            
+            @RequestHeader HttpHeaders headers) {
+        
+        PaymentService.WebhookResult result = paymentService.handleWebhook(
+                provider, payload, webhookSignature(provider, headers));
+        
+        return result.processed() 
+                ? ResponseEntity.ok().build() 
+                : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    // Private helper methods
+    private String webhookSignature(PaymentTransaction.PaymentProvider provider, HttpHeaders headers) {
+        return switch (provider) {
+            case STRIPE -> headers.getFirst("Stripe-Signature");
+            case PAYPAL -> headers.getFirst("PayPal-Transmission-Sig");
+            case SQUARE -> headers.getFirst("X-Square-Hmacsha256-Signature");
+            case IYZICO -> headers.getFirst("X-Iyz-Signature-V3");
+            // Adyen, Braintree and PayTR sign inside the payload
+            default -> headers.getFirst("X-Webhook-Signature");
+        };
+    }
+
     // Exception handlers
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequest(IllegalArgumentException e) {
+        ErrorResponse error = ErrorResponse.builder()
+                .error("INVALID_REQUEST")
+                .message(e.getMessage())
+                .timestamp(System.currentTimeMillis())
+                .build();
+        
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
         log.error("Payment controller error", e);
@@ -20,7 +20,7 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @ToString(exclude = {"cardDetails", "sensitiveData"})
 public class PaymentRequest {
 
@@ -86,6 +86,9 @@ public class PaymentRequest {
     @Size(max = 50, message = "Order reference must not exceed 50 characters")
     private String orderReference;
 
+    @Size(max = 100, message = "Idempotency key must not exceed 100 characters")
+    private String idempotencyKey;
+
     private Map<String, Object> metadata;
 
     private Map<String, Object> providerSpecificData;
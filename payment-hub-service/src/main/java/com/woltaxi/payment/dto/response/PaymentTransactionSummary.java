@@ -0,0 +1,32 @@
+package com.woltaxi.payment.dto.response;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment Transaction Summary DTO
+ *
+ * Read-only projection used by the listing and export APIs. Selected directly
+ * from payment_transactions, so listing never hydrates or tracks the full
+ * {@link PaymentTransaction} entity.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public record PaymentTransactionSummary(
+        UUID id,
+        String externalTransactionId,
+        UUID userId,
+        UUID subscriptionId,
+        BigDecimal amount,
+        String currency,
+        PaymentTransaction.PaymentStatus status,
+        PaymentTransaction.PaymentProvider paymentProvider,
+        PaymentTransaction.PaymentMethod paymentMethod,
+        PaymentTransaction.TransactionType transactionType,
+        BigDecimal refundAmount,
+        LocalDateTime createdAt
+) {}
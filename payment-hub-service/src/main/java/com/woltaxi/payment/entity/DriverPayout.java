@@ -0,0 +1,105 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Driver Payout Entity
+ *
+ * A single wallet's payout within a {@link DriverPayoutRun}. Rows are
+ * created by the run's snapshot and moved through their statuses with JDBC
+ * batches; each status doubles as the checkpoint for resuming the run.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "driver_payouts",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_driver_payout_run_wallet", columnNames = {"run_id", "wallet_id"})
+    },
+    indexes = {
+        @Index(name = "idx_driver_payout_partition", columnList = "run_id, partition_no, id"),
+        @Index(name = "idx_driver_payout_group", columnList = "run_id, provider, currency, status, id"),
+        @Index(name = "idx_driver_payout_batch", columnList = "batch_id")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class DriverPayout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, updatable = false)
+    @NotNull(message = "Run ID is required")
+    private UUID runId;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    @NotNull(message = "Wallet ID is required")
+    private UUID walletId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    @NotNull(message = "User ID is required")
+    private UUID userId;
+
+    @Column(name = "currency", nullable = false, length = 3, updatable = false)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider", nullable = false, length = 20, updatable = false)
+    private PaymentTransaction.PaymentProvider provider;
+
+    @Column(name = "destination_reference", nullable = false, length = 100, updatable = false)
+    private String destinationReference;
+
+    @Column(name = "snapshot_amount", nullable = false, precision = 19, scale = 4, updatable = false)
+    private BigDecimal snapshotAmount;      // Available balance when the run started
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private PayoutStatus status = PayoutStatus.PENDING;
+
+    @Column(name = "partition_no", nullable = false, updatable = false)
+    private Integer partitionNo;
+
+    @Column(name = "batch_id")
+    private UUID batchId;                   // Bulk transfer this payout was sent in; also its idempotency key
+
+    @Column(name = "provider_reference", length = 100)
+    private String providerReference;
+
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Enums
+    public enum PayoutStatus {
+        PENDING,            // Snapshotted, amount not yet reserved
+        RESERVING,          // Reservation in flight
+        RESERVED,           // Amount held in the wallet's reserved balance
+        SUBMITTING,         // Part of a bulk transfer whose outcome is not recorded yet
+        SUBMITTED,          // Accepted by the provider; funds left the wallet
+        FAILED,             // Rejected by the provider; reservation released
+        SKIPPED             // Not paid this run (balance too low, wallet not active...)
+    }
+}
@@ -0,0 +1,92 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Driver Payout Run Entity
+ *
+ * One settlement run moving driver wallet balances to their bank accounts.
+ * The status is the run's checkpoint: a run interrupted in any phase is
+ * picked up again by whichever instance next acquires its lease.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "driver_payout_runs",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payout_run_date", columnNames = {"run_date"})
+    },
+    indexes = {
+        @Index(name = "idx_payout_run_status", columnList = "status")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class DriverPayoutRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "run_date", nullable = false, updatable = false)
+    @NotNull(message = "Run date is required")
+    private LocalDate runDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private RunStatus status = RunStatus.SNAPSHOT;
+
+    @Column(name = "partitions", nullable = false, updatable = false)
+    private Integer partitions;
+
+    @Column(name = "eligible_count", nullable = false)
+    @Builder.Default
+    private Long eligibleCount = 0L;
+
+    @Column(name = "submitted_count", nullable = false)
+    @Builder.Default
+    private Long submittedCount = 0L;
+
+    @Column(name = "failed_count", nullable = false)
+    @Builder.Default
+    private Long failedCount = 0L;
+
+    @Column(name = "skipped_count", nullable = false)
+    @Builder.Default
+    private Long skippedCount = 0L;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Enums
+    public enum RunStatus {
+        SNAPSHOT,           // Eligible wallets being captured
+        COMPUTING,          // Payout amounts being reserved, per partition
+        SUBMITTING,         // Bulk transfers being sent per provider and currency
+        COMPLETED,
+        FAILED
+    }
+}
@@ -19,6 +19,9 @@ import java.util.UUID;
  * 
  * Manages multi-currency balances for users with automatic conversion,
  * transaction limits, and comprehensive audit logging.
+ *
+ * Balances are a read-only snapshot maintained by the wallet ledger; all
+ * balance changes go through WalletLedgerService, never through this entity.
  * 
  * @author WOLTAXI Development Team
  * @version 1.0.0
@@ -55,28 +58,28 @@ public class MultiCurrencyWallet {
     @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a valid ISO 4217 code")
     private String currency;
 
-    @Column(name = "available_balance", nullable = false, precision = 19, scale = 4)
+    @Column(name = "available_balance", nullable = false, updatable = false, precision = 19, scale = 4)
     @NotNull(message = "Available balance is required")
     @DecimalMin(value = "0.00", message = "Available balance must be non-negative")
     @Digits(integer = 15, fraction = 4, message = "Available balance format is invalid")
     @Builder.Default
     private BigDecimal availableBalance = BigDecimal.ZERO;
 
-    @Column(name = "pending_balance", nullable = false, precision = 19, scale = 4)
+    @Column(name = "pending_balance", nullable = false, updatable = false, precision = 19, scale = 4)
     @NotNull(message = "Pending balance is required")
     @DecimalMin(value = "0.00", message = "Pending balance must be non-negative")
     @Digits(integer = 15, fraction = 4, message = "Pending balance format is invalid")
     @Builder.Default
     private BigDecimal pendingBalance = BigDecimal.ZERO;
 
-    @Column(name = "total_balance", nullable = false, precision = 19, scale = 4)
+    @Column(name = "total_balance", nullable = false, updatable = false, precision = 19, scale = 4)
     @NotNull(message = "Total balance is required")
     @DecimalMin(value = "0.00", message = "Total balance must be non-negative")
     @Digits(integer = 15, fraction = 4, message = "Total balance format is invalid")
     @Builder.Default
     private BigDecimal totalBalance = BigDecimal.ZERO;
 
-    @Column(name = "reserved_balance", nullable = false, precision = 19, scale = 4)
+    @Column(name = "reserved_balance", nullable = false, updatable = false, precision = 19, scale = 4)
     @NotNull(message = "Reserved balance is required")
     @DecimalMin(value = "0.00", message = "Reserved balance must be non-negative")
     @Digits(integer = 15, fraction = 4, message = "Reserved balance format is invalid")
@@ -130,6 +133,11 @@ public class MultiCurrencyWallet {
     @Column(name = "last_transaction_date")
     private LocalDateTime lastTransactionDate;
 
+    // Balances are a snapshot of wallet_ledger_entries up to this sequence
+    @Column(name = "ledger_sequence", nullable = false, updatable = false)
+    @Builder.Default
+    private Long ledgerSequence = 0L;
+
     @Column(name = "last_daily_reset")
     private LocalDateTime lastDailyReset;
 
@@ -279,66 +287,7 @@ public class MultiCurrencyWallet {
         updateTotalBalance();
     }
 
-    @PreUpdate
-    protected void onUpdate() {
-        updateTotalBalance();
-    }
-
     private void updateTotalBalance() {
         this.totalBalance = this.availableBalance.add(this.pendingBalance).add(this.reservedBalance);
     }
-
-    public void debit(BigDecimal amount) {
-        if (!canDebit(amount)) {
-            throw new IllegalStateException("Insufficient balance for debit operation");
-        }
-        this.availableBalance = this.availableBalance.subtract(amount);
-        this.lastTransactionDate = LocalDateTime.now();
-        updateTotalBalance();
-    }
-
-    public void credit(BigDecimal amount) {
-        if (!canCredit(amount)) {
-            throw new IllegalStateException("Maximum balance exceeded for credit operation");
-        }
-        this.availableBalance = this.availableBalance.add(amount);
-        this.lastTransactionDate = LocalDateTime.now();
-        updateTotalBalance();
-    }
-
-    public void reserve(BigDecimal amount) {
-        if (!canDebit(amount)) {
-            throw new IllegalStateException("Insufficient balance for reserve operation");
-        }
-        this.availableBalance = this.availableBalance.subtract(amount);
-        this.reservedBalance = this.reservedBalance.add(amount);
-        updateTotalBalance();
-    }
-
-    public void releaseReserve(BigDecimal amount) {
-        if (this.reservedBalance.compareTo(amount) < 0) {
-            throw new IllegalStateException("Insufficient reserved balance for release operation");
-        }
-        this.reservedBalance = this.reservedBalance.subtract(amount);
-        this.availableBalance = this.availableBalance.add(amount);
-        updateTotalBalance();
-    }
-
-    public void addToPending(BigDecimal amount) {
-        this.pendingBalance = this.pendingBalance.add(amount);
-        updateTotalBalance();
-    }
-
-    public void removePending(BigDecimal amount) {
-        if (this.pendingBalance.compareTo(amount) < 0) {
-            throw new IllegalStateException("Insufficient pending balance for removal operation");
-        }
-        this.pendingBalance = this.pendingBalance.subtract(amount);
-        updateTotalBalance();
-    }
-
-    public void confirmPending(BigDecimal amount) {
-        removePending(amount);
-        credit(amount);
-    }
-}
\ No newline at end of file
+}
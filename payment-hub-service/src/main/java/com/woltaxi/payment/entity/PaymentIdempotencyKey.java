@@ -0,0 +1,88 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment Idempotency Key Entity
+ *
+ * Records client supplied idempotency keys so that retried payment requests
+ * return the original outcome instead of charging the customer twice.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "payment_idempotency_keys",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_idempotency_user_key", columnNames = {"user_id", "idempotency_key"})
+    },
+    indexes = {
+        @Index(name = "idx_payment_idempotency_expires_at", columnList = "expires_at")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class PaymentIdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    @NotNull(message = "User ID is required")
+    private UUID userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    @NotBlank(message = "Idempotency key is required")
+    @Size(max = 100, message = "Idempotency key must not exceed 100 characters")
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    @NotBlank(message = "Request hash is required")
+    private String requestHash;
+
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private KeyStatus status = KeyStatus.IN_PROGRESS;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private PaymentTransaction.PaymentStatus paymentStatus;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    @NotNull(message = "Expiry is required")
+    private LocalDateTime expiresAt;
+
+    // Enums
+    public enum KeyStatus {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    // Helper methods
+    public boolean isCompleted() {
+        return KeyStatus.COMPLETED.equals(this.status);
+    }
+}
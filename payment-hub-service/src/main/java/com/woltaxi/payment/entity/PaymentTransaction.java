@@ -25,10 +25,11 @@ import java.util.UUID;
 @Entity
 @Table(name = "payment_transactions", indexes = {
     @Index(name = "idx_payment_external_id", columnList = "external_transaction_id"),
-    @Index(name = "idx_payment_user_id", columnList = "user_id"),
-    @Index(name = "idx_payment_subscription_id", columnList = "subscription_id"),
-    @Index(name = "idx_payment_status", columnList = "status"),
-    @Index(name = "idx_payment_provider", columnList = "payment_provider"),
+    // Keyset listing order (created_at DESC, id DESC) per filter; also serve plain lookups by the leading column
+    @Index(name = "idx_payment_user_created", columnList = "user_id, created_at DESC, id DESC"),
+    @Index(name = "idx_payment_subscription_created", columnList = "subscription_id, created_at DESC, id DESC"),
+    @Index(name = "idx_payment_status_created", columnList = "status, created_at DESC, id DESC"),
+    @Index(name = "idx_payment_provider_processed", columnList = "payment_provider, processed_at, id"),
     @Index(name = "idx_payment_created_at", columnList = "created_at"),
     @Index(name = "idx_payment_amount_currency", columnList = "amount, currency")
 })
@@ -170,6 +171,10 @@ public class PaymentTransaction {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
+    // Written only by the reconciliation engine, so entity saves never overwrite it
+    @Column(name = "reconciled_at", insertable = false, updatable = false)
+    private LocalDateTime reconciledAt;
+
     @Column(name = "failed_at")
     private LocalDateTime failedAt;
 
@@ -0,0 +1,69 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Payment User Statistic Counter Entity
+ *
+ * Breakdown row of a user's payment rollup, e.g. successful volume in one
+ * currency or the number of payments made with one provider.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "payment_user_statistic_counters")
+@IdClass(PaymentUserStatisticCounter.CounterId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = {"userId", "dimension", "dimensionKey"})
+public class PaymentUserStatisticCounter {
+
+    @Id
+    @Column(name = "user_id", updatable = false, nullable = false)
+    @NotNull(message = "User ID is required")
+    private UUID userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", length = 20, updatable = false, nullable = false)
+    private Dimension dimension;
+
+    @Id
+    @Column(name = "dimension_key", length = 30, updatable = false, nullable = false)
+    private String dimensionKey;
+
+    @Column(name = "transaction_count", nullable = false)
+    @Builder.Default
+    private Long transactionCount = 0L;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    // Enums
+    public enum Dimension {
+        CURRENCY,           // Successful payment volume per currency
+        PROVIDER,           // Payments per provider
+        METHOD,             // Payments per payment method
+        REFUND,             // Refunded volume per currency
+        FEE                 // Fee transactions per currency
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CounterId implements Serializable {
+        private UUID userId;
+        private Dimension dimension;
+        private String dimensionKey;
+    }
+}
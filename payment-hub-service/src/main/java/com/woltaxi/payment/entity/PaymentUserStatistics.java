@@ -0,0 +1,60 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment User Statistics Entity
+ *
+ * Incrementally maintained per-user payment rollup. One row per user holds
+ * the transaction counters; per currency, provider and method breakdowns
+ * live in {@link PaymentUserStatisticCounter}. Rows are built once from the
+ * user's history and then only adjusted by status change events.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "payment_user_statistics")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "userId")
+public class PaymentUserStatistics {
+
+    @Id
+    @Column(name = "user_id", updatable = false, nullable = false)
+    @NotNull(message = "User ID is required")
+    private UUID userId;
+
+    @Column(name = "total_transactions", nullable = false)
+    @Builder.Default
+    private Long totalTransactions = 0L;
+
+    @Column(name = "successful_transactions", nullable = false)
+    @Builder.Default
+    private Long successfulTransactions = 0L;
+
+    @Column(name = "failed_transactions", nullable = false)
+    @Builder.Default
+    private Long failedTransactions = 0L;
+
+    @Column(name = "pending_transactions", nullable = false)
+    @Builder.Default
+    private Long pendingTransactions = 0L;
+
+    @Column(name = "refunded_transactions", nullable = false)
+    @Builder.Default
+    private Long refundedTransactions = 0L;
+
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,67 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payout Destination Entity
+ *
+ * Bank account a driver is paid out to for one wallet currency, held at a
+ * payout provider. Only the provider's token for the account is stored,
+ * never the account number itself.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "driver_payout_destinations",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payout_destination_user_currency", columnNames = {"user_id", "currency"})
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class PayoutDestination {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    @NotNull(message = "User ID is required")
+    private UUID userId;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    @NotBlank(message = "Currency is required")
+    @Size(min = 3, max = 3, message = "Currency must be exactly 3 characters")
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider", nullable = false, length = 20)
+    @NotNull(message = "Provider is required")
+    private PaymentTransaction.PaymentProvider provider;
+
+    @Column(name = "destination_reference", nullable = false, length = 100)
+    @NotBlank(message = "Destination reference is required")
+    @Size(max = 100, message = "Destination reference must not exceed 100 characters")
+    private String destinationReference;
+
+    @Column(name = "active", nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
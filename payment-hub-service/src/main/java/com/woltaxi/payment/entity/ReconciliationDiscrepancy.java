@@ -0,0 +1,91 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reconciliation Discrepancy Entity
+ *
+ * A difference between a provider settlement record and the matching
+ * payment transaction, or a record present on only one side. Rows are
+ * inserted in JDBC batches by the reconciliation engine and read back as the
+ * run's report.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "payment_reconciliation_discrepancies", indexes = {
+    @Index(name = "idx_reconciliation_discrepancy_run", columnList = "run_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class ReconciliationDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, updatable = false)
+    @NotNull(message = "Run ID is required")
+    private UUID runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 30, updatable = false)
+    @NotNull(message = "Discrepancy type is required")
+    private DiscrepancyType type;
+
+    @Column(name = "external_transaction_id", length = 100, updatable = false)
+    private String externalTransactionId;
+
+    @Column(name = "transaction_id", updatable = false)
+    private UUID transactionId;
+
+    @Column(name = "expected_amount", precision = 19, scale = 4, updatable = false)
+    private BigDecimal expectedAmount;          // Our side
+
+    @Column(name = "settled_amount", precision = 19, scale = 4, updatable = false)
+    private BigDecimal settledAmount;           // Provider side
+
+    @Column(name = "expected_currency", length = 3, updatable = false)
+    private String expectedCurrency;
+
+    @Column(name = "settled_currency", length = 3, updatable = false)
+    private String settledCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20, updatable = false)
+    private PaymentTransaction.PaymentStatus paymentStatus;
+
+    @Column(name = "settlement_status", length = 30, updatable = false)
+    private String settlementStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "fixed_status", length = 20, updatable = false)
+    private PaymentTransaction.PaymentStatus fixedStatus;   // Set when the status was corrected automatically
+
+    @Column(name = "superseded_by_run_id")
+    private UUID supersededByRunId;             // Set when a later run replaced this one's failed run
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Enums
+    public enum DiscrepancyType {
+        MISSING_IN_LEDGER,          // Settled by the provider, no payment transaction
+        MISSING_IN_SETTLEMENT,      // Succeeded here, absent from the settlement file
+        PROVIDER_MISMATCH,          // Transaction belongs to another provider
+        AMOUNT_MISMATCH,
+        CURRENCY_MISMATCH,
+        STATUS_MISMATCH
+    }
+}
@@ -0,0 +1,89 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reconciliation Run Entity
+ *
+ * One reconciliation of a provider settlement file against payment
+ * transactions, for one provider and settlement date. Counters are written
+ * when the run finishes; the individual findings are stored as
+ * {@link ReconciliationDiscrepancy} rows.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "payment_reconciliation_runs", indexes = {
+    @Index(name = "idx_reconciliation_run_provider_date", columnList = "provider, settlement_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider", nullable = false, length = 20, updatable = false)
+    @NotNull(message = "Provider is required")
+    private PaymentTransaction.PaymentProvider provider;
+
+    @Column(name = "settlement_date", nullable = false, updatable = false)
+    @NotNull(message = "Settlement date is required")
+    private LocalDate settlementDate;
+
+    @Column(name = "source_file", nullable = false, length = 500, updatable = false)
+    @NotBlank(message = "Source file is required")
+    private String sourceFile;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private RunStatus status = RunStatus.RUNNING;
+
+    @Column(name = "settlement_records", nullable = false)
+    @Builder.Default
+    private Long settlementRecords = 0L;
+
+    @Column(name = "matched_records", nullable = false)
+    @Builder.Default
+    private Long matchedRecords = 0L;
+
+    @Column(name = "discrepancies", nullable = false)
+    @Builder.Default
+    private Long discrepancies = 0L;
+
+    @Column(name = "fixes_applied", nullable = false)
+    @Builder.Default
+    private Long fixesApplied = 0L;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Enums
+    public enum RunStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        SUPERSEDED      // Failed run replaced by a later run of the same file; its discrepancies are kept, marked superseded
+    }
+}
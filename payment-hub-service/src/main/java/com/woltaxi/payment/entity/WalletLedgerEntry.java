@@ -0,0 +1,101 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Wallet Ledger Entry Entity
+ *
+ * Append-only double-entry ledger leg. Every wallet operation is recorded as a
+ * journal of two legs whose amounts sum to zero: one against a wallet balance
+ * bucket and one against either another bucket of the same wallet or the
+ * currency clearing account. Amounts are signed minor units (cents, kuruş).
+ * Rows are never updated; wallet balances are snapshots derived from them.
+ * Both legs of a journal share the wallet sequence, so (wallet, sequence,
+ * account) is unique and a second writer of a sequence is rejected.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "wallet_ledger_entries", indexes = {
+    @Index(name = "uk_ledger_wallet_sequence", columnList = "wallet_id, wallet_sequence, account", unique = true),
+    @Index(name = "idx_ledger_journal_id", columnList = "journal_id"),
+    @Index(name = "idx_ledger_reference", columnList = "reference"),
+    @Index(name = "idx_ledger_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class WalletLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column(name = "journal_id", nullable = false, updatable = false)
+    @NotNull(message = "Journal ID is required")
+    private UUID journalId;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    @NotNull(message = "Wallet ID is required")
+    private UUID walletId;
+
+    @Column(name = "wallet_sequence", nullable = false, updatable = false)
+    @NotNull(message = "Wallet sequence is required")
+    private Long walletSequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account", nullable = false, length = 20, updatable = false)
+    @NotNull(message = "Ledger account is required")
+    private LedgerAccount account;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 20, updatable = false)
+    @NotNull(message = "Operation is required")
+    private Operation operation;
+
+    @Column(name = "currency", nullable = false, length = 3, updatable = false)
+    @NotBlank(message = "Currency is required")
+    @Size(min = 3, max = 3, message = "Currency must be exactly 3 characters")
+    private String currency;
+
+    @Column(name = "amount_minor", nullable = false, updatable = false)
+    @NotNull(message = "Amount is required")
+    private Long amountMinor;
+
+    @Column(name = "reference", length = 100, updatable = false)
+    @Size(max = 100, message = "Reference must not exceed 100 characters")
+    private String reference;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Enums
+    public enum LedgerAccount {
+        AVAILABLE,          // Wallet available balance
+        RESERVED,           // Wallet reserved balance
+        PENDING,            // Wallet pending balance
+        CLEARING            // Currency clearing account (outside the wallet)
+    }
+
+    public enum Operation {
+        CREDIT,
+        DEBIT,
+        RESERVE,
+        RELEASE_RESERVE,
+        ADD_PENDING,
+        REMOVE_PENDING,
+        CONFIRM_PENDING,
+        SETTLE_RESERVE      // Reserved funds leave the wallet (e.g. a driver payout)
+    }
+}
@@ -0,0 +1,97 @@
+package com.woltaxi.payment.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Webhook Inbox Entry Entity
+ *
+ * Raw provider webhook as received, after signature verification. The
+ * payload is never modified; only the processing columns change as the
+ * inbox is drained. The identity column gives the arrival order that
+ * processing preserves.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "payment_webhook_inbox",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_webhook_inbox_provider_event", columnNames = {"provider", "event_id"})
+    },
+    indexes = {
+        @Index(name = "idx_webhook_inbox_status_id", columnList = "status, id"),
+        @Index(name = "idx_webhook_inbox_received_at", columnList = "received_at")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class WebhookInboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider", nullable = false, length = 20, updatable = false)
+    @NotNull(message = "Provider is required")
+    private PaymentTransaction.PaymentProvider provider;
+
+    @Column(name = "event_id", nullable = false, length = 255, updatable = false)
+    @NotBlank(message = "Event ID is required")
+    @Size(max = 255, message = "Event ID must not exceed 255 characters")
+    private String eventId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT", updatable = false)
+    @NotBlank(message = "Payload is required")
+    private String payload;
+
+    @Column(name = "signature", length = 1000, updatable = false)
+    private String signature;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private InboxStatus status = InboxStatus.RECEIVED;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private PaymentTransaction.PaymentStatus paymentStatus;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    // Enums
+    public enum InboxStatus {
+        RECEIVED,           // Verified and stored, waiting to be processed
+        PROCESSING,         // Claimed by a drainer
+        PROCESSED,          // Status update applied
+        IGNORED,            // Nothing to apply (unhandled event type, no transaction)
+        FAILED              // Could not be processed; needs attention
+    }
+}
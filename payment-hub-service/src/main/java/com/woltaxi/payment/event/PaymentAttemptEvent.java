@@ -0,0 +1,19 @@
+package com.woltaxi.payment.event;
+
+import com.woltaxi.payment.dto.request.PaymentRequest;
+
+/**
+ * Payment Attempt Event
+ *
+ * In-process event published for every payment attempt once it has been
+ * risk scored, whether or not it goes on to the provider. Feeds the fraud
+ * verdict (blocked cards) to the fraud feature store.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public record PaymentAttemptEvent(
+        PaymentRequest request,
+        boolean blocked,
+        long occurredAtMillis
+) {}
@@ -0,0 +1,64 @@
+package com.woltaxi.payment.event;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment Status Changed Event
+ *
+ * In-process event published inside the transaction that creates a payment
+ * transaction or changes its status or refunded amount. Listeners that run
+ * before commit stay consistent with the change itself.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public record PaymentStatusChangedEvent(
+        UUID transactionId,
+        UUID userId,
+        PaymentTransaction.TransactionType transactionType,
+        PaymentTransaction.PaymentProvider paymentProvider,
+        PaymentTransaction.PaymentMethod paymentMethod,
+        BigDecimal amount,
+        String currency,
+        PaymentTransaction.PaymentStatus oldStatus,        // null for a new transaction
+        PaymentTransaction.PaymentStatus newStatus,
+        BigDecimal refundAmount,                           // total refunded so far
+        BigDecimal refundAmountDelta,                      // zero unless a refund was applied
+        LocalDateTime occurredAt
+) {
+
+    public static PaymentStatusChangedEvent of(PaymentTransaction transaction,
+                                               PaymentTransaction.PaymentStatus oldStatus) {
+        return refunded(transaction, oldStatus, BigDecimal.ZERO);
+    }
+
+    public static PaymentStatusChangedEvent refunded(PaymentTransaction transaction,
+                                                     PaymentTransaction.PaymentStatus oldStatus,
+                                                     BigDecimal refundAmountDelta) {
+        return new PaymentStatusChangedEvent(
+                transaction.getId(),
+                transaction.getUserId(),
+                transaction.getTransactionType(),
+                transaction.getPaymentProvider(),
+                transaction.getPaymentMethod(),
+                transaction.getAmount(),
+                transaction.getCurrency(),
+                oldStatus,
+                transaction.getStatus(),
+                transaction.getRefundAmount() != null ? transaction.getRefundAmount() : BigDecimal.ZERO,
+                refundAmountDelta,
+                LocalDateTime.now());
+    }
+
+    public boolean isNewTransaction() {
+        return oldStatus == null;
+    }
+
+    public boolean isFirstRefund() {
+        return refundAmountDelta.signum() > 0 && refundAmount.compareTo(refundAmountDelta) <= 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.DriverPayout;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Driver Payout Repository
+ *
+ * Set-based statements of the payout run. Row-level status changes are
+ * written by the payout engine in JDBC batches.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface DriverPayoutRepository extends JpaRepository<DriverPayout, Long> {
+
+    /**
+     * Capture every eligible driver wallet in one statement; re-running it adds nothing.
+     * The sign bit is masked off the hash: abs() overflows for the minimum integer.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO driver_payouts (run_id, wallet_id, user_id, currency, provider, destination_reference, " +
+                   "snapshot_amount, amount, status, partition_no, created_at, updated_at) " +
+                   "SELECT :runId, w.id, w.user_id, w.currency, d.provider, d.destination_reference, " +
+                   "w.available_balance, 0, 'PENDING', mod(hashtext(w.id::text) & 2147483647, :partitions), :now, :now " +
+                   "FROM multi_currency_wallets w " +
+                   "JOIN driver_payout_destinations d ON d.user_id = w.user_id AND d.currency = w.currency AND d.active " +
+                   "WHERE w.status = 'ACTIVE' AND w.kyc_verified AND w.available_balance >= :minimumAmount " +
+                   "ON CONFLICT (run_id, wallet_id) DO NOTHING",
+           nativeQuery = true)
+    int snapshotEligibleWallets(@Param("runId") UUID runId,
+                                @Param("partitions") int partitions,
+                                @Param("minimumAmount") BigDecimal minimumAmount,
+                                @Param("now") LocalDateTime now);
+
+    @Query("SELECT DISTINCT p.provider AS provider, p.currency AS currency FROM DriverPayout p " +
+           "WHERE p.runId = :runId AND p.status IN :statuses")
+    List<SubmissionGroup> findSubmissionGroups(@Param("runId") UUID runId,
+                                               @Param("statuses") Collection<DriverPayout.PayoutStatus> statuses);
+
+    @Query("SELECT DISTINCT p.batchId FROM DriverPayout p WHERE p.runId = :runId AND p.provider = :provider " +
+           "AND p.currency = :currency AND p.status = com.woltaxi.payment.entity.DriverPayout.PayoutStatus.SUBMITTING")
+    List<UUID> findOpenBatchIds(@Param("runId") UUID runId,
+                                @Param("provider") PaymentTransaction.PaymentProvider provider,
+                                @Param("currency") String currency);
+
+    @Query("SELECT p.status AS status, COUNT(p) AS count FROM DriverPayout p WHERE p.runId = :runId GROUP BY p.status")
+    List<StatusCount> countByStatus(@Param("runId") UUID runId);
+
+    interface SubmissionGroup {
+        PaymentTransaction.PaymentProvider getProvider();
+        String getCurrency();
+    }
+
+    interface StatusCount {
+        DriverPayout.PayoutStatus getStatus();
+        long getCount();
+    }
+}
@@ -0,0 +1,72 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.DriverPayoutRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Driver Payout Run Repository
+ *
+ * Runs are driven by whichever instance holds their lease; every state
+ * change below only applies while the caller still owns it.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface DriverPayoutRunRepository extends JpaRepository<DriverPayoutRun, UUID> {
+
+    boolean existsByRunDate(LocalDate runDate);
+
+    List<DriverPayoutRun> findByStatusInOrderByRunDateAsc(Collection<DriverPayoutRun.RunStatus> statuses);
+
+    /**
+     * Take or extend the run's lease; returns 0 when another instance holds it
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE driver_payout_runs SET lease_owner = :owner, lease_until = :until " +
+                   "WHERE id = :id AND (lease_owner = :owner OR lease_until IS NULL OR lease_until < :now)",
+           nativeQuery = true)
+    int claimLease(@Param("id") UUID id,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE driver_payout_runs SET lease_owner = NULL, lease_until = NULL " +
+                   "WHERE id = :id AND lease_owner = :owner",
+           nativeQuery = true)
+    int releaseLease(@Param("id") UUID id, @Param("owner") String owner);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE driver_payout_runs SET status = :status WHERE id = :id AND lease_owner = :owner",
+           nativeQuery = true)
+    int advance(@Param("id") UUID id, @Param("owner") String owner, @Param("status") String status);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE driver_payout_runs SET status = 'COMPLETED', eligible_count = :eligible, " +
+                   "submitted_count = :submitted, failed_count = :failed, skipped_count = :skipped, " +
+                   "completed_at = :completedAt WHERE id = :id AND lease_owner = :owner",
+           nativeQuery = true)
+    int complete(@Param("id") UUID id,
+                 @Param("owner") String owner,
+                 @Param("eligible") long eligible,
+                 @Param("submitted") long submitted,
+                 @Param("failed") long failed,
+                 @Param("skipped") long skipped,
+                 @Param("completedAt") LocalDateTime completedAt);
+}
@@ -0,0 +1,59 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.PaymentIdempotencyKey;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Payment Idempotency Key Repository
+ *
+ * Data access for idempotency keys used to deduplicate retried payment requests.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface PaymentIdempotencyKeyRepository extends JpaRepository<PaymentIdempotencyKey, UUID> {
+
+    Optional<PaymentIdempotencyKey> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    /**
+     * Link the transaction and extend the claim lease to the full deduplication window
+     */
+    @Modifying
+    @Query("UPDATE PaymentIdempotencyKey k SET k.transactionId = :transactionId, k.expiresAt = :expiresAt " +
+           "WHERE k.id = :id")
+    int attachTransaction(@Param("id") UUID id,
+                          @Param("transactionId") UUID transactionId,
+                          @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Drop a claim whose lease ran out before any transaction was created
+     * (the claiming instance died before reaching the provider)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PaymentIdempotencyKey k WHERE k.id = :id AND k.status = 'IN_PROGRESS' " +
+           "AND k.transactionId IS NULL AND k.expiresAt < :now")
+    int deleteAbandonedClaim(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PaymentIdempotencyKey k SET k.status = 'COMPLETED', k.paymentStatus = :paymentStatus, " +
+           "k.completedAt = :completedAt WHERE k.id = :id")
+    int markCompleted(@Param("id") UUID id,
+                      @Param("paymentStatus") PaymentTransaction.PaymentStatus paymentStatus,
+                      @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query("DELETE FROM PaymentIdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
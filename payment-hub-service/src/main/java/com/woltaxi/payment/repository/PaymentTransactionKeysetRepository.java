@@ -0,0 +1,65 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.dto.response.PaymentTransactionSummary;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Payment Transaction Keyset Repository
+ *
+ * Seek-based listing of payment transactions in (created_at DESC, id DESC)
+ * order. Each "after" query starts right behind the last row of the previous
+ * page, so every page costs one index range scan no matter how deep it is.
+ * Only the first page of the {@link Pageable} is ever requested; it carries
+ * the limit, never an offset.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface PaymentTransactionKeysetRepository
+        extends org.springframework.data.repository.Repository<PaymentTransaction, UUID> {
+
+    String SUMMARY = "SELECT new com.woltaxi.payment.dto.response.PaymentTransactionSummary(" +
+                     "t.id, t.externalTransactionId, t.userId, t.subscriptionId, t.amount, t.currency, " +
+                     "t.status, t.paymentProvider, t.paymentMethod, t.transactionType, t.refundAmount, t.createdAt) " +
+                     "FROM PaymentTransaction t ";
+    String AFTER = "AND t.createdAt <= :createdAt AND (t.createdAt < :createdAt OR t.id < :id) ";
+    String ORDER = "ORDER BY t.createdAt DESC, t.id DESC";
+
+    @Query(SUMMARY + "WHERE t.userId = :userId " + ORDER)
+    List<PaymentTransactionSummary> findFirstByUser(@Param("userId") UUID userId, Pageable limit);
+
+    @Query(SUMMARY + "WHERE t.userId = :userId " + AFTER + ORDER)
+    List<PaymentTransactionSummary> findByUserAfter(@Param("userId") UUID userId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") UUID id,
+                                                    Pageable limit);
+
+    @Query(SUMMARY + "WHERE t.subscriptionId = :subscriptionId " + ORDER)
+    List<PaymentTransactionSummary> findFirstBySubscription(@Param("subscriptionId") UUID subscriptionId,
+                                                            Pageable limit);
+
+    @Query(SUMMARY + "WHERE t.subscriptionId = :subscriptionId " + AFTER + ORDER)
+    List<PaymentTransactionSummary> findBySubscriptionAfter(@Param("subscriptionId") UUID subscriptionId,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") UUID id,
+                                                            Pageable limit);
+
+    @Query(SUMMARY + "WHERE t.status = :status " + ORDER)
+    List<PaymentTransactionSummary> findFirstByStatus(@Param("status") PaymentTransaction.PaymentStatus status,
+                                                      Pageable limit);
+
+    @Query(SUMMARY + "WHERE t.status = :status " + AFTER + ORDER)
+    List<PaymentTransactionSummary> findByStatusAfter(@Param("status") PaymentTransaction.PaymentStatus status,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") UUID id,
+                                                      Pageable limit);
+}
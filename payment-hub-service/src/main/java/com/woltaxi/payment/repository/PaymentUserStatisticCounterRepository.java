@@ -0,0 +1,40 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.PaymentUserStatisticCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Payment User Statistic Counter Repository
+ *
+ * Data access for the per-user rollup breakdowns (currency, provider, method...).
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface PaymentUserStatisticCounterRepository
+        extends JpaRepository<PaymentUserStatisticCounter, PaymentUserStatisticCounter.CounterId> {
+
+    List<PaymentUserStatisticCounter> findByUserId(UUID userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO payment_user_statistic_counters AS c (user_id, dimension, dimension_key, transaction_count, amount) " +
+                   "VALUES (:userId, :dimension, :dimensionKey, :count, :amount) " +
+                   "ON CONFLICT (user_id, dimension, dimension_key) DO UPDATE SET " +
+                   "transaction_count = c.transaction_count + EXCLUDED.transaction_count, " +
+                   "amount = c.amount + EXCLUDED.amount",
+           nativeQuery = true)
+    int increment(@Param("userId") UUID userId,
+                  @Param("dimension") String dimension,
+                  @Param("dimensionKey") String dimensionKey,
+                  @Param("count") long count,
+                  @Param("amount") BigDecimal amount);
+}
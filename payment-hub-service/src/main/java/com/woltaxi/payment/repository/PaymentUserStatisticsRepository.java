@@ -0,0 +1,88 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.PaymentUserStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment User Statistics Repository
+ *
+ * Data access for the per-user payment rollup. Rows are seeded once from
+ * payment_transactions and then adjusted with atomic increments.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface PaymentUserStatisticsRepository extends JpaRepository<PaymentUserStatistics, UUID> {
+
+    String CHARGE_TYPES = "('PAYMENT', 'SUBSCRIPTION', 'TOP_UP')";
+    String SUCCESSFUL_STATUSES = "('SUCCEEDED', 'REFUNDED', 'PARTIALLY_REFUNDED', 'DISPUTED')";
+    String FAILED_STATUSES = "('FAILED', 'CANCELLED', 'EXPIRED')";
+    String PENDING_STATUSES = "('PENDING', 'PROCESSING')";
+
+    /**
+     * Seed a user's rollup from their transaction history; returns 0 if the row already exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payment_user_statistics (user_id, total_transactions, successful_transactions, " +
+                   "failed_transactions, pending_transactions, refunded_transactions, last_activity_at, updated_at) " +
+                   "SELECT :userId, " +
+                   "COUNT(*) FILTER (WHERE transaction_type IN " + CHARGE_TYPES + "), " +
+                   "COUNT(*) FILTER (WHERE transaction_type IN " + CHARGE_TYPES + " AND status IN " + SUCCESSFUL_STATUSES + "), " +
+                   "COUNT(*) FILTER (WHERE transaction_type IN " + CHARGE_TYPES + " AND status IN " + FAILED_STATUSES + "), " +
+                   "COUNT(*) FILTER (WHERE transaction_type IN " + CHARGE_TYPES + " AND status IN " + PENDING_STATUSES + "), " +
+                   "COUNT(*) FILTER (WHERE transaction_type IN " + CHARGE_TYPES + " AND refund_amount > 0), " +
+                   "MAX(COALESCE(updated_at, created_at)), :now " +
+                   "FROM payment_transactions WHERE user_id = :userId " +
+                   "ON CONFLICT (user_id) DO NOTHING",
+           nativeQuery = true)
+    int seedFromHistory(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO payment_user_statistic_counters (user_id, dimension, dimension_key, transaction_count, amount) " +
+                   "SELECT user_id, 'CURRENCY', currency, COUNT(*), SUM(amount) FROM payment_transactions " +
+                   "WHERE user_id = :userId AND transaction_type IN " + CHARGE_TYPES + " AND status IN " + SUCCESSFUL_STATUSES + " " +
+                   "GROUP BY user_id, currency " +
+                   "UNION ALL " +
+                   "SELECT user_id, 'PROVIDER', payment_provider, COUNT(*), 0 FROM payment_transactions " +
+                   "WHERE user_id = :userId AND transaction_type IN " + CHARGE_TYPES + " GROUP BY user_id, payment_provider " +
+                   "UNION ALL " +
+                   "SELECT user_id, 'METHOD', payment_method, COUNT(*), 0 FROM payment_transactions " +
+                   "WHERE user_id = :userId AND transaction_type IN " + CHARGE_TYPES + " GROUP BY user_id, payment_method " +
+                   "UNION ALL " +
+                   "SELECT user_id, 'REFUND', currency, COUNT(*), SUM(refund_amount) FROM payment_transactions " +
+                   "WHERE user_id = :userId AND transaction_type IN " + CHARGE_TYPES + " AND refund_amount > 0 " +
+                   "GROUP BY user_id, currency " +
+                   "UNION ALL " +
+                   "SELECT user_id, 'FEE', currency, COUNT(*), SUM(amount) FROM payment_transactions " +
+                   "WHERE user_id = :userId AND transaction_type = 'FEE' AND status IN " + SUCCESSFUL_STATUSES + " " +
+                   "GROUP BY user_id, currency " +
+                   "ON CONFLICT (user_id, dimension, dimension_key) DO NOTHING",
+           nativeQuery = true)
+    int seedCountersFromHistory(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "UPDATE payment_user_statistics SET " +
+                   "total_transactions = total_transactions + :total, " +
+                   "successful_transactions = successful_transactions + :successful, " +
+                   "failed_transactions = failed_transactions + :failed, " +
+                   "pending_transactions = pending_transactions + :pending, " +
+                   "refunded_transactions = refunded_transactions + :refunded, " +
+                   "last_activity_at = GREATEST(COALESCE(last_activity_at, :at), :at), updated_at = :at " +
+                   "WHERE user_id = :userId",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") UUID userId,
+                   @Param("total") long total,
+                   @Param("successful") long successful,
+                   @Param("failed") long failed,
+                   @Param("pending") long pending,
+                   @Param("refunded") long refunded,
+                   @Param("at") LocalDateTime at);
+}
@@ -0,0 +1,23 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.PayoutDestination;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Payout Destination Repository
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface PayoutDestinationRepository extends JpaRepository<PayoutDestination, UUID> {
+
+    Optional<PayoutDestination> findByUserIdAndCurrency(UUID userId, String currency);
+
+    List<PayoutDestination> findByUserIdAndActiveTrue(UUID userId);
+}
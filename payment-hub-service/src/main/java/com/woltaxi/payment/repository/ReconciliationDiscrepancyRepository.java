@@ -0,0 +1,36 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.ReconciliationDiscrepancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reconciliation Discrepancy Repository
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+
+    /**
+     * One page of a run's report, in the order discrepancies were found; superseded findings are left out
+     */
+    List<ReconciliationDiscrepancy> findTop1000ByRunIdAndSupersededByRunIdIsNullAndIdGreaterThanOrderByIdAsc(
+            UUID runId, Long afterId);
+
+    /**
+     * Keeps the rows, including the record of automatic status fixes, out of later reports
+     */
+    @Modifying
+    @Query("UPDATE ReconciliationDiscrepancy d SET d.supersededByRunId = :supersededBy " +
+           "WHERE d.runId IN :runIds AND d.supersededByRunId IS NULL")
+    int markSuperseded(@Param("runIds") Collection<UUID> runIds, @Param("supersededBy") UUID supersededBy);
+}
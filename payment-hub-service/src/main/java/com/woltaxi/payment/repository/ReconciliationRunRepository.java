@@ -0,0 +1,28 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reconciliation Run Repository
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, UUID> {
+
+    List<ReconciliationRun> findBySettlementDateOrderByProviderAsc(LocalDate settlementDate);
+
+    List<ReconciliationRun> findByProviderAndSettlementDateAndStatus(PaymentTransaction.PaymentProvider provider,
+                                                                     LocalDate settlementDate,
+                                                                     ReconciliationRun.RunStatus status);
+
+    List<ReconciliationRun> findBySourceFileAndStatus(String sourceFile, ReconciliationRun.RunStatus status);
+}
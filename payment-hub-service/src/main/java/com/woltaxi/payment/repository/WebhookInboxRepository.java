@@ -0,0 +1,96 @@
+package com.woltaxi.payment.repository;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.entity.WebhookInboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Webhook Inbox Repository
+ *
+ * Data access for the append-only provider webhook inbox.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEntry, Long> {
+
+    /**
+     * Store a verified webhook; returns 0 when the provider event was already received
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payment_webhook_inbox (provider, event_id, payload, signature, status, attempts, " +
+                   "transaction_id, payment_status, error_message, received_at) " +
+                   "VALUES (:provider, :eventId, :payload, :signature, 'RECEIVED', 0, " +
+                   ":transactionId, :paymentStatus, :message, :receivedAt) " +
+                   "ON CONFLICT (provider, event_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("provider") String provider,
+                       @Param("eventId") String eventId,
+                       @Param("payload") String payload,
+                       @Param("signature") String signature,
+                       @Param("transactionId") UUID transactionId,
+                       @Param("paymentStatus") String paymentStatus,
+                       @Param("message") String message,
+                       @Param("receivedAt") LocalDateTime receivedAt);
+
+    /**
+     * Cluster-wide drainer lock, held until the surrounding transaction ends
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    boolean tryDrainLock(@Param("lockKey") long lockKey);
+
+    boolean existsByStatusAndClaimedAtAfter(WebhookInboxEntry.InboxStatus status, LocalDateTime claimedAfter);
+
+    /**
+     * Claim the oldest unprocessed entries, including ones whose drainer lease expired
+     */
+    @Modifying
+    @Query(value = "UPDATE payment_webhook_inbox SET status = 'PROCESSING', claimed_at = :claimedAt, attempts = attempts + 1 " +
+                   "WHERE id IN (SELECT id FROM payment_webhook_inbox " +
+                   "WHERE status = 'RECEIVED' OR (status = 'PROCESSING' AND claimed_at < :leaseExpiry) " +
+                   "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int claimBatch(@Param("claimedAt") LocalDateTime claimedAt,
+                   @Param("leaseExpiry") LocalDateTime leaseExpiry,
+                   @Param("batchSize") int batchSize);
+
+    List<WebhookInboxEntry> findByStatusAndClaimedAtOrderByIdAsc(WebhookInboxEntry.InboxStatus status,
+                                                               LocalDateTime claimedAt);
+
+    /**
+     * Put claimed entries back unprocessed without counting the attempt
+     * (held back behind a failed event of the same payment)
+     */
+    @Modifying
+    @Query(value = "UPDATE payment_webhook_inbox SET status = 'RECEIVED', claimed_at = NULL, attempts = attempts - 1 " +
+                   "WHERE id IN (:ids)",
+           nativeQuery = true)
+    int release(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE WebhookInboxEntry e SET e.status = :status, e.processedAt = :processedAt WHERE e.id IN :ids")
+    int markAll(@Param("ids") Collection<Long> ids,
+                @Param("status") WebhookInboxEntry.InboxStatus status,
+                @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE WebhookInboxEntry e SET e.status = :status, e.transactionId = :transactionId, " +
+           "e.paymentStatus = :paymentStatus, e.errorMessage = :errorMessage, e.processedAt = :processedAt " +
+           "WHERE e.id = :id")
+    int markOne(@Param("id") Long id,
+                @Param("status") WebhookInboxEntry.InboxStatus status,
+                @Param("transactionId") UUID transactionId,
+                @Param("paymentStatus") PaymentTransaction.PaymentStatus paymentStatus,
+                @Param("errorMessage") String errorMessage,
+                @Param("processedAt") LocalDateTime processedAt);
+}
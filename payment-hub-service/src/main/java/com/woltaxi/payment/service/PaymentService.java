@@ -2,12 +2,16 @@ package com.woltaxi.payment.service;
 
 import com.woltaxi.payment.dto.request.PaymentRequest;
 import com.woltaxi.payment.dto.response.PaymentResponse;
+import com.woltaxi.payment.dto.response.PaymentTransactionSummary;
 import com.woltaxi.payment.entity.PaymentTransaction;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Payment Processing Service Interface
@@ -109,6 +113,46 @@ public interface PaymentService {
      */
     List<PaymentTransaction> getPaymentsByStatus(PaymentTransaction.PaymentStatus status, int page, int size);
 
+    /**
+     * Get payment transactions for a user, newest first, one keyset page at a time
+     * 
+     * @param userId User ID
+     * @param cursor Continuation token from the previous page, null for the first page
+     * @param size Page size
+     * @return Page of transaction summaries with the token for the next page
+     */
+    CursorPage<PaymentTransactionSummary> getPaymentsByUser(UUID userId, String cursor, int size);
+
+    /**
+     * Get payment transactions for a subscription, newest first, one keyset page at a time
+     * 
+     * @param subscriptionId Subscription ID
+     * @param cursor Continuation token from the previous page, null for the first page
+     * @param size Page size
+     * @return Page of transaction summaries with the token for the next page
+     */
+    CursorPage<PaymentTransactionSummary> getPaymentsBySubscription(UUID subscriptionId, String cursor, int size);
+
+    /**
+     * Get payment transactions by status, newest first, one keyset page at a time
+     * 
+     * @param status Payment status
+     * @param cursor Continuation token from the previous page, null for the first page
+     * @param size Page size
+     * @return Page of transaction summaries with the token for the next page
+     */
+    CursorPage<PaymentTransactionSummary> getPaymentsByStatus(PaymentTransaction.PaymentStatus status,
+                                                              String cursor, int size);
+
+    /**
+     * Stream every payment transaction with the given status, newest first.
+     * Rows are fetched lazily in keyset batches; no connection is held between batches.
+     * 
+     * @param status Payment status
+     * @return Lazy stream of transaction summaries
+     */
+    Stream<PaymentTransactionSummary> exportPaymentsByStatus(PaymentTransaction.PaymentStatus status);
+
     /**
      * Retry a failed payment
      * 
@@ -207,6 +251,14 @@ public interface PaymentService {
             List<String> warnings
     ) {}
 
+    /**
+     * Keyset Page
+     */
+    record CursorPage<T>(
+            List<T> items,
+            String nextCursor                              // null on the last page
+    ) {}
+
     /**
      * Payment Statistics
      */
@@ -221,7 +273,14 @@ public interface PaymentService {
             BigDecimal averageAmount,
             String preferredProvider,
             String preferredMethod,
-            String preferredCurrency
+            String preferredCurrency,
+            String baseCurrency,                           // currency of totalAmount, totalFees and averageAmount
+            Map<String, BigDecimal> volumeByCurrency,
+            Double successRate,
+            Double failureRate,
+            Long refundedTransactions,
+            Map<String, BigDecimal> refundedByCurrency,
+            LocalDateTime lastActivityAt
     ) {}
 
     /**
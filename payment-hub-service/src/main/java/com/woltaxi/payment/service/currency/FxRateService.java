@@ -0,0 +1,176 @@
+package com.woltaxi.payment.service.currency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.money.convert.ExchangeRate;
+import javax.money.convert.ExchangeRateProvider;
+import javax.money.convert.MonetaryConversions;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FX Rate Service
+ *
+ * Serves currency conversions from an in-memory {@link FxRateTable} that is
+ * rebuilt on a schedule and swapped atomically. Payments never wait on a
+ * remote rate fetch: conversions always read the last good snapshot, and a
+ * snapshot older than the configured maximum age raises a staleness alarm.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class FxRateService {
+
+    private static final String RATE_SOURCE_CURRENCY = "EUR";
+    private static final List<String> DEFAULT_CURRENCIES = List.of(
+            "USD", "EUR", "GBP", "TRY", "JPY", "AUD", "CAD", "CHF", "SEK", "NOK", "DKK");
+
+    private final AtomicReference<FxRateTable> table = new AtomicReference<>(FxRateTable.empty());
+    private final List<String> supportedCurrencies;
+    private final Counter refreshFailures;
+    private final Counter staleAlarms;
+
+    @Value("${currency.exchange.rate-provider:ECB}")
+    private String rateProviderName;
+
+    @Value("${currency.exchange.max-rate-age:PT6H}")
+    private Duration maxRateAge;
+
+    public FxRateService(Environment environment, MeterRegistry meterRegistry) {
+        this.supportedCurrencies = Binder.get(environment)
+                .bind("currency.exchange.supported-currencies", Bindable.listOf(String.class))
+                .orElse(DEFAULT_CURRENCIES);
+        this.refreshFailures = meterRegistry.counter("payment.fx.refresh.failures");
+        this.staleAlarms = meterRegistry.counter("payment.fx.rates.stale");
+        meterRegistry.gauge("payment.fx.rates.age.seconds", table,
+                ref -> ref.get().isEmpty() ? Double.NaN
+                        : (System.currentTimeMillis() - ref.get().getFetchedAtMillis()) / 1000.0);
+    }
+
+    /**
+     * Rebuild the rate table from the configured provider. Runs on the scheduler
+     * thread; on failure the previous snapshot stays in service.
+     */
+    @Scheduled(fixedDelayString = "${currency.exchange.cache.refresh-interval:PT30M}")
+    public void refreshRates() {
+        try {
+            ExchangeRateProvider provider = MonetaryConversions.getExchangeRateProvider(rateProviderName);
+            Map<String, BigDecimal> unitsPerEuro = new HashMap<>();
+            unitsPerEuro.put(RATE_SOURCE_CURRENCY, BigDecimal.ONE);
+            for (String currency : supportedCurrencies) {
+                if (RATE_SOURCE_CURRENCY.equals(currency)) {
+                    continue;
+                }
+                try {
+                    ExchangeRate rate = provider.getExchangeRate(RATE_SOURCE_CURRENCY, currency);
+                    unitsPerEuro.put(currency, rate.getFactor().numberValue(BigDecimal.class));
+                } catch (Exception e) {
+                    log.warn("No {} rate available for {}: {}", rateProviderName, currency, e.getMessage());
+                }
+            }
+
+            FxRateTable refreshed = FxRateTable.fromBaseRates(RATE_SOURCE_CURRENCY, unitsPerEuro,
+                    System.currentTimeMillis(), rateProviderName);
+            table.set(refreshed);
+            log.info("FX rate table refreshed from {} with {} currencies", rateProviderName, refreshed.size());
+        } catch (Exception e) {
+            refreshFailures.increment();
+            log.error("FX rate refresh from {} failed, keeping previous snapshot", rateProviderName, e);
+        }
+        checkStaleness();
+    }
+
+    /**
+     * Current snapshot; callers that convert repeatedly should hold on to it
+     */
+    public FxRateTable snapshot() {
+        return table.get();
+    }
+
+    /**
+     * Quote for a currency pair, or null when either currency has no rate yet
+     */
+    public Quote quote(String fromCurrency, String toCurrency) {
+        return quote(table.get(), fromCurrency, toCurrency);
+    }
+
+    /**
+     * Quote from a given snapshot, so a quote and the conversion it describes use the same rates
+     */
+    public Quote quote(FxRateTable current, String fromCurrency, String toCurrency) {
+        int from = current.indexOf(fromCurrency);
+        int to = current.indexOf(toCurrency);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return new Quote(fromCurrency, toCurrency, current.rateAsDecimal(from, to),
+                current.getFetchedAtMillis(), isStale(current));
+    }
+
+    public long convertMinor(long amountMinor, String fromCurrency, String toCurrency) {
+        FxRateTable current = table.get();
+        return current.convertMinor(amountMinor, requireIndex(current, fromCurrency), requireIndex(current, toCurrency));
+    }
+
+    public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
+        return convert(table.get(), amount, fromCurrency, toCurrency);
+    }
+
+    public BigDecimal convert(FxRateTable current, BigDecimal amount, String fromCurrency, String toCurrency) {
+        return current.convert(amount, requireIndex(current, fromCurrency), requireIndex(current, toCurrency));
+    }
+
+    public boolean isSupported(String currency) {
+        return table.get().indexOf(currency) >= 0;
+    }
+
+    // Private helper methods
+    private int requireIndex(FxRateTable current, String currency) {
+        int index = current.indexOf(currency);
+        if (index < 0) {
+            throw new IllegalArgumentException("No exchange rate available for currency: " + currency);
+        }
+        return index;
+    }
+
+    private boolean isStale(FxRateTable current) {
+        return current.isEmpty()
+                || System.currentTimeMillis() - current.getFetchedAtMillis() > maxRateAge.toMillis();
+    }
+
+    private void checkStaleness() {
+        FxRateTable current = table.get();
+        if (isStale(current)) {
+            staleAlarms.increment();
+            log.error("FX rates are stale: last successful refresh at {} from {} (max age {})",
+                    current.isEmpty() ? "never" : Instant.ofEpochMilli(current.getFetchedAtMillis()),
+                    current.getSource(), maxRateAge);
+        }
+    }
+
+    /**
+     * Exchange rate quote
+     */
+    public record Quote(
+            String fromCurrency,
+            String toCurrency,
+            BigDecimal rate,
+            long fetchedAtMillis,
+            boolean stale
+    ) {}
+}
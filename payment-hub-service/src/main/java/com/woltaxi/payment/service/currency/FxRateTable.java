@@ -0,0 +1,183 @@
+package com.woltaxi.payment.service.currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Map;
+
+/**
+ * FX Rate Table
+ *
+ * Immutable snapshot of exchange rates between all supported currencies.
+ * Currencies are addressed by int index and every pair (including derived
+ * cross-rates) is precomputed into a flat fixed-point matrix, so converting
+ * minor units on the hot path is a lookup plus a long multiplication.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public final class FxRateTable {
+
+    /** Fixed-point scale of stored rates (9 decimal places) */
+    public static final int RATE_SCALE_DIGITS = 9;
+    public static final long RATE_SCALE = 1_000_000_000L;
+
+    private static final long HALF_SCALE = RATE_SCALE / 2;
+    private static final BigDecimal RATE_SCALE_DECIMAL = BigDecimal.valueOf(RATE_SCALE);
+    private static final FxRateTable EMPTY = new FxRateTable(new String[0], new int[0], new int[0],
+            new long[0], new long[0], 0L, "none");
+
+    private final String[] currencies;     // sorted ISO codes, position = index
+    private final int[] packedCodes;       // same order, for allocation-free lookup
+    private final int[] fractionDigits;
+    private final long[] rates;            // [from * n + to] major-unit rate x RATE_SCALE
+    private final long[] minorRates;       // [from * n + to] minor-unit rate x RATE_SCALE
+    private final long fetchedAtMillis;
+    private final String source;
+
+    private FxRateTable(String[] currencies, int[] packedCodes, int[] fractionDigits,
+                        long[] rates, long[] minorRates, long fetchedAtMillis, String source) {
+        this.currencies = currencies;
+        this.packedCodes = packedCodes;
+        this.fractionDigits = fractionDigits;
+        this.rates = rates;
+        this.minorRates = minorRates;
+        this.fetchedAtMillis = fetchedAtMillis;
+        this.source = source;
+    }
+
+    public static FxRateTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a table from rates quoted against a single base currency
+     * (units of currency per one unit of base). Cross-rates are derived here.
+     */
+    public static FxRateTable fromBaseRates(String baseCurrency, Map<String, BigDecimal> unitsPerBase,
+                                            long fetchedAtMillis, String source) {
+        String[] codes = unitsPerBase.keySet().stream()
+                .filter(code -> unitsPerBase.get(code) != null && unitsPerBase.get(code).signum() > 0)
+                .sorted()
+                .toArray(String[]::new);
+        if (Arrays.stream(codes).noneMatch(baseCurrency::equals)) {
+            throw new IllegalArgumentException("Base currency rate missing: " + baseCurrency);
+        }
+
+        int n = codes.length;
+        int[] packed = new int[n];
+        int[] digits = new int[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = pack(codes[i]);
+            digits[i] = Math.max(Currency.getInstance(codes[i]).getDefaultFractionDigits(), 0);
+        }
+
+        long[] rates = new long[n * n];
+        long[] minorRates = new long[n * n];
+        for (int from = 0; from < n; from++) {
+            BigDecimal fromUnits = unitsPerBase.get(codes[from]);
+            for (int to = 0; to < n; to++) {
+                // from -> to = (to per base) / (from per base)
+                BigDecimal cross = unitsPerBase.get(codes[to])
+                        .divide(fromUnits, RATE_SCALE_DIGITS + 6, RoundingMode.HALF_EVEN);
+                rates[from * n + to] = cross.movePointRight(RATE_SCALE_DIGITS)
+                        .setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+                minorRates[from * n + to] = cross.movePointRight(RATE_SCALE_DIGITS + digits[to] - digits[from])
+                        .setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+            }
+        }
+        return new FxRateTable(codes, packed, digits, rates, minorRates, fetchedAtMillis, source);
+    }
+
+    /**
+     * Index of an ISO currency code, or -1 when the table has no rate for it
+     */
+    public int indexOf(String currency) {
+        if (currency == null || currency.length() != 3) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(packedCodes, pack(currency));
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Major-unit rate from -> to, fixed-point with {@link #RATE_SCALE}
+     */
+    public long rate(int from, int to) {
+        return rates[from * currencies.length + to];
+    }
+
+    public BigDecimal rateAsDecimal(int from, int to) {
+        return BigDecimal.valueOf(rate(from, to), RATE_SCALE_DIGITS);
+    }
+
+    /**
+     * Convert an amount in minor units (cents, kuruş...) of one currency to minor
+     * units of another, rounding half up. Allocation free unless the intermediate
+     * product exceeds 63 bits.
+     */
+    public long convertMinor(long amountMinor, int from, int to) {
+        if (from == to) {
+            return amountMinor;
+        }
+        long rate = minorRates[from * currencies.length + to];
+        if (amountMinor == Long.MIN_VALUE) {
+            return convertMinorExact(amountMinor, rate);
+        }
+
+        long magnitude = Math.abs(amountMinor);
+        long high = Math.multiplyHigh(magnitude, rate);
+        long product = magnitude * rate;
+        if (high != 0 || product < 0 || product > Long.MAX_VALUE - HALF_SCALE) {
+            return convertMinorExact(amountMinor, rate);
+        }
+        long converted = (product + HALF_SCALE) / RATE_SCALE;
+        return amountMinor < 0 ? -converted : converted;
+    }
+
+    /**
+     * Convert a major-unit amount; the result has the target currency's minor-unit scale
+     */
+    public BigDecimal convert(BigDecimal amount, int from, int to) {
+        long amountMinor = amount.movePointRight(fractionDigits[from])
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+        return BigDecimal.valueOf(convertMinor(amountMinor, from, to), fractionDigits[to]);
+    }
+
+    public int fractionDigits(int index) {
+        return fractionDigits[index];
+    }
+
+    public String currency(int index) {
+        return currencies[index];
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+
+    public boolean isEmpty() {
+        return currencies.length == 0;
+    }
+
+    public long getFetchedAtMillis() {
+        return fetchedAtMillis;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    // Private helper methods
+    private static long convertMinorExact(long amountMinor, long rate) {
+        return BigDecimal.valueOf(amountMinor)
+                .multiply(BigDecimal.valueOf(rate))
+                .divide(RATE_SCALE_DECIMAL, 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    private static int pack(String currency) {
+        return (currency.charAt(0) << 16) | (currency.charAt(1) << 8) | currency.charAt(2);
+    }
+}
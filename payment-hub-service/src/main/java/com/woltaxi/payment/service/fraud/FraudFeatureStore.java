@@ -0,0 +1,265 @@
+package com.woltaxi.payment.service.fraud;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.woltaxi.payment.dto.request.PaymentRequest;
+import com.woltaxi.payment.event.PaymentAttemptEvent;
+import com.woltaxi.payment.service.currency.FxRateService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fraud Feature Store
+ *
+ * In-memory behavioural features per user and per card: attempt count and
+ * amount over 1 minute, 1 hour and 24 hours, distinct devices, IPs and card
+ * holders (HyperLogLog) and the last known location for geo-velocity.
+ * An attempt is recorded and its features read in one step at scoring time,
+ * so concurrent attempts of the same user or card count each other; the
+ * verdict (blocked cards) is recorded from {@link PaymentAttemptEvent}s.
+ * Cards are keyed by an HMAC of the PAN. Amounts are kept in minor units of
+ * the settlement currency.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class FraudFeatureStore {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final FxRateService fxRateService;
+    private final Cache<String, EntityFeatures> features;
+    private final HashFunction cardFingerprint;
+
+    @Value("${currency.exchange.base-currency:USD}")
+    private String baseCurrency;
+
+    @Value("${fraud.features.geo-velocity-min-distance-km:50}")
+    private double geoVelocityMinDistanceKm;
+
+    @Value("${fraud.features.geo-velocity-min-interval:PT5M}")
+    private Duration geoVelocityMinInterval;
+
+    public FraudFeatureStore(FxRateService fxRateService,
+                             MeterRegistry meterRegistry,
+                             @Value("${fraud.features.max-entities:200000}") long maxEntities,
+                             @Value("${fraud.features.card-fingerprint-key:}") String cardFingerprintKey) {
+        this.fxRateService = fxRateService;
+        this.cardFingerprint = Hashing.hmacSha256(fingerprintKey(cardFingerprintKey));
+        this.features = CacheBuilder.newBuilder()
+                .maximumSize(maxEntities)
+                .expireAfterAccess(25, TimeUnit.HOURS)
+                .build();
+        meterRegistry.gauge("payment.fraud.features.entities", features, Cache::size);
+    }
+
+    /**
+     * Record a payment attempt and return its features, this attempt included
+     */
+    public FraudFeatures recordAndRead(PaymentRequest request, long nowMillis) {
+        long amount = amountInBaseMinor(request);
+
+        EntityFeatures user = null;
+        double geoVelocityKmh = 0;
+        if (request.getUserId() != null) {
+            user = entity(userKey(request));
+            user.record(nowMillis, amount);
+            if (request.getDeviceInfo() != null) {
+                String device = request.getDeviceInfo().getDeviceFingerprint() != null
+                        ? request.getDeviceInfo().getDeviceFingerprint() : request.getDeviceInfo().getDeviceId();
+                if (device != null) {
+                    user.devices.add(nowMillis, device);
+                }
+                if (request.getDeviceInfo().getIpAddress() != null) {
+                    user.ips.add(nowMillis, request.getDeviceInfo().getIpAddress());
+                }
+                if (hasLocation(request)) {
+                    GeoFix fix = new GeoFix(request.getDeviceInfo().getLatitude(),
+                            request.getDeviceInfo().getLongitude(), nowMillis);
+                    geoVelocityKmh = geoVelocityKmh(user.lastLocation.getAndSet(fix), fix);
+                }
+            }
+        }
+
+        String cardKey = cardKey(request);
+        EntityFeatures card = null;
+        if (cardKey != null) {
+            card = entity(cardKey);
+            card.record(nowMillis, amount);
+            if (request.getUserId() != null) {
+                card.holders.add(nowMillis, request.getUserId().toString());
+            }
+        }
+
+        return new FraudFeatures(
+                user != null ? user.perMinute.count(nowMillis) : 0,
+                user != null ? user.perHour.count(nowMillis) : 0,
+                user != null ? user.perDay.count(nowMillis) : 0,
+                user != null ? user.perHour.amount(nowMillis) : 0,
+                user != null ? user.perDay.amount(nowMillis) : 0,
+                card != null ? card.perMinute.count(nowMillis) : 0,
+                card != null ? card.perHour.count(nowMillis) : 0,
+                card != null ? card.perDay.amount(nowMillis) : 0,
+                user != null ? user.devices.estimate(nowMillis) : 0,
+                user != null ? user.ips.estimate(nowMillis) : 0,
+                card != null ? card.holders.estimate(nowMillis) : 0,
+                card != null ? card.blocked.count(nowMillis) : 0,
+                geoVelocityKmh,
+                amount);
+    }
+
+    /**
+     * Record the verdict of an attempt already counted by {@link #recordAndRead}
+     */
+    @EventListener
+    public void onPaymentAttempt(PaymentAttemptEvent event) {
+        if (!event.blocked()) {
+            return;
+        }
+        String cardKey = cardKey(event.request());
+        if (cardKey != null) {
+            entity(cardKey).blocked.add(event.occurredAtMillis(), amountInBaseMinor(event.request()));
+        }
+    }
+
+    // Private helper methods
+    private EntityFeatures entity(String key) {
+        try {
+            return features.get(key, EntityFeatures::new);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to create fraud features for " + key, e);
+        }
+    }
+
+    private String userKey(PaymentRequest request) {
+        return "u:" + request.getUserId();
+    }
+
+    private String cardKey(PaymentRequest request) {
+        if (request.getStoredPaymentMethodId() != null) {
+            return "m:" + request.getStoredPaymentMethodId();
+        }
+        if (request.getCardDetails() != null && request.getCardDetails().getCardNumber() != null) {
+            // Only a keyed fingerprint of the PAN is kept in memory
+            return "c:" + cardFingerprint.hashString(request.getCardDetails().getCardNumber(), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    /**
+     * Implied speed between two fixes; jitter below the minimum distance is no travel and
+     * intervals are floored so that fixes moments apart do not divide by almost zero
+     */
+    private double geoVelocityKmh(GeoFix last, GeoFix current) {
+        if (last == null || current.atMillis() <= last.atMillis()) {
+            return 0;
+        }
+        double km = distanceKm(last.latitude(), last.longitude(), current.latitude(), current.longitude());
+        if (km < geoVelocityMinDistanceKm) {
+            return 0;
+        }
+        long elapsedMillis = Math.max(current.atMillis() - last.atMillis(), geoVelocityMinInterval.toMillis());
+        return km / (elapsedMillis / (double) HOUR);
+    }
+
+    private long amountInBaseMinor(PaymentRequest request) {
+        if (request.getAmount() == null || request.getCurrency() == null) {
+            return 0;
+        }
+        try {
+            int digits = Math.max(Currency.getInstance(request.getCurrency()).getDefaultFractionDigits(), 0);
+            long minor = request.getAmount().movePointRight(digits).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            if (request.getCurrency().equals(baseCurrency) || !fxRateService.isSupported(request.getCurrency())
+                    || !fxRateService.isSupported(baseCurrency)) {
+                return minor;
+            }
+            return fxRateService.convertMinor(minor, request.getCurrency(), baseCurrency);
+        } catch (RuntimeException e) {
+            log.debug("Cannot normalise amount for fraud features: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private static byte[] fingerprintKey(String configuredKey) {
+        if (configuredKey != null && !configuredKey.isBlank()) {
+            return configuredKey.getBytes(StandardCharsets.UTF_8);
+        }
+        // The features live in this JVM only, so a per-process key is enough when none is configured
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static boolean hasLocation(PaymentRequest request) {
+        return request.getDeviceInfo() != null
+                && request.getDeviceInfo().getLatitude() != null
+                && request.getDeviceInfo().getLongitude() != null;
+    }
+
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private static final class EntityFeatures {
+        private final SlidingWindowCounter perMinute = new SlidingWindowCounter(MINUTE, 12);
+        private final SlidingWindowCounter perHour = new SlidingWindowCounter(HOUR, 12);
+        private final SlidingWindowCounter perDay = new SlidingWindowCounter(DAY, 24);
+        private final SlidingWindowCounter blocked = new SlidingWindowCounter(HOUR, 12);
+        private final RollingHyperLogLog devices = new RollingHyperLogLog(DAY);
+        private final RollingHyperLogLog ips = new RollingHyperLogLog(DAY);
+        private final RollingHyperLogLog holders = new RollingHyperLogLog(DAY);
+        private final AtomicReference<GeoFix> lastLocation = new AtomicReference<>();
+
+        private void record(long now, long amount) {
+            perMinute.add(now, amount);
+            perHour.add(now, amount);
+            perDay.add(now, amount);
+        }
+    }
+
+    private record GeoFix(double latitude, double longitude, long atMillis) {}
+
+    /**
+     * Behavioural features of one payment attempt; amounts in base currency minor units
+     */
+    public record FraudFeatures(
+            long userAttemptsLastMinute,
+            long userAttemptsLastHour,
+            long userAttemptsLastDay,
+            long userAmountLastHour,
+            long userAmountLastDay,
+            long cardAttemptsLastMinute,
+            long cardAttemptsLastHour,
+            long cardAmountLastDay,
+            long userDistinctDevices,
+            long userDistinctIps,
+            long cardDistinctUsers,
+            long cardBlockedLastHour,
+            double geoVelocityKmh,
+            long amount
+    ) {}
+}
@@ -0,0 +1,172 @@
+package com.woltaxi.payment.service.fraud;
+
+import com.woltaxi.payment.dto.request.PaymentRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Fraud Scoring Engine
+ *
+ * Scores a payment attempt from the behavioural features in
+ * {@link FraudFeatureStore}: user and card velocity, device and IP churn,
+ * card sharing across users and impossible travel. Everything is read from
+ * memory, so scoring stays well inside its latency budget; the engine's
+ * verdict is combined with the rule based {@link FraudDetectionService}.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class FraudScoringEngine {
+
+    private final FraudFeatureStore featureStore;
+    private final Timer scoringTimer;
+    private final Counter overBudget;
+
+    @Value("${fraud.detection.risk-score-threshold:75}")
+    private int blockThreshold;
+
+    @Value("${fraud.detection.velocity-checks.max-transactions-per-minute:5}")
+    private long maxPerMinute;
+
+    @Value("${fraud.detection.velocity-checks.max-transactions-per-hour:50}")
+    private long maxPerHour;
+
+    @Value("${fraud.detection.velocity-checks.max-amount-per-day:5000.00}")
+    private BigDecimal maxAmountPerDay;
+
+    @Value("${fraud.features.max-devices-per-day:3}")
+    private long maxDevicesPerDay;
+
+    @Value("${fraud.features.max-ips-per-day:5}")
+    private long maxIpsPerDay;
+
+    @Value("${fraud.features.max-users-per-card:3}")
+    private long maxUsersPerCard;
+
+    @Value("${fraud.features.max-geo-velocity-kmh:900}")
+    private double maxGeoVelocityKmh;
+
+    @Value("${fraud.features.scoring-budget:PT0.005S}")
+    private Duration scoringBudget;
+
+    @Value("${currency.exchange.base-currency:USD}")
+    private String baseCurrency;
+
+    public FraudScoringEngine(FraudFeatureStore featureStore, MeterRegistry meterRegistry) {
+        this.featureStore = featureStore;
+        this.scoringTimer = Timer.builder("payment.fraud.scoring")
+                .description("Behavioural fraud scoring latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.overBudget = meterRegistry.counter("payment.fraud.scoring.over.budget");
+    }
+
+    public FraudAssessment assess(PaymentRequest request) {
+        long start = System.nanoTime();
+        FraudFeatureStore.FraudFeatures features = featureStore.recordAndRead(request, System.currentTimeMillis());
+
+        List<String> reasons = new ArrayList<>();
+        int score = 0;
+        if (features.userAttemptsLastMinute() > maxPerMinute) {
+            score += 30;
+            reasons.add("USER_VELOCITY_MINUTE");
+        }
+        if (features.userAttemptsLastHour() > maxPerHour) {
+            score += 20;
+            reasons.add("USER_VELOCITY_HOUR");
+        }
+        if (features.userAmountLastDay() > maxAmountPerDayMinor()) {
+            score += 25;
+            reasons.add("USER_DAILY_AMOUNT");
+        }
+        if (features.cardAttemptsLastMinute() > maxPerMinute) {
+            score += 30;
+            reasons.add("CARD_VELOCITY_MINUTE");
+        }
+        if (features.cardDistinctUsers() > maxUsersPerCard) {
+            score += 25;
+            reasons.add("CARD_SHARED_ACROSS_USERS");
+        }
+        if (features.cardBlockedLastHour() > 0) {
+            score += 20;
+            reasons.add("CARD_RECENTLY_BLOCKED");
+        }
+        if (features.userDistinctDevices() > maxDevicesPerDay) {
+            score += 15;
+            reasons.add("DEVICE_CHURN");
+        }
+        if (features.userDistinctIps() > maxIpsPerDay) {
+            score += 15;
+            reasons.add("IP_CHURN");
+        }
+        if (features.geoVelocityKmh() > maxGeoVelocityKmh) {
+            score += 35;
+            reasons.add("IMPOSSIBLE_TRAVEL");
+        }
+        score = Math.min(score, 100);
+
+        long elapsed = System.nanoTime() - start;
+        scoringTimer.record(Duration.ofNanos(elapsed));
+        if (elapsed > scoringBudget.toNanos()) {
+            overBudget.increment();
+            log.warn("Fraud scoring took {} µs, over the {} budget", elapsed / 1_000, scoringBudget);
+        }
+
+        return new FraudAssessment(BigDecimal.valueOf(score), riskLevel(score), score >= blockThreshold,
+                reasons, features);
+    }
+
+    // Private helper methods
+    private long maxAmountPerDayMinor() {
+        int digits = Math.max(Currency.getInstance(baseCurrency).getDefaultFractionDigits(), 0);
+        return maxAmountPerDay.movePointRight(digits).longValue();
+    }
+
+    private static String riskLevel(int score) {
+        if (score >= 75) {
+            return "CRITICAL";
+        } else if (score >= 50) {
+            return "HIGH";
+        } else if (score >= 25) {
+            return "MEDIUM";
+        }
+        return "LOW";
+    }
+
+    /**
+     * Fraud verdict for a payment attempt
+     */
+    public record FraudAssessment(
+            BigDecimal riskScore,
+            String riskLevel,
+            boolean blocked,
+            List<String> reasons,
+            FraudFeatureStore.FraudFeatures features
+    ) {
+
+        /**
+         * Combine with the rule based verdict: either may block, the higher score wins
+         */
+        public FraudAssessment withRuleResult(boolean ruleBlocked, BigDecimal ruleScore, String ruleLevel) {
+            boolean rulesHigher = ruleScore != null && ruleScore.compareTo(riskScore) > 0;
+            return new FraudAssessment(
+                    rulesHigher ? ruleScore : riskScore,
+                    rulesHigher && ruleLevel != null ? ruleLevel : riskLevel,
+                    blocked || ruleBlocked,
+                    reasons,
+                    features);
+        }
+    }
+}
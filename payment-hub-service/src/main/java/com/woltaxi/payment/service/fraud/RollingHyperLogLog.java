@@ -0,0 +1,96 @@
+package com.woltaxi.payment.service.fraud;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling HyperLogLog
+ *
+ * Distinct-value estimate (devices, IPs, users) over the current and the
+ * previous period, so the estimate always covers at least one full period.
+ * 256 six-bit registers per period are packed four to an int and raised
+ * with CAS, giving a lock-free 256 byte sketch with about 6.5% error.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+final class RollingHyperLogLog {
+
+    private static final int PRECISION = 8;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final int WORDS = REGISTERS / 4;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final long periodMillis;
+    private final AtomicLongArray periods = new AtomicLongArray(new long[] {-1, -1});
+    private final AtomicIntegerArray[] registers = {new AtomicIntegerArray(WORDS), new AtomicIntegerArray(WORDS)};
+
+    RollingHyperLogLog(long periodMillis) {
+        this.periodMillis = periodMillis;
+    }
+
+    void add(long nowMillis, String value) {
+        long period = nowMillis / periodMillis;
+        int slot = (int) (period & 1);
+        long seen = periods.get(slot);
+        if (seen < period && periods.compareAndSet(slot, seen, period)) {
+            for (int i = 0; i < WORDS; i++) {
+                registers[slot].set(i, 0);
+            }
+        }
+
+        long hash = Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).asLong();
+        int register = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        raise(registers[slot], register, rank);
+    }
+
+    long estimate(long nowMillis) {
+        long period = nowMillis / periodMillis;
+        double sum = 0;
+        int zeros = 0;
+        for (int register = 0; register < REGISTERS; register++) {
+            int value = 0;
+            for (int slot = 0; slot < 2; slot++) {
+                long slotPeriod = periods.get(slot);
+                if (slotPeriod == period || slotPeriod == period - 1) {
+                    value = Math.max(value, read(registers[slot], register));
+                }
+            }
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting for small cardinalities
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // Private helper methods
+    private static void raise(AtomicIntegerArray words, int register, int rank) {
+        int index = register >>> 2;
+        int shift = (register & 3) << 3;
+        while (true) {
+            int word = words.get(index);
+            if (((word >>> shift) & 0xff) >= rank) {
+                return;
+            }
+            int updated = (word & ~(0xff << shift)) | (rank << shift);
+            if (words.compareAndSet(index, word, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static int read(AtomicIntegerArray words, int register) {
+        return (words.get(register >>> 2) >>> ((register & 3) << 3)) & 0xff;
+    }
+}
@@ -0,0 +1,67 @@
+package com.woltaxi.payment.service.fraud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding Window Counter
+ *
+ * Lock-free, allocation-free count and amount over a sliding time window.
+ * Each bucket is three cells of one flat atomic array: epoch, count, amount.
+ * A bucket whose epoch has passed is reset by the first writer that wins the
+ * CAS on its epoch cell; increments racing with that reset may be lost,
+ * which is acceptable for velocity features.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+final class SlidingWindowCounter {
+
+    private static final int CELLS = 3;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray cells;
+
+    SlidingWindowCounter(long windowMillis, int buckets) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.buckets = buckets;
+        this.cells = new AtomicLongArray(buckets * CELLS);
+        for (int i = 0; i < buckets; i++) {
+            cells.set(i * CELLS, -1);
+        }
+    }
+
+    void add(long nowMillis, long amount) {
+        long epoch = nowMillis / bucketMillis;
+        int base = (int) (epoch % buckets) * CELLS;
+        long seen = cells.get(base);
+        if (seen < epoch && cells.compareAndSet(base, seen, epoch)) {
+            cells.set(base + 1, 0);
+            cells.set(base + 2, 0);
+        }
+        cells.incrementAndGet(base + 1);
+        cells.addAndGet(base + 2, amount);
+    }
+
+    long count(long nowMillis) {
+        return sum(nowMillis, 1);
+    }
+
+    long amount(long nowMillis) {
+        return sum(nowMillis, 2);
+    }
+
+    // Private helper methods
+    private long sum(long nowMillis, int cell) {
+        long epoch = nowMillis / bucketMillis;
+        long oldest = epoch - buckets + 1;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long bucketEpoch = cells.get(i * CELLS);
+            if (bucketEpoch >= oldest && bucketEpoch <= epoch) {
+                total += cells.get(i * CELLS + cell);
+            }
+        }
+        return total;
+    }
+}
@@ -2,30 +2,56 @@ package com.woltaxi.payment.service.impl;
 
 import com.woltaxi.payment.dto.request.PaymentRequest;
 import com.woltaxi.payment.dto.response.PaymentResponse;
+import com.woltaxi.payment.dto.response.PaymentTransactionSummary;
 import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.event.PaymentAttemptEvent;
 import com.woltaxi.payment.event.PaymentEventPublisher;
+import com.woltaxi.payment.event.PaymentStatusChangedEvent;
+import com.woltaxi.payment.repository.PaymentTransactionKeysetRepository;
 import com.woltaxi.payment.repository.PaymentTransactionRepository;
 import com.woltaxi.payment.service.PaymentService;
 import com.woltaxi.payment.service.provider.PaymentProviderService;
 import com.woltaxi.payment.service.provider.PaymentProviderFactory;
 import com.woltaxi.payment.service.fraud.FraudDetectionService;
+import com.woltaxi.payment.service.fraud.FraudScoringEngine;
 import com.woltaxi.payment.service.currency.CurrencyService;
+import com.woltaxi.payment.service.currency.FxRateService;
+import com.woltaxi.payment.service.currency.FxRateTable;
+import com.woltaxi.payment.service.listing.PaymentCursor;
+import com.woltaxi.payment.service.pipeline.PaymentIdempotencyService;
+import com.woltaxi.payment.service.pipeline.PaymentStageRunner;
+import com.woltaxi.payment.service.routing.PaymentProviderRouter;
+import com.woltaxi.payment.service.statistics.PaymentStatisticsRollup;
 import com.woltaxi.payment.service.wallet.WalletService;
 import com.woltaxi.payment.service.validation.PaymentValidationService;
+import com.woltaxi.payment.service.webhook.WebhookInboxService;
 import com.woltaxi.payment.exception.*;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /**
  * Payment Service Implementation
@@ -44,58 +70,119 @@ import java.util.UUID;
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentTransactionRepository paymentRepository;
+    private final PaymentTransactionKeysetRepository keysetRepository;
     private final PaymentProviderFactory providerFactory;
+    private final PaymentProviderRouter providerRouter;
     private final PaymentValidationService validationService;
     private final FraudDetectionService fraudDetectionService;
+    private final FraudScoringEngine fraudScoringEngine;
     private final CurrencyService currencyService;
+    private final FxRateService fxRateService;
     private final WalletService walletService;
     private final PaymentEventPublisher eventPublisher;
-
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final PaymentIdempotencyService idempotencyService;
+    private final PaymentStageRunner stageRunner;
+    private final WebhookInboxService webhookInboxService;
+    private final PaymentStatisticsRollup statisticsRollup;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payment.pipeline.stage-timeout:PT3S}")
+    private Duration stageTimeout;
+
+    @Value("${currency.exchange.base-currency:USD}")
+    private String settlementBaseCurrency;
+
+    @Value("${payment.listing.export-batch-size:1000}")
+    private int exportBatchSize;
+
+    /**
+     * Staged payment pipeline. No database connection is held while waiting on
+     * the pre-checks or the provider: validation, fraud scoring and the FX quote
+     * run concurrently, the transaction row is written in a short pre-commit and
+     * the provider outcome is applied in a short post-commit.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse processPayment(PaymentRequest request) {
         log.info("Processing payment for user: {} with provider: {}", 
                 request.getUserId(), request.getPaymentProvider());
 
+        // 0. Deduplicate client retries by idempotency key
+        PaymentIdempotencyService.Claim claim = idempotencyService.claim(request);
+        if (claim.duplicate()) {
+            return replayIdempotentPayment(claim);
+        }
+
+        UUID transactionId = null;
         try {
-            // 1. Validate payment request
-            ValidationResult validation = validatePaymentRequest(request);
+            // Route to the best provider for this transaction; the client's pick is a preference
+            List<PaymentTransaction.PaymentProvider> route = providerRouter.route(request);
+            PaymentRequest routedRequest = route.get(0) == request.getPaymentProvider()
+                    ? request : request.toBuilder().paymentProvider(route.get(0)).build();
+
+            // 1-3. Validation, fraud detection and currency conversion in parallel
+            CompletableFuture<ValidationResult> validationStage =
+                    stageRunner.async("validation", () -> validatePaymentRequest(routedRequest));
+            CompletableFuture<FraudDetectionService.FraudResult> fraudStage =
+                    stageRunner.async("fraud", () -> fraudDetectionService.assessRisk(routedRequest));
+            CompletableFuture<FraudScoringEngine.FraudAssessment> behaviourStage =
+                    stageRunner.async("fraud-features", () -> fraudScoringEngine.assess(routedRequest));
+            CompletableFuture<ConvertedPayment> conversionStage =
+                    stageRunner.async("currency-conversion", () -> handleCurrencyConversion(routedRequest));
+
+            ValidationResult validation = awaitStage(validationStage);
             if (!validation.isValid()) {
                 log.warn("Payment validation failed for user: {}, errors: {}", 
                         request.getUserId(), validation.errors());
                 throw new PaymentValidationException("Payment validation failed", validation.errors());
             }
 
-            // 2. Fraud detection
-            var fraudResult = fraudDetectionService.assessRisk(request);
-            if (fraudResult.isBlocked()) {
-                log.warn("Payment blocked due to fraud risk for user: {}, score: {}", 
-                        request.getUserId(), fraudResult.getRiskScore());
+            var ruleResult = awaitStage(fraudStage);
+            FraudScoringEngine.FraudAssessment fraudResult = awaitStage(behaviourStage)
+                    .withRuleResult(ruleResult.isBlocked(), ruleResult.getRiskScore(), ruleResult.getRiskLevel());
+            applicationEventPublisher.publishEvent(
+                    new PaymentAttemptEvent(routedRequest, fraudResult.blocked(), System.currentTimeMillis()));
+            if (fraudResult.blocked()) {
+                log.warn("Payment blocked due to fraud risk for user: {}, score: {}, signals: {}", 
+                        request.getUserId(), fraudResult.riskScore(), fraudResult.reasons());
                 throw new FraudDetectionException("Payment blocked due to high fraud risk");
             }
 
-            // 3. Currency conversion if needed
-            PaymentRequest processedRequest = handleCurrencyConversion(request);
-
-            // 4. Create payment transaction
-            PaymentTransaction transaction = createPaymentTransaction(processedRequest, fraudResult);
-
-            // 5. Process payment with provider
-            PaymentProviderService providerService = providerFactory.getProvider(request.getPaymentProvider());
-            PaymentResponse response = providerService.processPayment(processedRequest, transaction);
-
-            // 6. Update transaction with provider response
-            updateTransactionWithResponse(transaction, response);
-
-            // 7. Handle wallet operations if successful
-            if (response.isSuccessful()) {
-                handleSuccessfulPayment(transaction, response);
-            } else if (response.isFailed()) {
-                handleFailedPayment(transaction, response);
-            }
-
-            // 8. Publish payment event
-            publishPaymentEvent(transaction, response);
+            ConvertedPayment conversion = awaitStage(conversionStage);
+            PaymentRequest processedRequest = conversion.request();
+
+            // 4. Pre-commit: persist the transaction as PROCESSING
+            PaymentTransaction transaction = stageRunner.timed("pre-commit", () ->
+                    transactionTemplate.execute(status -> {
+                        PaymentTransaction created = createPaymentTransaction(conversion, fraudResult);
+                        created.setStatus(PaymentTransaction.PaymentStatus.PROCESSING);
+                        PaymentTransaction saved = paymentRepository.save(created);
+                        applicationEventPublisher.publishEvent(PaymentStatusChangedEvent.of(saved, null));
+                        idempotencyService.attachTransaction(claim, saved.getId());
+                        return saved;
+                    }));
+            transactionId = transaction.getId();
+
+            // 5. Process payment with provider, outside any database transaction; fails over on open breakers
+            PaymentProviderRouter.RoutedResponse routed = stageRunner.timed("provider", () ->
+                    providerRouter.process(route, processedRequest, transaction));
+            PaymentResponse response = routed.response();
+            transaction.setPaymentProvider(routed.provider());
+
+            // 6-8. Post-commit: apply provider response, wallet operations and event
+            stageRunner.timed("post-commit", () ->
+                    transactionTemplate.execute(status -> {
+                        updateTransactionWithResponse(transaction, response);
+                        if (response.isSuccessful()) {
+                            handleSuccessfulPayment(transaction, response);
+                        } else if (response.isFailed()) {
+                            handleFailedPayment(transaction, response);
+                        }
+                        publishPaymentEvent(transaction, response);
+                        idempotencyService.complete(claim, response.getStatus());
+                        return transaction;
+                    }));
 
             log.info("Payment processing completed for transaction: {} with status: {}", 
                     transaction.getId(), response.getStatus());
@@ -103,13 +190,20 @@ public class PaymentServiceImpl implements PaymentService {
             return response;
 
         } catch (Exception e) {
+            if (transactionId == null) {
+                // Nothing reached the provider; the client may retry with the same key
+                idempotencyService.release(claim);
+            } else {
+                // Provider outcome unknown - the transaction stays PROCESSING until reconciled
+                log.error("Payment left in PROCESSING state for transaction: {}", transactionId);
+            }
             log.error("Payment processing failed for user: {}", request.getUserId(), e);
-            return handlePaymentError(request, e);
+            return handlePaymentError(request, transactionId, e);
         }
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse processSubscriptionPayment(PaymentRequest request) {
         log.info("Processing subscription payment for user: {} subscription: {}", 
                 request.getUserId(), request.getSubscriptionId());
@@ -280,6 +374,52 @@ public class PaymentServiceImpl implements PaymentService {
         return paymentRepository.findByStatus(status, pageRequest).getContent();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentTransactionSummary> getPaymentsByUser(UUID userId, String cursor, int size) {
+        String listing = "user:" + userId;
+        PaymentCursor after = PaymentCursor.decode(cursor, listing);
+        Pageable limit = keysetLimit(size);
+        return toCursorPage(after == null
+                ? keysetRepository.findFirstByUser(userId, limit)
+                : keysetRepository.findByUserAfter(userId, after.createdAt(), after.id(), limit), size, listing);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentTransactionSummary> getPaymentsBySubscription(UUID subscriptionId, String cursor, int size) {
+        String listing = "subscription:" + subscriptionId;
+        PaymentCursor after = PaymentCursor.decode(cursor, listing);
+        Pageable limit = keysetLimit(size);
+        return toCursorPage(after == null
+                ? keysetRepository.findFirstBySubscription(subscriptionId, limit)
+                : keysetRepository.findBySubscriptionAfter(subscriptionId, after.createdAt(), after.id(), limit),
+                size, listing);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentTransactionSummary> getPaymentsByStatus(PaymentTransaction.PaymentStatus status,
+                                                                     String cursor, int size) {
+        return statusPage(status, cursor, size);
+    }
+
+    /**
+     * The first batch is read here; the rest are read as the stream is
+     * consumed, each in the repository's own short read-only transaction, so
+     * long exports never pin a connection or an open cursor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<PaymentTransactionSummary> exportPaymentsByStatus(PaymentTransaction.PaymentStatus status) {
+        return Stream.iterate(statusPage(status, null, exportBatchSize),
+                        Objects::nonNull,
+                        page -> page.nextCursor() != null
+                                ? statusPage(status, page.nextCursor(), exportBatchSize)
+                                : null)
+                .flatMap(page -> page.items().stream());
+    }
+
     @Override
     @Transactional
     public PaymentResponse retryPayment(UUID transactionId) {
@@ -307,6 +447,8 @@ public class PaymentServiceImpl implements PaymentService {
             paymentTransaction.setAttemptCount(paymentTransaction.getAttemptCount() + 1);
             paymentTransaction.setStatus(PaymentTransaction.PaymentStatus.PENDING);
             paymentRepository.save(paymentTransaction);
+            applicationEventPublisher.publishEvent(
+                    PaymentStatusChangedEvent.of(paymentTransaction, PaymentTransaction.PaymentStatus.FAILED));
             
             // Retry with provider
             PaymentProviderService providerService = providerFactory.getProvider(paymentTransaction.getPaymentProvider());
@@ -383,10 +525,13 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
+    /**
+     * Read from the per-user rollup; the first read for a user seeds it from history.
+     */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public PaymentStatistics getPaymentStatistics(UUID userId) {
-        return paymentRepository.getPaymentStatistics(userId);
+        return statisticsRollup.getStatistics(userId);
     }
 
     @Override
@@ -417,6 +562,7 @@ public class PaymentServiceImpl implements PaymentService {
         
         // Publish status change event
         eventPublisher.publishPaymentStatusChanged(savedTransaction, oldStatus, reason);
+        applicationEventPublisher.publishEvent(PaymentStatusChangedEvent.of(savedTransaction, oldStatus));
         
         log.info("Payment status updated for transaction: {} from {} to {}", 
                 transactionId, oldStatus, status);
@@ -424,49 +570,122 @@ public class PaymentServiceImpl implements PaymentService {
         return savedTransaction;
     }
 
+    /**
+     * Verify and queue a provider webhook. Status changes are applied
+     * asynchronously, in arrival order, by the webhook inbox processor.
+     */
     @Override
     @Transactional
     public WebhookResult handleWebhook(PaymentTransaction.PaymentProvider provider, 
                                      String payload, 
                                      String signature) {
-        log.info("Handling webhook from provider: {}", provider);
+        log.debug("Receiving webhook from provider: {}", provider);
         
         try {
-            PaymentProviderService providerService = providerFactory.getProvider(provider);
-            return providerService.handleWebhook(payload, signature);
+            if (!webhookInboxService.accept(provider, payload, signature)) {
+                return new WebhookResult(false, null, null, "Invalid webhook signature",
+                        List.of("Signature verification failed"));
+            }
+            return new WebhookResult(true, null, null, "Webhook accepted", List.of());
         } catch (Exception e) {
-            log.error("Webhook handling failed for provider: {}", provider, e);
-            return new WebhookResult(false, null, null, "Webhook processing failed", List.of(e.getMessage()));
+            log.error("Webhook intake failed for provider: {}", provider, e);
+            throw new PaymentProcessingException("Webhook intake failed", e);
         }
     }
 
     // Private helper methods
-    private PaymentRequest handleCurrencyConversion(PaymentRequest request) {
-        // Implementation for currency conversion logic
-        return request;
+    private <T> T awaitStage(CompletableFuture<T> stage) {
+        try {
+            return stage.get(stageTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PaymentProcessingException("Payment stage failed", e.getCause());
+        } catch (TimeoutException e) {
+            stage.cancel(true);
+            throw new PaymentProcessingException("Payment stage timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Payment stage interrupted", e);
+        }
+    }
+
+    private PaymentResponse replayIdempotentPayment(PaymentIdempotencyService.Claim claim) {
+        UUID transactionId = claim.key().getTransactionId();
+        if (!claim.matchesRequest()) {
+            return PaymentResponse.failed(transactionId,
+                    "Idempotency key was already used for a different payment", "IDEMPOTENCY_KEY_REUSED");
+        }
+        if (claim.key().isCompleted() && transactionId != null) {
+            return getPaymentById(transactionId)
+                    .map(PaymentResponse::success)
+                    .orElseGet(() -> PaymentResponse.pending(transactionId, "Payment result is not available yet"));
+        }
+        return PaymentResponse.pending(transactionId, "Payment with this idempotency key is already being processed");
+    }
+
+    /**
+     * Convert into a currency the provider settles in, using the in-memory FX table.
+     * Never waits on a rate fetch; without a rate the payment fails before it
+     * reaches a provider that cannot settle the request currency.
+     */
+    private ConvertedPayment handleCurrencyConversion(PaymentRequest request) {
+        List<String> providerCurrencies = getSupportedCurrencies(request.getPaymentProvider());
+        if (providerCurrencies.isEmpty() || providerCurrencies.contains(request.getCurrency())) {
+            return ConvertedPayment.unchanged(request);
+        }
+
+        String settlementCurrency = providerCurrencies.contains(settlementBaseCurrency)
+                ? settlementBaseCurrency : providerCurrencies.get(0);
+        FxRateTable rates = fxRateService.snapshot();
+        FxRateService.Quote quote = fxRateService.quote(rates, request.getCurrency(), settlementCurrency);
+        if (quote == null) {
+            log.warn("No exchange rate for {} -> {}, failing payment",
+                    request.getCurrency(), settlementCurrency);
+            throw new PaymentProcessingException("No exchange rate available for "
+                    + request.getCurrency() + " -> " + settlementCurrency);
+        }
+        if (quote.stale()) {
+            log.warn("Converting {} -> {} with stale exchange rate fetched at {}",
+                    request.getCurrency(), settlementCurrency, quote.fetchedAtMillis());
+        }
+
+        BigDecimal convertedAmount = fxRateService.convert(rates, request.getAmount(), request.getCurrency(),
+                settlementCurrency);
+        PaymentRequest convertedRequest = request.toBuilder()
+                .amount(convertedAmount)
+                .currency(settlementCurrency)
+                .build();
+        return new ConvertedPayment(convertedRequest, request.getAmount(), request.getCurrency(),
+                quote.rate().setScale(6, RoundingMode.HALF_EVEN));
     }
 
-    private PaymentTransaction createPaymentTransaction(PaymentRequest request, 
-                                                      FraudDetectionService.FraudResult fraudResult) {
-        // Implementation for creating payment transaction
+    private PaymentTransaction createPaymentTransaction(ConvertedPayment conversion, 
+                                                      FraudScoringEngine.FraudAssessment fraudResult) {
+        PaymentRequest request = conversion.request();
         return PaymentTransaction.builder()
                 .externalTransactionId(UUID.randomUUID().toString())
                 .userId(request.getUserId())
                 .subscriptionId(request.getSubscriptionId())
                 .amount(request.getAmount())
                 .currency(request.getCurrency())
+                .originalAmount(conversion.originalAmount())
+                .originalCurrency(conversion.originalCurrency())
+                .exchangeRate(conversion.exchangeRate())
                 .status(PaymentTransaction.PaymentStatus.PENDING)
                 .paymentProvider(request.getPaymentProvider())
                 .paymentMethod(request.getPaymentMethod())
                 .transactionType(request.getTransactionType())
                 .description(request.getDescription())
-                .fraudScore(fraudResult.getRiskScore())
-                .riskLevel(fraudResult.getRiskLevel())
+                .fraudScore(fraudResult.riskScore())
+                .riskLevel(fraudResult.riskLevel())
                 .isRecurring(request.isRecurringPayment())
                 .build();
     }
 
     private void updateTransactionWithResponse(PaymentTransaction transaction, PaymentResponse response) {
+        PaymentTransaction.PaymentStatus oldStatus = transaction.getStatus();
         transaction.setStatus(response.getStatus());
         transaction.setProviderTransactionId(response.getProviderTransactionId());
         transaction.setProviderResponseCode(response.getProviderResponseCode());
@@ -479,6 +698,7 @@ public class PaymentServiceImpl implements PaymentService {
         }
         
         paymentRepository.save(transaction);
+        applicationEventPublisher.publishEvent(PaymentStatusChangedEvent.of(transaction, oldStatus));
     }
 
     private void handleSuccessfulPayment(PaymentTransaction transaction, PaymentResponse response) {
@@ -496,9 +716,17 @@ public class PaymentServiceImpl implements PaymentService {
         log.info("Handling subscription payment success for subscription: {}", request.getSubscriptionId());
     }
 
-    private PaymentResponse handlePaymentError(PaymentRequest request, Exception e) {
+    /**
+     * Once the transaction row exists the provider may have charged the customer,
+     * so the outcome is reported as pending under the real transaction id until
+     * reconciliation settles it; earlier failures never reached the provider.
+     */
+    private PaymentResponse handlePaymentError(PaymentRequest request, UUID transactionId, Exception e) {
         log.error("Handling payment error for user: {}", request.getUserId(), e);
-        return PaymentResponse.failed(UUID.randomUUID(), e.getMessage(), "PROCESSING_ERROR");
+        if (transactionId != null) {
+            return PaymentResponse.pending(transactionId, "Payment outcome is being confirmed with the provider");
+        }
+        return PaymentResponse.failed(null, e.getMessage(), "PROCESSING_ERROR");
     }
 
     private void publishPaymentEvent(PaymentTransaction transaction, PaymentResponse response) {
@@ -533,6 +761,7 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private void updateOriginalTransactionForRefund(PaymentTransaction original, BigDecimal refundAmount) {
+        PaymentTransaction.PaymentStatus oldStatus = original.getStatus();
         BigDecimal currentRefundAmount = original.getRefundAmount() != null ? 
                 original.getRefundAmount() : BigDecimal.ZERO;
         original.setRefundAmount(currentRefundAmount.add(refundAmount));
@@ -546,6 +775,7 @@ public class PaymentServiceImpl implements PaymentService {
         }
         
         paymentRepository.save(original);
+        applicationEventPublisher.publishEvent(PaymentStatusChangedEvent.refunded(original, oldStatus, refundAmount));
     }
 
     private void handleSuccessfulRefund(PaymentTransaction original, PaymentTransaction refundTransaction) {
@@ -558,4 +788,44 @@ public class PaymentServiceImpl implements PaymentService {
                                   PaymentResponse refundResponse) {
         eventPublisher.publishRefundProcessed(original, refundTransaction, refundResponse);
     }
-}
\ No newline at end of file
+
+    private CursorPage<PaymentTransactionSummary> statusPage(PaymentTransaction.PaymentStatus status,
+                                                             String cursor, int size) {
+        String listing = "status:" + status;
+        PaymentCursor after = PaymentCursor.decode(cursor, listing);
+        Pageable limit = keysetLimit(size);
+        return toCursorPage(after == null
+                ? keysetRepository.findFirstByStatus(status, limit)
+                : keysetRepository.findByStatusAfter(status, after.createdAt(), after.id(), limit), size, listing);
+    }
+
+    /**
+     * One row more than requested tells whether a next page exists without a count query
+     */
+    private Pageable keysetLimit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    private CursorPage<PaymentTransactionSummary> toCursorPage(List<PaymentTransactionSummary> rows,
+                                                               int size, String listing) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<PaymentTransactionSummary> items = rows.subList(0, size);
+        return new CursorPage<>(items, PaymentCursor.after(items.get(size - 1)).encode(listing));
+    }
+
+    /**
+     * Payment request after the currency conversion stage
+     */
+    private record ConvertedPayment(
+            PaymentRequest request,
+            BigDecimal originalAmount,
+            String originalCurrency,
+            BigDecimal exchangeRate
+    ) {
+        static ConvertedPayment unchanged(PaymentRequest request) {
+            return new ConvertedPayment(request, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.woltaxi.payment.service.listing;
+
+import com.woltaxi.payment.dto.response.PaymentTransactionSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Payment Listing Cursor
+ *
+ * Position of the last row returned by a keyset page. Clients only ever see
+ * the opaque token; it is bound to the listing it came from, so a cursor
+ * issued for one user or status cannot be replayed against another.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public record PaymentCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static PaymentCursor after(PaymentTransactionSummary last) {
+        return new PaymentCursor(last.createdAt(), last.id());
+    }
+
+    /**
+     * Decode a token issued for the given listing; null or blank means the first page
+     */
+    public static PaymentCursor decode(String token, String listing) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed payment cursor", e);
+        }
+        if (parts.length != 3 || !parts[0].equals(listing)) {
+            throw new IllegalArgumentException("Payment cursor does not belong to this listing");
+        }
+        try {
+            return new PaymentCursor(LocalDateTime.parse(parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed payment cursor", e);
+        }
+    }
+
+    public String encode(String listing) {
+        String raw = listing + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,558 @@
+package com.woltaxi.payment.service.payout;
+
+import com.woltaxi.payment.entity.DriverPayout;
+import com.woltaxi.payment.entity.DriverPayoutRun;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.entity.WalletLedgerEntry;
+import com.woltaxi.payment.repository.DriverPayoutRepository;
+import com.woltaxi.payment.repository.DriverPayoutRunRepository;
+import com.woltaxi.payment.service.wallet.WalletLedgerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Driver Payout Engine
+ *
+ * Settles driver wallet balances to their bank accounts in scheduled runs.
+ * A run goes through three phases and its status is the checkpoint between
+ * them:
+ *
+ * SNAPSHOT captures every eligible wallet with one INSERT ... SELECT, spread
+ * over {@code payout.partitions} hash partitions. COMPUTING walks the
+ * partitions in parallel on virtual threads and reserves each payout amount
+ * in the wallet ledger, in keyset batches. SUBMITTING groups the reserved
+ * payouts by provider and currency, sends them as bulk transfers and settles
+ * or releases the reservations from the result. Row outcomes are written
+ * with JDBC batches.
+ *
+ * Only the instance holding a run's lease works on it. A run interrupted
+ * anywhere is resumed by the next lease holder from the database alone:
+ * wallet balances are re-read from their snapshots before every posting,
+ * ledger postings are found again by their {@code payout:<id>} reference,
+ * and a bulk transfer whose outcome was not recorded is resent under the
+ * same batch ID, which the provider treats as an idempotency key.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class DriverPayoutEngine {
+
+    private static final String FIND_PARTITION_BATCH_SQL =
+            "SELECT id, wallet_id, currency, destination_reference, snapshot_amount, amount FROM driver_payouts " +
+            "WHERE run_id = ? AND partition_no = ? AND status IN ('PENDING', 'RESERVING') AND id > ? " +
+            "ORDER BY id LIMIT ?";
+
+    private static final String MARK_RESERVING_SQL =
+            "UPDATE driver_payouts SET status = 'RESERVING', updated_at = ? WHERE id = ANY(?) AND status = 'PENDING'";
+
+    private static final String FIND_RESERVED_BATCH_SQL =
+            "SELECT id, wallet_id, currency, destination_reference, snapshot_amount, amount FROM driver_payouts " +
+            "WHERE run_id = ? AND provider = ? AND currency = ? AND status = 'RESERVED' ORDER BY id LIMIT ?";
+
+    private static final String FIND_OPEN_BATCH_SQL =
+            "SELECT id, wallet_id, currency, destination_reference, snapshot_amount, amount FROM driver_payouts " +
+            "WHERE batch_id = ? AND status = 'SUBMITTING' ORDER BY id";
+
+    private static final String MARK_SUBMITTING_SQL =
+            "UPDATE driver_payouts SET status = 'SUBMITTING', batch_id = ?, updated_at = ? " +
+            "WHERE id = ANY(?) AND status = 'RESERVED'";
+
+    private static final String FIND_POSTINGS_SQL =
+            "SELECT reference, operation, currency, amount_minor FROM wallet_ledger_entries " +
+            "WHERE reference = ANY(?) AND account = 'RESERVED'";
+
+    private static final String UPDATE_OUTCOME_SQL =
+            "UPDATE driver_payouts SET status = ?, amount = ?, provider_reference = ?, failure_reason = ?, " +
+            "updated_at = ? WHERE id = ?";
+
+    private static final int[] OUTCOME_TYPES = {
+            Types.VARCHAR, Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT
+    };
+
+    private static final String REFERENCE_PREFIX = "payout:";
+
+    private static final Set<DriverPayoutRun.RunStatus> OPEN_RUN_STATUSES = EnumSet.of(
+            DriverPayoutRun.RunStatus.SNAPSHOT,
+            DriverPayoutRun.RunStatus.COMPUTING,
+            DriverPayoutRun.RunStatus.SUBMITTING);
+
+    private static final Set<DriverPayout.PayoutStatus> UNSETTLED_STATUSES = EnumSet.of(
+            DriverPayout.PayoutStatus.RESERVED,
+            DriverPayout.PayoutStatus.SUBMITTING);
+
+    private final DriverPayoutRunRepository runRepository;
+    private final DriverPayoutRepository payoutRepository;
+    private final WalletLedgerService walletLedgerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<PaymentTransaction.PaymentProvider, PayoutProviderClient> clients =
+            new EnumMap<>(PaymentTransaction.PaymentProvider.class);
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final String instanceId = "payout-" + UUID.randomUUID();
+
+    @Value("${payout.partitions:16}")
+    private int partitions;
+
+    @Value("${payout.parallelism:8}")
+    private int parallelism;
+
+    @Value("${payout.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payout.max-items-per-batch:1000}")
+    private int maxItemsPerBatch;
+
+    @Value("${payout.minimum-amount:10.00}")
+    private BigDecimal minimumAmount;
+
+    @Value("${payout.lease:PT5M}")
+    private Duration lease;
+
+    public DriverPayoutEngine(DriverPayoutRunRepository runRepository,
+                              DriverPayoutRepository payoutRepository,
+                              WalletLedgerService walletLedgerService,
+                              JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              ObjectProvider<PayoutProviderClient> providerClients) {
+        this.runRepository = runRepository;
+        this.payoutRepository = payoutRepository;
+        this.walletLedgerService = walletLedgerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        providerClients.orderedStream().forEach(client -> clients.put(client.provider(), client));
+    }
+
+    /**
+     * Open today's payout run; the resume loop picks it up
+     */
+    @Scheduled(cron = "${payout.cron:0 0 3 * * MON}")
+    public void openScheduledRun() {
+        openRun(LocalDate.now());
+    }
+
+    /**
+     * Open the payout run for a date; empty when it already exists
+     */
+    public Optional<DriverPayoutRun> openRun(LocalDate runDate) {
+        if (runRepository.existsByRunDate(runDate)) {
+            return Optional.empty();
+        }
+        try {
+            DriverPayoutRun run = runRepository.saveAndFlush(DriverPayoutRun.builder()
+                    .runDate(runDate)
+                    .partitions(partitions)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            log.info("Opened driver payout run {} for {}", run.getId(), runDate);
+            return Optional.of(run);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Driver payout run for {} was opened by another instance", runDate);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drive every unfinished run this instance can lease, from whatever phase it reached
+     */
+    @Scheduled(fixedDelayString = "${payout.resume-interval-ms:60000}")
+    public void resumeRuns() {
+        for (DriverPayoutRun run : runRepository.findByStatusInOrderByRunDateAsc(OPEN_RUN_STATUSES)) {
+            if (!tryLease(run)) {
+                continue;
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                execute(run);
+            } catch (Exception e) {
+                log.error("Driver payout run {} stopped in {}, it will be resumed", run.getId(), run.getStatus(), e);
+            } finally {
+                runRepository.releaseLease(run.getId(), instanceId);
+                sample.stop(meterRegistry.timer("payment.payout.run", "status", run.getStatus().name()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    // Private helper methods
+    private void execute(DriverPayoutRun run) {
+        if (run.getStatus() == DriverPayoutRun.RunStatus.SNAPSHOT) {
+            int eligible = payoutRepository.snapshotEligibleWallets(run.getId(), run.getPartitions(),
+                    minimumAmount, LocalDateTime.now());
+            log.info("Driver payout run {} captured {} eligible wallets", run.getId(), eligible);
+            advance(run, DriverPayoutRun.RunStatus.COMPUTING);
+        }
+
+        if (run.getStatus() == DriverPayoutRun.RunStatus.COMPUTING) {
+            List<Integer> partitionNumbers = new ArrayList<>(run.getPartitions());
+            for (int partition = 0; partition < run.getPartitions(); partition++) {
+                partitionNumbers.add(partition);
+            }
+            inParallel(partitionNumbers, partition -> reservePartition(run, partition));
+            advance(run, DriverPayoutRun.RunStatus.SUBMITTING);
+        }
+
+        if (run.getStatus() == DriverPayoutRun.RunStatus.SUBMITTING) {
+            inParallel(payoutRepository.findSubmissionGroups(run.getId(), UNSETTLED_STATUSES),
+                    group -> submitGroup(run, group));
+            if (!payoutRepository.findSubmissionGroups(run.getId(), UNSETTLED_STATUSES).isEmpty()) {
+                log.warn("Driver payout run {} has unconfirmed bulk transfers, retrying on next resume", run.getId());
+                return;
+            }
+            complete(run);
+        }
+    }
+
+    /**
+     * Run one task per item on virtual threads, at most {@code payout.parallelism} at a time
+     */
+    private <T> void inParallel(List<T> items, Consumer<T> task) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<Void>> running = new ArrayList<>(items.size());
+        for (T item : items) {
+            running.add(CompletableFuture.runAsync(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.accept(item);
+                } finally {
+                    permits.release();
+                }
+            }, workers));
+        }
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void reservePartition(DriverPayoutRun run, int partition) {
+        long afterId = 0L;
+        while (true) {
+            renewLease(run);
+            List<PayoutRow> rows = jdbcTemplate.query(FIND_PARTITION_BATCH_SQL, DriverPayoutEngine::payoutRow,
+                    run.getId(), partition, afterId, batchSize);
+            if (rows.isEmpty()) {
+                return;
+            }
+            reserveBatch(rows);
+            afterId = rows.get(rows.size() - 1).id();
+            if (rows.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reserve each payout's amount, capped at what the wallet holds now; postings made
+     * before an interruption are found in the ledger instead of being repeated
+     */
+    private void reserveBatch(List<PayoutRow> rows) {
+        markByIds(MARK_RESERVING_SQL, null, rows);
+        Map<Long, Map<WalletLedgerEntry.Operation, BigDecimal>> posted = findPostings(rows);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> outcomes = new ArrayList<>(rows.size());
+        Map<PayoutRow, BigDecimal> amounts = new LinkedHashMap<>();
+        Map<PayoutRow, CompletableFuture<WalletLedgerService.LedgerReceipt>> inFlight = new LinkedHashMap<>();
+
+        for (PayoutRow row : rows) {
+            BigDecimal reserved = posted.getOrDefault(row.id(), Map.of()).get(WalletLedgerEntry.Operation.RESERVE);
+            if (reserved != null) {
+                outcomes.add(outcome(DriverPayout.PayoutStatus.RESERVED, reserved, null, null, row, now));
+                continue;
+            }
+            try {
+                // Another instance may have posted to the wallet since this one cached it
+                walletLedgerService.reload(row.walletId());
+                BigDecimal available = walletLedgerService.getBalance(row.walletId()).availableBalance();
+                BigDecimal amount = row.snapshotAmount().min(available).setScale(available.scale(), RoundingMode.DOWN);
+                if (amount.compareTo(minimumAmount) < 0) {
+                    outcomes.add(outcome(DriverPayout.PayoutStatus.SKIPPED, BigDecimal.ZERO, null,
+                            "Available balance below minimum payout amount", row, now));
+                    continue;
+                }
+                inFlight.put(row, walletLedgerService.reserve(row.walletId(), amount, reference(row.id())));
+                amounts.put(row, amount);
+            } catch (RuntimeException e) {
+                outcomes.add(outcome(DriverPayout.PayoutStatus.SKIPPED, BigDecimal.ZERO, null,
+                        e.getMessage(), row, now));
+            }
+        }
+
+        // Reservations are group-committed by the ledger writer; wait for all of them at once
+        for (Map.Entry<PayoutRow, CompletableFuture<WalletLedgerService.LedgerReceipt>> entry : inFlight.entrySet()) {
+            PayoutRow row = entry.getKey();
+            try {
+                entry.getValue().join();
+                outcomes.add(outcome(DriverPayout.PayoutStatus.RESERVED, amounts.get(row), null, null, row, now));
+            } catch (CompletionException e) {
+                outcomes.add(outcome(DriverPayout.PayoutStatus.SKIPPED, BigDecimal.ZERO, null,
+                        "Reservation failed: " + e.getCause().getMessage(), row, now));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_OUTCOME_SQL, outcomes, OUTCOME_TYPES);
+        count(outcomes);
+    }
+
+    private void submitGroup(DriverPayoutRun run, DriverPayoutRepository.SubmissionGroup group) {
+        PayoutProviderClient client = clients.get(group.getProvider());
+
+        // Bulk transfers sent before an interruption go out again under their original batch ID
+        for (UUID batchId : payoutRepository.findOpenBatchIds(run.getId(), group.getProvider(), group.getCurrency())) {
+            renewLease(run);
+            List<PayoutRow> rows = jdbcTemplate.query(FIND_OPEN_BATCH_SQL, DriverPayoutEngine::payoutRow, batchId);
+            if (!rows.isEmpty() && !submitBatch(client, group, batchId, rows)) {
+                return;
+            }
+        }
+
+        while (true) {
+            renewLease(run);
+            List<PayoutRow> rows = jdbcTemplate.query(FIND_RESERVED_BATCH_SQL, DriverPayoutEngine::payoutRow,
+                    run.getId(), group.getProvider().name(), group.getCurrency(), maxItemsPerBatch);
+            if (rows.isEmpty()) {
+                return;
+            }
+            UUID batchId = UUID.randomUUID();
+            markByIds(MARK_SUBMITTING_SQL, batchId, rows);
+            if (!submitBatch(client, group, batchId, rows) || rows.size() < maxItemsPerBatch) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Send one bulk transfer and record its outcome; false when the outcome is unknown
+     * and the batch has to be resent later
+     */
+    private boolean submitBatch(PayoutProviderClient client, DriverPayoutRepository.SubmissionGroup group,
+                                UUID batchId, List<PayoutRow> rows) {
+        String provider = group.getProvider().name();
+        Map<Long, PayoutProviderClient.BulkPayoutResult.ItemResult> results;
+        if (client == null) {
+            results = Map.of();
+            log.error("No payout client for provider {}, failing batch {} of {} payouts", provider, batchId, rows.size());
+        } else {
+            List<PayoutProviderClient.BulkPayoutRequest.Item> items = new ArrayList<>(rows.size());
+            for (PayoutRow row : rows) {
+                items.add(new PayoutProviderClient.BulkPayoutRequest.Item(
+                        row.id(), row.destinationReference(), row.amount(), reference(row.id())));
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                results = client.submit(new PayoutProviderClient.BulkPayoutRequest(batchId, group.getCurrency(), items))
+                        .items();
+                sample.stop(meterRegistry.timer("payment.payout.bulk", "provider", provider, "outcome", "answered"));
+            } catch (Exception e) {
+                sample.stop(meterRegistry.timer("payment.payout.bulk", "provider", provider, "outcome", "unknown"));
+                log.error("Bulk payout {} to {} has no outcome, it will be resent", batchId, provider, e);
+                return false;
+            }
+        }
+
+        Map<Long, Map<WalletLedgerEntry.Operation, BigDecimal>> posted = findPostings(rows);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> outcomes = new ArrayList<>(rows.size());
+        Map<PayoutRow, CompletableFuture<WalletLedgerService.LedgerReceipt>> inFlight = new LinkedHashMap<>();
+        Map<PayoutRow, PayoutProviderClient.BulkPayoutResult.ItemResult> resultsByRow = new HashMap<>();
+
+        for (PayoutRow row : rows) {
+            PayoutProviderClient.BulkPayoutResult.ItemResult result = results.get(row.id());
+            if (result == null) {
+                result = new PayoutProviderClient.BulkPayoutResult.ItemResult(false, null,
+                        client == null ? "No payout client for provider " + provider : "Missing from provider response");
+            }
+            resultsByRow.put(row, result);
+
+            Map<WalletLedgerEntry.Operation, BigDecimal> legs = posted.getOrDefault(row.id(), Map.of());
+            if (legs.containsKey(WalletLedgerEntry.Operation.SETTLE_RESERVE)
+                    || legs.containsKey(WalletLedgerEntry.Operation.RELEASE_RESERVE)) {
+                outcomes.add(submitOutcome(row, result, now));
+                continue;
+            }
+            try {
+                walletLedgerService.reload(row.walletId());
+                inFlight.put(row, result.accepted()
+                        ? walletLedgerService.settleReserve(row.walletId(), row.amount(), reference(row.id()))
+                        : walletLedgerService.releaseReserve(row.walletId(), row.amount(), reference(row.id())));
+            } catch (RuntimeException e) {
+                log.error("Could not post payout {} outcome to wallet {}, leaving it for retry",
+                        row.id(), row.walletId(), e);
+            }
+        }
+
+        for (Map.Entry<PayoutRow, CompletableFuture<WalletLedgerService.LedgerReceipt>> entry : inFlight.entrySet()) {
+            PayoutRow row = entry.getKey();
+            try {
+                entry.getValue().join();
+                outcomes.add(submitOutcome(row, resultsByRow.get(row), now));
+            } catch (CompletionException e) {
+                log.error("Could not post payout {} outcome to wallet {}, leaving it for retry",
+                        row.id(), row.walletId(), e.getCause());
+            }
+        }
+
+        if (!outcomes.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_OUTCOME_SQL, outcomes, OUTCOME_TYPES);
+            count(outcomes);
+        }
+        return outcomes.size() == rows.size();
+    }
+
+    private Object[] submitOutcome(PayoutRow row, PayoutProviderClient.BulkPayoutResult.ItemResult result,
+                                   LocalDateTime now) {
+        return result.accepted()
+                ? outcome(DriverPayout.PayoutStatus.SUBMITTED, row.amount(), result.providerReference(), null, row, now)
+                : outcome(DriverPayout.PayoutStatus.FAILED, row.amount(), null,
+                        result.failureReason() != null ? result.failureReason() : "Rejected by provider", row, now);
+    }
+
+    private void complete(DriverPayoutRun run) {
+        Map<DriverPayout.PayoutStatus, Long> counts = new EnumMap<>(DriverPayout.PayoutStatus.class);
+        long eligible = 0L;
+        for (DriverPayoutRepository.StatusCount count : payoutRepository.countByStatus(run.getId())) {
+            counts.put(count.getStatus(), count.getCount());
+            eligible += count.getCount();
+        }
+        long submitted = counts.getOrDefault(DriverPayout.PayoutStatus.SUBMITTED, 0L);
+        long failed = counts.getOrDefault(DriverPayout.PayoutStatus.FAILED, 0L);
+        long skipped = counts.getOrDefault(DriverPayout.PayoutStatus.SKIPPED, 0L);
+        if (runRepository.complete(run.getId(), instanceId, eligible, submitted, failed, skipped,
+                LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Lost lease on driver payout run " + run.getId());
+        }
+        run.setStatus(DriverPayoutRun.RunStatus.COMPLETED);
+        log.info("Driver payout run {} completed: {} eligible, {} submitted, {} failed, {} skipped",
+                run.getId(), eligible, submitted, failed, skipped);
+    }
+
+    private void advance(DriverPayoutRun run, DriverPayoutRun.RunStatus status) {
+        if (runRepository.advance(run.getId(), instanceId, status.name()) == 0) {
+            throw new IllegalStateException("Lost lease on driver payout run " + run.getId());
+        }
+        run.setStatus(status);
+    }
+
+    private boolean tryLease(DriverPayoutRun run) {
+        LocalDateTime now = LocalDateTime.now();
+        return runRepository.claimLease(run.getId(), instanceId, now, now.plus(lease)) > 0;
+    }
+
+    private void renewLease(DriverPayoutRun run) {
+        if (!tryLease(run)) {
+            throw new IllegalStateException("Lost lease on driver payout run " + run.getId());
+        }
+    }
+
+    private void markByIds(String sql, UUID batchId, List<PayoutRow> rows) {
+        Long[] ids = rows.stream().map(PayoutRow::id).toArray(Long[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            int index = 1;
+            if (batchId != null) {
+                statement.setObject(index++, batchId);
+            }
+            statement.setTimestamp(index++, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setArray(index, connection.createArrayOf("bigint", ids));
+            return statement;
+        });
+    }
+
+    /**
+     * Ledger legs already posted on the wallets' reserved accounts, per payout ID and operation
+     */
+    private Map<Long, Map<WalletLedgerEntry.Operation, BigDecimal>> findPostings(List<PayoutRow> rows) {
+        String[] references = rows.stream().map(row -> reference(row.id())).toArray(String[]::new);
+
+        Map<Long, Map<WalletLedgerEntry.Operation, BigDecimal>> posted = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_POSTINGS_SQL);
+            statement.setArray(1, connection.createArrayOf("varchar", references));
+            return statement;
+        }, (ResultSet rs) -> {
+            long payoutId = Long.parseLong(rs.getString("reference").substring(REFERENCE_PREFIX.length()));
+            int digits = Math.max(Currency.getInstance(rs.getString("currency")).getDefaultFractionDigits(), 0);
+            posted.computeIfAbsent(payoutId, id -> new EnumMap<>(WalletLedgerEntry.Operation.class))
+                    .put(WalletLedgerEntry.Operation.valueOf(rs.getString("operation")),
+                            BigDecimal.valueOf(Math.abs(rs.getLong("amount_minor")), digits));
+        });
+        return posted;
+    }
+
+    private void count(List<Object[]> outcomes) {
+        for (Object[] outcome : outcomes) {
+            meterRegistry.counter("payment.payout.items", "status", (String) outcome[0]).increment();
+        }
+    }
+
+    private static Object[] outcome(DriverPayout.PayoutStatus status, BigDecimal amount, String providerReference,
+                                    String failureReason, PayoutRow row, LocalDateTime now) {
+        return new Object[] {
+                status.name(), amount, providerReference,
+                failureReason != null && failureReason.length() > 500 ? failureReason.substring(0, 500) : failureReason,
+                Timestamp.valueOf(now), row.id()
+        };
+    }
+
+    private static String reference(long payoutId) {
+        return REFERENCE_PREFIX + payoutId;
+    }
+
+    private static PayoutRow payoutRow(ResultSet rs, int rowNum) throws SQLException {
+        return new PayoutRow(
+                rs.getLong("id"),
+                rs.getObject("wallet_id", UUID.class),
+                rs.getString("currency"),
+                rs.getString("destination_reference"),
+                rs.getBigDecimal("snapshot_amount"),
+                rs.getBigDecimal("amount"));
+    }
+
+    private record PayoutRow(
+            long id,
+            UUID walletId,
+            String currency,
+            String destinationReference,
+            BigDecimal snapshotAmount,
+            BigDecimal amount
+    ) {}
+}
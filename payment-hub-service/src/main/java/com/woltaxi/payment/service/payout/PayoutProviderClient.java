@@ -0,0 +1,58 @@
+package com.woltaxi.payment.service.payout;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Payout Provider Client
+ *
+ * Bulk bank transfer API of one payout provider. Implementations must treat
+ * {@link BulkPayoutRequest#batchId()} as an idempotency key: a resumed run
+ * resubmits a batch whose outcome was never recorded, and the provider must
+ * answer with the original result instead of paying twice.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public interface PayoutProviderClient {
+
+    PaymentTransaction.PaymentProvider provider();
+
+    /**
+     * Submit one bulk transfer; throw when the outcome is unknown (timeout, 5xx)
+     */
+    BulkPayoutResult submit(BulkPayoutRequest request);
+
+    /**
+     * Bulk Payout Request
+     */
+    record BulkPayoutRequest(
+            UUID batchId,
+            String currency,
+            List<Item> items
+    ) {
+        public record Item(
+                long payoutId,
+                String destinationReference,
+                BigDecimal amount,
+                String reference
+        ) {}
+    }
+
+    /**
+     * Bulk Payout Result, keyed by payout ID
+     */
+    record BulkPayoutResult(
+            Map<Long, ItemResult> items
+    ) {
+        public record ItemResult(
+                boolean accepted,
+                String providerReference,
+                String failureReason
+        ) {}
+    }
+}
@@ -0,0 +1,148 @@
+package com.woltaxi.payment.service.pipeline;
+
+import com.woltaxi.payment.dto.request.PaymentRequest;
+import com.woltaxi.payment.entity.PaymentIdempotencyKey;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.repository.PaymentIdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payment Idempotency Service
+ *
+ * Claims client supplied idempotency keys before a payment enters the pipeline.
+ * The unique (user_id, idempotency_key) constraint decides the race between
+ * concurrent retries; the loser replays the winner's outcome.
+ *
+ * A fresh claim only holds a short lease. Once the transaction row exists the
+ * key is kept for the full deduplication window; a claim whose lease ran out
+ * before that (the instance died mid-pipeline) is taken over by the next retry.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentIdempotencyService {
+
+    private final PaymentIdempotencyKeyRepository keyRepository;
+
+    @Value("${payment.pipeline.idempotency.key-ttl:P1D}")
+    private Duration keyTtl;
+
+    @Value("${payment.pipeline.idempotency.claim-lease:PT1M}")
+    private Duration claimLease;
+
+    /**
+     * Claim the request's idempotency key. Requests without a key are never deduplicated.
+     */
+    public Claim claim(PaymentRequest request) {
+        if (!StringUtils.hasText(request.getIdempotencyKey())) {
+            return Claim.none();
+        }
+        return claim(request, fingerprint(request), true);
+    }
+
+    /**
+     * Link the claimed key to the transaction created in the pre-commit stage.
+     * Joins the caller's transaction so the link commits with the transaction row.
+     */
+    @Transactional
+    public void attachTransaction(Claim claim, UUID transactionId) {
+        if (claim.key() != null) {
+            keyRepository.attachTransaction(claim.key().getId(), transactionId, LocalDateTime.now().plus(keyTtl));
+        }
+    }
+
+    @Transactional
+    public void complete(Claim claim, PaymentTransaction.PaymentStatus paymentStatus) {
+        if (claim.key() != null) {
+            keyRepository.markCompleted(claim.key().getId(), paymentStatus, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Release a claim when the payment failed before reaching the provider,
+     * so the client can safely retry with the same key.
+     */
+    @Transactional
+    public void release(Claim claim) {
+        if (claim.key() != null) {
+            keyRepository.deleteById(claim.key().getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.pipeline.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        int purged = keyRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired payment idempotency keys", purged);
+        }
+    }
+
+    // Private helper methods
+    private Claim claim(PaymentRequest request, String requestHash, boolean takeOverAbandoned) {
+        try {
+            PaymentIdempotencyKey key = keyRepository.saveAndFlush(PaymentIdempotencyKey.builder()
+                    .userId(request.getUserId())
+                    .idempotencyKey(request.getIdempotencyKey())
+                    .requestHash(requestHash)
+                    .expiresAt(LocalDateTime.now().plus(claimLease))
+                    .build());
+            return new Claim(key, false, true);
+        } catch (DataIntegrityViolationException e) {
+            PaymentIdempotencyKey existing = keyRepository
+                    .findByUserIdAndIdempotencyKey(request.getUserId(), request.getIdempotencyKey())
+                    .orElseThrow(() -> e);
+            if (takeOverAbandoned && keyRepository.deleteAbandonedClaim(existing.getId(), LocalDateTime.now()) > 0) {
+                log.warn("Taking over abandoned idempotency key: {} for user: {}",
+                        request.getIdempotencyKey(), request.getUserId());
+                return claim(request, requestHash, false);
+            }
+            log.info("Duplicate payment request for user: {} with idempotency key: {}",
+                    request.getUserId(), request.getIdempotencyKey());
+            return new Claim(existing, true, requestHash.equals(existing.getRequestHash()));
+        }
+    }
+
+    private String fingerprint(PaymentRequest request) {
+        return DigestUtils.sha256Hex(String.join("|",
+                String.valueOf(request.getUserId()),
+                request.getAmount() != null ? request.getAmount().stripTrailingZeros().toPlainString() : "",
+                String.valueOf(request.getCurrency()),
+                String.valueOf(request.getPaymentProvider()),
+                String.valueOf(request.getPaymentMethod()),
+                String.valueOf(request.getTransactionType()),
+                String.valueOf(request.getSubscriptionId())));
+    }
+
+    /**
+     * Idempotency claim
+     *
+     * @param key Claimed or existing key record, null when the request carried no key
+     * @param duplicate True when another request already holds the key
+     * @param matchesRequest False when the key was reused for a different request
+     */
+    public record Claim(
+            PaymentIdempotencyKey key,
+            boolean duplicate,
+            boolean matchesRequest
+    ) {
+        static Claim none() {
+            return new Claim(null, false, true);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.woltaxi.payment.service.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Payment Stage Runner
+ *
+ * Runs payment pipeline stages on virtual threads and records a latency
+ * histogram per stage and outcome ({@code payment.pipeline.stage}). A stage
+ * abandoned by its caller is interrupted rather than left running.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+public class PaymentStageRunner {
+
+    private static final String STAGE_METRIC = "payment.pipeline.stage";
+
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public PaymentStageRunner(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Start a stage concurrently with the caller. Cancelling the returned
+     * future interrupts the thread running the stage.
+     */
+    public <T> CompletableFuture<T> async(String stage, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(timed(stage, work));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Run a stage on the calling thread
+     */
+    public <T> T timed(String stage, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return work.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(timer(stage, outcome));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Private helper methods
+    private Timer timer(String stage, String outcome) {
+        return timers.computeIfAbsent(stage + ':' + outcome, key -> Timer.builder(STAGE_METRIC)
+                .description("Payment pipeline stage latency")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
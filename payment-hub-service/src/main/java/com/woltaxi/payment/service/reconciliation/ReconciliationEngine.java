@@ -0,0 +1,643 @@
+package com.woltaxi.payment.service.reconciliation;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.entity.ReconciliationDiscrepancy;
+import com.woltaxi.payment.entity.ReconciliationRun;
+import com.woltaxi.payment.repository.ReconciliationDiscrepancyRepository;
+import com.woltaxi.payment.repository.ReconciliationRunRepository;
+import com.woltaxi.payment.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reconciliation Engine
+ *
+ * Reconciles provider settlement files against payment transactions. Each
+ * file covers one provider and settlement date and is reconciled as an
+ * independent job; jobs run in parallel on virtual threads, bounded by
+ * {@code reconciliation.max-parallel-jobs}.
+ *
+ * A job streams the file in chunks. For every chunk the matching
+ * transactions are fetched in one query on external_transaction_id, hashed
+ * in memory and joined with the chunk; discrepancies are written with a JDBC
+ * batch and matched transactions are stamped with reconciled_at. A final
+ * pass over the provider's succeeded transactions for the date reports the
+ * ones the provider never settled. Heap use is bounded by the chunk size,
+ * not by the file.
+ *
+ * Only unambiguous corrections are applied automatically (a pending payment
+ * the provider settled or failed, a succeeded payment the provider reports
+ * as disputed, when the status is the record's only difference), through
+ * {@link PaymentService#updatePaymentStatus} so the usual status events fire.
+ * Everything else is reported for review.
+ *
+ * A claimed file is touched after every chunk; claims not touched within
+ * {@code reconciliation.claim-lease} are returned to the inbox and their
+ * runs marked FAILED. A new run of a file supersedes the provider and date's
+ * failed runs and marks their discrepancies superseded, so a report never
+ * counts a finding twice while the record of automatic fixes is kept.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class ReconciliationEngine {
+
+    private static final String FIND_BY_EXTERNAL_IDS_SQL =
+            "SELECT id, external_transaction_id, payment_provider, amount, currency, status " +
+            "FROM payment_transactions WHERE external_transaction_id = ANY(?)";
+
+    private static final String MARK_RECONCILED_SQL =
+            "UPDATE payment_transactions SET reconciled_at = ? WHERE id = ANY(?)";
+
+    private static final String FIND_UNSETTLED_SQL =
+            "SELECT id, external_transaction_id, payment_provider, amount, currency, status, processed_at " +
+            "FROM payment_transactions WHERE payment_provider = ? AND processed_at >= ? AND processed_at < ? " +
+            "AND status IN ('SUCCEEDED', 'PARTIALLY_REFUNDED', 'REFUNDED', 'DISPUTED') " +
+            "AND (reconciled_at IS NULL OR reconciled_at < ?) " +
+            "AND (processed_at, id) > (?, ?) ORDER BY processed_at, id LIMIT ?";
+
+    private static final String INSERT_DISCREPANCY_SQL =
+            "INSERT INTO payment_reconciliation_discrepancies (run_id, type, external_transaction_id, transaction_id, " +
+            "expected_amount, settled_amount, expected_currency, settled_currency, payment_status, settlement_status, " +
+            "fixed_status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] DISCREPANCY_TYPES = {
+            Types.OTHER, Types.VARCHAR, Types.VARCHAR, Types.OTHER,
+            Types.NUMERIC, Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.TIMESTAMP
+    };
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final Set<PaymentTransaction.PaymentStatus> SETTLED_STATUSES = EnumSet.of(
+            PaymentTransaction.PaymentStatus.SUCCEEDED,
+            PaymentTransaction.PaymentStatus.PARTIALLY_REFUNDED,
+            PaymentTransaction.PaymentStatus.REFUNDED,
+            PaymentTransaction.PaymentStatus.DISPUTED);
+
+    private static final Set<PaymentTransaction.PaymentStatus> OPEN_STATUSES = EnumSet.of(
+            PaymentTransaction.PaymentStatus.PENDING,
+            PaymentTransaction.PaymentStatus.PROCESSING);
+
+    private final SettlementFileReader fileReader;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final PaymentService paymentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService jobs = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore jobPermits;
+
+    @Value("${reconciliation.inbox-dir:/var/lib/woltaxi/settlements}")
+    private String inboxDir;
+
+    @Value("${reconciliation.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${reconciliation.amount-tolerance:0.01}")
+    private BigDecimal amountTolerance;
+
+    @Value("${reconciliation.settlement-lag-days:0}")
+    private int settlementLagDays;
+
+    @Value("${reconciliation.auto-fix:true}")
+    private boolean autoFix;
+
+    @Value("${reconciliation.claim-lease:PT30M}")
+    private Duration claimLease;
+
+    public ReconciliationEngine(SettlementFileReader fileReader,
+                                ReconciliationRunRepository runRepository,
+                                ReconciliationDiscrepancyRepository discrepancyRepository,
+                                PaymentService paymentService,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${reconciliation.max-parallel-jobs:4}") int maxParallelJobs) {
+        this.fileReader = fileReader;
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.paymentService = paymentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.jobPermits = new Semaphore(maxParallelJobs);
+    }
+
+    /**
+     * Reconcile every settlement file waiting in the inbox directory.
+     * Files are named {@code PROVIDER_yyyy-MM-dd.csv|json|jsonl|ndjson}.
+     */
+    @Scheduled(cron = "${reconciliation.cron:0 30 2 * * *}")
+    public void reconcileInbox() {
+        Path inbox = Paths.get(inboxDir);
+        if (!Files.isDirectory(inbox)) {
+            log.debug("Settlement inbox {} does not exist, nothing to reconcile", inbox);
+            return;
+        }
+        recoverStaleClaims(inbox);
+
+        List<SettlementFile> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(inbox, Files::isRegularFile)) {
+            for (Path entry : entries) {
+                SettlementFile.parse(entry).ifPresentOrElse(files::add,
+                        () -> log.warn("Ignoring settlement file with unexpected name: {}", entry.getFileName()));
+            }
+        } catch (IOException e) {
+            log.error("Could not list settlement inbox {}", inbox, e);
+            return;
+        }
+        List<ReconciliationRun> runs = reconcile(files);
+        log.info("Reconciled {} settlement files, {} with discrepancies", runs.size(),
+                runs.stream().filter(run -> run.getDiscrepancies() > 0).count());
+    }
+
+    /**
+     * Reconcile several files in parallel; each provider and date is an independent job
+     */
+    public List<ReconciliationRun> reconcile(List<SettlementFile> files) {
+        List<CompletableFuture<ReconciliationRun>> running = new ArrayList<>(files.size());
+        for (SettlementFile file : files) {
+            running.add(CompletableFuture.supplyAsync(() -> {
+                jobPermits.acquireUninterruptibly();
+                try {
+                    return reconcile(file);
+                } finally {
+                    jobPermits.release();
+                }
+            }, jobs));
+        }
+        List<ReconciliationRun> runs = new ArrayList<>(running.size());
+        for (CompletableFuture<ReconciliationRun> job : running) {
+            ReconciliationRun run = job.join();
+            if (run != null) {
+                runs.add(run);
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Reconcile one settlement file; returns null when another instance already claimed it
+     */
+    public ReconciliationRun reconcile(SettlementFile file) {
+        Path claimed = claim(file.path());
+        if (claimed == null) {
+            return null;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        ReconciliationRun run = transactionTemplate.execute(status -> {
+            ReconciliationRun created = runRepository.save(ReconciliationRun.builder()
+                    .provider(file.provider())
+                    .settlementDate(file.settlementDate())
+                    .sourceFile(file.path().toString())
+                    .startedAt(startedAt)
+                    .build());
+            supersedeFailedRuns(file, created);
+            return created;
+        });
+        RunStats stats = new RunStats();
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            long rejected = fileReader.read(claimed, chunkSize, chunk -> {
+                joinChunk(run, chunk, startedAt, stats);
+                touch(claimed);
+            });
+            if (rejected > 0) {
+                log.warn("{} unreadable records in settlement file {}", rejected, file.path().getFileName());
+            }
+            reportUnsettled(run, startedAt, stats);
+
+            run.setStatus(ReconciliationRun.RunStatus.COMPLETED);
+            moveTo(claimed, "processed");
+        } catch (Exception e) {
+            log.error("Reconciliation of {} failed", file.path().getFileName(), e);
+            run.setStatus(ReconciliationRun.RunStatus.FAILED);
+            run.setErrorMessage(e.getMessage() != null && e.getMessage().length() > 1000
+                    ? e.getMessage().substring(0, 1000) : e.getMessage());
+            moveTo(claimed, "failed");
+        }
+
+        run.setSettlementRecords(stats.records);
+        run.setMatchedRecords(stats.matched);
+        run.setDiscrepancies(stats.discrepancies);
+        run.setFixesApplied(stats.fixes);
+        run.setFinishedAt(LocalDateTime.now());
+        sample.stop(meterRegistry.timer("payment.reconciliation.run",
+                "provider", file.provider().name(), "status", run.getStatus().name()));
+
+        log.info("Reconciliation {} of {} {}: {} records, {} matched, {} discrepancies, {} fixed",
+                run.getStatus(), file.provider(), file.settlementDate(),
+                stats.records, stats.matched, stats.discrepancies, stats.fixes);
+        return runRepository.save(run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.shutdown();
+    }
+
+    // Private helper methods
+    private void joinChunk(ReconciliationRun run, List<SettlementRecord> chunk,
+                           LocalDateTime startedAt, RunStats stats) {
+        Map<String, LedgerRow> ledger = new HashMap<>(chunk.size() * 2);
+        for (LedgerRow row : findByExternalIds(chunk)) {
+            ledger.put(row.externalTransactionId(), row);
+        }
+
+        List<Finding> findings = new ArrayList<>();
+        List<UUID> matched = new ArrayList<>(chunk.size());
+        for (SettlementRecord record : chunk) {
+            LedgerRow row = ledger.get(record.externalTransactionId());
+            if (row == null) {
+                if (record.status() != SettlementRecord.Status.FAILED) {
+                    findings.add(new Finding(ReconciliationDiscrepancy.DiscrepancyType.MISSING_IN_LEDGER, record, null, false));
+                }
+                continue;
+            }
+            if (row.provider() != run.getProvider()) {
+                findings.add(new Finding(ReconciliationDiscrepancy.DiscrepancyType.PROVIDER_MISMATCH, record, row, false));
+                continue;
+            }
+            matched.add(row.id());
+            boolean amountMismatch = record.amount().subtract(row.amount()).abs().compareTo(amountTolerance) > 0;
+            boolean currencyMismatch = record.currency() != null && !record.currency().equals(row.currency());
+            if (amountMismatch) {
+                findings.add(new Finding(ReconciliationDiscrepancy.DiscrepancyType.AMOUNT_MISMATCH, record, row, false));
+            }
+            if (currencyMismatch) {
+                findings.add(new Finding(ReconciliationDiscrepancy.DiscrepancyType.CURRENCY_MISMATCH, record, row, false));
+            }
+            if (!isConsistent(record.status(), row.status())) {
+                // A status is only corrected when it is the record's only difference
+                findings.add(new Finding(ReconciliationDiscrepancy.DiscrepancyType.STATUS_MISMATCH, record, row,
+                        !amountMismatch && !currencyMismatch));
+            }
+        }
+
+        // Fixes go first, one transaction each, so one failing payment cannot block the chunk
+        List<Object[]> discrepancies = new ArrayList<>(findings.size());
+        for (Finding finding : findings) {
+            PaymentTransaction.PaymentStatus fixed = finding.fixable()
+                    ? applyFix(run, finding.record(), finding.row())
+                    : null;
+            if (fixed != null) {
+                stats.fixes++;
+            }
+            discrepancies.add(discrepancyRow(run.getId(), finding.type(), finding.record(), finding.row(), fixed));
+            meterRegistry.counter("payment.reconciliation.discrepancies",
+                    "provider", run.getProvider().name(), "type", finding.type().name()).increment();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!discrepancies.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_DISCREPANCY_SQL, discrepancies, DISCREPANCY_TYPES);
+            }
+            if (!matched.isEmpty()) {
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(MARK_RECONCILED_SQL);
+                    statement.setTimestamp(1, Timestamp.valueOf(startedAt));
+                    statement.setArray(2, connection.createArrayOf("uuid", matched.toArray()));
+                    return statement;
+                });
+            }
+        });
+
+        stats.records += chunk.size();
+        stats.matched += matched.size();
+        stats.discrepancies += discrepancies.size();
+        meterRegistry.counter("payment.reconciliation.records", "provider", run.getProvider().name())
+                .increment(chunk.size());
+    }
+
+    /**
+     * Report the provider's succeeded transactions for the date that no settlement record matched
+     */
+    private void reportUnsettled(ReconciliationRun run, LocalDateTime startedAt, RunStats stats) {
+        LocalDateTime from = run.getSettlementDate().minusDays(settlementLagDays).atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        LocalDateTime afterProcessedAt = from;
+        UUID afterId = MIN_UUID;
+
+        while (true) {
+            List<LedgerRow> rows = findUnsettled(run.getProvider(), from, to, startedAt, afterProcessedAt, afterId);
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<Object[]> discrepancies = new ArrayList<>(rows.size());
+            for (LedgerRow row : rows) {
+                discrepancies.add(discrepancyRow(run.getId(),
+                        ReconciliationDiscrepancy.DiscrepancyType.MISSING_IN_SETTLEMENT, null, row, null));
+            }
+            jdbcTemplate.batchUpdate(INSERT_DISCREPANCY_SQL, discrepancies, DISCREPANCY_TYPES);
+            stats.discrepancies += discrepancies.size();
+            meterRegistry.counter("payment.reconciliation.discrepancies", "provider", run.getProvider().name(),
+                    "type", ReconciliationDiscrepancy.DiscrepancyType.MISSING_IN_SETTLEMENT.name())
+                    .increment(discrepancies.size());
+
+            LedgerRow last = rows.get(rows.size() - 1);
+            afterProcessedAt = last.processedAt();
+            afterId = last.id();
+            if (rows.size() < chunkSize) {
+                return;
+            }
+        }
+    }
+
+    private List<LedgerRow> findByExternalIds(List<SettlementRecord> chunk) {
+        String[] externalIds = new String[chunk.size()];
+        for (int i = 0; i < externalIds.length; i++) {
+            externalIds[i] = chunk.get(i).externalTransactionId();
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_BY_EXTERNAL_IDS_SQL);
+            Array ids = connection.createArrayOf("varchar", externalIds);
+            statement.setArray(1, ids);
+            return statement;
+        }, (rs, rowNum) -> ledgerRow(rs, false));
+    }
+
+    private List<LedgerRow> findUnsettled(PaymentTransaction.PaymentProvider provider,
+                                          LocalDateTime from, LocalDateTime to, LocalDateTime startedAt,
+                                          LocalDateTime afterProcessedAt, UUID afterId) {
+        return jdbcTemplate.query(FIND_UNSETTLED_SQL,
+                (rs, rowNum) -> ledgerRow(rs, true),
+                provider.name(), Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(startedAt),
+                Timestamp.valueOf(afterProcessedAt), afterId, chunkSize);
+    }
+
+    private static LedgerRow ledgerRow(ResultSet rs, boolean withProcessedAt) throws SQLException {
+        return new LedgerRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("external_transaction_id"),
+                PaymentTransaction.PaymentProvider.valueOf(rs.getString("payment_provider")),
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                PaymentTransaction.PaymentStatus.valueOf(rs.getString("status")),
+                withProcessedAt ? rs.getTimestamp("processed_at").toLocalDateTime() : null);
+    }
+
+    private static boolean isConsistent(SettlementRecord.Status settlement, PaymentTransaction.PaymentStatus payment) {
+        return switch (settlement) {
+            case SETTLED -> SETTLED_STATUSES.contains(payment);
+            case REFUNDED -> payment == PaymentTransaction.PaymentStatus.REFUNDED
+                    || payment == PaymentTransaction.PaymentStatus.PARTIALLY_REFUNDED;
+            case FAILED -> payment == PaymentTransaction.PaymentStatus.FAILED
+                    || payment == PaymentTransaction.PaymentStatus.CANCELLED
+                    || payment == PaymentTransaction.PaymentStatus.EXPIRED;
+            case DISPUTED -> payment == PaymentTransaction.PaymentStatus.DISPUTED;
+            case UNKNOWN -> true;
+        };
+    }
+
+    /**
+     * The status the payment can safely be moved to, or null when a person has to decide
+     */
+    private static PaymentTransaction.PaymentStatus fixFor(SettlementRecord.Status settlement,
+                                                           PaymentTransaction.PaymentStatus payment) {
+        if (OPEN_STATUSES.contains(payment)) {
+            return switch (settlement) {
+                case SETTLED -> PaymentTransaction.PaymentStatus.SUCCEEDED;
+                case FAILED -> PaymentTransaction.PaymentStatus.FAILED;
+                default -> null;
+            };
+        }
+        if (payment == PaymentTransaction.PaymentStatus.SUCCEEDED && settlement == SettlementRecord.Status.DISPUTED) {
+            return PaymentTransaction.PaymentStatus.DISPUTED;
+        }
+        return null;
+    }
+
+    private PaymentTransaction.PaymentStatus applyFix(ReconciliationRun run, SettlementRecord record, LedgerRow row) {
+        PaymentTransaction.PaymentStatus target = autoFix ? fixFor(record.status(), row.status()) : null;
+        if (target == null) {
+            return null;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> paymentService.updatePaymentStatus(
+                    row.id(), target, "Reconciliation run " + run.getId()));
+            return target;
+        } catch (Exception e) {
+            log.warn("Reconciliation could not move transaction {} to {}: {}", row.id(), target, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Object[] discrepancyRow(UUID runId, ReconciliationDiscrepancy.DiscrepancyType type,
+                                           SettlementRecord record, LedgerRow row,
+                                           PaymentTransaction.PaymentStatus fixed) {
+        return new Object[] {
+                runId,
+                type.name(),
+                record != null ? record.externalTransactionId() : row.externalTransactionId(),
+                row != null ? row.id() : null,
+                row != null ? row.amount() : null,
+                record != null ? record.amount() : null,
+                row != null ? row.currency() : null,
+                record != null ? record.currency() : null,
+                row != null ? row.status().name() : null,
+                record != null ? record.rawStatus() : null,
+                fixed != null ? fixed.name() : null,
+                Timestamp.valueOf(LocalDateTime.now())
+        };
+    }
+
+    /**
+     * Move the file into the inbox's processing directory; only one instance can win the move
+     */
+    private Path claim(Path file) {
+        try {
+            Path processing = Files.createDirectories(file.resolveSibling("processing"));
+            Path claimed = Files.move(file, processing.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+            touch(claimed);
+            return claimed;
+        } catch (NoSuchFileException e) {
+            log.debug("Settlement file {} already claimed", file.getFileName());
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not claim settlement file " + file, e);
+        }
+    }
+
+    /**
+     * Renew the claim; the file's modification time is its lease
+     */
+    private void touch(Path claimed) {
+        try {
+            Files.setLastModifiedTime(claimed, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.warn("Could not renew the claim on settlement file {}: {}", claimed.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Return claims whose lease ran out (the instance died mid-run) to the inbox and fail their runs
+     */
+    private void recoverStaleClaims(Path inbox) {
+        Path processing = inbox.resolve("processing");
+        if (!Files.isDirectory(processing)) {
+            return;
+        }
+        FileTime expiry = FileTime.from(Instant.now().minus(claimLease));
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(processing, Files::isRegularFile)) {
+            for (Path entry : entries) {
+                Path original = inbox.resolve(entry.getFileName());
+                try {
+                    if (Files.getLastModifiedTime(entry).compareTo(expiry) >= 0) {
+                        continue;
+                    }
+                    Files.move(entry, original, StandardCopyOption.ATOMIC_MOVE);
+                } catch (NoSuchFileException e) {
+                    continue;           // Finished or recovered by another instance meanwhile
+                } catch (IOException e) {
+                    log.error("Could not recover stale settlement claim {}", entry.getFileName(), e);
+                    continue;
+                }
+                log.warn("Claim on settlement file {} expired, returned it to the inbox", entry.getFileName());
+                failAbandonedRuns(original);
+            }
+        } catch (IOException e) {
+            log.error("Could not list settlement claims in {}", processing, e);
+        }
+    }
+
+    private void failAbandonedRuns(Path file) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ReconciliationRun> abandoned = runRepository.findBySourceFileAndStatus(
+                    file.toString(), ReconciliationRun.RunStatus.RUNNING);
+            for (ReconciliationRun run : abandoned) {
+                run.setStatus(ReconciliationRun.RunStatus.FAILED);
+                run.setErrorMessage("Claim on the settlement file expired before the run finished");
+                run.setFinishedAt(LocalDateTime.now());
+            }
+            runRepository.saveAll(abandoned);
+        });
+    }
+
+    /**
+     * Inside the caller's transaction: earlier failed runs of this provider and date are
+     * replaced by the new run. Their partial discrepancies are marked superseded rather than
+     * deleted; some are the only record of a status the engine corrected automatically.
+     */
+    private void supersedeFailedRuns(SettlementFile file, ReconciliationRun supersededBy) {
+        List<ReconciliationRun> failed = runRepository.findByProviderAndSettlementDateAndStatus(
+                file.provider(), file.settlementDate(), ReconciliationRun.RunStatus.FAILED);
+        if (failed.isEmpty()) {
+            return;
+        }
+        int marked = discrepancyRepository.markSuperseded(
+                failed.stream().map(ReconciliationRun::getId).toList(), supersededBy.getId());
+        failed.forEach(run -> run.setStatus(ReconciliationRun.RunStatus.SUPERSEDED));
+        runRepository.saveAll(failed);
+        log.info("Superseded {} failed reconciliation runs of {} {}, marked {} discrepancies superseded",
+                failed.size(), file.provider(), file.settlementDate(), marked);
+    }
+
+    private void moveTo(Path claimed, String directory) {
+        try {
+            Path target = Files.createDirectories(claimed.getParent().resolveSibling(directory));
+            Files.move(claimed, target.resolve(claimed.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Could not move settlement file {} to {}", claimed, directory, e);
+        }
+    }
+
+    /**
+     * Settlement file for one provider and date
+     */
+    public record SettlementFile(
+            PaymentTransaction.PaymentProvider provider,
+            LocalDate settlementDate,
+            Path path
+    ) {
+        static Optional<SettlementFile> parse(Path path) {
+            String name = path.getFileName().toString();
+            int separator = name.lastIndexOf('_');
+            int extension = name.indexOf('.', separator + 1);
+            if (separator <= 0 || extension < 0) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new SettlementFile(
+                        PaymentTransaction.PaymentProvider.valueOf(name.substring(0, separator).toUpperCase(Locale.ROOT)),
+                        LocalDate.parse(name.substring(separator + 1, extension)),
+                        path));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private record LedgerRow(
+            UUID id,
+            String externalTransactionId,
+            PaymentTransaction.PaymentProvider provider,
+            BigDecimal amount,
+            String currency,
+            PaymentTransaction.PaymentStatus status,
+            LocalDateTime processedAt
+    ) {}
+
+    private record Finding(
+            ReconciliationDiscrepancy.DiscrepancyType type,
+            SettlementRecord record,
+            LedgerRow row,
+            boolean fixable
+    ) {}
+
+    private static final class RunStats {
+        private long records;
+        private long matched;
+        private long discrepancies;
+        private long fixes;
+    }
+}
@@ -0,0 +1,305 @@
+package com.woltaxi.payment.service.reconciliation;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Settlement File Reader
+ *
+ * Streams a provider settlement file in fixed-size chunks of
+ * {@link SettlementRecord}s. The file is memory-mapped one window at a time,
+ * so its size never shows up on the heap: CSV lines are scanned straight out
+ * of the mapped window, JSON (an array of records or one record per line) is
+ * parsed incrementally from it. Only the current chunk is held in memory.
+ *
+ * CSV files need a header row and one record per line.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+public class SettlementFileReader {
+
+    private final ObjectReader jsonReader;
+
+    @Value("${reconciliation.reader.map-window-bytes:67108864}")
+    private int mapWindowBytes;
+
+    @Value("${reconciliation.columns.external-id:external_transaction_id}")
+    private String externalIdColumn;
+
+    @Value("${reconciliation.columns.amount:amount}")
+    private String amountColumn;
+
+    @Value("${reconciliation.columns.currency:currency}")
+    private String currencyColumn;
+
+    @Value("${reconciliation.columns.status:status}")
+    private String statusColumn;
+
+    public SettlementFileReader(ObjectMapper objectMapper) {
+        this.jsonReader = objectMapper.readerFor(JsonNode.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    /**
+     * Read the whole file, handing records to the consumer in chunks of at most chunkSize
+     *
+     * @return number of lines or objects that could not be turned into a record
+     */
+    public long read(Path file, int chunkSize, Consumer<List<SettlementRecord>> chunkConsumer) throws IOException {
+        Chunker chunker = new Chunker(chunkSize, chunkConsumer);
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            readCsv(file, chunker);
+        } else if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            readJson(file, chunker);
+        } else {
+            throw new IOException("Unsupported settlement file format: " + file.getFileName());
+        }
+        chunker.flush();
+        return chunker.rejected;
+    }
+
+    // Private helper methods
+    private void readCsv(Path file, Chunker chunker) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            CsvLayout layout = null;
+            byte[] line = new byte[1024];
+            List<String> fields = new ArrayList<>();
+
+            while (position < size) {
+                int length = (int) Math.min(mapWindowBytes, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int lineStart = 0;
+                for (int i = 0; i <= length; i++) {
+                    boolean endOfLine = i < length ? window.get(i) == '\n' : lastWindow && lineStart < length;
+                    if (!endOfLine) {
+                        continue;
+                    }
+                    int lineLength = i - lineStart;
+                    if (lineLength > 0 && window.get(lineStart + lineLength - 1) == '\r') {
+                        lineLength--;
+                    }
+                    if (lineLength > 0) {
+                        if (line.length < lineLength) {
+                            line = new byte[Math.max(lineLength, line.length * 2)];
+                        }
+                        window.get(lineStart, line, 0, lineLength);
+                        splitCsv(new String(line, 0, lineLength, StandardCharsets.UTF_8), fields);
+                        if (layout == null) {
+                            layout = csvLayout(fields);
+                        } else {
+                            chunker.accept(toRecord(field(fields, layout.externalId()), field(fields, layout.amount()),
+                                    field(fields, layout.currency()), field(fields, layout.status())));
+                        }
+                    }
+                    lineStart = i + 1;
+                }
+
+                if (lastWindow) {
+                    break;
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Settlement line longer than the map window at offset " + position);
+                }
+                // The next window starts at the first incomplete line
+                position += lineStart;
+            }
+        }
+    }
+
+    private void readJson(Path file, Chunker chunker) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             MappingIterator<JsonNode> nodes = jsonReader.readValues(new MappedInputStream(channel, mapWindowBytes))) {
+            while (nodes.hasNextValue()) {
+                JsonNode node = nodes.nextValue();
+                chunker.accept(toRecord(
+                        text(node, externalIdColumn),
+                        node.get(amountColumn) != null && node.get(amountColumn).isNumber()
+                                ? node.get(amountColumn).decimalValue().toPlainString()
+                                : text(node, amountColumn),
+                        text(node, currencyColumn),
+                        text(node, statusColumn)));
+            }
+        }
+    }
+
+    private SettlementRecord toRecord(String externalId, String amount, String currency, String status) {
+        if (externalId == null || externalId.isBlank() || amount == null || amount.isBlank()) {
+            return null;
+        }
+        try {
+            return new SettlementRecord(
+                    externalId.trim(),
+                    new BigDecimal(amount.trim()),
+                    currency != null ? currency.trim().toUpperCase(Locale.ROOT) : null,
+                    SettlementRecord.Status.parse(status),
+                    status);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private CsvLayout csvLayout(List<String> header) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a byte order mark
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        Integer externalId = columns.get(externalIdColumn.toLowerCase(Locale.ROOT));
+        Integer amount = columns.get(amountColumn.toLowerCase(Locale.ROOT));
+        if (externalId == null || amount == null) {
+            throw new IOException("Settlement file header lacks " + externalIdColumn + " or " + amountColumn);
+        }
+        return new CsvLayout(externalId, amount,
+                columns.getOrDefault(currencyColumn.toLowerCase(Locale.ROOT), -1),
+                columns.getOrDefault(statusColumn.toLowerCase(Locale.ROOT), -1));
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index >= 0 && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    /**
+     * Split one CSV line into fields, honouring double-quoted fields and "" escapes
+     */
+    private static void splitCsv(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+
+    private record CsvLayout(int externalId, int amount, int currency, int status) {}
+
+    private static final class Chunker {
+        private final int chunkSize;
+        private final Consumer<List<SettlementRecord>> consumer;
+        private List<SettlementRecord> chunk;
+        private long rejected;
+
+        Chunker(int chunkSize, Consumer<List<SettlementRecord>> consumer) {
+            this.chunkSize = chunkSize;
+            this.consumer = consumer;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        void accept(SettlementRecord record) {
+            if (record == null) {
+                rejected++;
+                return;
+            }
+            chunk.add(record);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+    }
+
+    /**
+     * Sequential input stream over a file, mapped one window at a time
+     */
+    private static final class MappedInputStream extends InputStream {
+        private final FileChannel channel;
+        private final int windowBytes;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel channel, int windowBytes) throws IOException {
+            this.channel = channel;
+            this.windowBytes = windowBytes;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextWindow() ? window.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextWindow()) {
+                return -1;
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(buffer, offset, count);
+            return count;
+        }
+
+        private boolean nextWindow() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            if (window != null) {
+                windowStart += window.capacity();
+            }
+            if (windowStart >= size) {
+                return false;
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                    Math.min(windowBytes, size - windowStart));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.woltaxi.payment.service.reconciliation;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Settlement Record
+ *
+ * One line of a provider settlement file, normalised to the fields the
+ * reconciliation compares.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public record SettlementRecord(
+        String externalTransactionId,
+        BigDecimal amount,
+        String currency,
+        Status status,
+        String rawStatus
+) {
+
+    public enum Status {
+        SETTLED,
+        REFUNDED,
+        FAILED,
+        DISPUTED,
+        UNKNOWN;
+
+        static Status parse(String raw) {
+            if (raw == null) {
+                return UNKNOWN;
+            }
+            return switch (raw.trim().toUpperCase(Locale.ROOT)) {
+                case "SETTLED", "SUCCEEDED", "SUCCESS", "PAID", "CAPTURED", "COMPLETED" -> SETTLED;
+                case "REFUNDED", "PARTIALLY_REFUNDED", "REFUND" -> REFUNDED;
+                case "FAILED", "DECLINED", "REJECTED", "REVERSED", "CANCELLED", "CANCELED", "VOIDED" -> FAILED;
+                case "DISPUTED", "CHARGEBACK", "CHARGED_BACK" -> DISPUTED;
+                default -> UNKNOWN;
+            };
+        }
+    }
+}
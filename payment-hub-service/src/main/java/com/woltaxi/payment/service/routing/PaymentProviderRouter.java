@@ -0,0 +1,277 @@
+package com.woltaxi.payment.service.routing;
+
+import com.woltaxi.payment.dto.request.PaymentRequest;
+import com.woltaxi.payment.dto.response.PaymentResponse;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.exception.PaymentProcessingException;
+import com.woltaxi.payment.service.provider.PaymentProviderFactory;
+import com.woltaxi.payment.service.provider.PaymentProviderService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment Provider Router
+ *
+ * Chooses the provider for each transaction instead of always using the one
+ * the client picked. Eligible providers are ranked by real-time success rate,
+ * p95 latency, processing fee and native currency support; providers whose
+ * circuit breaker is open are skipped, and a call rejected by an open breaker
+ * fails over to the next ranked provider.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class PaymentProviderRouter {
+
+    private static final String CIRCUIT_BREAKER_CONFIG = "payment-provider-routing";
+    private static final List<PaymentTransaction.PaymentProvider> DEFAULT_CANDIDATES = List.of(
+            PaymentTransaction.PaymentProvider.STRIPE,
+            PaymentTransaction.PaymentProvider.ADYEN,
+            PaymentTransaction.PaymentProvider.IYZICO,
+            PaymentTransaction.PaymentProvider.PAYTR,
+            PaymentTransaction.PaymentProvider.BRAINTREE,
+            PaymentTransaction.PaymentProvider.SQUARE);
+
+    private final PaymentProviderFactory providerFactory;
+    private final ProviderHealthTracker healthTracker;
+    private final MeterRegistry meterRegistry;
+    private final List<PaymentTransaction.PaymentProvider> candidates;
+    private final Map<PaymentTransaction.PaymentProvider, CircuitBreaker> circuitBreakers;
+
+    @Value("${payment.routing.enabled:true}")
+    private boolean routingEnabled;
+
+    @Value("${payment.routing.latency-ceiling:PT3S}")
+    private Duration latencyCeiling;
+
+    @Value("${payment.routing.weights.success-rate:0.5}")
+    private double successRateWeight;
+
+    @Value("${payment.routing.weights.latency:0.2}")
+    private double latencyWeight;
+
+    @Value("${payment.routing.weights.fee:0.2}")
+    private double feeWeight;
+
+    @Value("${payment.routing.weights.currency:0.1}")
+    private double currencyWeight;
+
+    @Value("${payment.routing.preference-bonus:0.05}")
+    private double preferenceBonus;
+
+    @Value("${payment.routing.prior-success-rate:0.9}")
+    private double priorSuccessRate;
+
+    @Value("${payment.routing.prior-weight:20}")
+    private double priorWeight;
+
+    public PaymentProviderRouter(PaymentProviderFactory providerFactory,
+                                 ProviderHealthTracker healthTracker,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 MeterRegistry meterRegistry,
+                                 Environment environment) {
+        this.providerFactory = providerFactory;
+        this.healthTracker = healthTracker;
+        this.meterRegistry = meterRegistry;
+        this.candidates = Binder.get(environment)
+                .bind("payment.routing.candidates", Bindable.listOf(PaymentTransaction.PaymentProvider.class))
+                .orElse(DEFAULT_CANDIDATES);
+
+        Map<PaymentTransaction.PaymentProvider, CircuitBreaker> breakers =
+                new EnumMap<>(PaymentTransaction.PaymentProvider.class);
+        for (PaymentTransaction.PaymentProvider provider : PaymentTransaction.PaymentProvider.values()) {
+            breakers.put(provider, circuitBreakerRegistry.circuitBreaker(
+                    "payment-provider-" + provider.name().toLowerCase().replace('_', '-'), CIRCUIT_BREAKER_CONFIG));
+        }
+        this.circuitBreakers = breakers;
+    }
+
+    /**
+     * Rank providers for a payment; the first entry is the primary, the rest are failover targets.
+     * Requests bound to a provider (wallet tokens, stored payment methods) are never rerouted.
+     */
+    public List<PaymentTransaction.PaymentProvider> route(PaymentRequest request) {
+        PaymentTransaction.PaymentProvider preferred = request.getPaymentProvider();
+        if (!isRoutable(request)) {
+            return List.of(preferred);
+        }
+
+        List<ScoredProvider> eligible = new ArrayList<>(candidates.size());
+        BigDecimal maxFee = BigDecimal.ZERO;
+        for (PaymentTransaction.PaymentProvider provider : candidates) {
+            if (isOpen(provider)) {
+                continue;
+            }
+            PaymentProviderService providerService = providerOrNull(provider);
+            if (providerService == null
+                    || !providerService.getSupportedPaymentMethods().contains(request.getPaymentMethod())) {
+                continue;
+            }
+            List<String> currencies = providerService.getSupportedCurrencies();
+            boolean nativeCurrency = currencies.isEmpty() || currencies.contains(request.getCurrency());
+            BigDecimal fee = processingFee(providerService, request);
+            maxFee = maxFee.max(fee);
+            eligible.add(new ScoredProvider(provider, nativeCurrency, fee, 0.0));
+        }
+        if (eligible.isEmpty()) {
+            // Let the preferred provider's breaker produce the error
+            return List.of(preferred);
+        }
+
+        List<ScoredProvider> scored = new ArrayList<>(eligible.size());
+        for (ScoredProvider candidate : eligible) {
+            scored.add(candidate.withScore(score(candidate, maxFee, preferred)));
+        }
+        scored.sort(Comparator.comparingDouble(ScoredProvider::score).reversed());
+
+        List<PaymentTransaction.PaymentProvider> route = scored.stream().map(ScoredProvider::provider).toList();
+        if (route.get(0) != preferred) {
+            log.debug("Routing payment for user {} to {} instead of {}", request.getUserId(), route.get(0), preferred);
+        }
+        return route;
+    }
+
+    /**
+     * Send the payment to the first provider on the route whose breaker admits the call.
+     * Only calls rejected by an open breaker fail over: once a provider has been
+     * called its outcome is unknown on error, so the error is propagated instead.
+     */
+    public RoutedResponse process(List<PaymentTransaction.PaymentProvider> route,
+                                  PaymentRequest request,
+                                  PaymentTransaction transaction) {
+        CallNotPermittedException lastRejection = null;
+        for (PaymentTransaction.PaymentProvider provider : route) {
+            PaymentProviderService providerService = providerFactory.getProvider(provider);
+            if (lastRejection != null && !canFailOver(providerService, request)) {
+                continue;
+            }
+
+            PaymentRequest routedRequest = provider == request.getPaymentProvider()
+                    ? request : request.toBuilder().paymentProvider(provider).build();
+            long start = System.nanoTime();
+            try {
+                PaymentResponse response = circuitBreakers.get(provider).executeSupplier(
+                        () -> providerService.processPayment(routedRequest, transaction));
+                long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+                if (response.isFailed()) {
+                    healthTracker.recordDecline(provider, latencyMillis);
+                } else {
+                    healthTracker.recordSuccess(provider, latencyMillis);
+                }
+                return new RoutedResponse(provider, response);
+            } catch (CallNotPermittedException e) {
+                log.warn("Circuit breaker open for provider {}, failing over", provider);
+                meterRegistry.counter("payment.routing.failover", "from", provider.name()).increment();
+                lastRejection = e;
+            } catch (RuntimeException e) {
+                healthTracker.recordError(provider, (System.nanoTime() - start) / 1_000_000);
+                throw e;
+            }
+        }
+        throw new PaymentProcessingException("No payment provider available for this payment", lastRejection);
+    }
+
+    // Private helper methods
+    private boolean isRoutable(PaymentRequest request) {
+        return routingEnabled
+                && request.getPaymentProvider() != null
+                && candidates.contains(request.getPaymentProvider())
+                && !request.isDigitalWalletPayment()
+                && !Boolean.TRUE.equals(request.getUseStoredPaymentMethod())
+                // Tokens, customer ids or a card to be vaulted only make sense to the chosen provider
+                && !Boolean.TRUE.equals(request.getSavePaymentMethod())
+                && (request.getProviderSpecificData() == null || request.getProviderSpecificData().isEmpty());
+    }
+
+    private boolean isOpen(PaymentTransaction.PaymentProvider provider) {
+        CircuitBreaker.State state = circuitBreakers.get(provider).getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    private boolean canFailOver(PaymentProviderService providerService, PaymentRequest request) {
+        // The transaction is already priced in this currency, so failover targets must settle it natively
+        List<String> currencies = providerService.getSupportedCurrencies();
+        return providerService.getSupportedPaymentMethods().contains(request.getPaymentMethod())
+                && (currencies.isEmpty() || currencies.contains(request.getCurrency()));
+    }
+
+    private double score(ScoredProvider candidate, BigDecimal maxFee, PaymentTransaction.PaymentProvider preferred) {
+        ProviderHealthWindow.HealthSnapshot health = healthTracker.snapshot(candidate.provider());
+
+        // Smoothed towards the prior so a provider with few samples is neither ideal nor written off
+        double successRate = (health.successes() + priorSuccessRate * priorWeight) / (health.total() + priorWeight);
+        double latency = health.p95LatencyMillis() < 0 ? 0.5
+                : 1.0 - Math.min(1.0, (double) health.p95LatencyMillis() / latencyCeiling.toMillis());
+        double fee = maxFee.signum() == 0 ? 1.0
+                : 1.0 - candidate.fee().doubleValue() / maxFee.doubleValue();
+
+        double score = successRateWeight * successRate
+                + latencyWeight * latency
+                + feeWeight * fee
+                + currencyWeight * (candidate.nativeCurrency() ? 1.0 : 0.0);
+        if (candidate.provider() == preferred) {
+            score += preferenceBonus;
+        }
+        if (circuitBreakers.get(candidate.provider()).getState() == CircuitBreaker.State.HALF_OPEN) {
+            score *= 0.5;
+        }
+        return score;
+    }
+
+    private BigDecimal processingFee(PaymentProviderService providerService, PaymentRequest request) {
+        try {
+            BigDecimal fee = providerService.calculateProcessingFee(
+                    request.getAmount(), request.getCurrency(), request.getPaymentMethod());
+            return fee != null ? fee : BigDecimal.ZERO;
+        } catch (Exception e) {
+            log.warn("Error calculating processing fee for routing: {}", e.getMessage());
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private PaymentProviderService providerOrNull(PaymentTransaction.PaymentProvider provider) {
+        try {
+            return providerFactory.getProvider(provider);
+        } catch (Exception e) {
+            log.debug("Provider {} not available for routing: {}", provider, e.getMessage());
+            return null;
+        }
+    }
+
+    private record ScoredProvider(
+            PaymentTransaction.PaymentProvider provider,
+            boolean nativeCurrency,
+            BigDecimal fee,
+            double score
+    ) {
+        ScoredProvider withScore(double newScore) {
+            return new ScoredProvider(provider, nativeCurrency, fee, newScore);
+        }
+    }
+
+    /**
+     * Provider response together with the provider that actually handled the payment
+     */
+    public record RoutedResponse(
+            PaymentTransaction.PaymentProvider provider,
+            PaymentResponse response
+    ) {}
+}
@@ -0,0 +1,71 @@
+package com.woltaxi.payment.service.routing;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Provider Health Tracker
+ *
+ * Real-time success rate and latency per payment provider over a sliding
+ * window. The provider map is built once and never mutated, so recording
+ * and reading are lock-free on the payment path.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+public class ProviderHealthTracker {
+
+    private final Map<PaymentTransaction.PaymentProvider, ProviderHealthWindow> windows;
+
+    public ProviderHealthTracker(MeterRegistry meterRegistry,
+                                 @Value("${payment.routing.health-window:PT5M}") Duration window,
+                                 @Value("${payment.routing.health-buckets:30}") int buckets) {
+        Map<PaymentTransaction.PaymentProvider, ProviderHealthWindow> byProvider =
+                new EnumMap<>(PaymentTransaction.PaymentProvider.class);
+        for (PaymentTransaction.PaymentProvider provider : PaymentTransaction.PaymentProvider.values()) {
+            ProviderHealthWindow health = new ProviderHealthWindow(window.toMillis(), buckets);
+            byProvider.put(provider, health);
+
+            Gauge.builder("payment.routing.provider.success.rate", health, h -> {
+                        ProviderHealthWindow.HealthSnapshot snapshot = h.snapshot();
+                        return snapshot.total() == 0 ? Double.NaN
+                                : (double) snapshot.successes() / snapshot.total();
+                    })
+                    .tag("provider", provider.name())
+                    .register(meterRegistry);
+            Gauge.builder("payment.routing.provider.latency.p95", health, h -> {
+                        long p95 = h.snapshot().p95LatencyMillis();
+                        return p95 < 0 ? Double.NaN : p95;
+                    })
+                    .tag("provider", provider.name())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        this.windows = Collections.unmodifiableMap(byProvider);
+    }
+
+    public void recordSuccess(PaymentTransaction.PaymentProvider provider, long latencyMillis) {
+        windows.get(provider).record(ProviderHealthWindow.Outcome.SUCCEEDED, latencyMillis);
+    }
+
+    public void recordDecline(PaymentTransaction.PaymentProvider provider, long latencyMillis) {
+        windows.get(provider).record(ProviderHealthWindow.Outcome.DECLINED, latencyMillis);
+    }
+
+    public void recordError(PaymentTransaction.PaymentProvider provider, long latencyMillis) {
+        windows.get(provider).record(ProviderHealthWindow.Outcome.ERROR, latencyMillis);
+    }
+
+    ProviderHealthWindow.HealthSnapshot snapshot(PaymentTransaction.PaymentProvider provider) {
+        return windows.get(provider).snapshot();
+    }
+}
@@ -0,0 +1,138 @@
+package com.woltaxi.payment.service.routing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Provider Health Window
+ *
+ * Lock-free time-bucketed sliding window of provider call outcomes and a
+ * coarse latency histogram. Writers only touch atomics of the current
+ * bucket; a bucket is recycled by CAS-swapping in a fresh one when its
+ * epoch has passed, so neither recording nor reading ever blocks.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+final class ProviderHealthWindow {
+
+    /** Upper bounds of the latency histogram buckets in milliseconds */
+    static final long[] LATENCY_BOUNDS_MS = {
+            25, 50, 100, 200, 300, 500, 750, 1_000, 1_500, 2_000, 3_000, 5_000, 10_000, Long.MAX_VALUE
+    };
+
+    private final long bucketMillis;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    ProviderHealthWindow(long windowMillis, int bucketCount) {
+        this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    void record(Outcome outcome, long latencyMillis) {
+        Bucket bucket = currentBucket(System.currentTimeMillis() / bucketMillis);
+        switch (outcome) {
+            case SUCCEEDED -> bucket.successes.increment();
+            case DECLINED -> bucket.declines.increment();
+            case ERROR -> bucket.errors.increment();
+        }
+        bucket.latencies.incrementAndGet(latencyIndex(latencyMillis));
+    }
+
+    HealthSnapshot snapshot() {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        long oldest = epoch - buckets.length() + 1;
+        long successes = 0;
+        long declines = 0;
+        long errors = 0;
+        long[] latencies = new long[LATENCY_BOUNDS_MS.length];
+
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || bucket.epoch < oldest || bucket.epoch > epoch) {
+                continue;
+            }
+            successes += bucket.successes.sum();
+            declines += bucket.declines.sum();
+            errors += bucket.errors.sum();
+            for (int j = 0; j < latencies.length; j++) {
+                latencies[j] += bucket.latencies.get(j);
+            }
+        }
+        return new HealthSnapshot(successes, declines, errors, percentile(latencies, 0.95));
+    }
+
+    // Private helper methods
+    private Bucket currentBucket(long epoch) {
+        int index = (int) (epoch % buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.epoch == epoch) {
+                return bucket;
+            }
+            // A writer still holding the expired bucket may lose one sample; acceptable for routing stats
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static int latencyIndex(long latencyMillis) {
+        for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) {
+            if (latencyMillis <= LATENCY_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BOUNDS_MS.length - 1;
+    }
+
+    private static long percentile(long[] latencies, double quantile) {
+        long total = 0;
+        for (long count : latencies) {
+            total += count;
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long cumulative = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            cumulative += latencies[i];
+            if (cumulative >= rank) {
+                // The open-ended last bucket reports twice the last finite bound
+                return i < latencies.length - 1 ? LATENCY_BOUNDS_MS[i] : LATENCY_BOUNDS_MS[i - 1] * 2;
+            }
+        }
+        return LATENCY_BOUNDS_MS[LATENCY_BOUNDS_MS.length - 2] * 2;
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder declines = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BOUNDS_MS.length);
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    enum Outcome {
+        SUCCEEDED,          // Provider accepted or authorised the payment
+        DECLINED,           // Provider answered with a decline
+        ERROR               // Call failed or timed out
+    }
+
+    /**
+     * Aggregated health over the window; p95 is -1 without samples
+     */
+    record HealthSnapshot(long successes, long declines, long errors, long p95LatencyMillis) {
+
+        long total() {
+            return successes + declines + errors;
+        }
+    }
+}
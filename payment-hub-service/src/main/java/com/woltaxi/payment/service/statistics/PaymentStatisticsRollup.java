@@ -0,0 +1,308 @@
+package com.woltaxi.payment.service.statistics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.entity.PaymentUserStatisticCounter;
+import com.woltaxi.payment.entity.PaymentUserStatistics;
+import com.woltaxi.payment.event.PaymentStatusChangedEvent;
+import com.woltaxi.payment.repository.PaymentUserStatisticCounterRepository;
+import com.woltaxi.payment.repository.PaymentUserStatisticsRepository;
+import com.woltaxi.payment.service.PaymentService;
+import com.woltaxi.payment.service.currency.FxRateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Payment Statistics Rollup
+ *
+ * Maintains per-user payment statistics incrementally from
+ * {@link PaymentStatusChangedEvent}s, inside the transaction that made the
+ * change. A user's rollup is seeded once from their history the first time
+ * it is touched; after that every read is a primary key lookup plus a few
+ * breakdown rows, with a short-lived Redis copy in front.
+ *
+ * Listeners run before commit, when every change of the transaction has
+ * been flushed, so a seed taken there already reflects all of them. Later
+ * events of the same transaction for a user seeded that way are skipped
+ * rather than applied a second time.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentStatisticsRollup {
+
+    private static final String CACHE_KEY_PREFIX = "payment:stats:";
+    private static final String SEEDED_USERS_KEY = PaymentStatisticsRollup.class.getName() + ".seededUsers";
+    private static final Set<PaymentTransaction.TransactionType> CHARGE_TYPES = EnumSet.of(
+            PaymentTransaction.TransactionType.PAYMENT,
+            PaymentTransaction.TransactionType.SUBSCRIPTION,
+            PaymentTransaction.TransactionType.TOP_UP);
+
+    private final PaymentUserStatisticsRepository statisticsRepository;
+    private final PaymentUserStatisticCounterRepository counterRepository;
+    private final FxRateService fxRateService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payment.statistics.cache-ttl:PT5M}")
+    private Duration cacheTtl;
+
+    @Value("${currency.exchange.base-currency:USD}")
+    private String baseCurrency;
+
+    /**
+     * Apply a status change to the user's rollup before the change commits
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    @Transactional
+    public void onStatusChanged(PaymentStatusChangedEvent event) {
+        UUID userId = event.userId();
+        if (userId == null) {
+            return;
+        }
+        if (seededInThisTransaction(userId)) {
+            return;
+        }
+        if (seed(userId)) {
+            // The seed already reflects this change and every other one of the transaction
+            markSeededInThisTransaction(userId);
+            return;
+        }
+
+        boolean charge = CHARGE_TYPES.contains(event.transactionType());
+        Bucket from = event.isNewTransaction() ? null : bucket(event.oldStatus());
+        Bucket to = bucket(event.newStatus());
+        long[] buckets = new long[Bucket.values().length];
+        if (charge && from != to) {
+            if (from != null) {
+                buckets[from.ordinal()]--;
+            }
+            buckets[to.ordinal()]++;
+        }
+
+        statisticsRepository.applyDelta(userId,
+                charge && event.isNewTransaction() ? 1 : 0,
+                buckets[Bucket.SUCCESSFUL.ordinal()],
+                buckets[Bucket.FAILED.ordinal()],
+                buckets[Bucket.PENDING.ordinal()],
+                charge && event.isFirstRefund() ? 1 : 0,
+                event.occurredAt());
+
+        if (charge) {
+            if (event.isNewTransaction()) {
+                increment(userId, PaymentUserStatisticCounter.Dimension.PROVIDER,
+                        event.paymentProvider().name(), 1, BigDecimal.ZERO);
+                increment(userId, PaymentUserStatisticCounter.Dimension.METHOD,
+                        event.paymentMethod().name(), 1, BigDecimal.ZERO);
+            }
+            applyVolume(userId, PaymentUserStatisticCounter.Dimension.CURRENCY, event, from, to);
+            if (event.refundAmountDelta().signum() > 0) {
+                increment(userId, PaymentUserStatisticCounter.Dimension.REFUND, event.currency(),
+                        event.isFirstRefund() ? 1 : 0, event.refundAmountDelta());
+            }
+        } else if (event.transactionType() == PaymentTransaction.TransactionType.FEE) {
+            applyVolume(userId, PaymentUserStatisticCounter.Dimension.FEE, event, from, to);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evictCached(PaymentStatusChangedEvent event) {
+        if (event.userId() == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(CACHE_KEY_PREFIX + event.userId());
+        } catch (Exception e) {
+            log.warn("Could not evict cached payment statistics for user {}: {}", event.userId(), e.getMessage());
+        }
+    }
+
+    @Transactional
+    public PaymentService.PaymentStatistics getStatistics(UUID userId) {
+        PaymentService.PaymentStatistics cached = readCached(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        seed(userId);
+        PaymentUserStatistics rollup = statisticsRepository.findById(userId)
+                .orElseThrow(() -> new IllegalStateException("Payment statistics missing for user " + userId));
+        PaymentService.PaymentStatistics statistics = toStatistics(rollup, counterRepository.findByUserId(userId));
+        writeCached(userId, statistics);
+        return statistics;
+    }
+
+    // Private helper methods
+    private boolean seed(UUID userId) {
+        if (statisticsRepository.existsById(userId)) {
+            return false;
+        }
+        // Make this transaction's pending changes visible to the history scan
+        statisticsRepository.flush();
+        if (statisticsRepository.seedFromHistory(userId, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        statisticsRepository.seedCountersFromHistory(userId);
+        log.debug("Seeded payment statistics rollup for user {}", userId);
+        return true;
+    }
+
+    private static boolean seededInThisTransaction(UUID userId) {
+        Object seeded = TransactionSynchronizationManager.getResource(SEEDED_USERS_KEY);
+        return seeded instanceof Set<?> users && users.contains(userId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void markSeededInThisTransaction(UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<UUID> seeded = (Set<UUID>) TransactionSynchronizationManager.getResource(SEEDED_USERS_KEY);
+        if (seeded == null) {
+            seeded = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(SEEDED_USERS_KEY, seeded);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SEEDED_USERS_KEY);
+                }
+            });
+        }
+        seeded.add(userId);
+    }
+
+    private void applyVolume(UUID userId, PaymentUserStatisticCounter.Dimension dimension,
+                             PaymentStatusChangedEvent event, Bucket from, Bucket to) {
+        if (to == Bucket.SUCCESSFUL && from != Bucket.SUCCESSFUL) {
+            increment(userId, dimension, event.currency(), 1, event.amount());
+        } else if (from == Bucket.SUCCESSFUL && to != Bucket.SUCCESSFUL) {
+            increment(userId, dimension, event.currency(), -1, event.amount().negate());
+        }
+    }
+
+    private void increment(UUID userId, PaymentUserStatisticCounter.Dimension dimension, String key,
+                           long count, BigDecimal amount) {
+        counterRepository.increment(userId, dimension.name(), key, count, amount);
+    }
+
+    private PaymentService.PaymentStatistics toStatistics(PaymentUserStatistics rollup,
+                                                          List<PaymentUserStatisticCounter> counters) {
+        Map<String, BigDecimal> volumeByCurrency = new TreeMap<>();
+        Map<String, BigDecimal> refundedByCurrency = new TreeMap<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal totalFees = BigDecimal.ZERO;
+        for (PaymentUserStatisticCounter counter : counters) {
+            switch (counter.getDimension()) {
+                case CURRENCY -> {
+                    volumeByCurrency.put(counter.getDimensionKey(), counter.getAmount());
+                    totalAmount = totalAmount.add(toBaseCurrency(counter.getAmount(), counter.getDimensionKey()));
+                }
+                case REFUND -> refundedByCurrency.put(counter.getDimensionKey(), counter.getAmount());
+                case FEE -> totalFees = totalFees.add(toBaseCurrency(counter.getAmount(), counter.getDimensionKey()));
+                default -> { }
+            }
+        }
+
+        long successful = rollup.getSuccessfulTransactions();
+        long failed = rollup.getFailedTransactions();
+        long completed = successful + failed;
+        return new PaymentService.PaymentStatistics(
+                rollup.getUserId(),
+                rollup.getTotalTransactions(),
+                successful,
+                failed,
+                rollup.getPendingTransactions(),
+                totalAmount,
+                totalFees,
+                successful > 0
+                        ? totalAmount.divide(BigDecimal.valueOf(successful), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO,
+                mostUsed(counters, PaymentUserStatisticCounter.Dimension.PROVIDER),
+                mostUsed(counters, PaymentUserStatisticCounter.Dimension.METHOD),
+                mostUsed(counters, PaymentUserStatisticCounter.Dimension.CURRENCY),
+                baseCurrency,
+                volumeByCurrency,
+                completed > 0 ? (double) successful / completed : 0.0,
+                completed > 0 ? (double) failed / completed : 0.0,
+                rollup.getRefundedTransactions(),
+                refundedByCurrency,
+                rollup.getLastActivityAt());
+    }
+
+    private BigDecimal toBaseCurrency(BigDecimal amount, String currency) {
+        if (currency.equals(baseCurrency)) {
+            return amount;
+        }
+        if (!fxRateService.isSupported(currency) || !fxRateService.isSupported(baseCurrency)) {
+            log.debug("No exchange rate for {}, excluded from total amount", currency);
+            return BigDecimal.ZERO;
+        }
+        return fxRateService.convert(amount, currency, baseCurrency);
+    }
+
+    private static String mostUsed(List<PaymentUserStatisticCounter> counters,
+                                   PaymentUserStatisticCounter.Dimension dimension) {
+        return counters.stream()
+                .filter(counter -> counter.getDimension() == dimension && counter.getTransactionCount() > 0)
+                .max(Comparator.comparingLong(PaymentUserStatisticCounter::getTransactionCount))
+                .map(PaymentUserStatisticCounter::getDimensionKey)
+                .orElse(null);
+    }
+
+    private PaymentService.PaymentStatistics readCached(UUID userId) {
+        try {
+            String json = redisTemplate.opsForValue().get(CACHE_KEY_PREFIX + userId);
+            return json != null ? objectMapper.readValue(json, PaymentService.PaymentStatistics.class) : null;
+        } catch (Exception e) {
+            log.debug("Payment statistics cache read failed for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCached(UUID userId, PaymentService.PaymentStatistics statistics) {
+        try {
+            redisTemplate.opsForValue().set(CACHE_KEY_PREFIX + userId,
+                    objectMapper.writeValueAsString(statistics), cacheTtl);
+        } catch (Exception e) {
+            log.debug("Payment statistics cache write failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static Bucket bucket(PaymentTransaction.PaymentStatus status) {
+        return switch (status) {
+            case PENDING, PROCESSING -> Bucket.PENDING;
+            case SUCCEEDED, REFUNDED, PARTIALLY_REFUNDED, DISPUTED -> Bucket.SUCCESSFUL;
+            case FAILED, CANCELLED, EXPIRED -> Bucket.FAILED;
+        };
+    }
+
+    private enum Bucket {
+        PENDING,
+        SUCCESSFUL,
+        FAILED
+    }
+}
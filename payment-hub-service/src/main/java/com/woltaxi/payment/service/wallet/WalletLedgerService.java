@@ -0,0 +1,422 @@
+package com.woltaxi.payment.service.wallet;
+
+import com.woltaxi.payment.entity.MultiCurrencyWallet;
+import com.woltaxi.payment.entity.WalletLedgerEntry.LedgerAccount;
+import com.woltaxi.payment.entity.WalletLedgerEntry.Operation;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wallet Ledger Service
+ *
+ * Serialises all balance changes of a wallet through a striped lock over an
+ * in-memory account (long minor units), so hot wallets never hit optimistic
+ * locking retries. Each operation becomes a double-entry journal that is
+ * persisted by {@link WalletLedgerWriter} with group commit; the wallet row
+ * is only a materialised snapshot of the ledger.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class WalletLedgerService {
+
+    private static final String LOAD_WALLET_SQL =
+            "SELECT currency, available_balance, reserved_balance, pending_balance, maximum_balance, status, " +
+            "ledger_sequence FROM multi_currency_wallets WHERE id = ?";
+
+    private static final int MAX_REFERENCE_LENGTH = 100;
+    // Snapshot columns are NUMERIC(19, 4): at most 15 integer digits
+    private static final BigDecimal MAX_SNAPSHOT_BALANCE = BigDecimal.TEN.pow(15);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WalletLedgerWriter writer;
+    private final Map<UUID, WalletAccount> accounts = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+
+    @Value("${wallet.ledger.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    public WalletLedgerService(JdbcTemplate jdbcTemplate,
+                               WalletLedgerWriter writer,
+                               MeterRegistry meterRegistry,
+                               @Value("${wallet.ledger.lock-stripes:1024}") int lockStripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writer = writer;
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        meterRegistry.gaugeMapSize("wallet.ledger.accounts.cached", List.of(), accounts);
+    }
+
+    public CompletableFuture<LedgerReceipt> credit(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.CREDIT, amount, reference);
+    }
+
+    public CompletableFuture<LedgerReceipt> debit(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.DEBIT, amount, reference);
+    }
+
+    public CompletableFuture<LedgerReceipt> reserve(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.RESERVE, amount, reference);
+    }
+
+    public CompletableFuture<LedgerReceipt> releaseReserve(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.RELEASE_RESERVE, amount, reference);
+    }
+
+    public CompletableFuture<LedgerReceipt> settleReserve(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.SETTLE_RESERVE, amount, reference);
+    }
+
+    public CompletableFuture<LedgerReceipt> addToPending(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.ADD_PENDING, amount, reference);
+    }
+
+    public CompletableFuture<LedgerReceipt> removePending(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.REMOVE_PENDING, amount, reference);
+    }
+
+    public CompletableFuture<LedgerReceipt> confirmPending(UUID walletId, BigDecimal amount, String reference) {
+        return post(walletId, Operation.CONFIRM_PENDING, amount, reference);
+    }
+
+    /**
+     * Current balances including postings not yet flushed
+     */
+    public WalletBalance getBalance(UUID walletId) {
+        ReentrantLock lock = stripeFor(walletId);
+        lock.lock();
+        try {
+            WalletAccount account = account(walletId);
+            return new WalletBalance(walletId, account.currency,
+                    BigDecimal.valueOf(account.available, account.fractionDigits),
+                    BigDecimal.valueOf(account.reserved, account.fractionDigits),
+                    BigDecimal.valueOf(account.pending, account.fractionDigits),
+                    account.sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-read a wallet from its snapshot, for callers resuming work that another
+     * instance may have posted to. Accounts with postings of this instance still
+     * in flight are kept; their group commit settles against the snapshot.
+     */
+    public void reload(UUID walletId) {
+        ReentrantLock lock = stripeFor(walletId);
+        lock.lock();
+        try {
+            WalletAccount account = accounts.get(walletId);
+            if (account == null || account.isInvalidated() || account.flushedSequence == account.sequence) {
+                accounts.put(walletId, load(walletId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Validate and apply an operation in memory, then hand it to group commit.
+     * Validation errors are thrown synchronously; the future completes when durable.
+     */
+    public CompletableFuture<LedgerReceipt> post(UUID walletId, Operation operation,
+                                                 BigDecimal amount, String reference) {
+        // Anything the batch insert would reject must fail here, not the whole group commit
+        if (walletId == null || operation == null) {
+            throw new IllegalArgumentException("Wallet and operation are required");
+        }
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Ledger amount must be positive");
+        }
+        if (reference != null && reference.length() > MAX_REFERENCE_LENGTH) {
+            throw new IllegalArgumentException("Ledger reference must not exceed " + MAX_REFERENCE_LENGTH + " characters");
+        }
+
+        ReentrantLock lock = stripeFor(walletId);
+        lock.lock();
+        try {
+            WalletAccount account = account(walletId);
+            long amountMinor = toMinor(amount, account.fractionDigits);
+            long available = account.available;
+            long reserved = account.reserved;
+            long pending = account.pending;
+
+            switch (operation) {
+                case CREDIT -> {
+                    requireActive(account);
+                    if (Math.addExact(available + reserved + pending, amountMinor) > account.maximum) {
+                        throw new IllegalStateException("Maximum balance exceeded for credit operation");
+                    }
+                    available += amountMinor;
+                }
+                case DEBIT -> {
+                    requireActive(account);
+                    requireFunds(available, amountMinor, "Insufficient balance for debit operation");
+                    available -= amountMinor;
+                }
+                case RESERVE -> {
+                    requireActive(account);
+                    requireFunds(available, amountMinor, "Insufficient balance for reserve operation");
+                    available -= amountMinor;
+                    reserved += amountMinor;
+                }
+                case RELEASE_RESERVE -> {
+                    requireFunds(reserved, amountMinor, "Insufficient reserved balance for release operation");
+                    reserved -= amountMinor;
+                    available += amountMinor;
+                }
+                case SETTLE_RESERVE -> {
+                    requireFunds(reserved, amountMinor, "Insufficient reserved balance for settle operation");
+                    reserved -= amountMinor;
+                }
+                case ADD_PENDING -> pending = Math.addExact(pending, amountMinor);
+                case REMOVE_PENDING -> {
+                    requireFunds(pending, amountMinor, "Insufficient pending balance for removal operation");
+                    pending -= amountMinor;
+                }
+                case CONFIRM_PENDING -> {
+                    requireActive(account);
+                    requireFunds(pending, amountMinor, "Insufficient pending balance for removal operation");
+                    pending -= amountMinor;
+                    available += amountMinor;
+                }
+            }
+
+            requireSnapshotRange(account, Math.addExact(Math.addExact(available, reserved), pending));
+
+            long sequence = account.sequence + 1;
+            Posting posting = new Posting(UUID.randomUUID(), account, operation,
+                    fromAccount(operation), toAccount(operation), amountMinor, reference, sequence,
+                    available, reserved, pending, LocalDateTime.now(), new CompletableFuture<>());
+            if (!writer.enqueue(posting)) {
+                throw new IllegalStateException("Wallet ledger write queue is full");
+            }
+
+            account.available = available;
+            account.reserved = reserved;
+            account.pending = pending;
+            account.sequence = sequence;
+            account.lastAccessMillis = System.currentTimeMillis();
+            return posting.result();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop idle, fully flushed accounts from memory; they reload from the snapshot on next use
+     */
+    @Scheduled(fixedDelayString = "${wallet.ledger.eviction-interval-ms:300000}")
+    public void evictIdleAccounts() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictionMinutes);
+        for (UUID walletId : accounts.keySet()) {
+            ReentrantLock lock = stripeFor(walletId);
+            lock.lock();
+            try {
+                WalletAccount account = accounts.get(walletId);
+                if (account != null && account.lastAccessMillis < cutoff
+                        && account.flushedSequence == account.sequence) {
+                    accounts.remove(walletId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Private helper methods
+    private ReentrantLock stripeFor(UUID walletId) {
+        return stripes[(walletId.hashCode() & 0x7fffffff) % stripes.length];
+    }
+
+    /** Must be called while holding the wallet's stripe lock */
+    private WalletAccount account(UUID walletId) {
+        WalletAccount account = accounts.get(walletId);
+        if (account == null || account.isInvalidated()) {
+            account = load(walletId);
+            accounts.put(walletId, account);
+        }
+        return account;
+    }
+
+    private WalletAccount load(UUID walletId) {
+        try {
+            return jdbcTemplate.queryForObject(LOAD_WALLET_SQL, (rs, rowNum) -> {
+                String currency = rs.getString("currency");
+                int digits = Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+                BigDecimal maximum = rs.getBigDecimal("maximum_balance");
+                long sequence = rs.getLong("ledger_sequence");
+                return new WalletAccount(walletId, currency, digits,
+                        toMinor(rs.getBigDecimal("available_balance"), digits),
+                        toMinor(rs.getBigDecimal("reserved_balance"), digits),
+                        toMinor(rs.getBigDecimal("pending_balance"), digits),
+                        maximum != null ? toMinor(maximum, digits) : Long.MAX_VALUE,
+                        MultiCurrencyWallet.WalletStatus.valueOf(rs.getString("status")),
+                        sequence);
+            }, walletId);
+        } catch (EmptyResultDataAccessException e) {
+            throw new IllegalArgumentException("Wallet not found: " + walletId);
+        }
+    }
+
+    private static long toMinor(BigDecimal amount, int fractionDigits) {
+        try {
+            return amount.setScale(fractionDigits, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " is not representable in minor units", e);
+        }
+    }
+
+    private static void requireActive(WalletAccount account) {
+        if (account.status != MultiCurrencyWallet.WalletStatus.ACTIVE) {
+            throw new IllegalStateException("Wallet is not active: " + account.walletId);
+        }
+    }
+
+    private static void requireFunds(long balance, long amount, String message) {
+        if (balance < amount) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void requireSnapshotRange(WalletAccount account, long totalMinor) {
+        if (BigDecimal.valueOf(totalMinor, account.fractionDigits).compareTo(MAX_SNAPSHOT_BALANCE) >= 0) {
+            throw new IllegalStateException("Wallet balance would exceed the storable maximum: " + account.walletId);
+        }
+    }
+
+    private static LedgerAccount fromAccount(Operation operation) {
+        return switch (operation) {
+            case CREDIT, ADD_PENDING -> LedgerAccount.CLEARING;
+            case DEBIT, RESERVE -> LedgerAccount.AVAILABLE;
+            case RELEASE_RESERVE, SETTLE_RESERVE -> LedgerAccount.RESERVED;
+            case REMOVE_PENDING, CONFIRM_PENDING -> LedgerAccount.PENDING;
+        };
+    }
+
+    private static LedgerAccount toAccount(Operation operation) {
+        return switch (operation) {
+            case CREDIT, RELEASE_RESERVE, CONFIRM_PENDING -> LedgerAccount.AVAILABLE;
+            case DEBIT, REMOVE_PENDING, SETTLE_RESERVE -> LedgerAccount.CLEARING;
+            case RESERVE -> LedgerAccount.RESERVED;
+            case ADD_PENDING -> LedgerAccount.PENDING;
+        };
+    }
+
+    /**
+     * In-memory wallet account. Balance fields are guarded by the wallet's stripe lock.
+     */
+    @Getter
+    static final class WalletAccount {
+        private final UUID walletId;
+        private final String currency;
+        private final int fractionDigits;
+        private final long maximum;
+        private final MultiCurrencyWallet.WalletStatus status;
+        private long available;
+        private long reserved;
+        private long pending;
+        private long sequence;
+        private volatile long flushedSequence;
+        private volatile long lastAccessMillis;
+        private volatile boolean invalidated;
+
+        WalletAccount(UUID walletId, String currency, int fractionDigits, long available, long reserved,
+                      long pending, long maximum, MultiCurrencyWallet.WalletStatus status, long sequence) {
+            this.walletId = walletId;
+            this.currency = currency;
+            this.fractionDigits = fractionDigits;
+            this.available = available;
+            this.reserved = reserved;
+            this.pending = pending;
+            this.maximum = maximum;
+            this.status = status;
+            this.sequence = sequence;
+            this.flushedSequence = sequence;
+            this.lastAccessMillis = System.currentTimeMillis();
+        }
+
+        /** A batch containing this account's postings failed; reload from the snapshot */
+        void invalidate() {
+            invalidated = true;
+        }
+
+        void markFlushed(long flushed) {
+            flushedSequence = flushed;
+        }
+    }
+
+    /**
+     * Ledger posting awaiting group commit
+     */
+    record Posting(
+            UUID journalId,
+            WalletAccount account,
+            Operation operation,
+            LedgerAccount fromAccount,
+            LedgerAccount toAccount,
+            long amountMinor,
+            String reference,
+            long sequence,
+            long availableAfter,
+            long reservedAfter,
+            long pendingAfter,
+            LocalDateTime createdAt,
+            CompletableFuture<LedgerReceipt> result
+    ) {
+        LedgerReceipt toReceipt() {
+            int digits = account.getFractionDigits();
+            return new LedgerReceipt(journalId, account.getWalletId(), operation, sequence,
+                    BigDecimal.valueOf(availableAfter, digits),
+                    BigDecimal.valueOf(reservedAfter, digits),
+                    BigDecimal.valueOf(pendingAfter, digits));
+        }
+    }
+
+    /**
+     * Durable ledger posting result
+     */
+    public record LedgerReceipt(
+            UUID journalId,
+            UUID walletId,
+            Operation operation,
+            long sequence,
+            BigDecimal availableBalance,
+            BigDecimal reservedBalance,
+            BigDecimal pendingBalance
+    ) {}
+
+    /**
+     * Wallet balance view
+     */
+    public record WalletBalance(
+            UUID walletId,
+            String currency,
+            BigDecimal availableBalance,
+            BigDecimal reservedBalance,
+            BigDecimal pendingBalance,
+            long sequence
+    ) {}
+}
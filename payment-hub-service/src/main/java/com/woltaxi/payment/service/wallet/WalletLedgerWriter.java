@@ -0,0 +1,256 @@
+package com.woltaxi.payment.service.wallet;
+
+import com.woltaxi.payment.entity.WalletLedgerEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wallet Ledger Writer
+ *
+ * Group commit for wallet ledger postings. A single writer thread drains the
+ * queue, inserts every posting's two ledger legs with one JDBC batch and
+ * updates each touched wallet's balance snapshot once per batch, all in one
+ * transaction. Callers' futures complete only after the batch is durable.
+ *
+ * The database serialises each wallet: the snapshot update only applies on
+ * top of the sequence the batch was computed from, and the unique
+ * (wallet_id, wallet_sequence, account) index rejects a second writer of the
+ * same sequence. When a batch fails, every wallet in it is retried in its own
+ * transaction, so only the wallet at fault loses its postings.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class WalletLedgerWriter {
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO wallet_ledger_entries (journal_id, wallet_id, wallet_sequence, account, operation, " +
+            "currency, amount_minor, reference, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SNAPSHOT_SQL =
+            "UPDATE multi_currency_wallets SET available_balance = ?, reserved_balance = ?, pending_balance = ?, " +
+            "total_balance = ?, ledger_sequence = ?, last_transaction_date = ?, version = version + 1 " +
+            "WHERE id = ? AND ledger_sequence = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<WalletLedgerService.Posting> queue;
+    private final Timer flushTimer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${wallet.ledger.batch-size:500}")
+    private int batchSize;
+
+    @Value("${wallet.ledger.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public WalletLedgerWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${wallet.ledger.queue-capacity:100000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.meterRegistry = meterRegistry;
+        this.flushTimer = Timer.builder("wallet.ledger.flush")
+                .description("Wallet ledger group commit latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("wallet.ledger.queue.size", List.of(), queue);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::run, "wallet-ledger-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever is still queued gets one last flush
+        List<WalletLedgerService.Posting> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Queue a posting for the next group commit; false when the queue is full
+     */
+    boolean enqueue(WalletLedgerService.Posting posting) {
+        return queue.offer(posting);
+    }
+
+    // Private helper methods
+    private void run() {
+        List<WalletLedgerService.Posting> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                WalletLedgerService.Posting first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Wallet ledger writer loop error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<WalletLedgerService.Posting> batch) {
+        // Postings computed on top of a failed batch never reach the database
+        List<WalletLedgerService.Posting> valid = new ArrayList<>(batch.size());
+        for (WalletLedgerService.Posting posting : batch) {
+            if (posting.account().isInvalidated()) {
+                posting.result().completeExceptionally(
+                        new IllegalStateException("Wallet ledger state was reset, posting discarded"));
+            } else {
+                valid.add(posting);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            commit(valid);
+        } catch (Exception e) {
+            Map<UUID, List<WalletLedgerService.Posting>> byWallet = groupByWallet(valid);
+            if (byWallet.size() == 1) {
+                fail(valid, e);
+                return;
+            }
+            log.warn("Wallet ledger batch of {} postings failed, retrying {} wallets separately",
+                    valid.size(), byWallet.size(), e);
+            for (List<WalletLedgerService.Posting> walletPostings : byWallet.values()) {
+                try {
+                    commit(walletPostings);
+                } catch (Exception walletError) {
+                    fail(walletPostings, walletError);
+                }
+            }
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private void commit(List<WalletLedgerService.Posting> postings) {
+        transactionTemplate.executeWithoutResult(status -> {
+            insertEntries(postings);
+            updateSnapshots(postings);
+        });
+        for (WalletLedgerService.Posting posting : postings) {
+            posting.account().markFlushed(posting.sequence());
+            posting.result().complete(posting.toReceipt());
+        }
+    }
+
+    private void fail(List<WalletLedgerService.Posting> postings, Exception e) {
+        log.error("Wallet ledger group commit of {} postings failed", postings.size(), e);
+        for (WalletLedgerService.Posting posting : postings) {
+            posting.account().invalidate();
+            posting.result().completeExceptionally(e);
+        }
+    }
+
+    private static Map<UUID, List<WalletLedgerService.Posting>> groupByWallet(List<WalletLedgerService.Posting> postings) {
+        Map<UUID, List<WalletLedgerService.Posting>> byWallet = new LinkedHashMap<>();
+        for (WalletLedgerService.Posting posting : postings) {
+            byWallet.computeIfAbsent(posting.account().getWalletId(), id -> new ArrayList<>()).add(posting);
+        }
+        return byWallet;
+    }
+
+    private void insertEntries(List<WalletLedgerService.Posting> postings) {
+        List<Object[]> legs = new ArrayList<>(postings.size() * 2);
+        for (WalletLedgerService.Posting posting : postings) {
+            Timestamp createdAt = Timestamp.valueOf(posting.createdAt());
+            legs.add(leg(posting, posting.toAccount(), posting.amountMinor(), createdAt));
+            legs.add(leg(posting, posting.fromAccount(), -posting.amountMinor(), createdAt));
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, legs);
+    }
+
+    private Object[] leg(WalletLedgerService.Posting posting, WalletLedgerEntry.LedgerAccount account,
+                         long amountMinor, Timestamp createdAt) {
+        return new Object[] {
+                posting.journalId(), posting.account().getWalletId(), posting.sequence(), account.name(),
+                posting.operation().name(), posting.account().getCurrency(), amountMinor,
+                posting.reference(), createdAt
+        };
+    }
+
+    private void updateSnapshots(List<WalletLedgerService.Posting> postings) {
+        // Only the latest posting per wallet matters for the snapshot; the first one
+        // tells which snapshot sequence the batch was computed on
+        Map<UUID, Long> baseSequences = new LinkedHashMap<>();
+        Map<UUID, WalletLedgerService.Posting> latest = new LinkedHashMap<>();
+        for (WalletLedgerService.Posting posting : postings) {
+            baseSequences.putIfAbsent(posting.account().getWalletId(), posting.sequence() - 1);
+            latest.put(posting.account().getWalletId(), posting);
+        }
+
+        List<Object[]> updates = new ArrayList<>(latest.size());
+        for (WalletLedgerService.Posting posting : latest.values()) {
+            int digits = posting.account().getFractionDigits();
+            long total = posting.availableAfter() + posting.reservedAfter() + posting.pendingAfter();
+            updates.add(new Object[] {
+                    BigDecimal.valueOf(posting.availableAfter(), digits),
+                    BigDecimal.valueOf(posting.reservedAfter(), digits),
+                    BigDecimal.valueOf(posting.pendingAfter(), digits),
+                    BigDecimal.valueOf(total, digits),
+                    posting.sequence(),
+                    Timestamp.valueOf(posting.createdAt()),
+                    posting.account().getWalletId(),
+                    baseSequences.get(posting.account().getWalletId())
+            });
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT_SQL, updates);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 1) {
+                throw new OptimisticLockingFailureException("Wallet snapshot " + updates.get(i)[6]
+                        + " is no longer at ledger sequence " + updates.get(i)[7]);
+            }
+        }
+    }
+}
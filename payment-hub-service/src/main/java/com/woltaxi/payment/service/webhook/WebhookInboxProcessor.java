@@ -0,0 +1,276 @@
+package com.woltaxi.payment.service.webhook;
+
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.entity.WebhookInboxEntry;
+import com.woltaxi.payment.repository.WebhookInboxRepository;
+import com.woltaxi.payment.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Webhook Inbox Processor
+ *
+ * Drains the webhook inbox in arrival order. Entries carry the status change
+ * the provider reported, parsed once when the webhook was verified at intake;
+ * the changes of a batch are applied through
+ * {@link PaymentService#updatePaymentStatus} in inbox order within one
+ * database transaction, so events for the same payment are applied in the
+ * order they were received. A change that would move a payment backwards
+ * (e.g. a late PENDING after SUCCEEDED) is ignored, and once an event of a
+ * payment fails, its later events wait until it has been retried. A single
+ * drainer runs across the cluster, guarded by an advisory lock and a claim
+ * lease.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class WebhookInboxProcessor {
+
+    private static final long DRAIN_LOCK_KEY = 0x5748_494E_424F_5801L;
+
+    private static final Map<PaymentTransaction.PaymentStatus, Set<PaymentTransaction.PaymentStatus>> TRANSITIONS =
+            allowedTransitions();
+
+    private final WebhookInboxRepository inboxRepository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer batchTimer;
+
+    @Value("${payment.webhooks.inbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.webhooks.inbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${payment.webhooks.inbox.claim-lease:PT2M}")
+    private Duration claimLease;
+
+    @Value("${payment.webhooks.inbox.max-attempts:5}")
+    private int maxAttempts;
+
+    public WebhookInboxProcessor(WebhookInboxRepository inboxRepository,
+                                 PaymentService paymentService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.inboxRepository = inboxRepository;
+        this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchTimer = Timer.builder("payment.webhooks.batch")
+                .description("Webhook inbox batch processing latency")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.webhooks.inbox.poll-interval-ms:200}")
+    public void drain() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<WebhookInboxEntry> batch = claimBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            batchTimer.record(() -> process(batch));
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Private helper methods
+    private List<WebhookInboxEntry> claimBatch() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime leaseExpiry = now.minus(claimLease);
+        return transactionTemplate.execute(status -> {
+            // One drainer at a time keeps per-payment ordering across instances
+            if (!inboxRepository.tryDrainLock(DRAIN_LOCK_KEY)
+                    || inboxRepository.existsByStatusAndClaimedAtAfter(
+                            WebhookInboxEntry.InboxStatus.PROCESSING, leaseExpiry)) {
+                return List.of();
+            }
+            if (inboxRepository.claimBatch(now, leaseExpiry, batchSize) == 0) {
+                return List.of();
+            }
+            return inboxRepository.findByStatusAndClaimedAtOrderByIdAsc(WebhookInboxEntry.InboxStatus.PROCESSING, now);
+        });
+    }
+
+    private void process(List<WebhookInboxEntry> batch) {
+        List<WebhookInboxEntry> updates = new ArrayList<>();
+        for (WebhookInboxEntry entry : batch) {
+            if (entry.getTransactionId() != null && entry.getPaymentStatus() != null) {
+                updates.add(entry);
+            } else {
+                markIgnored(entry, entry.getErrorMessage() != null ? entry.getErrorMessage() : "No payment status change");
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        List<WebhookInboxEntry> stale = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                stale.clear();
+                Map<UUID, PaymentTransaction.PaymentStatus> applied = new HashMap<>();
+                List<Long> processedIds = new ArrayList<>(updates.size());
+                for (WebhookInboxEntry update : updates) {
+                    if (applyStatus(update, applied)) {
+                        processedIds.add(update.getId());
+                    } else {
+                        stale.add(update);
+                    }
+                }
+                inboxRepository.markAll(processedIds, WebhookInboxEntry.InboxStatus.PROCESSED, LocalDateTime.now());
+            });
+        } catch (Exception e) {
+            // Isolate the failing event(s): replay this batch one event per transaction
+            log.warn("Webhook batch of {} updates failed, applying individually: {}", updates.size(), e.getMessage());
+            applyIndividually(updates);
+            return;
+        }
+        meterRegistry.counter("payment.webhooks.processed").increment(updates.size() - stale.size());
+        for (WebhookInboxEntry update : stale) {
+            markIgnored(update, staleMessage(update));
+        }
+    }
+
+    /**
+     * Apply one status change inside the caller's transaction; replays and repeats are no-ops.
+     * Returns false when the change is not a valid transition from the payment's current status.
+     */
+    private boolean applyStatus(WebhookInboxEntry update, Map<UUID, PaymentTransaction.PaymentStatus> applied) {
+        PaymentTransaction.PaymentStatus current = applied.get(update.getTransactionId());
+        if (current == null) {
+            current = paymentService.getPaymentById(update.getTransactionId())
+                    .map(PaymentTransaction::getStatus)
+                    .orElse(null);
+            if (current == null) {
+                log.warn("Webhook {} references unknown transaction {}", update.getEventId(), update.getTransactionId());
+                return true;
+            }
+        }
+        if (current == update.getPaymentStatus()) {
+            return true;
+        }
+        if (!TRANSITIONS.getOrDefault(current, Set.of()).contains(update.getPaymentStatus())) {
+            log.info("Ignoring stale webhook {} for transaction {}: {} -> {}",
+                    update.getEventId(), update.getTransactionId(), current, update.getPaymentStatus());
+            return false;
+        }
+        paymentService.updatePaymentStatus(update.getTransactionId(), update.getPaymentStatus(),
+                "Provider webhook " + update.getEventId());
+        applied.put(update.getTransactionId(), update.getPaymentStatus());
+        return true;
+    }
+
+    /**
+     * One transaction per event; once an event of a payment goes back for a retry,
+     * the payment's later events of this batch are released unprocessed behind it
+     */
+    private void applyIndividually(List<WebhookInboxEntry> updates) {
+        Set<UUID> blocked = new HashSet<>();
+        List<Long> heldBack = new ArrayList<>();
+        for (WebhookInboxEntry update : updates) {
+            if (blocked.contains(update.getTransactionId())) {
+                heldBack.add(update.getId());
+                continue;
+            }
+            try {
+                boolean valid = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    if (!applyStatus(update, new HashMap<>())) {
+                        return false;
+                    }
+                    inboxRepository.markOne(update.getId(), WebhookInboxEntry.InboxStatus.PROCESSED,
+                            update.getTransactionId(), update.getPaymentStatus(), null, LocalDateTime.now());
+                    return true;
+                }));
+                if (valid) {
+                    meterRegistry.counter("payment.webhooks.processed").increment();
+                } else {
+                    markIgnored(update, staleMessage(update));
+                }
+            } catch (Exception e) {
+                log.error("Webhook {} for transaction {} failed", update.getEventId(), update.getTransactionId(), e);
+                if (markFailedOrRetry(update, e.getMessage())) {
+                    blocked.add(update.getTransactionId());
+                }
+            }
+        }
+        if (!heldBack.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> inboxRepository.release(heldBack));
+            log.info("Held back {} webhooks behind failed events of {} payments", heldBack.size(), blocked.size());
+        }
+    }
+
+    private void markIgnored(WebhookInboxEntry entry, String message) {
+        transactionTemplate.executeWithoutResult(status -> inboxRepository.markOne(entry.getId(),
+                WebhookInboxEntry.InboxStatus.IGNORED, entry.getTransactionId(), entry.getPaymentStatus(),
+                truncate(message), LocalDateTime.now()));
+        meterRegistry.counter("payment.webhooks.ignored").increment();
+    }
+
+    /**
+     * Returns true when the entry went back to the inbox for another attempt
+     */
+    private boolean markFailedOrRetry(WebhookInboxEntry entry, String message) {
+        boolean exhausted = entry.getAttempts() >= maxAttempts;
+        transactionTemplate.executeWithoutResult(status -> inboxRepository.markOne(entry.getId(),
+                exhausted ? WebhookInboxEntry.InboxStatus.FAILED : WebhookInboxEntry.InboxStatus.RECEIVED,
+                entry.getTransactionId(), entry.getPaymentStatus(), truncate(message),
+                exhausted ? LocalDateTime.now() : null));
+        if (exhausted) {
+            meterRegistry.counter("payment.webhooks.failed").increment();
+        }
+        return !exhausted;
+    }
+
+    private String staleMessage(WebhookInboxEntry entry) {
+        return "Stale status change to " + entry.getPaymentStatus();
+    }
+
+    private String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private static Map<PaymentTransaction.PaymentStatus, Set<PaymentTransaction.PaymentStatus>> allowedTransitions() {
+        Map<PaymentTransaction.PaymentStatus, Set<PaymentTransaction.PaymentStatus>> transitions =
+                new EnumMap<>(PaymentTransaction.PaymentStatus.class);
+        transitions.put(PaymentTransaction.PaymentStatus.PENDING, EnumSet.of(
+                PaymentTransaction.PaymentStatus.PROCESSING, PaymentTransaction.PaymentStatus.SUCCEEDED,
+                PaymentTransaction.PaymentStatus.FAILED, PaymentTransaction.PaymentStatus.CANCELLED,
+                PaymentTransaction.PaymentStatus.EXPIRED));
+        transitions.put(PaymentTransaction.PaymentStatus.PROCESSING, EnumSet.of(
+                PaymentTransaction.PaymentStatus.SUCCEEDED, PaymentTransaction.PaymentStatus.FAILED,
+                PaymentTransaction.PaymentStatus.CANCELLED, PaymentTransaction.PaymentStatus.EXPIRED));
+        transitions.put(PaymentTransaction.PaymentStatus.SUCCEEDED, EnumSet.of(
+                PaymentTransaction.PaymentStatus.REFUNDED, PaymentTransaction.PaymentStatus.PARTIALLY_REFUNDED,
+                PaymentTransaction.PaymentStatus.DISPUTED));
+        transitions.put(PaymentTransaction.PaymentStatus.PARTIALLY_REFUNDED, EnumSet.of(
+                PaymentTransaction.PaymentStatus.REFUNDED, PaymentTransaction.PaymentStatus.DISPUTED));
+        transitions.put(PaymentTransaction.PaymentStatus.DISPUTED, EnumSet.of(
+                PaymentTransaction.PaymentStatus.SUCCEEDED, PaymentTransaction.PaymentStatus.REFUNDED));
+        // FAILED, CANCELLED, EXPIRED and REFUNDED are final
+        return transitions;
+    }
+}
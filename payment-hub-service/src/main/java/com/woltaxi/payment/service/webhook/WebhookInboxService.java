@@ -0,0 +1,150 @@
+package com.woltaxi.payment.service.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.repository.WebhookInboxRepository;
+import com.woltaxi.payment.service.PaymentService;
+import com.woltaxi.payment.service.provider.PaymentProviderFactory;
+import com.woltaxi.payment.service.provider.PaymentProviderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Webhook Inbox Service
+ *
+ * Intake side of provider webhooks: verify the signature, let the provider
+ * parse the event once while the signature is fresh, append the payload with
+ * the parsed outcome to the inbox and return. Replays of the same provider
+ * event are dropped by the inbox's unique (provider, event_id) constraint;
+ * the stored status changes are applied later by {@link WebhookInboxProcessor}.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class WebhookInboxService {
+
+    private static final Map<PaymentTransaction.PaymentProvider, List<String>> DEFAULT_EVENT_ID_POINTERS = Map.of(
+            PaymentTransaction.PaymentProvider.STRIPE, List.of("/id"),
+            PaymentTransaction.PaymentProvider.PAYPAL, List.of("/id"),
+            PaymentTransaction.PaymentProvider.SQUARE, List.of("/event_id"),
+            PaymentTransaction.PaymentProvider.ADYEN, List.of(
+                    "/notificationItems/0/NotificationRequestItem/eventCode",
+                    "/notificationItems/0/NotificationRequestItem/pspReference"),
+            PaymentTransaction.PaymentProvider.IYZICO, List.of("/iyziEventType", "/iyziReferenceCode"));
+
+    private final PaymentProviderFactory providerFactory;
+    private final WebhookInboxRepository inboxRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<PaymentTransaction.PaymentProvider, List<String>> eventIdPointers;
+
+    public WebhookInboxService(PaymentProviderFactory providerFactory,
+                               WebhookInboxRepository inboxRepository,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               Environment environment) {
+        this.providerFactory = providerFactory;
+        this.inboxRepository = inboxRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        Map<PaymentTransaction.PaymentProvider, List<String>> pointers =
+                new EnumMap<>(PaymentTransaction.PaymentProvider.class);
+        pointers.putAll(DEFAULT_EVENT_ID_POINTERS);
+        // Configured as comma separated JSON pointers whose values are joined into the event ID
+        Binder.get(environment)
+                .bind("payment.webhooks.event-id-pointers",
+                        Bindable.mapOf(PaymentTransaction.PaymentProvider.class, String.class))
+                .orElse(Map.of())
+                .forEach((provider, configured) -> pointers.put(provider, List.of(configured.split("\\s*,\\s*"))));
+        this.eventIdPointers = pointers;
+    }
+
+    /**
+     * Verify and store a webhook. Returns false when the signature is invalid;
+     * duplicates are acknowledged like new events so the provider stops retrying.
+     */
+    @Transactional
+    public boolean accept(PaymentTransaction.PaymentProvider provider, String payload, String signature) {
+        PaymentProviderService providerService = providerFactory.getProvider(provider);
+        if (!providerService.verifyWebhookSignature(payload, signature)) {
+            meterRegistry.counter("payment.webhooks.rejected", "provider", provider.name()).increment();
+            log.warn("Rejected webhook from provider {} with invalid signature", provider);
+            return false;
+        }
+
+        // A parse failure propagates so the provider redelivers the event
+        PaymentService.WebhookResult result = providerService.handleWebhook(payload, signature);
+        UUID transactionId = result.processed() ? parseTransactionId(result.transactionId()) : null;
+        PaymentTransaction.PaymentStatus paymentStatus = transactionId != null ? result.status() : null;
+        String message = paymentStatus != null ? null
+                : result.message() != null ? truncate(result.message()) : "No payment status change";
+
+        String eventId = eventId(provider, payload);
+        int inserted = inboxRepository.insertIfAbsent(provider.name(), eventId, payload, signature, transactionId,
+                paymentStatus != null ? paymentStatus.name() : null, message, LocalDateTime.now());
+        if (inserted == 0) {
+            meterRegistry.counter("payment.webhooks.duplicates", "provider", provider.name()).increment();
+            log.debug("Duplicate webhook {} from provider {} ignored", eventId, provider);
+        } else {
+            meterRegistry.counter("payment.webhooks.received", "provider", provider.name()).increment();
+        }
+        return true;
+    }
+
+    // Private helper methods
+    private UUID parseTransactionId(String transactionId) {
+        try {
+            return transactionId != null ? UUID.fromString(transactionId) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private String eventId(PaymentTransaction.PaymentProvider provider, String payload) {
+        List<String> pointers = eventIdPointers.get(provider);
+        if (pointers != null) {
+            try {
+                JsonNode root = objectMapper.readTree(payload);
+                StringBuilder eventId = new StringBuilder();
+                for (String pointer : pointers) {
+                    JsonNode node = root.at(pointer);
+                    if (node.isMissingNode() || node.isNull() || node.asText().isEmpty()) {
+                        eventId.setLength(0);
+                        break;
+                    }
+                    if (!eventId.isEmpty()) {
+                        eventId.append(':');
+                    }
+                    eventId.append(node.asText());
+                }
+                if (!eventId.isEmpty() && eventId.length() <= 255) {
+                    return eventId.toString();
+                }
+            } catch (Exception e) {
+                log.debug("Webhook payload from {} is not JSON, using payload hash as event ID", provider);
+            }
+        }
+        // Providers without an event ID (form posts) are deduplicated on identical payloads
+        return "sha256:" + DigestUtils.sha256Hex(payload);
+    }
+}
@@ -0,0 +1,261 @@
+package com.woltaxi.payment.service.payout;
+
+import com.woltaxi.payment.entity.DriverPayoutRun;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.repository.DriverPayoutRepository;
+import com.woltaxi.payment.repository.DriverPayoutRunRepository;
+import com.woltaxi.payment.service.wallet.WalletLedgerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Driver Payout Engine Test
+ *
+ * Resuming a run from each phase, with every piece of state coming from the
+ * (mocked) database: the run's status, the payout rows and the ledger
+ * postings made before the interruption.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+class DriverPayoutEngineTest {
+
+    private static final BigDecimal MINIMUM_AMOUNT = new BigDecimal("10.00");
+
+    private final DriverPayoutRunRepository runRepository = mock(DriverPayoutRunRepository.class);
+    private final DriverPayoutRepository payoutRepository = mock(DriverPayoutRepository.class);
+    private final WalletLedgerService walletLedgerService = mock(WalletLedgerService.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PayoutProviderClient client = mock(PayoutProviderClient.class);
+
+    // Ledger legs on the reserved accounts, as the database holds them: reference -> operation
+    private final Map<String, String> postings = new HashMap<>();
+
+    private DriverPayoutEngine engine;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(client.provider()).thenReturn(PaymentTransaction.PaymentProvider.STRIPE);
+        ObjectProvider<PayoutProviderClient> clients = mock(ObjectProvider.class);
+        when(clients.orderedStream()).thenReturn(Stream.of(client));
+
+        engine = new DriverPayoutEngine(runRepository, payoutRepository, walletLedgerService, jdbcTemplate,
+                new SimpleMeterRegistry(), clients);
+        ReflectionTestUtils.setField(engine, "partitions", 2);
+        ReflectionTestUtils.setField(engine, "parallelism", 2);
+        ReflectionTestUtils.setField(engine, "batchSize", 100);
+        ReflectionTestUtils.setField(engine, "maxItemsPerBatch", 100);
+        ReflectionTestUtils.setField(engine, "minimumAmount", MINIMUM_AMOUNT);
+        ReflectionTestUtils.setField(engine, "lease", Duration.ofMinutes(5));
+
+        when(runRepository.claimLease(any(), anyString(), any(), any())).thenReturn(1);
+        when(runRepository.advance(any(), anyString(), anyString())).thenReturn(1);
+        when(runRepository.complete(any(), anyString(), anyLong(), anyLong(), anyLong(), anyLong(), any()))
+                .thenReturn(1);
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<String, String> posting : postings.entrySet()) {
+                handler.processRow(postingRow(posting.getKey(), posting.getValue()));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void freshRunSnapshotsThenWalksEveryPhase() {
+        DriverPayoutRun run = run(DriverPayoutRun.RunStatus.SNAPSHOT);
+
+        engine.resumeRuns();
+
+        InOrder order = inOrder(payoutRepository, runRepository);
+        order.verify(payoutRepository).snapshotEligibleWallets(eq(run.getId()), eq(2), eq(MINIMUM_AMOUNT), any());
+        order.verify(runRepository).advance(eq(run.getId()), anyString(), eq("COMPUTING"));
+        order.verify(runRepository).advance(eq(run.getId()), anyString(), eq("SUBMITTING"));
+        order.verify(runRepository)
+                .complete(eq(run.getId()), anyString(), anyLong(), anyLong(), anyLong(), anyLong(), any());
+        assertThat(run.getStatus()).isEqualTo(DriverPayoutRun.RunStatus.COMPLETED);
+    }
+
+    @Test
+    void computingResumeKeepsEarlierReservationsAndReloadsWalletsBeforeReserving() {
+        DriverPayoutRun run = run(DriverPayoutRun.RunStatus.COMPUTING);
+        UUID reservedWallet = UUID.randomUUID();
+        UUID pendingWallet = UUID.randomUUID();
+        postings.put("payout:1", "RESERVE");            // Reserved before the interruption
+        when(jdbcTemplate.query(contains("partition_no = ?"), any(RowMapper.class), any(), any(), any(), any()))
+                .thenAnswer(invocation -> Integer.valueOf(0).equals(invocation.getArgument(3))
+                        ? mapRows(invocation, payout(1, reservedWallet, "50.00", "0"),
+                                payout(2, pendingWallet, "50.00", "0"))
+                        : List.of());
+        when(walletLedgerService.getBalance(pendingWallet)).thenReturn(new WalletLedgerService.WalletBalance(
+                pendingWallet, "USD", new BigDecimal("80.00"), BigDecimal.ZERO, BigDecimal.ZERO, 3));
+        when(walletLedgerService.reserve(pendingWallet, new BigDecimal("50.00"), "payout:2"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        engine.resumeRuns();
+
+        verify(payoutRepository, never()).snapshotEligibleWallets(any(), anyInt(), any(), any());
+        verify(walletLedgerService, never()).reserve(eq(reservedWallet), any(), anyString());
+        InOrder order = inOrder(walletLedgerService);
+        order.verify(walletLedgerService).reload(pendingWallet);
+        order.verify(walletLedgerService).getBalance(pendingWallet);
+        order.verify(walletLedgerService).reserve(pendingWallet, new BigDecimal("50.00"), "payout:2");
+        assertThat(outcomes()).extracting(outcome -> outcome[0] + ":" + outcome[5])
+                .containsExactlyInAnyOrder("RESERVED:1", "RESERVED:2");
+        assertThat(run.getStatus()).isEqualTo(DriverPayoutRun.RunStatus.COMPLETED);
+    }
+
+    @Test
+    void submittingResumeResendsOpenBatchUnderItsIdWithoutPostingTwice() {
+        DriverPayoutRun run = run(DriverPayoutRun.RunStatus.SUBMITTING);
+        UUID walletId = UUID.randomUUID();
+        UUID batchId = UUID.randomUUID();
+        DriverPayoutRepository.SubmissionGroup group = group();
+        when(payoutRepository.findSubmissionGroups(eq(run.getId()), any()))
+                .thenReturn(List.of(group), List.of());
+        when(payoutRepository.findOpenBatchIds(run.getId(), PaymentTransaction.PaymentProvider.STRIPE, "USD"))
+                .thenReturn(List.of(batchId));
+        when(jdbcTemplate.query(contains("WHERE batch_id = ?"), any(RowMapper.class), any()))
+                .thenAnswer(invocation -> mapRows(invocation, payout(3, walletId, "40.00", "40.00")));
+        when(client.submit(any())).thenReturn(new PayoutProviderClient.BulkPayoutResult(Map.of(
+                3L, new PayoutProviderClient.BulkPayoutResult.ItemResult(true, "tr_3", null))));
+        postings.put("payout:3", "SETTLE_RESERVE");     // Settled before the outcome was recorded
+
+        engine.resumeRuns();
+
+        verify(client).submit(argThat(request -> request.batchId().equals(batchId)));
+        verify(walletLedgerService, never()).settleReserve(any(), any(), anyString());
+        assertThat(outcomes()).extracting(outcome -> outcome[0] + ":" + outcome[2] + ":" + outcome[5])
+                .containsExactly("SUBMITTED:tr_3:3");
+        assertThat(run.getStatus()).isEqualTo(DriverPayoutRun.RunStatus.COMPLETED);
+    }
+
+    @Test
+    void submittingResumeWithUnknownOutcomeLeavesTheRunOpen() {
+        DriverPayoutRun run = run(DriverPayoutRun.RunStatus.SUBMITTING);
+        UUID batchId = UUID.randomUUID();
+        DriverPayoutRepository.SubmissionGroup group = group();
+        when(payoutRepository.findSubmissionGroups(eq(run.getId()), any())).thenReturn(List.of(group));
+        when(payoutRepository.findOpenBatchIds(run.getId(), PaymentTransaction.PaymentProvider.STRIPE, "USD"))
+                .thenReturn(List.of(batchId));
+        when(jdbcTemplate.query(contains("WHERE batch_id = ?"), any(RowMapper.class), any()))
+                .thenAnswer(invocation -> mapRows(invocation, payout(4, UUID.randomUUID(), "25.00", "25.00")));
+        when(client.submit(any())).thenThrow(new IllegalStateException("Gateway timeout"));
+
+        engine.resumeRuns();
+
+        verify(runRepository, never()).complete(any(), anyString(), anyLong(), anyLong(), anyLong(), anyLong(), any());
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE driver_payouts SET status = ?"), anyList(),
+                any(int[].class));
+        verify(runRepository).releaseLease(eq(run.getId()), anyString());
+        assertThat(run.getStatus()).isEqualTo(DriverPayoutRun.RunStatus.SUBMITTING);
+    }
+
+    // Private helper methods
+    private DriverPayoutRun run(DriverPayoutRun.RunStatus status) {
+        DriverPayoutRun run = DriverPayoutRun.builder()
+                .id(UUID.randomUUID())
+                .runDate(LocalDate.now())
+                .status(status)
+                .partitions(2)
+                .build();
+        when(runRepository.findByStatusInOrderByRunDateAsc(any())).thenReturn(List.of(run));
+        return run;
+    }
+
+    private static DriverPayoutRepository.SubmissionGroup group() {
+        DriverPayoutRepository.SubmissionGroup group = mock(DriverPayoutRepository.SubmissionGroup.class);
+        when(group.getProvider()).thenReturn(PaymentTransaction.PaymentProvider.STRIPE);
+        when(group.getCurrency()).thenReturn("USD");
+        return group;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> outcomes() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce())
+                .batchUpdate(startsWith("UPDATE driver_payouts SET status = ?"), captor.capture(), any(int[].class));
+        List<Object[]> outcomes = new ArrayList<>();
+        captor.getAllValues().forEach(outcomes::addAll);
+        return outcomes;
+    }
+
+    private static List<Object> mapRows(InvocationOnMock invocation, ResultSet... rows)
+            throws SQLException {
+        RowMapper<?> mapper = invocation.getArgument(1);
+        List<Object> mapped = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            mapped.add(mapper.mapRow(rows[i], i));
+        }
+        return mapped;
+    }
+
+    private static ResultSet payout(long id, UUID walletId, String snapshotAmount, String amount) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getObject("wallet_id", UUID.class)).thenReturn(walletId);
+        when(rs.getString("currency")).thenReturn("USD");
+        when(rs.getString("destination_reference")).thenReturn("acct_" + id);
+        when(rs.getBigDecimal("snapshot_amount")).thenReturn(new BigDecimal(snapshotAmount));
+        when(rs.getBigDecimal("amount")).thenReturn(new BigDecimal(amount));
+        return rs;
+    }
+
+    private static ResultSet postingRow(String reference, String operation) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("reference")).thenReturn(reference);
+        when(rs.getString("operation")).thenReturn(operation);
+        when(rs.getString("currency")).thenReturn("USD");
+        when(rs.getLong("amount_minor")).thenReturn(5000L);
+        return rs;
+    }
+}
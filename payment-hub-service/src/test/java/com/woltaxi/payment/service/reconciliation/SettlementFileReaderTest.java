@@ -0,0 +1,140 @@
+package com.woltaxi.payment.service.reconciliation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Settlement File Reader Test
+ *
+ * CSV parsing across memory-map window boundaries and quoted fields.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+class SettlementFileReaderTest {
+
+    private static final String HEADER = "external_transaction_id,amount,currency,status";
+
+    @TempDir
+    Path directory;
+
+    private SettlementFileReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new SettlementFileReader(new ObjectMapper());
+        ReflectionTestUtils.setField(reader, "mapWindowBytes", 64 * 1024);
+        ReflectionTestUtils.setField(reader, "externalIdColumn", "external_transaction_id");
+        ReflectionTestUtils.setField(reader, "amountColumn", "amount");
+        ReflectionTestUtils.setField(reader, "currencyColumn", "currency");
+        ReflectionTestUtils.setField(reader, "statusColumn", "status");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {50, 51, 60, 64, 75, 1024})
+    void readsEveryLineWhateverTheWindowBoundaries(int windowBytes) throws IOException {
+        ReflectionTestUtils.setField(reader, "mapWindowBytes", windowBytes);
+        Path file = write("provider.csv", HEADER + "\n"
+                + "tx-0001,10.00,USD,SETTLED\n"
+                + "tx-0002,20.50,EUR,FAILED\n"
+                + "tx-0003,7.25,TRY,REFUNDED");
+
+        List<SettlementRecord> records = readAll(file, 100);
+
+        assertThat(records).extracting(SettlementRecord::externalTransactionId)
+                .containsExactly("tx-0001", "tx-0002", "tx-0003");
+        assertThat(records).extracting(SettlementRecord::amount)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("20.50"), new BigDecimal("7.25"));
+        assertThat(records).extracting(SettlementRecord::status).containsExactly(
+                SettlementRecord.Status.SETTLED, SettlementRecord.Status.FAILED, SettlementRecord.Status.REFUNDED);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {52, 60, 70, 1024})
+    void honoursQuotesEscapesAndCrLfAcrossWindows(int windowBytes) throws IOException {
+        ReflectionTestUtils.setField(reader, "mapWindowBytes", windowBytes);
+        Path file = write("provider.csv", HEADER + "\r\n"
+                + "\"tx,1\",10.00,usd,\"said \"\"paid\"\"\"\r\n"
+                + "\r\n"
+                + "tx-2,5,EUR,SETTLED\r\n");
+
+        List<SettlementRecord> records = readAll(file, 100);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).externalTransactionId()).isEqualTo("tx,1");
+        assertThat(records.get(0).currency()).isEqualTo("USD");
+        assertThat(records.get(0).rawStatus()).isEqualTo("said \"paid\"");
+        assertThat(records.get(0).status()).isEqualTo(SettlementRecord.Status.UNKNOWN);
+        assertThat(records.get(1).externalTransactionId()).isEqualTo("tx-2");
+        assertThat(records.get(1).status()).isEqualTo(SettlementRecord.Status.SETTLED);
+    }
+
+    @Test
+    void stripsByteOrderMarkFromHeader() throws IOException {
+        Path file = write("provider.csv", "\uFEFF" + HEADER + "\ntx-1,1.00,USD,PAID\n");
+
+        assertThat(readAll(file, 100)).extracting(SettlementRecord::externalTransactionId).containsExactly("tx-1");
+    }
+
+    @Test
+    void handsRecordsOverInChunksAndCountsRejectedLines() throws IOException {
+        Path file = write("provider.csv", HEADER + "\n"
+                + "tx-1,1.00,USD,PAID\n"
+                + "tx-2,not-a-number,USD,PAID\n"
+                + ",3.00,USD,PAID\n"
+                + "tx-4,4.00,USD,PAID\n"
+                + "tx-5,5.00,USD,PAID\n");
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        long rejected = reader.read(file, 2, chunk -> chunkSizes.add(chunk.size()));
+
+        assertThat(rejected).isEqualTo(2);
+        assertThat(chunkSizes).containsExactly(2, 1);
+    }
+
+    @Test
+    void rejectsLinesLongerThanTheWindow() throws IOException {
+        ReflectionTestUtils.setField(reader, "mapWindowBytes", 16);
+        Path file = write("provider.csv", HEADER + "\ntx-1,1.00,USD,PAID\n");
+
+        assertThatThrownBy(() -> readAll(file, 100))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("longer than the map window");
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() throws IOException {
+        Path file = write("provider.csv", "id,value\ntx-1,1.00\n");
+
+        assertThatThrownBy(() -> readAll(file, 100))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("header");
+    }
+
+    // Private helper methods
+    private List<SettlementRecord> readAll(Path file, int chunkSize) throws IOException {
+        List<SettlementRecord> records = new ArrayList<>();
+        reader.read(file, chunkSize, records::addAll);
+        return records;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,120 @@
+package com.woltaxi.payment.service.statistics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woltaxi.payment.entity.PaymentTransaction;
+import com.woltaxi.payment.event.PaymentStatusChangedEvent;
+import com.woltaxi.payment.repository.PaymentUserStatisticCounterRepository;
+import com.woltaxi.payment.repository.PaymentUserStatisticsRepository;
+import com.woltaxi.payment.service.currency.FxRateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Payment Statistics Rollup Test
+ *
+ * Seeding a user's rollup inside a transaction that publishes several
+ * status changes must not count those changes twice.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+class PaymentStatisticsRollupTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final PaymentUserStatisticsRepository statisticsRepository = mock(PaymentUserStatisticsRepository.class);
+    private final PaymentUserStatisticCounterRepository counterRepository =
+            mock(PaymentUserStatisticCounterRepository.class);
+
+    private PaymentStatisticsRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        rollup = new PaymentStatisticsRollup(statisticsRepository, counterRepository, mock(FxRateService.class),
+                mock(StringRedisTemplate.class), new ObjectMapper());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(
+                PaymentStatisticsRollup.class.getName() + ".seededUsers");
+    }
+
+    @Test
+    void skipsLaterEventsOfTheTransactionThatSeededTheUser() {
+        // No rollup yet: the first event seeds from history, which already holds both changes
+        when(statisticsRepository.existsById(USER_ID)).thenReturn(false, true);
+        when(statisticsRepository.seedFromHistory(eq(USER_ID), any())).thenReturn(1);
+
+        rollup.onStatusChanged(event(PaymentTransaction.PaymentStatus.FAILED, PaymentTransaction.PaymentStatus.PENDING));
+        rollup.onStatusChanged(event(PaymentTransaction.PaymentStatus.PENDING, PaymentTransaction.PaymentStatus.SUCCEEDED));
+
+        verify(statisticsRepository).seedFromHistory(eq(USER_ID), any());
+        verify(statisticsRepository, never()).applyDelta(any(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), any());
+        verify(counterRepository, never()).increment(any(), anyString(), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void appliesDeltasAgainOnceTheSeedingTransactionCompleted() {
+        when(statisticsRepository.existsById(USER_ID)).thenReturn(false, true);
+        when(statisticsRepository.seedFromHistory(eq(USER_ID), any())).thenReturn(1);
+        rollup.onStatusChanged(event(PaymentTransaction.PaymentStatus.FAILED, PaymentTransaction.PaymentStatus.PENDING));
+        complete();
+
+        TransactionSynchronizationManager.initSynchronization();
+        rollup.onStatusChanged(event(PaymentTransaction.PaymentStatus.PENDING, PaymentTransaction.PaymentStatus.SUCCEEDED));
+
+        verify(statisticsRepository).applyDelta(eq(USER_ID), eq(0L), eq(1L), eq(0L), eq(-1L), eq(0L), any());
+        verify(counterRepository).increment(USER_ID, "CURRENCY", "USD", 1, new BigDecimal("25.00"));
+    }
+
+    @Test
+    void appliesEveryEventForUsersSeededBeforeTheTransaction() {
+        when(statisticsRepository.existsById(USER_ID)).thenReturn(true);
+
+        rollup.onStatusChanged(event(PaymentTransaction.PaymentStatus.FAILED, PaymentTransaction.PaymentStatus.PENDING));
+        rollup.onStatusChanged(event(PaymentTransaction.PaymentStatus.PENDING, PaymentTransaction.PaymentStatus.SUCCEEDED));
+
+        verify(statisticsRepository, never()).seedFromHistory(any(), any());
+        verify(statisticsRepository, times(2)).applyDelta(eq(USER_ID), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), any());
+    }
+
+    // Private helper methods
+    private static void complete() {
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static PaymentStatusChangedEvent event(PaymentTransaction.PaymentStatus from,
+                                                   PaymentTransaction.PaymentStatus to) {
+        return new PaymentStatusChangedEvent(UUID.randomUUID(), USER_ID, PaymentTransaction.TransactionType.PAYMENT,
+                PaymentTransaction.PaymentProvider.STRIPE, PaymentTransaction.PaymentMethod.CARD,
+                new BigDecimal("25.00"), "USD", from, to, BigDecimal.ZERO, BigDecimal.ZERO, LocalDateTime.now());
+    }
+}
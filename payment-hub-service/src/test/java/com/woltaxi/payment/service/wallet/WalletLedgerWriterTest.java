@@ -0,0 +1,184 @@
+package com.woltaxi.payment.service.wallet;
+
+import com.woltaxi.payment.entity.MultiCurrencyWallet;
+import com.woltaxi.payment.entity.WalletLedgerEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Wallet Ledger Writer Test
+ *
+ * Group commit against a mocked JDBC layer: snapshot conflicts, failure
+ * isolation per wallet and postings computed on invalidated state.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+class WalletLedgerWriterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    // Ledger sequence of each wallet's snapshot row, as the database holds it
+    private final Map<UUID, Long> snapshotSequences = new HashMap<>();
+
+    private WalletLedgerWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new WalletLedgerWriter(jdbcTemplate, transactionManager, new SimpleMeterRegistry(), 1000);
+        ReflectionTestUtils.setField(writer, "batchSize", 500);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 5L);
+
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList()))
+                .thenAnswer(invocation -> new int[invocation.<List<Object[]>>getArgument(1).size()]);
+        // The snapshot update only matches rows still at the batch's base sequence
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            int[] counts = new int[rows.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = rows.get(i)[7].equals(snapshotSequences.get((UUID) rows.get(i)[6])) ? 1 : 0;
+            }
+            return counts;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void commitsOneSnapshotUpdatePerWalletOnTopOfItsBaseSequence() {
+        WalletLedgerService.WalletAccount first = account(0);
+        WalletLedgerService.WalletAccount second = account(5);
+        List<WalletLedgerService.Posting> postings = List.of(
+                posting(first, 1), posting(second, 6), posting(first, 2));
+        postings.forEach(writer::enqueue);
+
+        writer.start();
+
+        postings.forEach(posting -> assertThat(posting.result()).succeedsWithin(TIMEOUT));
+        assertThat(first.getFlushedSequence()).isEqualTo(2);
+        assertThat(second.getFlushedSequence()).isEqualTo(6);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), updates.capture());
+        assertThat(updates.getValue()).hasSize(2);
+        assertThat(updates.getValue().get(0)).contains(first.getWalletId(), 2L, 0L);
+        assertThat(updates.getValue().get(1)).contains(second.getWalletId(), 6L, 5L);
+    }
+
+    @Test
+    void failsPostingsWhoseSnapshotMovedUnderneath() {
+        WalletLedgerService.WalletAccount account = account(3);
+        snapshotSequences.put(account.getWalletId(), 4L);          // Another writer got there first
+        WalletLedgerService.Posting posting = posting(account, 4);
+        writer.enqueue(posting);
+
+        writer.start();
+
+        assertThat(posting.result()).failsWithin(TIMEOUT)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(account.isInvalidated()).isTrue();
+        assertThat(account.getFlushedSequence()).isEqualTo(3);
+    }
+
+    @Test
+    void retriesEachWalletSeparatelyWhenTheGroupCommitFails() {
+        WalletLedgerService.WalletAccount healthy = account(0);
+        WalletLedgerService.WalletAccount conflicting = account(7);
+        snapshotSequences.put(conflicting.getWalletId(), 8L);
+        WalletLedgerService.Posting healthyFirst = posting(healthy, 1);
+        WalletLedgerService.Posting conflicted = posting(conflicting, 8);
+        WalletLedgerService.Posting healthySecond = posting(healthy, 2);
+        List.of(healthyFirst, conflicted, healthySecond).forEach(writer::enqueue);
+
+        writer.start();
+
+        assertThat(healthyFirst.result()).succeedsWithin(TIMEOUT);
+        assertThat(healthySecond.result()).succeedsWithin(TIMEOUT);
+        assertThat(conflicted.result()).failsWithin(TIMEOUT)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(healthy.isInvalidated()).isFalse();
+        assertThat(healthy.getFlushedSequence()).isEqualTo(2);
+        assertThat(conflicting.isInvalidated()).isTrue();
+    }
+
+    @Test
+    void failsTheWalletWhoseSequenceIsAlreadyTaken() {
+        WalletLedgerService.WalletAccount account = account(0);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList()))
+                .thenThrow(new DuplicateKeyException("uk_ledger_wallet_sequence"));
+        WalletLedgerService.Posting posting = posting(account, 1);
+        writer.enqueue(posting);
+
+        writer.start();
+
+        assertThat(posting.result()).failsWithin(TIMEOUT)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(DuplicateKeyException.class);
+        assertThat(account.isInvalidated()).isTrue();
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE"), anyList());
+    }
+
+    @Test
+    void discardsPostingsComputedOnInvalidatedState() {
+        WalletLedgerService.WalletAccount account = account(0);
+        account.invalidate();
+        WalletLedgerService.Posting posting = posting(account, 1);
+        writer.enqueue(posting);
+
+        writer.start();
+
+        assertThat(posting.result()).failsWithin(TIMEOUT)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT"), anyList());
+    }
+
+    // Private helper methods
+    private WalletLedgerService.WalletAccount account(long sequence) {
+        UUID walletId = UUID.randomUUID();
+        snapshotSequences.put(walletId, sequence);
+        return new WalletLedgerService.WalletAccount(walletId, "USD", 2, 0, 0, 0, Long.MAX_VALUE,
+                MultiCurrencyWallet.WalletStatus.ACTIVE, sequence);
+    }
+
+    private static WalletLedgerService.Posting posting(WalletLedgerService.WalletAccount account, long sequence) {
+        return new WalletLedgerService.Posting(UUID.randomUUID(), account, WalletLedgerEntry.Operation.CREDIT,
+                WalletLedgerEntry.LedgerAccount.CLEARING, WalletLedgerEntry.LedgerAccount.AVAILABLE,
+                100, "test-" + sequence, sequence, 100 * sequence, 0, 0, LocalDateTime.now(),
+                new CompletableFuture<>());
+    }
+}
@@ -5,6 +5,8 @@ import com.woltaxi.travel.dto.response.TravelBookingResponse;
 import com.woltaxi.travel.entity.TravelBooking;
 import com.woltaxi.travel.entity.CommissionRecord;
 import com.woltaxi.travel.service.TravelBookingService;
+import com.woltaxi.travel.service.search.SearchFilter;
+import com.woltaxi.travel.service.search.TopKSearchMerge;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,19 +16,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -50,6 +59,9 @@ public class TravelBookingController {
 
     private final TravelBookingService bookingService;
 
+    @Value("${travel.search.stream-timeout:PT10S}")
+    private Duration searchStreamTimeout;
+
     @Operation(
         summary = "Create Travel Booking",
         description = "Create a new travel booking for flights, buses, hotels, or car rentals"
@@ -78,26 +90,95 @@ public class TravelBookingController {
 
     @Operation(
         summary = "Search Available Options",
-        description = "Search for available travel options based on criteria"
+        description = "Search for available travel options based on criteria. "
+                + "Pages must lie within the best " + TopKSearchMerge.MAX_CANDIDATES + " options"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Search completed successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid search criteria")
+        @ApiResponse(responseCode = "400", description = "Invalid search criteria or page beyond the result cap")
     })
     @PostMapping("/search")
     @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
-    public ResponseEntity<List<TravelBookingResponse>> searchTravelOptions(
-            @Valid @RequestBody TravelBookingRequest searchCriteria) {
+    public ResponseEntity<Page<TravelBookingResponse>> searchTravelOptions(
+            @Valid @RequestBody TravelBookingRequest searchCriteria,
+            
+            @Parameter(description = "Page number (0-based)") 
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            
+            @Parameter(description = "Page size") 
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            
+            @Parameter(description = "Minimum price") 
+            @RequestParam(required = false) BigDecimal minPrice,
+            
+            @Parameter(description = "Maximum price") 
+            @RequestParam(required = false) BigDecimal maxPrice,
+            
+            @Parameter(description = "Refundable options only (true) or non-refundable only (false)") 
+            @RequestParam(required = false) Boolean refundable,
+            
+            @Parameter(description = "Service class, e.g. ECONOMY, BUSINESS") 
+            @RequestParam(required = false) String serviceClass) {
         
         log.info("Searching travel options: {} from {} to {} on {}", 
                 searchCriteria.getBookingType(), searchCriteria.getOrigin(), 
                 searchCriteria.getDestination(), searchCriteria.getTravelDate());
         
-        List<TravelBookingResponse> options = bookingService.searchTravelOptions(searchCriteria);
+        Page<TravelBookingResponse> options = bookingService.searchTravelOptions(searchCriteria,
+                new SearchFilter(minPrice, maxPrice, refundable, serviceClass), page, size);
         
         return ResponseEntity.ok(options);
     }
 
+    @Operation(
+        summary = "Stream Available Options",
+        description = "Search for available travel options, streaming each provider's options as server-sent events as they arrive"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search stream started"),
+        @ApiResponse(responseCode = "400", description = "Invalid search criteria")
+    })
+    @PostMapping(value = "/search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
+    public SseEmitter streamTravelOptions(
+            @Valid @RequestBody TravelBookingRequest searchCriteria,
+            
+            @Parameter(description = "Minimum price") 
+            @RequestParam(required = false) BigDecimal minPrice,
+            
+            @Parameter(description = "Maximum price") 
+            @RequestParam(required = false) BigDecimal maxPrice,
+            
+            @Parameter(description = "Refundable options only (true) or non-refundable only (false)") 
+            @RequestParam(required = false) Boolean refundable,
+            
+            @Parameter(description = "Service class, e.g. ECONOMY, BUSINESS") 
+            @RequestParam(required = false) String serviceClass) {
+        
+        log.info("Streaming travel options: {} from {} to {} on {}", 
+                searchCriteria.getBookingType(), searchCriteria.getOrigin(), 
+                searchCriteria.getDestination(), searchCriteria.getTravelDate());
+        
+        SseEmitter emitter = new SseEmitter(searchStreamTimeout.toMillis());
+        SearchFilter filter = new SearchFilter(minPrice, maxPrice, refundable, serviceClass);
+        bookingService.streamTravelOptions(searchCriteria, filter, options -> {
+            try {
+                emitter.send(SseEmitter.event().name("options").data(options, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((ignored, error) -> {
+            try {
+                emitter.send(SseEmitter.event().name("complete").data("", MediaType.TEXT_PLAIN));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        
+        return emitter;
+    }
+
     @Operation(
         summary = "Confirm Booking",
         description = "Confirm a pending travel booking"
@@ -416,6 +497,19 @@ public class TravelBookingController {
     }
 
     // Exception handlers
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException e) {
+        log.warn("Invalid travel booking request: {}", e.getMessage());
+        
+        ErrorResponse error = ErrorResponse.builder()
+                .error("INVALID_REQUEST")
+                .message(e.getMessage())
+                .timestamp(System.currentTimeMillis())
+                .build();
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
         log.error("Travel booking controller error", e);
@@ -51,6 +51,8 @@ public class TravelBookingRequest {
 
     private LocalDateTime returnDate;
 
+    private LocalDateTime checkOutDate;      // Hotel check-out or car rental return
+
     @NotNull(message = "Passenger count is required")
     @Min(value = 1, message = "Passenger count must be at least 1")
     @Max(value = 9, message = "Passenger count must not exceed 9")
@@ -10,17 +10,24 @@ import com.woltaxi.travel.service.provider.TravelProviderFactory;
 import com.woltaxi.travel.service.commission.CommissionCalculationService;
 import com.woltaxi.travel.service.document.DocumentGenerationService;
 import com.woltaxi.travel.service.notification.TravelNotificationService;
+import com.woltaxi.travel.service.search.ProviderSearchFanOut;
+import com.woltaxi.travel.service.search.SearchFilter;
+import com.woltaxi.travel.service.search.TopKSearchMerge;
 import com.woltaxi.travel.repository.TravelBookingRepository;
 import com.woltaxi.travel.repository.TravelPartnerRepository;
 import com.woltaxi.travel.repository.CommissionRecordRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.redis.core.RedisTemplate;
 
@@ -28,6 +35,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -53,6 +62,7 @@ public class TravelBookingService {
     private final DocumentGenerationService documentGenerationService;
     private final TravelNotificationService notificationService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final ProviderSearchFanOut searchFanOut;
 
     /**
      * Create a new travel booking
@@ -120,45 +130,54 @@ public class TravelBookingService {
     }
 
     /**
-     * Search for available travel options
+     * Search for available travel options, one page of the options matching the filter
      */
-    @Cacheable(value = "travel-search", key = "#request.hashCode()")
-    public List<TravelBookingResponse> searchTravelOptions(TravelBookingRequest request) {
+    public Page<TravelBookingResponse> searchTravelOptions(TravelBookingRequest request, SearchFilter filter,
+            int page, int size) {
         log.info("Searching travel options: {} from {} to {}", 
                 request.getBookingType(), request.getOrigin(), request.getDestination());
 
-        List<TravelBookingResponse> allOptions = new ArrayList<>();
-
         // Get relevant providers for booking type
         List<TravelPartner> activeProviders = partnerRepository.findByBookingTypeAndStatus(
                 request.getBookingType(), TravelPartner.PartnerStatus.ACTIVE);
 
-        for (TravelPartner partner : activeProviders) {
-            try {
-                TravelProviderService providerService = providerFactory.getProviderService(partner.getProvider());
-                List<TravelOption> options = providerService.searchOptions(request);
-                
-                // Convert to responses
-                List<TravelBookingResponse> responses = options.stream()
-                        .map(option -> convertOptionToResponse(option, partner))
-                        .collect(Collectors.toList());
-                
-                allOptions.addAll(responses);
-                
-            } catch (Exception e) {
-                log.error("Error searching with provider: {}", partner.getProvider(), e);
-                // Continue with other providers
-            }
-        }
+        // Query all providers concurrently and merge their options into the requested page as they arrive,
+        // providers missing the deadline are left out
+        TopKSearchMerge merge = new TopKSearchMerge(filter, page, size);
+        searchFanOut.dispatch(request, activeProviders, merge::offer).join();
 
-        // Sort by price and rating
-        allOptions.sort((a, b) -> {
-            int priceCompare = a.getTotalPrice().compareTo(b.getTotalPrice());
-            if (priceCompare != 0) return priceCompare;
-            return Double.compare(b.getProviderRating(), a.getProviderRating());
-        });
+        // Convert only the options of the page
+        List<TravelBookingResponse> options = merge.page().stream()
+                .map(candidate -> convertOptionToResponse(candidate.option(), candidate.partner()))
+                .collect(Collectors.toList());
 
-        return allOptions;
+        // Only the best MAX_CANDIDATES options are reachable by paging
+        long total = Math.min(merge.matched(), TopKSearchMerge.MAX_CANDIDATES);
+        return new PageImpl<>(options, PageRequest.of(page, size), total);
+    }
+
+    /**
+     * Search for available travel options, handing each provider's options
+     * matching the filter (sorted by price and rating) to the callback as soon
+     * as they arrive. The returned future completes once all providers
+     * answered or the search deadline passed.
+     */
+    @Transactional(readOnly = true)
+    public CompletableFuture<Void> streamTravelOptions(TravelBookingRequest request, SearchFilter filter,
+            Consumer<List<TravelBookingResponse>> onProviderOptions) {
+        log.info("Streaming travel options: {} from {} to {}", 
+                request.getBookingType(), request.getOrigin(), request.getDestination());
+
+        List<TravelPartner> activeProviders = partnerRepository.findByBookingTypeAndStatus(
+                request.getBookingType(), TravelPartner.PartnerStatus.ACTIVE);
+
+        return searchFanOut.dispatch(request, activeProviders, result -> onProviderOptions.accept(
+                result.options().stream()
+                        .filter(filter::matches)
+                        .map(option -> new TopKSearchMerge.Candidate(option, result.partner()))
+                        .sorted(TopKSearchMerge.ORDER)
+                        .map(candidate -> convertOptionToResponse(candidate.option(), candidate.partner()))
+                        .collect(Collectors.toList())));
     }
 
     /**
@@ -543,34 +562,23 @@ public class TravelBookingService {
     /**
      * Get travel options
      */
-    @Cacheable(value = "travel-options", key = "#bookingType + '-' + #origin + '-' + #destination + '-' + #travelDate")
     public List<TravelOption> getTravelOptions(TravelBooking.BookingType bookingType, String origin, 
             String destination, LocalDateTime travelDate, int passengerCount) {
         
         List<TravelPartner> activeProviders = partnerRepository.findByBookingTypeAndStatus(
                 bookingType, TravelPartner.PartnerStatus.ACTIVE);
 
-        List<TravelOption> allOptions = new ArrayList<>();
+        TravelBookingRequest searchRequest = TravelBookingRequest.builder()
+                .bookingType(bookingType)
+                .origin(origin)
+                .destination(destination)
+                .travelDate(travelDate)
+                .passengerCount(passengerCount)
+                .build();
 
-        for (TravelPartner partner : activeProviders) {
-            try {
-                TravelProviderService providerService = providerFactory.getProviderService(partner.getProvider());
-                
-                TravelBookingRequest searchRequest = TravelBookingRequest.builder()
-                        .bookingType(bookingType)
-                        .origin(origin)
-                        .destination(destination)
-                        .travelDate(travelDate)
-                        .passengerCount(passengerCount)
-                        .build();
-
-                List<TravelOption> options = providerService.searchOptions(searchRequest);
-                allOptions.addAll(options);
-                
-            } catch (Exception e) {
-                log.error("Error getting options from provider: {}", partner.getProvider(), e);
-            }
-        }
+        List<TravelOption> allOptions = searchFanOut.search(searchRequest, activeProviders).stream()
+                .flatMap(result -> result.options().stream())
+                .collect(Collectors.toList());
 
         // Sort by price
         allOptions.sort(Comparator.comparing(TravelOption::getPrice));
@@ -853,6 +861,8 @@ public class TravelBookingService {
 
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class TravelOption {
         private String providerId;
         private String providerName;
@@ -2,12 +2,17 @@ package com.woltaxi.travel.service.provider;
 
 import com.woltaxi.travel.dto.request.TravelBookingRequest;
 import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+import com.woltaxi.travel.service.provider.client.ProviderHttpClients;
+import com.woltaxi.travel.service.provider.client.StreamingJsonDecoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,6 +34,8 @@ import java.util.*;
 public class AmadeusFlightService implements TravelProviderService {
 
     private final RestTemplate restTemplate;
+    private final ProviderHttpClients httpClients;
+    private final StreamingJsonDecoder jsonDecoder;
 
     @Value("${travel.providers.amadeus.api-url}")
     private String apiUrl;
@@ -42,39 +49,35 @@ public class AmadeusFlightService implements TravelProviderService {
     @Value("${travel.providers.amadeus.timeout:30000}")
     private int timeout;
 
-    private String accessToken;
-    private LocalDateTime tokenExpiryTime;
+    private volatile String accessToken;
+    private volatile LocalDateTime tokenExpiryTime;
 
     @Override
     public List<TravelOption> searchOptions(TravelBookingRequest request) {
-        log.info("Searching flights with Amadeus: {} to {} on {}", 
-                request.getOrigin(), request.getDestination(), request.getTravelDate());
-
         try {
-            ensureAccessToken();
-
-            String endpoint = "/v2/shopping/flight-offers";
-            Map<String, Object> searchParams = buildSearchParams(request);
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(searchParams, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    apiUrl + endpoint, HttpMethod.POST, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return parseFlightOffers(response.getBody(), request);
-            }
-
-            log.warn("No flight offers returned from Amadeus");
-            return Collections.emptyList();
-
+            return searchOptionsAsync(request).block();
         } catch (Exception e) {
             log.error("Error searching flights with Amadeus", e);
             return Collections.emptyList();
         }
     }
 
+    @Override
+    public Mono<List<TravelOption>> searchOptionsAsync(TravelBookingRequest request) {
+        log.info("Searching flights with Amadeus: {} to {} on {}", 
+                request.getOrigin(), request.getDestination(), request.getTravelDate());
+
+        return accessTokenAsync()
+                .flatMapMany(token -> webClient().post()
+                        .uri("/v2/shopping/flight-offers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .headers(headers -> headers.setBearerAuth(token))
+                        .bodyValue(buildSearchParams(request))
+                        .exchangeToFlux(response -> jsonDecoder.arrayElements(response, "data.flightOffers")))
+                .mapNotNull(offer -> parseFlightOffer(offer, request))
+                .collectList();
+    }
+
     @Override
     public TravelOption checkAvailability(TravelBookingRequest request) {
         List<TravelOption> options = searchOptions(request);
@@ -330,6 +333,33 @@ public class AmadeusFlightService implements TravelProviderService {
 
     // Private helper methods
 
+    private WebClient webClient() {
+        return httpClients.webClient("amadeus", apiUrl);
+    }
+
+    private Mono<String> accessTokenAsync() {
+        String token = accessToken;
+        if (token != null && tokenExpiryTime != null && LocalDateTime.now().isBefore(tokenExpiryTime)) {
+            return Mono.just(token);
+        }
+
+        return webClient().post()
+                .uri("/v1/security/oauth2/token")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .bodyValue("grant_type=client_credentials&client_id=" + apiKey + "&client_secret=" + apiSecret)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .map(tokenData -> {
+                    Integer expiresIn = (Integer) tokenData.get("expires_in");
+                    tokenExpiryTime = LocalDateTime.now().plusSeconds(expiresIn - 60); // Refresh 1 minute early
+                    accessToken = (String) tokenData.get("access_token");
+
+                    log.info("Amadeus access token refreshed, expires at: {}", tokenExpiryTime);
+                    return accessToken;
+                })
+                .onErrorMap(e -> new RuntimeException("Failed to authenticate with Amadeus", e));
+    }
+
     private void ensureAccessToken() {
         if (accessToken == null || tokenExpiryTime == null || LocalDateTime.now().isAfter(tokenExpiryTime)) {
             refreshAccessToken();
@@ -436,34 +466,6 @@ public class AmadeusFlightService implements TravelProviderService {
         return bookingData;
     }
 
-    private List<TravelOption> parseFlightOffers(Map<String, Object> response, TravelBookingRequest request) {
-        List<TravelOption> options = new ArrayList<>();
-        
-        try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> flightOffers = (List<Map<String, Object>>) 
-                    ((Map<String, Object>) response.get("data")).get("flightOffers");
-
-            if (flightOffers == null) return options;
-
-            for (Map<String, Object> offer : flightOffers) {
-                try {
-                    TravelOption option = parseFlightOffer(offer, request);
-                    if (option != null) {
-                        options.add(option);
-                    }
-                } catch (Exception e) {
-                    log.warn("Error parsing flight offer", e);
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Error parsing flight offers from Amadeus", e);
-        }
-
-        return options;
-    }
-
     private TravelOption parseFlightOffer(Map<String, Object> offer, TravelBookingRequest request) {
         try {
             String offerId = (String) offer.get("id");
@@ -2,12 +2,17 @@ package com.woltaxi.travel.service.provider;
 
 import com.woltaxi.travel.dto.request.TravelBookingRequest;
 import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+import com.woltaxi.travel.service.provider.client.ProviderHttpClients;
+import com.woltaxi.travel.service.provider.client.StreamingJsonDecoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,6 +34,8 @@ import java.util.*;
 public class BookingComService implements TravelProviderService {
 
     private final RestTemplate restTemplate;
+    private final ProviderHttpClients httpClients;
+    private final StreamingJsonDecoder jsonDecoder;
 
     @Value("${travel.providers.booking-com.api-url}")
     private String apiUrl;
@@ -41,31 +48,32 @@ public class BookingComService implements TravelProviderService {
 
     @Override
     public List<TravelOption> searchOptions(TravelBookingRequest request) {
-        log.info("Searching Booking.com hotels in {} from {} to {}", 
-                request.getDestination(), request.getTravelDate(), request.getCheckOutDate());
-
         try {
-            String endpoint = "/v1/hotels/search";
-            Map<String, Object> searchParams = buildBookingComSearchParams(request);
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(searchParams, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    apiUrl + endpoint, HttpMethod.POST, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return parseBookingComOffers(response.getBody(), request);
-            }
-
-            return Collections.emptyList();
-
+            return searchOptionsAsync(request).block();
         } catch (Exception e) {
             log.error("Error searching Booking.com hotels", e);
             return Collections.emptyList();
         }
     }
 
+    @Override
+    public Mono<List<TravelOption>> searchOptionsAsync(TravelBookingRequest request) {
+        log.info("Searching Booking.com hotels in {} from {} to {}", 
+                request.getDestination(), request.getTravelDate(), request.getCheckOutDate());
+
+        return Flux.defer(() -> webClient().post()
+                        .uri("/v1/hotels/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .headers(headers -> {
+                            headers.set("X-Booking-API-Key", apiKey);
+                            headers.set("X-Booking-Affiliate-ID", affiliateId);
+                        })
+                        .bodyValue(buildBookingComSearchParams(request))
+                        .exchangeToFlux(response -> jsonDecoder.arrayElements(response, "hotels")))
+                .mapNotNull(hotel -> parseBookingComHotel(hotel, request))
+                .collectList();
+    }
+
     @Override
     public TravelOption checkAvailability(TravelBookingRequest request) {
         List<TravelOption> options = searchOptions(request);
@@ -291,6 +299,10 @@ public class BookingComService implements TravelProviderService {
 
     // Private helper methods
 
+    private WebClient webClient() {
+        return httpClients.webClient("booking-com", apiUrl);
+    }
+
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -358,33 +370,6 @@ public class BookingComService implements TravelProviderService {
         return modificationData;
     }
 
-    private List<TravelOption> parseBookingComOffers(Map<String, Object> response, TravelBookingRequest request) {
-        List<TravelOption> options = new ArrayList<>();
-        
-        try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> hotels = (List<Map<String, Object>>) response.get("hotels");
-
-            if (hotels == null) return options;
-
-            for (Map<String, Object> hotel : hotels) {
-                try {
-                    TravelOption option = parseBookingComHotel(hotel, request);
-                    if (option != null) {
-                        options.add(option);
-                    }
-                } catch (Exception e) {
-                    log.warn("Error parsing Booking.com hotel", e);
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Error parsing Booking.com response", e);
-        }
-
-        return options;
-    }
-
     private TravelOption parseBookingComHotel(Map<String, Object> hotel, TravelBookingRequest request) {
         try {
             String hotelId = (String) hotel.get("hotel_id");
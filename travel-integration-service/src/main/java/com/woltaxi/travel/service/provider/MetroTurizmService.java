@@ -2,12 +2,17 @@ package com.woltaxi.travel.service.provider;
 
 import com.woltaxi.travel.dto.request.TravelBookingRequest;
 import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+import com.woltaxi.travel.service.provider.client.ProviderHttpClients;
+import com.woltaxi.travel.service.provider.client.StreamingJsonDecoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,6 +34,8 @@ import java.util.*;
 public class MetroTurizmService implements TravelProviderService {
 
     private final RestTemplate restTemplate;
+    private final ProviderHttpClients httpClients;
+    private final StreamingJsonDecoder jsonDecoder;
 
     @Value("${travel.providers.metro-turizm.api-url}")
     private String apiUrl;
@@ -42,38 +49,38 @@ public class MetroTurizmService implements TravelProviderService {
     @Value("${travel.providers.metro-turizm.password}")
     private String password;
 
-    private String sessionToken;
-    private LocalDateTime tokenExpiryTime;
+    private volatile String sessionToken;
+    private volatile LocalDateTime tokenExpiryTime;
 
     @Override
     public List<TravelOption> searchOptions(TravelBookingRequest request) {
-        log.info("Searching Metro Turizm buses: {} to {} on {}", 
-                request.getOrigin(), request.getDestination(), request.getTravelDate());
-
         try {
-            ensureSessionToken();
-
-            String endpoint = "/api/v1/seferler/ara";
-            Map<String, Object> searchParams = buildMetroTurizmSearchParams(request);
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(searchParams, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    apiUrl + endpoint, HttpMethod.POST, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return parseMetroTurizmOffers(response.getBody(), request);
-            }
-
-            return Collections.emptyList();
-
+            return searchOptionsAsync(request).block();
         } catch (Exception e) {
             log.error("Error searching Metro Turizm buses", e);
             return Collections.emptyList();
         }
     }
 
+    @Override
+    public Mono<List<TravelOption>> searchOptionsAsync(TravelBookingRequest request) {
+        log.info("Searching Metro Turizm buses: {} to {} on {}", 
+                request.getOrigin(), request.getDestination(), request.getTravelDate());
+
+        return sessionTokenAsync()
+                .flatMapMany(token -> webClient().post()
+                        .uri("/api/v1/seferler/ara")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .headers(headers -> {
+                            headers.set("X-API-Key", apiKey);
+                            headers.set("Authorization", "Bearer " + token);
+                        })
+                        .bodyValue(buildMetroTurizmSearchParams(request))
+                        .exchangeToFlux(response -> jsonDecoder.arrayElements(response, "seferler")))
+                .mapNotNull(sefer -> parseMetroTurizmSefer(sefer, request))
+                .collectList();
+    }
+
     @Override
     public TravelOption checkAvailability(TravelBookingRequest request) {
         List<TravelOption> options = searchOptions(request);
@@ -311,6 +318,37 @@ public class MetroTurizmService implements TravelProviderService {
 
     // Private helper methods
     
+    private WebClient webClient() {
+        return httpClients.webClient("metro-turizm", apiUrl);
+    }
+
+    private Mono<String> sessionTokenAsync() {
+        String token = sessionToken;
+        if (token != null && tokenExpiryTime != null && LocalDateTime.now().isBefore(tokenExpiryTime)) {
+            return Mono.just(token);
+        }
+
+        return webClient().post()
+                .uri("/api/v1/auth/giris")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> headers.set("X-API-Key", apiKey))
+                .bodyValue(Map.of(
+                        "kullaniciAdi", username,
+                        "sifre", password
+                ))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .map(tokenData -> {
+                    Integer expiresIn = (Integer) tokenData.get("expiresIn");
+                    tokenExpiryTime = LocalDateTime.now().plusSeconds(expiresIn != null ? expiresIn - 60 : 3540);
+                    sessionToken = (String) tokenData.get("sessionToken");
+
+                    log.info("Metro Turizm session token refreshed");
+                    return sessionToken;
+                })
+                .onErrorMap(e -> new RuntimeException("Failed to authenticate with Metro Turizm", e));
+    }
+
     private void ensureSessionToken() {
         if (sessionToken == null || tokenExpiryTime == null || LocalDateTime.now().isAfter(tokenExpiryTime)) {
             refreshSessionToken();
@@ -406,33 +444,6 @@ public class MetroTurizmService implements TravelProviderService {
         return modificationData;
     }
 
-    private List<TravelOption> parseMetroTurizmOffers(Map<String, Object> response, TravelBookingRequest request) {
-        List<TravelOption> options = new ArrayList<>();
-        
-        try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> seferler = (List<Map<String, Object>>) response.get("seferler");
-
-            if (seferler == null) return options;
-
-            for (Map<String, Object> sefer : seferler) {
-                try {
-                    TravelOption option = parseMetroTurizmSefer(sefer, request);
-                    if (option != null) {
-                        options.add(option);
-                    }
-                } catch (Exception e) {
-                    log.warn("Error parsing Metro Turizm sefer", e);
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Error parsing Metro Turizm response", e);
-        }
-
-        return options;
-    }
-
     private TravelOption parseMetroTurizmSefer(Map<String, Object> sefer, TravelBookingRequest request) {
         try {
             String seferKodu = (String) sefer.get("seferKodu");
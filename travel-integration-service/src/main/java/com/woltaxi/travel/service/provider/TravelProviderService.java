@@ -4,6 +4,8 @@ import com.woltaxi.travel.dto.request.TravelBookingRequest;
 import com.woltaxi.travel.service.TravelBookingService.TravelOption;
 import lombok.Builder;
 import lombok.Data;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -31,6 +33,26 @@ public interface TravelProviderService {
      */
     TravelOption checkAvailability(TravelBookingRequest request);
 
+    /**
+     * Search for available travel options without blocking the caller.
+     * Failures are signalled as errors instead of an empty list. Providers with
+     * a non-blocking client override this; the default runs the blocking
+     * search on Reactor's bounded elastic pool.
+     */
+    default Mono<List<TravelOption>> searchOptionsAsync(TravelBookingRequest request) {
+        return Mono.fromCallable(() -> searchOptions(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Check availability for a specific option without blocking the caller,
+     * empty when nothing is available
+     */
+    default Mono<TravelOption> checkAvailabilityAsync(TravelBookingRequest request) {
+        return searchOptionsAsync(request)
+                .mapNotNull(options -> options.isEmpty() ? null : options.get(0));
+    }
+
     /**
      * Make a booking reservation
      */
@@ -2,12 +2,17 @@ package com.woltaxi.travel.service.provider;
 
 import com.woltaxi.travel.dto.request.TravelBookingRequest;
 import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+import com.woltaxi.travel.service.provider.client.ProviderHttpClients;
+import com.woltaxi.travel.service.provider.client.StreamingJsonDecoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,6 +34,8 @@ import java.util.*;
 public class TurkishAirlinesService implements TravelProviderService {
 
     private final RestTemplate restTemplate;
+    private final ProviderHttpClients httpClients;
+    private final StreamingJsonDecoder jsonDecoder;
 
     @Value("${travel.providers.turkish-airlines.api-url}")
     private String apiUrl;
@@ -42,38 +49,38 @@ public class TurkishAirlinesService implements TravelProviderService {
     @Value("${travel.providers.turkish-airlines.client-secret}")
     private String clientSecret;
 
-    private String accessToken;
-    private LocalDateTime tokenExpiryTime;
+    private volatile String accessToken;
+    private volatile LocalDateTime tokenExpiryTime;
 
     @Override
     public List<TravelOption> searchOptions(TravelBookingRequest request) {
-        log.info("Searching Turkish Airlines flights: {} to {} on {}", 
-                request.getOrigin(), request.getDestination(), request.getTravelDate());
-
         try {
-            ensureAccessToken();
-
-            String endpoint = "/v1/flight-search";
-            Map<String, Object> searchParams = buildTurkishAirlinesSearchParams(request);
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(searchParams, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    apiUrl + endpoint, HttpMethod.POST, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return parseTurkishAirlinesOffers(response.getBody(), request);
-            }
-
-            return Collections.emptyList();
-
+            return searchOptionsAsync(request).block();
         } catch (Exception e) {
             log.error("Error searching Turkish Airlines flights", e);
             return Collections.emptyList();
         }
     }
 
+    @Override
+    public Mono<List<TravelOption>> searchOptionsAsync(TravelBookingRequest request) {
+        log.info("Searching Turkish Airlines flights: {} to {} on {}", 
+                request.getOrigin(), request.getDestination(), request.getTravelDate());
+
+        return accessTokenAsync()
+                .flatMapMany(token -> webClient().post()
+                        .uri("/v1/flight-search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .headers(headers -> {
+                            headers.setBearerAuth(token);
+                            headers.set("X-API-Key", apiKey);
+                        })
+                        .bodyValue(buildTurkishAirlinesSearchParams(request))
+                        .exchangeToFlux(response -> jsonDecoder.arrayElements(response, "flights")))
+                .mapNotNull(flight -> parseTurkishAirlinesFlight(flight, request))
+                .collectList();
+    }
+
     @Override
     public TravelOption checkAvailability(TravelBookingRequest request) {
         List<TravelOption> options = searchOptions(request);
@@ -342,6 +349,34 @@ public class TurkishAirlinesService implements TravelProviderService {
 
     // Private helper methods
     
+    private WebClient webClient() {
+        return httpClients.webClient("turkish-airlines", apiUrl);
+    }
+
+    private Mono<String> accessTokenAsync() {
+        String token = accessToken;
+        if (token != null && tokenExpiryTime != null && LocalDateTime.now().isBefore(tokenExpiryTime)) {
+            return Mono.just(token);
+        }
+
+        return webClient().post()
+                .uri("/v1/oauth/token")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .headers(headers -> headers.setBasicAuth(clientId, clientSecret))
+                .bodyValue("grant_type=client_credentials&scope=flight-api")
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .map(tokenData -> {
+                    Integer expiresIn = (Integer) tokenData.get("expires_in");
+                    tokenExpiryTime = LocalDateTime.now().plusSeconds(expiresIn - 60);
+                    accessToken = (String) tokenData.get("access_token");
+
+                    log.info("Turkish Airlines access token refreshed");
+                    return accessToken;
+                })
+                .onErrorMap(e -> new RuntimeException("Failed to authenticate with Turkish Airlines", e));
+    }
+
     private void ensureAccessToken() {
         if (accessToken == null || tokenExpiryTime == null || LocalDateTime.now().isAfter(tokenExpiryTime)) {
             refreshAccessToken();
@@ -450,33 +485,6 @@ public class TurkishAirlinesService implements TravelProviderService {
         return modificationData;
     }
 
-    private List<TravelOption> parseTurkishAirlinesOffers(Map<String, Object> response, TravelBookingRequest request) {
-        List<TravelOption> options = new ArrayList<>();
-        
-        try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> flights = (List<Map<String, Object>>) response.get("flights");
-
-            if (flights == null) return options;
-
-            for (Map<String, Object> flight : flights) {
-                try {
-                    TravelOption option = parseTurkishAirlinesFlight(flight, request);
-                    if (option != null) {
-                        options.add(option);
-                    }
-                } catch (Exception e) {
-                    log.warn("Error parsing Turkish Airlines flight", e);
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Error parsing Turkish Airlines response", e);
-        }
-
-        return options;
-    }
-
     private TravelOption parseTurkishAirlinesFlight(Map<String, Object> flight, TravelBookingRequest request) {
         try {
             String flightId = (String) flight.get("id");
@@ -0,0 +1,140 @@
+package com.woltaxi.travel.service.provider.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provider HTTP Clients
+ *
+ * Shared non-blocking HTTP client layer of the travel provider integrations.
+ * Every provider gets its own WebClient with a dedicated connection pool, so
+ * one slow provider cannot starve the others of connections, while all of
+ * them share one small event-loop group: a search fan-out over N providers
+ * occupies no thread while waiting for answers.
+ *
+ * HTTP/2 is negotiated (ALPN, falling back to HTTP/1.1) for https providers.
+ * Settings come from travel.providers.http.* and can be overridden per
+ * provider under travel.providers.PROVIDER.http.*. Every exchange is timed as
+ * travel.provider.http{provider,method,status}; pools publish the Reactor
+ * Netty connection pool metrics.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class ProviderHttpClients {
+
+    private final WebClient.Builder webClientBuilder;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final LoopResources loopResources;
+
+    private final Map<String, ProviderClient> clients = new ConcurrentHashMap<>();
+
+    public ProviderHttpClients(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry,
+                               Environment environment) {
+        this.webClientBuilder = webClientBuilder;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+
+        int eventLoopThreads = environment.getProperty("travel.providers.http.event-loop-threads", Integer.class,
+                Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        this.loopResources = LoopResources.create("travel-provider-http", eventLoopThreads, true);
+    }
+
+    /**
+     * WebClient of a provider, e.g. webClient("amadeus", apiUrl); created on first use
+     */
+    public WebClient webClient(String provider, String baseUrl) {
+        return clients.computeIfAbsent(provider, name -> createClient(name, baseUrl)).webClient();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(client -> client.pool().dispose());
+        loopResources.dispose();
+    }
+
+    // Private helper methods
+    private ProviderClient createClient(String provider, String baseUrl) {
+        int maxConnections = setting(provider, "max-connections", Integer.class, 50);
+        Duration maxIdleTime = setting(provider, "max-idle-time", Duration.class, Duration.ofSeconds(30));
+        Duration connectTimeout = setting(provider, "connect-timeout", Duration.class, Duration.ofSeconds(2));
+        boolean http2 = setting(provider, "http2", Boolean.class, true) && baseUrl.startsWith("https");
+
+        ConnectionProvider pool = ConnectionProvider.builder("travel-provider-" + provider)
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(setting(provider, "pending-acquire-timeout", Duration.class, Duration.ofSeconds(2)))
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(pool)
+                .runOn(loopResources)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(setting(provider, "response-timeout", Duration.class, Duration.ofSeconds(10)))
+                .compress(true);
+        if (http2) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+
+        log.info("Created HTTP client for provider: {} base-url: {} max-connections: {} http2: {}",
+                provider, baseUrl, maxConnections, http2);
+
+        WebClient webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(latencyMetrics(provider))
+                .build();
+        return new ProviderClient(webClient, pool);
+    }
+
+    private ExchangeFilterFunction latencyMetrics(String provider) {
+        return (request, next) -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return next.exchange(request)
+                    .doOnSuccess(response -> record(sample, provider, request,
+                            String.valueOf(response.statusCode().value())))
+                    .doOnError(error -> record(sample, provider, request, "IO_ERROR"))
+                    .doOnCancel(() -> record(sample, provider, request, "CANCELLED"));
+        };
+    }
+
+    private void record(Timer.Sample sample, String provider, ClientRequest request, String status) {
+        sample.stop(Timer.builder("travel.provider.http")
+                .description("Travel provider HTTP latency until the response headers arrived")
+                .tag("provider", provider)
+                .tag("method", request.method().name())
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    private <T> T setting(String provider, String name, Class<T> type, T defaultValue) {
+        T value = environment.getProperty("travel.providers." + provider + ".http." + name, type);
+        return value != null ? value : environment.getProperty("travel.providers.http." + name, type, defaultValue);
+    }
+
+    private record ProviderClient(
+            WebClient webClient,
+            ConnectionProvider pool
+    ) {}
+}
@@ -0,0 +1,180 @@
+package com.woltaxi.travel.service.provider.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON Decoder
+ *
+ * Decodes the objects of one array inside a provider response while the body
+ * is still arriving. Bytes are fed to Jackson's non-blocking parser buffer by
+ * buffer and every array element is emitted as soon as its closing brace
+ * has been read, so parsing overlaps the transfer and neither the raw body
+ * nor a tree of the whole response is ever held in memory.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamingJsonDecoder {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Objects of the array at {@code path} (dot separated field names from the
+     * root object, e.g. "data.flightOffers") of a successful response; error
+     * statuses are signalled as WebClientResponseException
+     */
+    public Flux<Map<String, Object>> arrayElements(ClientResponse response, String path) {
+        if (response.statusCode().isError()) {
+            return response.createException().flatMapMany(Flux::error);
+        }
+        return arrayElements(response.bodyToFlux(DataBuffer.class), path);
+    }
+
+    public Flux<Map<String, Object>> arrayElements(Flux<DataBuffer> body, String path) {
+        List<String> target = List.of(path.split("\\."));
+        return Flux.defer(() -> {
+            ArrayElementParser parser = new ArrayElementParser(target);
+            return body.concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())))
+                    .doFinally(signal -> parser.close());
+        });
+    }
+
+    /**
+     * Parser state of one response body
+     */
+    private final class ArrayElementParser {
+
+        private final List<String> target;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+
+        // Field name owning each open container, "" for the root and array items
+        private final Deque<String> path = new ArrayDeque<>();
+        private String fieldName;
+        private int targetDepth = -1;
+
+        private TokenBuffer element;
+        private int elementDepth;
+
+        ArrayElementParser(List<String> target) {
+            this.target = target;
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new DecodingException("Could not create a non-blocking JSON parser", e);
+            }
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<Map<String, Object>> feed(DataBuffer buffer) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                feeder.feedInput(bytes, 0, bytes.length);
+                return drain();
+            } catch (IOException e) {
+                throw new DecodingException("Invalid JSON in provider response", e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        List<Map<String, Object>> endOfInput() {
+            feeder.endOfInput();
+            try {
+                return drain();
+            } catch (IOException e) {
+                throw new DecodingException("Invalid JSON in provider response", e);
+            }
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // Nothing to release, the parser reads from fed byte arrays only
+            }
+        }
+
+        private List<Map<String, Object>> drain() throws IOException {
+            List<Map<String, Object>> elements = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (element != null) {
+                    element.copyCurrentEvent(parser);
+                    if (token.isStructStart()) {
+                        elementDepth++;
+                    } else if (token.isStructEnd() && --elementDepth == 0) {
+                        elements.add(objectMapper.readValue(element.asParser(objectMapper), MAP_TYPE));
+                        element = null;
+                    }
+                    continue;
+                }
+
+                switch (token) {
+                    case FIELD_NAME -> fieldName = parser.currentName();
+                    case START_OBJECT, START_ARRAY -> {
+                        if (token == JsonToken.START_OBJECT && path.size() == targetDepth) {
+                            element = new TokenBuffer(parser);
+                            element.copyCurrentEvent(parser);
+                            elementDepth = 1;
+                            continue;
+                        }
+                        path.addLast(fieldName != null ? fieldName : "");
+                        fieldName = null;
+                        if (token == JsonToken.START_ARRAY && isTarget()) {
+                            targetDepth = path.size();
+                        }
+                    }
+                    case END_OBJECT, END_ARRAY -> {
+                        if (path.size() == targetDepth) {
+                            targetDepth = -1;
+                        }
+                        path.removeLast();
+                    }
+                    default -> fieldName = null;
+                }
+            }
+            return elements;
+        }
+
+        private boolean isTarget() {
+            if (path.size() != target.size() + 1) {
+                return false;
+            }
+            Iterator<String> names = path.iterator();
+            names.next();
+            for (String name : target) {
+                if (!name.equals(names.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.woltaxi.travel.service.search;
+
+import com.woltaxi.travel.dto.request.TravelBookingRequest;
+import com.woltaxi.travel.entity.TravelPartner;
+import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+import com.woltaxi.travel.service.provider.TravelProviderFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Provider Search Fan-Out
+ *
+ * Scatter-gather over the active partners of a search. All provider calls
+ * are issued at once through their non-blocking search, so a search costs
+ * roughly the slowest provider that answers in time instead of the sum of
+ * all of them, without holding a thread per provider call.
+ *
+ * Each call gets the partner's configured API timeout, capped by the search
+ * provider timeout and by the global search deadline. A call that runs out
+ * of time is cancelled and its results are dropped; providers that fail or
+ * time out never fail the search.
+ *
+ * Providers with results in the {@link TravelSearchCache} are answered from
+ * it; stale entries are served as they are while one background call
+ * refreshes them. The cache is read for all partners in one round trip,
+ * bounded by travel.search.cache.lookup-timeout; when Redis is slower than
+ * that, every partner is searched as if nothing were cached.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderSearchFanOut {
+
+    private final TravelProviderFactory providerFactory;
+    private final TravelSearchCache searchCache;
+    private final MeterRegistry meterRegistry;
+
+    // Results are cached and handed on off the HTTP event loop, which must never block
+    private final ExecutorService callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${travel.search.provider-timeout:PT3S}")
+    private Duration providerTimeout;
+
+    @Value("${travel.search.deadline:PT5S}")
+    private Duration deadline;
+
+    @Value("${travel.search.cache.lookup-timeout:PT200MS}")
+    private Duration cacheLookupTimeout;
+
+    /**
+     * Search all partners and wait for the ones that answer within the deadline
+     */
+    public List<ProviderResult> search(TravelBookingRequest request, List<TravelPartner> partners) {
+        List<ProviderResult> results = Collections.synchronizedList(new ArrayList<>(partners.size()));
+        dispatch(request, partners, results::add).join();
+
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    /**
+     * Search all partners and hand every provider's results to the callback as
+     * soon as they arrive. The returned future completes, never exceptionally,
+     * once every provider answered, failed or ran out of time.
+     */
+    public CompletableFuture<Void> dispatch(TravelBookingRequest request, List<TravelPartner> partners,
+                                            Consumer<ProviderResult> onResult) {
+        TravelSearchCache.SearchKey searchKey = searchCache.searchKey(request);
+        return lookup(partners, searchKey).thenComposeAsync(cached -> {
+            CompletableFuture<?>[] calls = new CompletableFuture<?>[partners.size()];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = call(request, searchKey, partners.get(i), cached.get(i), onResult);
+            }
+            return CompletableFuture.allOf(calls);
+        }, callbackExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackExecutor.shutdown();
+    }
+
+    // Private helper methods
+    /**
+     * Read the cached entries of all partners off the event loop, giving up on the cache after the lookup timeout
+     */
+    private CompletableFuture<List<Optional<TravelSearchCache.Entry>>> lookup(List<TravelPartner> partners,
+                                                                              TravelSearchCache.SearchKey searchKey) {
+        List<Optional<TravelSearchCache.Entry>> nothingCached = Collections.nCopies(partners.size(), Optional.empty());
+        return CompletableFuture.supplyAsync(() -> searchCache.getAll(partners, searchKey), callbackExecutor)
+                .orTimeout(cacheLookupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    log.warn("Search cache did not answer within {}ms for key: {}, searching all providers",
+                            cacheLookupTimeout.toMillis(), searchKey);
+                    return nothingCached;
+                });
+    }
+
+    private CompletableFuture<Void> call(TravelBookingRequest request, TravelSearchCache.SearchKey searchKey,
+                                         TravelPartner partner, Optional<TravelSearchCache.Entry> cached,
+                                         Consumer<ProviderResult> onResult) {
+        if (cached.isPresent()) {
+            boolean fresh = cached.get().isFresh(Instant.now());
+            if (!fresh && searchCache.tryStartRefresh(partner, searchKey)) {
+                refresh(request, searchKey, partner);
+            }
+            countCache(partner, fresh ? "fresh" : "stale");
+            deliver(onResult, new ProviderResult(partner, cached.get().options()));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        countCache(partner, "miss");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return fetch(request, partner).handleAsync((options, error) -> {
+            if (error == null) {
+                record(sample, partner, "success");
+                List<TravelOption> results = options != null ? options : List.of();
+                searchCache.put(partner, searchKey, results);
+                deliver(onResult, new ProviderResult(partner, results));
+            } else {
+                recordFailure(sample, partner, error);
+            }
+            return null;
+        }, callbackExecutor);
+    }
+
+    /**
+     * Re-fetch a stale entry in the background; the search that found it has already been answered
+     */
+    private void refresh(TravelBookingRequest request, TravelSearchCache.SearchKey searchKey, TravelPartner partner) {
+        log.debug("Refreshing stale search results for provider: {} key: {}", partner.getProvider(), searchKey);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        fetch(request, partner).whenCompleteAsync((options, error) -> {
+            try {
+                if (error == null) {
+                    record(sample, partner, "success");
+                    searchCache.put(partner, searchKey, options != null ? options : List.of());
+                } else {
+                    recordFailure(sample, partner, error);
+                }
+            } finally {
+                searchCache.finishRefresh(partner, searchKey);
+            }
+        }, callbackExecutor);
+    }
+
+    /**
+     * Call the provider without blocking, cancelling the call when it runs out of time
+     */
+    private CompletableFuture<List<TravelOption>> fetch(TravelBookingRequest request, TravelPartner partner) {
+        return Mono.defer(() -> providerFactory.getProviderService(partner.getProvider()).searchOptionsAsync(request))
+                .timeout(timeoutFor(partner))
+                .toFuture();
+    }
+
+    private void recordFailure(Timer.Sample sample, TravelPartner partner, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            record(sample, partner, "timeout");
+            log.warn("Provider {} did not answer the search within {}ms, dropping its results",
+                    partner.getProvider(), timeoutFor(partner).toMillis());
+        } else {
+            record(sample, partner, "error");
+            log.error("Error searching with provider: {}", partner.getProvider(), cause);
+        }
+    }
+
+    private Duration timeoutFor(TravelPartner partner) {
+        Duration timeout = providerTimeout.compareTo(deadline) < 0 ? providerTimeout : deadline;
+        if (partner.getApiTimeout() != null && partner.getApiTimeout() > 0) {
+            Duration partnerTimeout = Duration.ofMillis(partner.getApiTimeout());
+            if (partnerTimeout.compareTo(timeout) < 0) {
+                timeout = partnerTimeout;
+            }
+        }
+        return timeout;
+    }
+
+    private void deliver(Consumer<ProviderResult> onResult, ProviderResult result) {
+        try {
+            onResult.accept(result);
+        } catch (RuntimeException e) {
+            // The consumer going away (e.g. a closed event stream) must not affect the other providers
+            log.debug("Search result consumer rejected results from provider: {}", result.partner().getProvider(), e);
+        }
+    }
+
+    private void countCache(TravelPartner partner, String result) {
+        meterRegistry.counter("travel.search.cache",
+                "provider", String.valueOf(partner.getProvider()),
+                "result", result).increment();
+    }
+
+    private void record(Timer.Sample sample, TravelPartner partner, String outcome) {
+        sample.stop(Timer.builder("travel.search.provider")
+                .description("Provider search latency within the fan-out")
+                .tag("provider", String.valueOf(partner.getProvider()))
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Options returned by one partner
+     */
+    public record ProviderResult(
+            TravelPartner partner,
+            List<TravelOption> options
+    ) {}
+}
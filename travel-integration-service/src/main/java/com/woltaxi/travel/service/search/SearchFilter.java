@@ -0,0 +1,41 @@
+package com.woltaxi.travel.service.search;
+
+import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+
+import java.math.BigDecimal;
+
+/**
+ * Search Filter
+ *
+ * Constraints a travel option must meet to be part of the search results;
+ * null fields do not constrain.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public record SearchFilter(
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Boolean refundable,
+        String serviceClass
+) {
+
+    private static final SearchFilter NONE = new SearchFilter(null, null, null, null);
+
+    public static SearchFilter none() {
+        return NONE;
+    }
+
+    public boolean matches(TravelOption option) {
+        if (minPrice != null && (option.getPrice() == null || option.getPrice().compareTo(minPrice) < 0)) {
+            return false;
+        }
+        if (maxPrice != null && (option.getPrice() == null || option.getPrice().compareTo(maxPrice) > 0)) {
+            return false;
+        }
+        if (refundable != null && option.isRefundable() != refundable) {
+            return false;
+        }
+        return serviceClass == null || serviceClass.equalsIgnoreCase(option.getServiceClass());
+    }
+}
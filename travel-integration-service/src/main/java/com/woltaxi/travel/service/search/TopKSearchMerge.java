@@ -0,0 +1,111 @@
+package com.woltaxi.travel.service.search;
+
+import com.woltaxi.travel.entity.TravelPartner;
+import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Top-K Search Merge
+ *
+ * Merges provider results into one page as they arrive. Options failing the
+ * filter are skipped, the rest go through a bounded heap holding only the
+ * best (page + 1) * size candidates, ordered by price, then provider rating,
+ * then provider and option id so pages stay stable between requests. Memory
+ * and sorting work grow with the requested page, not with the number of
+ * options the providers return; callers convert just the page they get.
+ * Pages reaching beyond the best {@value #MAX_CANDIDATES} options are
+ * rejected, so a deep page cannot make the heap unbounded again.
+ *
+ * Thread-safe, providers may offer results concurrently.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+public final class TopKSearchMerge {
+
+    public static final int MAX_CANDIDATES = 5000;
+
+    public static final Comparator<Candidate> ORDER = Comparator
+            .comparing((Candidate candidate) -> candidate.option().getPrice(),
+                    Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(candidate -> candidate.partner().getSuccessRate(),
+                    Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder()))
+            .thenComparing(candidate -> String.valueOf(candidate.partner().getProvider()))
+            .thenComparing(candidate -> candidate.option().getProviderId(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final SearchFilter filter;
+    private final int page;
+    private final int size;
+    private final int capacity;
+
+    // Worst candidate on top, so it is the one evicted
+    private final PriorityQueue<Candidate> heap;
+    private long matched;
+
+    public TopKSearchMerge(SearchFilter filter, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Invalid page: " + page + " size: " + size);
+        }
+        if ((page + 1L) * size > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("Page " + page + " of size " + size
+                    + " reaches beyond the best " + MAX_CANDIDATES + " options");
+        }
+        this.filter = filter != null ? filter : SearchFilter.none();
+        this.page = page;
+        this.size = size;
+        this.capacity = (page + 1) * size;
+        this.heap = new PriorityQueue<>(Math.min(capacity, 256) + 1, ORDER.reversed());
+    }
+
+    public synchronized void offer(ProviderSearchFanOut.ProviderResult result) {
+        for (TravelOption option : result.options()) {
+            if (!filter.matches(option)) {
+                continue;
+            }
+            matched++;
+
+            Candidate candidate = new Candidate(option, result.partner());
+            if (heap.size() < capacity) {
+                heap.add(candidate);
+            } else if (ORDER.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Candidates of the requested page, best first
+     */
+    public synchronized List<Candidate> page() {
+        int offset = page * size;
+        if (heap.size() <= offset) {
+            return List.of();
+        }
+
+        List<Candidate> best = new ArrayList<>(heap);
+        best.sort(ORDER);
+        return List.copyOf(best.subList(offset, best.size()));
+    }
+
+    /**
+     * Number of options that passed the filter, across all pages
+     */
+    public synchronized long matched() {
+        return matched;
+    }
+
+    /**
+     * An option together with the partner that offered it
+     */
+    public record Candidate(
+            TravelOption option,
+            TravelPartner partner
+    ) {}
+}
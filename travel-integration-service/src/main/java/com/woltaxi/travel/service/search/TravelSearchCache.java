@@ -0,0 +1,241 @@
+package com.woltaxi.travel.service.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woltaxi.travel.dto.request.TravelBookingRequest;
+import com.woltaxi.travel.entity.TravelBooking;
+import com.woltaxi.travel.entity.TravelPartner;
+import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Travel Search Cache
+ *
+ * Per-provider cache of search results in Redis, keyed by a canonical search
+ * key (booking type, route, travel, return and check-out day, passenger mix)
+ * so every user searching the same route and days shares one entry,
+ * whatever else their request carries. The key covers every request field
+ * a provider searches by; a new one must be added to it (and the key
+ * version bumped) before a provider starts sending it.
+ *
+ * Entries are fresh for the provider's TTL (travel.search.cache.provider-ttl.PROVIDER,
+ * else the booking type's cache.*.ttl) and may then be served stale for
+ * travel.search.cache.stale-window while a background refresh runs. Empty
+ * results are cached for the shorter negative TTL, so routes nobody serves
+ * do not hit every provider on every search. Failed or timed out provider
+ * calls are never cached.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TravelSearchCache {
+
+    private static final String KEY_PREFIX = "travel-search:v2:";
+    private static final String REFRESH_SUFFIX = ":refresh";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    @Value("${travel.search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${travel.search.cache.stale-window:PT10M}")
+    private Duration staleWindow;
+
+    @Value("${travel.search.cache.negative-ttl:PT2M}")
+    private Duration negativeTtl;
+
+    @Value("${travel.search.cache.refresh-lock:PT30S}")
+    private Duration refreshLock;
+
+    @Value("${cache.flight-search.ttl:PT15M}")
+    private Duration flightTtl;
+
+    @Value("${cache.bus-schedules.ttl:PT60M}")
+    private Duration busTtl;
+
+    @Value("${cache.hotel-availability.ttl:PT30M}")
+    private Duration hotelTtl;
+
+    @Value("${cache.car-rental-rates.ttl:PT45M}")
+    private Duration carRentalTtl;
+
+    /**
+     * Canonical key of a search, independent of who searches and of fields the
+     * providers do not search by
+     */
+    public SearchKey searchKey(TravelBookingRequest request) {
+        int passengers = request.getPassengerCount() != null ? request.getPassengerCount() : 1;
+        int children = 0;
+        int infants = 0;
+        if (request.getPassengerDetails() != null) {
+            for (TravelBookingRequest.PassengerDetails passenger : request.getPassengerDetails()) {
+                if (Boolean.TRUE.equals(passenger.getIsInfant())) {
+                    infants++;
+                } else if (Boolean.TRUE.equals(passenger.getIsChild())) {
+                    children++;
+                }
+            }
+        }
+        int adults = Math.max(passengers - children - infants, 0);
+
+        return new SearchKey(request.getBookingType(), String.join(":",
+                String.valueOf(request.getBookingType()),
+                normalize(request.getOrigin()),
+                normalize(request.getDestination()),
+                dayBucket(request.getTravelDate()),
+                dayBucket(request.getReturnDate()),
+                dayBucket(request.getCheckOutDate()),
+                adults + "-" + children + "-" + infants));
+    }
+
+    /**
+     * Cached entries of all partners for one search in a single round trip,
+     * in the order of the partners; empty where nothing usable is cached
+     */
+    public List<Optional<Entry>> getAll(List<TravelPartner> partners, SearchKey searchKey) {
+        List<Optional<Entry>> entries = new ArrayList<>(Collections.nCopies(partners.size(), Optional.empty()));
+        if (!enabled || partners.isEmpty()) {
+            return entries;
+        }
+
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(partners.stream().map(partner -> key(partner, searchKey)).toList());
+        } catch (RuntimeException e) {
+            // A broken cache degrades to provider calls, never to a failed search
+            log.warn("Could not read cached searches for key: {}", searchKey, e);
+            return entries;
+        }
+        if (values == null) {
+            return entries;
+        }
+
+        for (int i = 0; i < partners.size() && i < values.size(); i++) {
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            try {
+                entries.set(i, Optional.of(objectMapper.readValue(value, Entry.class)));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not read cached search for provider: {} key: {}",
+                        partners.get(i).getProvider(), searchKey, e);
+            }
+        }
+        return entries;
+    }
+
+    public void put(TravelPartner partner, SearchKey searchKey, List<TravelOption> options) {
+        if (!enabled) {
+            return;
+        }
+
+        Duration ttl = options.isEmpty() ? negativeTtl : ttlFor(partner, searchKey.bookingType());
+        Instant now = Instant.now();
+        try {
+            redisTemplate.opsForValue().set(key(partner, searchKey),
+                    objectMapper.writeValueAsString(new Entry(options, now, now.plus(ttl))),
+                    ttl.plus(staleWindow));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not cache search for provider: {} key: {}", partner.getProvider(), searchKey, e);
+        }
+    }
+
+    /**
+     * Claim the background refresh of a stale entry, so only one instance
+     * refreshes it while the others keep serving the stale results
+     */
+    public boolean tryStartRefresh(TravelPartner partner, SearchKey searchKey) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(key(partner, searchKey) + REFRESH_SUFFIX, "1", refreshLock));
+        } catch (RuntimeException e) {
+            log.warn("Could not claim search refresh for provider: {} key: {}", partner.getProvider(), searchKey, e);
+            return false;
+        }
+    }
+
+    public void finishRefresh(TravelPartner partner, SearchKey searchKey) {
+        try {
+            redisTemplate.delete(key(partner, searchKey) + REFRESH_SUFFIX);
+        } catch (RuntimeException e) {
+            log.debug("Could not release search refresh for provider: {} key: {}", partner.getProvider(), searchKey, e);
+        }
+    }
+
+    // Private helper methods
+    private Duration ttlFor(TravelPartner partner, TravelBooking.BookingType bookingType) {
+        Duration providerTtl = environment.getProperty(
+                "travel.search.cache.provider-ttl." + partner.getProvider(), Duration.class);
+        if (providerTtl != null) {
+            return providerTtl;
+        }
+
+        if (bookingType == null) {
+            return flightTtl;
+        }
+        return switch (bookingType) {
+            case FLIGHT -> flightTtl;
+            case BUS, TRAIN, FERRY -> busTtl;
+            case HOTEL, PACKAGE_TOUR -> hotelTtl;
+            case CAR_RENTAL -> carRentalTtl;
+        };
+    }
+
+    private static String key(TravelPartner partner, SearchKey searchKey) {
+        return KEY_PREFIX + partner.getProvider() + ":" + searchKey.value();
+    }
+
+    private static String normalize(String location) {
+        return location != null ? location.trim().toUpperCase(Locale.ROOT) : "-";
+    }
+
+    private static String dayBucket(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toLocalDate().toString() : "-";
+    }
+
+    /**
+     * Canonical search key, e.g. FLIGHT:IST:AYT:2024-07-01:-:-:2-1-0
+     */
+    public record SearchKey(
+            TravelBooking.BookingType bookingType,
+            String value
+    ) {
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    /**
+     * Cached options of one provider for one search
+     */
+    public record Entry(
+            List<TravelOption> options,
+            Instant fetchedAt,
+            Instant freshUntil
+    ) {
+        public boolean isFresh(Instant now) {
+            return now.isBefore(freshUntil);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.woltaxi.travel.service.provider.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Streaming JSON Decoder Test
+ *
+ * Array elements must decode the same whatever the buffer boundaries of the
+ * response body, including splits inside tokens and multi-byte characters.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+class StreamingJsonDecoderTest {
+
+    private static final String BODY = "{\"meta\":{\"items\":[{\"id\":\"meta\"}],\"count\":2},"
+            + "\"data\":{\"route\":\"İstanbul – Ankara\",\"items\":["
+            + "{\"id\":\"a\",\"price\":12.5,\"tags\":[\"wifi\",{\"seats\":[1,2]}]},"
+            + "7,[{\"id\":\"nested-array\"}],"
+            + "{\"id\":\"b\",\"name\":\"Çeşme\",\"nested\":{\"items\":[{\"id\":\"inner\"}]}}],"
+            + "\"after\":{\"items\":[{\"id\":\"after\"}]}}}";
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+    private final StreamingJsonDecoder decoder = new StreamingJsonDecoder(new ObjectMapper());
+
+    @Test
+    void decodesTheTargetArrayFromOneBuffer() {
+        List<Map<String, Object>> elements = decode(chunks(BODY, Integer.MAX_VALUE), "data.items");
+
+        assertThat(elements).extracting(element -> element.get("id")).containsExactly("a", "b");
+        assertThat(elements.get(0)).containsEntry("price", 12.5)
+                .containsEntry("tags", List.of("wifi", Map.of("seats", List.of(1, 2))));
+        assertThat(elements.get(1)).containsEntry("name", "Çeşme");
+    }
+
+    @Test
+    void decodesTheSameElementsWhereverTheBodyIsSplit() {
+        List<Map<String, Object>> expected = decode(chunks(BODY, Integer.MAX_VALUE), "data.items");
+        int length = BODY.getBytes(StandardCharsets.UTF_8).length;
+
+        // Every chunk size splits tokens, field names and multi-byte characters at different offsets
+        for (int chunkSize = 1; chunkSize < length; chunkSize++) {
+            assertThat(decode(chunks(BODY, chunkSize), "data.items"))
+                    .as("chunk size %d", chunkSize)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void emitsEachElementOnceItsClosingBraceArrives() {
+        byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+        int split = BODY.substring(0, BODY.indexOf("]}]},") + 4).getBytes(StandardCharsets.UTF_8).length;
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        List<Object> ids = new ArrayList<>();
+        decoder.arrayElements(body.asFlux(), "data.items").subscribe(element -> ids.add(element.get("id")));
+
+        body.tryEmitNext(bufferFactory.wrap(Arrays.copyOfRange(bytes, 0, split)));
+        assertThat(ids).containsExactly("a");
+
+        body.tryEmitNext(bufferFactory.wrap(Arrays.copyOfRange(bytes, split, bytes.length)));
+        body.tryEmitComplete();
+        assertThat(ids).containsExactly("a", "b");
+    }
+
+    @Test
+    void ignoresArraysOfTheSameNameElsewhere() {
+        assertThat(decode(chunks(BODY, 3), "meta.items")).extracting(element -> element.get("id"))
+                .containsExactly("meta");
+        assertThat(decode(chunks(BODY, 3), "items")).isEmpty();
+        assertThat(decode(chunks(BODY, 3), "data.missing")).isEmpty();
+    }
+
+    @Test
+    void failsOnTruncatedBodies() {
+        String truncated = BODY.substring(0, BODY.indexOf("\"after\"") - 30);
+
+        assertThatThrownBy(() -> decode(chunks(truncated, 5), "data.items"))
+                .isInstanceOf(DecodingException.class);
+    }
+
+    @Test
+    void signalsErrorStatusesAsResponseExceptions() {
+        ClientResponse response = ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).body("busy").build();
+
+        assertThatThrownBy(() -> decoder.arrayElements(response, "data.items").collectList().block())
+                .isInstanceOf(WebClientResponseException.class);
+    }
+
+    // Private helper methods
+    private List<Map<String, Object>> decode(List<DataBuffer> buffers, String path) {
+        return decoder.arrayElements(Flux.fromIterable(buffers), path).collectList().block();
+    }
+
+    private List<DataBuffer> chunks(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        int step = Math.min(chunkSize, bytes.length);
+        for (int offset = 0; offset < bytes.length; offset += step) {
+            buffers.add(bufferFactory.wrap(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + step))));
+        }
+        return buffers;
+    }
+}
@@ -0,0 +1,153 @@
+package com.woltaxi.travel.service.search;
+
+import com.woltaxi.travel.entity.TravelBooking;
+import com.woltaxi.travel.entity.TravelPartner;
+import com.woltaxi.travel.service.TravelBookingService.TravelOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Top-K Search Merge Test
+ *
+ * Pages must not depend on the order providers answer in, and consecutive
+ * pages must cover the ordered results without gaps or repeats.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+class TopKSearchMergeTest {
+
+    private final TravelPartner amadeus = partner(TravelBooking.TravelProvider.AMADEUS, "97.5");
+    private final TravelPartner pegasus = partner(TravelBooking.TravelProvider.PEGASUS, "99.0");
+    private final TravelPartner turkish = partner(TravelBooking.TravelProvider.TURKISH_AIRLINES, "97.5");
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 42})
+    void servesTheSamePagesWhateverOrderProvidersAnswerIn(int seed) {
+        List<ProviderSearchFanOut.ProviderResult> results = results();
+        List<String> expected = pages(results, 4, 10);
+
+        List<ProviderSearchFanOut.ProviderResult> shuffled = new ArrayList<>();
+        for (ProviderSearchFanOut.ProviderResult result : results) {
+            List<TravelOption> options = new ArrayList<>(result.options());
+            Collections.shuffle(options, new Random(seed));
+            // Split each provider's answer in two batches to vary arrival order further
+            shuffled.add(new ProviderSearchFanOut.ProviderResult(result.partner(), options.subList(0, 5)));
+            shuffled.add(new ProviderSearchFanOut.ProviderResult(result.partner(), options.subList(5, options.size())));
+        }
+        Collections.shuffle(shuffled, new Random(seed));
+
+        assertThat(pages(shuffled, 4, 10)).isEqualTo(expected);
+    }
+
+    @Test
+    void consecutivePagesCoverTheOrderedResultsWithoutGapsOrRepeats() {
+        List<ProviderSearchFanOut.ProviderResult> results = results();
+        List<String> all = new ArrayList<>();
+        for (ProviderSearchFanOut.ProviderResult result : results) {
+            for (TravelOption option : result.options()) {
+                all.add(id(new TopKSearchMerge.Candidate(option, result.partner())));
+            }
+        }
+
+        List<String> paged = pages(results, 5, 7);
+
+        assertThat(paged).hasSize(all.size()).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(all);
+    }
+
+    @Test
+    void breaksPriceTiesByRatingThenProviderThenOptionId() {
+        TopKSearchMerge merge = new TopKSearchMerge(SearchFilter.none(), 0, 10);
+        merge.offer(new ProviderSearchFanOut.ProviderResult(turkish, List.of(option("B", "100"), option("A", "100"))));
+        merge.offer(new ProviderSearchFanOut.ProviderResult(amadeus, List.of(option("Z", "100"))));
+        merge.offer(new ProviderSearchFanOut.ProviderResult(pegasus, List.of(option("Y", "100"), option("X", "90"))));
+
+        assertThat(merge.page()).extracting(TopKSearchMergeTest::id)
+                .containsExactly("PEGASUS/X", "PEGASUS/Y", "AMADEUS/Z", "TURKISH_AIRLINES/A", "TURKISH_AIRLINES/B");
+    }
+
+    @Test
+    void countsOnlyOptionsPassingTheFilter() {
+        TopKSearchMerge merge = new TopKSearchMerge(
+                new SearchFilter(new BigDecimal("100"), new BigDecimal("150"), null, null), 0, 2);
+        merge.offer(new ProviderSearchFanOut.ProviderResult(amadeus,
+                List.of(option("A", "99"), option("B", "100"), option("C", "150"), option("D", "120"), option("E", "151"))));
+
+        assertThat(merge.matched()).isEqualTo(3);
+        assertThat(merge.page()).extracting(TopKSearchMergeTest::id).containsExactly("AMADEUS/B", "AMADEUS/D");
+    }
+
+    @Test
+    void returnsAnEmptyPageBeyondTheResults() {
+        TopKSearchMerge merge = new TopKSearchMerge(SearchFilter.none(), 3, 10);
+        results().forEach(merge::offer);
+
+        assertThat(merge.page()).isEmpty();
+        assertThat(merge.matched()).isEqualTo(30);
+    }
+
+    @Test
+    void rejectsPagesBeyondTheCandidateCap() {
+        assertThat(new TopKSearchMerge(SearchFilter.none(), 49, 100).page()).isEmpty();
+
+        assertThatThrownBy(() -> new TopKSearchMerge(SearchFilter.none(), 50, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TopKSearchMerge(SearchFilter.none(), Integer.MAX_VALUE, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TopKSearchMerge(SearchFilter.none(), -1, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Private helper methods
+    /**
+     * Ten options per provider over five price points, so every page boundary falls into ties
+     */
+    private List<ProviderSearchFanOut.ProviderResult> results() {
+        List<ProviderSearchFanOut.ProviderResult> results = new ArrayList<>();
+        for (TravelPartner partner : List.of(amadeus, pegasus, turkish)) {
+            List<TravelOption> options = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                options.add(option(String.format("%02d", i), String.valueOf(100 + (i * 7) % 5)));
+            }
+            results.add(new ProviderSearchFanOut.ProviderResult(partner, options));
+        }
+        return results;
+    }
+
+    private static List<String> pages(List<ProviderSearchFanOut.ProviderResult> results, int pages, int size) {
+        List<String> ids = new ArrayList<>();
+        for (int page = 0; page < pages; page++) {
+            TopKSearchMerge merge = new TopKSearchMerge(SearchFilter.none(), page, size);
+            results.forEach(merge::offer);
+            merge.page().stream().map(TopKSearchMergeTest::id).forEach(ids::add);
+        }
+        return ids;
+    }
+
+    private static String id(TopKSearchMerge.Candidate candidate) {
+        return candidate.partner().getProvider() + "/" + candidate.option().getProviderId();
+    }
+
+    private static TravelOption option(String providerId, String price) {
+        return TravelOption.builder().providerId(providerId).price(new BigDecimal(price)).build();
+    }
+
+    private static TravelPartner partner(TravelBooking.TravelProvider provider, String successRate) {
+        TravelPartner partner = mock(TravelPartner.class);
+        when(partner.getProvider()).thenReturn(provider);
+        when(partner.getSuccessRate()).thenReturn(new BigDecimal(successRate));
+        return partner;
+    }
+}
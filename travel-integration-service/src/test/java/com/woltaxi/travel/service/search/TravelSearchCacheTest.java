@@ -0,0 +1,165 @@
+package com.woltaxi.travel.service.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.woltaxi.travel.dto.request.TravelBookingRequest;
+import com.woltaxi.travel.entity.TravelBooking;
+import com.woltaxi.travel.entity.TravelPartner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Travel Search Cache Test
+ *
+ * Canonical search keys and the single round trip cache read of all partners.
+ *
+ * @author WOLTAXI Development Team
+ * @version 1.0.0
+ */
+class TravelSearchCacheTest {
+
+    private static final LocalDateTime CHECK_IN = LocalDateTime.of(2030, 7, 1, 14, 0);
+    private static final LocalDateTime CHECK_OUT = LocalDateTime.of(2030, 7, 4, 11, 0);
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private TravelSearchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TravelSearchCache(redisTemplate, objectMapper, mock(Environment.class));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void sharesTheKeyAcrossUsersCaseWhitespaceAndTimeOfDay() {
+        TravelBookingRequest first = hotel(" istanbul ", CHECK_IN, CHECK_OUT, 2);
+        first.setSpecialRequests("Late arrival");
+        TravelBookingRequest second = hotel("ISTANBUL", CHECK_IN.withHour(9), CHECK_OUT.withHour(18), 2);
+
+        assertThat(cache.searchKey(first)).isEqualTo(cache.searchKey(second));
+        assertThat(cache.searchKey(first).value()).isEqualTo("HOTEL:-:ISTANBUL:2030-07-01:-:2030-07-04:2-0-0");
+    }
+
+    @Test
+    void separatesSearchesByCheckOutDay() {
+        TravelSearchCache.SearchKey threeNights = cache.searchKey(hotel("Istanbul", CHECK_IN, CHECK_OUT, 2));
+        TravelSearchCache.SearchKey oneNight = cache.searchKey(hotel("Istanbul", CHECK_IN, CHECK_IN.plusDays(1), 2));
+
+        assertThat(threeNights).isNotEqualTo(oneNight);
+    }
+
+    @Test
+    void separatesSearchesByEveryFieldProvidersSearchBy() {
+        TravelBookingRequest base = flight("IST", "AYT", 2);
+        String key = cache.searchKey(base).value();
+
+        TravelBookingRequest otherOrigin = flight("SAW", "AYT", 2);
+        TravelBookingRequest otherDestination = flight("IST", "ADB", 2);
+        TravelBookingRequest otherDay = flight("IST", "AYT", 2);
+        otherDay.setTravelDate(CHECK_IN.plusDays(1));
+        TravelBookingRequest roundTrip = flight("IST", "AYT", 2);
+        roundTrip.setReturnDate(CHECK_OUT);
+        TravelBookingRequest morePassengers = flight("IST", "AYT", 3);
+        TravelBookingRequest otherType = flight("IST", "AYT", 2);
+        otherType.setBookingType(TravelBooking.BookingType.BUS);
+
+        assertThat(List.of(otherOrigin, otherDestination, otherDay, roundTrip, morePassengers, otherType))
+                .extracting(request -> cache.searchKey(request).value())
+                .doesNotContain(key)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void splitsPassengersIntoAdultsChildrenAndInfants() {
+        TravelBookingRequest request = flight("IST", "AYT", 4);
+        request.setPassengerDetails(List.of(
+                TravelBookingRequest.PassengerDetails.builder().isChild(false).isInfant(false).build(),
+                TravelBookingRequest.PassengerDetails.builder().isChild(true).isInfant(false).build(),
+                TravelBookingRequest.PassengerDetails.builder().isChild(false).isInfant(true).build()));
+
+        assertThat(cache.searchKey(request).value()).endsWith(":2-1-1");
+    }
+
+    @Test
+    void readsAllPartnersInOneRoundTripInPartnerOrder() throws Exception {
+        List<TravelPartner> partners = List.of(
+                mock(TravelPartner.class), mock(TravelPartner.class), mock(TravelPartner.class));
+        Instant now = Instant.now();
+        String cached = objectMapper.writeValueAsString(new TravelSearchCache.Entry(List.of(), now, now.plusSeconds(60)));
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(cached, null, "{not json"));
+
+        List<Optional<TravelSearchCache.Entry>> entries =
+                cache.getAll(partners, cache.searchKey(flight("IST", "AYT", 1)));
+
+        assertThat(entries).hasSize(3);
+        assertThat(entries.get(0)).hasValueSatisfying(entry -> assertThat(entry.isFresh(now)).isTrue());
+        assertThat(entries.get(1)).isEmpty();
+        assertThat(entries.get(2)).isEmpty();
+        verify(valueOperations).multiGet(anyList());
+    }
+
+    @Test
+    void treatsAnUnreachableCacheAsEmpty() {
+        List<TravelPartner> partners = List.of(mock(TravelPartner.class), mock(TravelPartner.class));
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(cache.getAll(partners, cache.searchKey(flight("IST", "AYT", 1))))
+                .containsExactly(Optional.empty(), Optional.empty());
+    }
+
+    @Test
+    void skipsRedisWhenDisabled() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+
+        assertThat(cache.getAll(List.of(mock(TravelPartner.class)), cache.searchKey(flight("IST", "AYT", 1))))
+                .containsExactly(Optional.empty());
+        verifyNoInteractions(valueOperations);
+    }
+
+    // Private helper methods
+    private static TravelBookingRequest flight(String origin, String destination, int passengers) {
+        return TravelBookingRequest.builder()
+                .userId(UUID.randomUUID())
+                .bookingType(TravelBooking.BookingType.FLIGHT)
+                .origin(origin)
+                .destination(destination)
+                .travelDate(CHECK_IN)
+                .passengerCount(passengers)
+                .build();
+    }
+
+    private static TravelBookingRequest hotel(String destination, LocalDateTime checkIn, LocalDateTime checkOut,
+                                              int guests) {
+        return TravelBookingRequest.builder()
+                .userId(UUID.randomUUID())
+                .bookingType(TravelBooking.BookingType.HOTEL)
+                .destination(destination)
+                .travelDate(checkIn)
+                .checkOutDate(checkOut)
+                .passengerCount(guests)
+                .build();
+    }
+}